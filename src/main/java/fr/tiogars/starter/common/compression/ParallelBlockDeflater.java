@@ -0,0 +1,193 @@
+package fr.tiogars.starter.common.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Compresses a byte stream into a single raw deflate stream, deflating fixed-size blocks concurrently
+ * the way pigz does.
+ *
+ * Every block but the last ends with a sync flush, which aligns it on a byte boundary without ending the
+ * stream, so the compressed blocks can be written one after the other. Each block is primed with the last
+ * 32 KiB of the previous block, so that back-references cross block boundaries and the ratio stays close to
+ * a single-threaded deflate. The compressed blocks are written in order, as soon as they are ready, by the
+ * thread writing the data; at most {@code maxPendingBlocks} blocks are compressed or waiting to be written.
+ */
+class ParallelBlockDeflater {
+
+    /**
+     * Deflate window: the farthest a back-reference can go
+     */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final ExecutorService executor;
+    private final int level;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final OutputStream out;
+    private final CRC32 crc = new CRC32();
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+
+    private byte[] block;
+    private int blockLength;
+    private byte[] dictionary;
+    private long bytesIn;
+    private long bytesOut;
+    private boolean finished;
+
+    ParallelBlockDeflater(OutputStream out, ExecutorService executor, int level, int blockSize, int maxPendingBlocks) {
+        this.out = out;
+        this.executor = executor;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = Math.max(maxPendingBlocks, 1);
+        this.block = new byte[blockSize];
+    }
+
+    void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int copied = Math.min(len, blockSize - blockLength);
+            System.arraycopy(b, off, block, blockLength, copied);
+            blockLength += copied;
+            off += copied;
+            len -= copied;
+            if (blockLength == blockSize) {
+                submitBlock(false);
+            }
+        }
+    }
+
+    /**
+     * Write the blocks already compressed, without waiting for the others.
+     */
+    void flush() throws IOException {
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            writeNextBlock();
+        }
+    }
+
+    /**
+     * Compress the remaining data as the last block and write every block.
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        submitBlock(true);
+        while (!pending.isEmpty()) {
+            writeNextBlock();
+        }
+    }
+
+    /**
+     * Stop the blocks still being compressed, after a failure.
+     */
+    void abort() {
+        finished = true;
+        pending.forEach(future -> future.cancel(true));
+        pending.clear();
+    }
+
+    /**
+     * @return The CRC-32 of the uncompressed data
+     */
+    long getCrc() {
+        return crc.getValue();
+    }
+
+    long getBytesIn() {
+        return bytesIn;
+    }
+
+    long getBytesOut() {
+        return bytesOut;
+    }
+
+    private void submitBlock(boolean last) throws IOException {
+        byte[] input = blockLength == blockSize ? block : Arrays.copyOf(block, blockLength);
+        crc.update(input, 0, input.length);
+        bytesIn += input.length;
+        byte[] blockDictionary = dictionary;
+        pending.addLast(executor.submit(() -> deflate(input, blockDictionary, last)));
+        dictionary = input.length >= DICTIONARY_SIZE
+                ? Arrays.copyOfRange(input, input.length - DICTIONARY_SIZE, input.length)
+                : concatenateDictionary(dictionary, input);
+        block = new byte[blockSize];
+        blockLength = 0;
+
+        flush();
+        while (pending.size() > maxPendingBlocks) {
+            writeNextBlock();
+        }
+    }
+
+    private void writeNextBlock() throws IOException {
+        Future<byte[]> future = pending.removeFirst();
+        try {
+            byte[] compressed = future.get();
+            out.write(compressed);
+            bytesOut += compressed.length;
+        } catch (InterruptedException e) {
+            abort();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            abort();
+            throw new IOException("Failed to compress a block", e.getCause());
+        }
+    }
+
+    private byte[] deflate(byte[] input, byte[] blockDictionary, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (blockDictionary != null) {
+                deflater.setDictionary(blockDictionary);
+            }
+            deflater.setInput(input);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(input.length / 2 + 64);
+            byte[] buffer = new byte[Math.max(input.length / 4, 8192)];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int length = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, length);
+                }
+            } else {
+                // The output is complete once a sync flush leaves room in the buffer
+                int length;
+                do {
+                    length = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, length);
+                } while (length == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Keep the last {@value #DICTIONARY_SIZE} bytes of the previous dictionary followed by a short block.
+     */
+    private static byte[] concatenateDictionary(byte[] previous, byte[] input) {
+        if (previous == null) {
+            return input.length > 0 ? input : null;
+        }
+        int keep = Math.min(previous.length, DICTIONARY_SIZE - input.length);
+        byte[] concatenated = new byte[keep + input.length];
+        System.arraycopy(previous, previous.length - keep, concatenated, 0, keep);
+        System.arraycopy(input, 0, concatenated, keep, input.length);
+        return concatenated;
+    }
+}
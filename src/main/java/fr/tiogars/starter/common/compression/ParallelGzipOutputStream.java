@@ -0,0 +1,106 @@
+package fr.tiogars.starter.common.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Output stream writing the GZIP format, deflating blocks of the data concurrently on an executor.
+ *
+ * The compressed data is written to the underlying stream as soon as the blocks are ready, and the result
+ * is a single GZIP member readable by any GZIP decoder.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+
+    private static final byte[] HEADER = {
+        0x1f, (byte) 0x8b, // Magic number
+        8, // Deflate
+        0, // Flags
+        0, 0, 0, 0, // Modification time
+        0, // Extra flags
+        (byte) 255 // Unknown operating system
+    };
+
+    private final OutputStream out;
+    private final ParallelBlockDeflater deflater;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * @param out The stream receiving the compressed data
+     * @param executor The executor deflating the blocks
+     * @param level The compression level, from 0 to 9 or -1 for the default level
+     * @param blockSize The size of the uncompressed blocks deflated concurrently
+     * @param maxPendingBlocks The maximum number of blocks being compressed or waiting to be written
+     */
+    public ParallelGzipOutputStream(OutputStream out, ExecutorService executor, int level, int blockSize,
+            int maxPendingBlocks) throws IOException {
+        this.out = out;
+        this.deflater = new ParallelBlockDeflater(out, executor, level, blockSize, maxPendingBlocks);
+        out.write(HEADER);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (finished) {
+            throw new IOException("Write after end of GZIP stream");
+        }
+        deflater.write(b, off, len);
+    }
+
+    /**
+     * Write the blocks already compressed, then flush the underlying stream.
+     * The data still buffered for the current block is not compressed.
+     */
+    @Override
+    public void flush() throws IOException {
+        deflater.flush();
+        out.flush();
+    }
+
+    /**
+     * Write the remaining compressed data and the GZIP trailer without closing the underlying stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        deflater.finish();
+        writeInt(deflater.getCrc());
+        writeInt(deflater.getBytesIn());
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    /**
+     * Write the lowest 32 bits of a value, in little-endian order.
+     */
+    private void writeInt(long value) throws IOException {
+        out.write((int) (value & 0xff));
+        out.write((int) ((value >> 8) & 0xff));
+        out.write((int) ((value >> 16) & 0xff));
+        out.write((int) ((value >> 24) & 0xff));
+    }
+}
@@ -0,0 +1,313 @@
+package fr.tiogars.starter.common.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Output stream writing the ZIP format, deflating blocks of each entry concurrently on an executor.
+ *
+ * {@link java.util.zip.ZipOutputStream} deflates on the calling thread and cannot be given data compressed
+ * elsewhere, so this stream writes the ZIP records itself. The sizes and CRC of an entry are only known once it
+ * is written: they follow the data in a data descriptor, as {@link java.util.zip.ZipOutputStream} does for
+ * deflated entries, and ZIP64 records are used for the entries and archives over 4 GiB.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+public class ParallelZipOutputStream extends OutputStream {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+
+    /**
+     * Data descriptor and UTF-8 entry names
+     */
+    private static final int FLAGS = 0x0808;
+    private static final int DEFLATED = 8;
+    private static final int VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    private static final int ZIP64_EXTRA_TAG = 0x0001;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private final OutputStream out;
+    private final ExecutorService executor;
+    private final int level;
+    private final int blockSize;
+    private final int maxPendingBlocks;
+    private final List<Entry> entries = new ArrayList<>();
+
+    private Entry current;
+    private ParallelBlockDeflater deflater;
+    private long written;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * @param out The stream receiving the archive
+     * @param executor The executor deflating the blocks
+     * @param level The compression level, from 0 to 9 or -1 for the default level
+     * @param blockSize The size of the uncompressed blocks deflated concurrently
+     * @param maxPendingBlocks The maximum number of blocks being compressed or waiting to be written
+     */
+    public ParallelZipOutputStream(OutputStream out, ExecutorService executor, int level, int blockSize,
+            int maxPendingBlocks) {
+        this.out = out;
+        this.executor = executor;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxPendingBlocks = maxPendingBlocks;
+    }
+
+    /**
+     * Start a deflated entry, closing the current one.
+     *
+     * @param name The name of the entry
+     */
+    public void putNextEntry(String name) throws IOException {
+        if (finished) {
+            throw new IOException("ZIP archive already finished");
+        }
+        closeEntry();
+        current = new Entry(name.getBytes(StandardCharsets.UTF_8), dosTime(LocalDateTime.now()), written);
+        writeInt(LOCAL_HEADER_SIGNATURE);
+        writeShort(VERSION);
+        writeShort(FLAGS);
+        writeShort(DEFLATED);
+        writeInt(current.dosTime);
+        writeInt(0); // CRC and sizes follow in the data descriptor
+        writeInt(0);
+        writeInt(0);
+        writeShort(current.name.length);
+        writeShort(0);
+        writeBytes(current.name);
+        deflater = new ParallelBlockDeflater(new CountingOutput(), executor, level, blockSize, maxPendingBlocks);
+    }
+
+    /**
+     * Write the remaining compressed data of the current entry and its data descriptor.
+     */
+    public void closeEntry() throws IOException {
+        if (current == null) {
+            return;
+        }
+        deflater.finish();
+        current.crc = deflater.getCrc();
+        current.size = deflater.getBytesIn();
+        current.compressedSize = deflater.getBytesOut();
+        writeInt(DATA_DESCRIPTOR_SIGNATURE);
+        writeInt(current.crc);
+        if (current.size >= ZIP64_MAGIC || current.compressedSize >= ZIP64_MAGIC) {
+            writeLong(current.compressedSize);
+            writeLong(current.size);
+        } else {
+            writeInt(current.compressedSize);
+            writeInt(current.size);
+        }
+        entries.add(current);
+        current = null;
+        deflater = null;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (current == null) {
+            throw new IOException("No current ZIP entry");
+        }
+        deflater.write(b, off, len);
+    }
+
+    /**
+     * Write the blocks of the current entry already compressed, then flush the underlying stream.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (deflater != null) {
+            deflater.flush();
+        }
+        out.flush();
+    }
+
+    /**
+     * Close the current entry and write the central directory without closing the underlying stream.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        closeEntry();
+        finished = true;
+        long centralOffset = written;
+        for (Entry entry : entries) {
+            writeCentralHeader(entry);
+        }
+        long centralSize = written - centralOffset;
+        if (entries.size() >= ZIP64_MAGIC_COUNT || centralOffset >= ZIP64_MAGIC || centralSize >= ZIP64_MAGIC) {
+            writeZip64End(centralOffset, centralSize);
+        }
+        writeInt(END_SIGNATURE);
+        writeShort(0); // Disk numbers
+        writeShort(0);
+        writeShort(Math.min(entries.size(), ZIP64_MAGIC_COUNT));
+        writeShort(Math.min(entries.size(), ZIP64_MAGIC_COUNT));
+        writeInt(Math.min(centralSize, ZIP64_MAGIC));
+        writeInt(Math.min(centralOffset, ZIP64_MAGIC));
+        writeShort(0); // Comment length
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            finish();
+        } finally {
+            if (deflater != null) {
+                deflater.abort();
+            }
+            out.close();
+        }
+    }
+
+    private void writeCentralHeader(Entry entry) throws IOException {
+        boolean zip64Size = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+        boolean zip64Offset = entry.offset >= ZIP64_MAGIC;
+        int extraLength = (zip64Size ? 16 : 0) + (zip64Offset ? 8 : 0);
+        int version = extraLength > 0 ? ZIP64_VERSION : VERSION;
+
+        writeInt(CENTRAL_HEADER_SIGNATURE);
+        writeShort(version); // Made by
+        writeShort(version); // Needed to extract
+        writeShort(FLAGS);
+        writeShort(DEFLATED);
+        writeInt(entry.dosTime);
+        writeInt(entry.crc);
+        writeInt(zip64Size ? ZIP64_MAGIC : entry.compressedSize);
+        writeInt(zip64Size ? ZIP64_MAGIC : entry.size);
+        writeShort(entry.name.length);
+        writeShort(extraLength > 0 ? extraLength + 4 : 0);
+        writeShort(0); // Comment length
+        writeShort(0); // Disk number
+        writeShort(0); // Internal attributes
+        writeInt(0); // External attributes
+        writeInt(zip64Offset ? ZIP64_MAGIC : entry.offset);
+        writeBytes(entry.name);
+        if (extraLength > 0) {
+            writeShort(ZIP64_EXTRA_TAG);
+            writeShort(extraLength);
+            if (zip64Size) {
+                writeLong(entry.size);
+                writeLong(entry.compressedSize);
+            }
+            if (zip64Offset) {
+                writeLong(entry.offset);
+            }
+        }
+    }
+
+    private void writeZip64End(long centralOffset, long centralSize) throws IOException {
+        long endOffset = written;
+        writeInt(ZIP64_END_SIGNATURE);
+        writeLong(44); // Size of the rest of the record
+        writeShort(ZIP64_VERSION);
+        writeShort(ZIP64_VERSION);
+        writeInt(0); // Disk numbers
+        writeInt(0);
+        writeLong(entries.size());
+        writeLong(entries.size());
+        writeLong(centralSize);
+        writeLong(centralOffset);
+
+        writeInt(ZIP64_LOCATOR_SIGNATURE);
+        writeInt(0); // Disk with the ZIP64 end record
+        writeLong(endOffset);
+        writeInt(1); // Number of disks
+    }
+
+    /**
+     * @return The date and time in the MS-DOS format of the ZIP headers
+     */
+    private static long dosTime(LocalDateTime time) {
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((long) (time.getYear() - 1980) << 25) | (time.getMonthValue() << 21) | (time.getDayOfMonth() << 16)
+                | (time.getHour() << 11) | (time.getMinute() << 5) | (time.getSecond() >> 1);
+    }
+
+    private void writeBytes(byte[] bytes) throws IOException {
+        out.write(bytes);
+        written += bytes.length;
+    }
+
+    private void writeShort(int value) throws IOException {
+        out.write(value & 0xff);
+        out.write((value >> 8) & 0xff);
+        written += 2;
+    }
+
+    private void writeInt(long value) throws IOException {
+        writeShort((int) (value & 0xffff));
+        writeShort((int) ((value >> 16) & 0xffff));
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt(value & ZIP64_MAGIC);
+        writeInt(value >>> 32);
+    }
+
+    /**
+     * Entry written, kept for the central directory
+     */
+    private static final class Entry {
+
+        private final byte[] name;
+        private final long dosTime;
+        private final long offset;
+        private long crc;
+        private long size;
+        private long compressedSize;
+
+        private Entry(byte[] name, long dosTime, long offset) {
+            this.name = name;
+            this.dosTime = dosTime;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * Receives the compressed blocks, keeping the archive offsets up to date
+     */
+    private final class CountingOutput extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            written += len;
+        }
+    }
+}
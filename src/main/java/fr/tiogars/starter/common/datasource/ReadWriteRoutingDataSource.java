@@ -0,0 +1,123 @@
+package fr.tiogars.starter.common.datasource;
+
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+
+/**
+ * Routes read-only transactions to the replica pool and everything else to the primary pool.
+ *
+ * After a write, the reads of the same session go to the primary for a short window, so that
+ * they see their own writes whatever the replication lag. A session is identified by the
+ * authenticated user, else the HTTP session, else the client address of the current request;
+ * work done outside a request is never sticky.
+ *
+ * The lookup happens when a connection is obtained, so the data source must be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the read-only
+ * flag of the transaction to be known at that time.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    static final String PRIMARY = "primary";
+    static final String REPLICA = "replica";
+
+    /**
+     * Sessions that wrote recently, expiring after the sticky window
+     */
+    private final Cache<String, Boolean> recentWriters;
+
+    private final AtomicLong primaryConnections = new AtomicLong();
+    private final AtomicLong replicaConnections = new AtomicLong();
+    private final AtomicLong stickyReads = new AtomicLong();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration stickyWindow) {
+        setTargetDataSources(Map.of(PRIMARY, primary, REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(stickyWindow)
+                .maximumSize(10_000)
+                .build();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String session = currentSession();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (session != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                recentWriters.put(session, Boolean.TRUE);
+            }
+            primaryConnections.incrementAndGet();
+            return PRIMARY;
+        }
+        if (session != null && recentWriters.getIfPresent(session) != null) {
+            stickyReads.incrementAndGet();
+            primaryConnections.incrementAndGet();
+            return PRIMARY;
+        }
+        replicaConnections.incrementAndGet();
+        return REPLICA;
+    }
+
+    /**
+     * Identify the session of the current request, or null outside of a request.
+     */
+    static String currentSession() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return null;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        HttpSession httpSession = request.getSession(false);
+        if (httpSession != null) {
+            return "session:" + httpSession.getId();
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    long primaryConnectionCount() {
+        return primaryConnections.get();
+    }
+
+    long replicaConnectionCount() {
+        return replicaConnections.get();
+    }
+
+    long stickyReadCount() {
+        return stickyReads.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("datasource.routing.connections", primaryConnections, AtomicLong::get)
+                .description("Connections routed to a pool")
+                .tag("pool", PRIMARY)
+                .register(registry);
+        FunctionCounter.builder("datasource.routing.connections", replicaConnections, AtomicLong::get)
+                .description("Connections routed to a pool")
+                .tag("pool", REPLICA)
+                .register(registry);
+        FunctionCounter.builder("datasource.routing.sticky.reads", stickyReads, AtomicLong::get)
+                .description("Read-only connections routed to the primary after a write of the same session")
+                .register(registry);
+    }
+}
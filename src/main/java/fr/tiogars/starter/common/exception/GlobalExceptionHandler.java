@@ -1,8 +1,10 @@
 package fr.tiogars.starter.common.exception;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,6 +23,11 @@ import jakarta.validation.ConstraintViolationException;
 @RestControllerAdvice
 public class GlobalExceptionHandler {
 
+    /**
+     * Unique index on the sample name, see V5__sample_unique_name.sql
+     */
+    static final String SAMPLE_NAME_INDEX = "uk_sample_name";
+
     /**
      * Handles ConstraintViolationException and returns a 400 Bad Request response
      * with detailed validation error messages.
@@ -53,4 +60,49 @@ public class GlobalExceptionHandler {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
+
+    /**
+     * Handles a duplicate sample name rejected by the database and returns a 409 Conflict response.
+     * Other data integrity violations are rethrown and left to the default error handling.
+     *
+     * @param ex the DataIntegrityViolationException thrown
+     * @return ResponseEntity with error details and HTTP 409 status
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    @ApiResponse(responseCode = "409", description = "Sample name already used",
+        content = @Content(mediaType = "application/json",
+        schema = @Schema(implementation = ErrorResponse.class)))
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(
+            DataIntegrityViolationException ex) {
+
+        if (!violatesIndex(ex, SAMPLE_NAME_INDEX)) {
+            throw ex;
+        }
+
+        Map<String, String> errors = new HashMap<>();
+        errors.put("name", "Ce nom est déjà utilisé");
+
+        ErrorResponse response = new ErrorResponse(
+            HttpStatus.CONFLICT.value(),
+            "Conflict",
+            "Un sample avec ce nom existe déjà",
+            errors
+        );
+
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+    }
+
+    /**
+     * Tell whether the exception or one of its causes names the index.
+     * Databases report index names in different cases (H2 upper-cases them).
+     */
+    private static boolean violatesIndex(Throwable ex, String indexName) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            String message = cause.getMessage();
+            if (message != null && message.toLowerCase(Locale.ROOT).contains(indexName)) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
@@ -3,6 +3,7 @@ package fr.tiogars.starter.common.services;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import fr.tiogars.starter.common.services.dto.FindResponse;
 
@@ -21,6 +22,7 @@ public abstract class AbstractFindService<E, I, M> extends AbstractService<E, I,
     /**
      * Returns a FindResponse containing all models, for API-friendly exposure.
      */
+    @Transactional(readOnly = true)
     public FindResponse<M> findAll() {
         List<M> models = repository.findAll().stream()
                 .map(this::toModel)
@@ -29,7 +31,13 @@ public abstract class AbstractFindService<E, I, M> extends AbstractService<E, I,
     }
 
 
-    // Note: findById(I id) is now defined in AbstractService and inherited here
-    // to centralize common lookup logic and allow reuse across different service types.
+    // Note: findById(I id) is defined in AbstractService to centralize common lookup logic and
+    // allow reuse across different service types; it is overridden here to run read-only.
+    @Override
+    @Transactional(readOnly = true)
+    public M findById(I id) {
+        return super.findById(id);
+    }
+
     protected abstract M toModel(E entity);
 }
@@ -1,13 +1,13 @@
 package fr.tiogars.starter.feature.controller;
 
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
@@ -28,17 +28,23 @@ public class FeatureImportController {
     }
 
     @PostMapping(value = "/import", consumes = MediaType.APPLICATION_XML_VALUE)
-    @Operation(summary = "Import features from XML")
-    public ResponseEntity<String> importXml(@RequestBody String xmlContent) throws Exception {
-        int created = featureImportService.importXml(xmlContent);
-        return ResponseEntity.ok("Imported " + created + " features");
+    @Operation(summary = "Import features from XML",
+               description = "A feature whose name is used is skipped, or updated when onConflict is update.")
+    public ResponseEntity<String> importXml(InputStream body,
+            @RequestParam(value = "onConflict", required = false) String onConflict) throws Exception {
+        int imported = featureImportService.importXml(body, onConflict);
+        return ResponseEntity.ok("Imported " + imported + " features");
     }
 
     @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    @Operation(summary = "Import features from uploaded XML file")
-    public ResponseEntity<String> importXmlFile(@RequestPart("file") MultipartFile file) throws Exception {
-        String xmlContent = new String(file.getBytes(), StandardCharsets.UTF_8);
-        int created = featureImportService.importXml(xmlContent);
-        return ResponseEntity.ok("Imported " + created + " features");
+    @Operation(summary = "Import features from uploaded XML file",
+               description = "A feature whose name is used is skipped, or updated when onConflict is update.")
+    public ResponseEntity<String> importXmlFile(@RequestPart("file") MultipartFile file,
+            @RequestParam(value = "onConflict", required = false) String onConflict) throws Exception {
+        int imported;
+        try (InputStream in = file.getInputStream()) {
+            imported = featureImportService.importXml(in, onConflict);
+        }
+        return ResponseEntity.ok("Imported " + imported + " features");
     }
 }
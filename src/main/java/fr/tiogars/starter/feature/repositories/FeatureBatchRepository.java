@@ -0,0 +1,252 @@
+package fr.tiogars.starter.feature.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import fr.tiogars.starter.feature.entities.FeatureEntity;
+import fr.tiogars.starter.tag.entities.TagEntity;
+
+/**
+ * Writes features and the repositories, apps and tags they refer to with batched JDBC statements, for imports.
+ *
+ * Hibernate cannot batch the inserts of entities whose ids are generated by the database, so the rows are
+ * inserted with one batched statement per call. With MySQL, add {@code rewriteBatchedStatements=true} to the
+ * datasource URL so that Connector/J sends a batch as a single multi-row insert. Calls must run inside a
+ * transaction, which they join.
+ *
+ * Upserts rely on the unique index on {@code feature.name} and use {@code INSERT ... ON DUPLICATE KEY UPDATE},
+ * which H2 also accepts in its MySQL mode, used by the tests.
+ */
+@Repository
+public class FeatureBatchRepository {
+
+    /**
+     * Tables holding the named rows a feature refers to
+     */
+    public enum NamedTable {
+        FEATURE("feature"),
+        REPOSITORY("repository"),
+        APP("app"),
+        TAG("sample_tag");
+
+        private final String table;
+
+        NamedTable(String table) {
+            this.table = table;
+        }
+    }
+
+    private static final String INSERT_FEATURE_SQL = "insert into feature (name, description, repository_id, app_id) "
+            + "values (?, ?, ?, ?)";
+
+    private static final String UPSERT_FEATURE_SQL = INSERT_FEATURE_SQL
+            + " on duplicate key update description = values(description), repository_id = values(repository_id),"
+            + " app_id = values(app_id)";
+
+    private static final String INSERT_FEATURE_TAG_SQL = "insert into feature_tag (feature_id, tag_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public FeatureBatchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Find the ids of the rows of a table with the given names, with one query.
+     * The database compares names with its collation, which may ignore case or accents: when it matches stored
+     * names that differ from the requested ones, the names without an exact match are looked up one by one.
+     * @param table The table to search
+     * @param names The names to find
+     * @return The ids of the rows found, by requested name
+     */
+    public Map<String, Long> findIdsByName(NamedTable table, Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+        Map<String, Long> stored = new HashMap<>();
+        jdbcTemplate.query("select id, name from " + table.table + " where name in (" + placeholders(names.size())
+                + ")", rs -> {
+                    stored.put(rs.getString(2), rs.getLong(1));
+                }, names.toArray());
+        List<String> unmatched = new ArrayList<>();
+        for (String name : names) {
+            Long id = stored.remove(name);
+            if (id != null) {
+                ids.put(name, id);
+            } else {
+                unmatched.add(name);
+            }
+        }
+        if (!stored.isEmpty()) {
+            for (String name : unmatched) {
+                List<Long> found = jdbcTemplate.queryForList("select id from " + table.table + " where name = ?",
+                        Long.class, name);
+                if (!found.isEmpty()) {
+                    ids.put(name, found.get(0));
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Insert rows with the given names with one batched statement, leaving their other columns empty.
+     * @param table The table to insert into, other than {@link NamedTable#FEATURE}
+     * @param names The names to insert, none of them used
+     * @return The generated ids, by name
+     */
+    public Map<String, Long> insertNames(NamedTable table, List<String> names) {
+        if (table == NamedTable.FEATURE) {
+            throw new IllegalArgumentException("Features are inserted with insertAll");
+        }
+        Map<String, Long> ids = new HashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+        List<Long> generated = insert("insert into " + table.table + " (name) values (?)", names.size(),
+                (ps, i) -> ps.setString(1, names.get(i)));
+        for (int i = 0; i < names.size(); i++) {
+            ids.put(names.get(i), generated.get(i));
+        }
+        return ids;
+    }
+
+    /**
+     * Insert the features with one batched statement, then the links to their tags with another.
+     * Their repositories, apps and tags must already exist. The generated ids are set on the entities.
+     * @param features The features to insert
+     */
+    public void insertAll(List<FeatureEntity> features) {
+        if (features.isEmpty()) {
+            return;
+        }
+        List<Long> ids = insert(INSERT_FEATURE_SQL, features.size(),
+                (ps, i) -> setFeatureValues(ps, features.get(i)));
+        for (int i = 0; i < features.size(); i++) {
+            features.get(i).setId(ids.get(i));
+        }
+        insertTags(features);
+    }
+
+    /**
+     * Insert the features whose name is not used and update the description, repository and app of the others,
+     * with one batched statement. Their ids are then read with one query, and their tags replaced.
+     * Their repositories, apps and tags must already exist. The ids are set on the entities.
+     * @param features The features to insert or update, with distinct names
+     */
+    public void upsertAll(List<FeatureEntity> features) {
+        if (features.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_FEATURE_SQL, features, features.size(),
+                FeatureBatchRepository::setFeatureValues);
+
+        Map<String, Long> ids = findIdsByName(NamedTable.FEATURE,
+                features.stream().map(FeatureEntity::getName).toList());
+        List<Long> featureIds = new ArrayList<>(features.size());
+        for (FeatureEntity feature : features) {
+            Long id = ids.get(feature.getName());
+            if (id == null) {
+                throw new IllegalStateException("Upserted feature not found: " + feature.getName());
+            }
+            feature.setId(id);
+            featureIds.add(id);
+        }
+        jdbcTemplate.update("delete from feature_tag where feature_id in (" + placeholders(featureIds.size()) + ")",
+                featureIds.toArray());
+        insertTags(features);
+    }
+
+    /**
+     * Run a batched insert and return the generated ids, in the order of the rows.
+     */
+    private List<Long> insert(String sql, int rows, RowSetter setter) {
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(sql, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setter.setValues(ps, i);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows;
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != rows) {
+            throw new IllegalStateException("Expected " + rows + " generated ids but got " + keys.size());
+        }
+        List<Long> ids = new ArrayList<>(rows);
+        for (Map<String, Object> key : keys) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Insert the links of the features to their tags with one batched statement.
+     */
+    private void insertTags(List<FeatureEntity> features) {
+        List<long[]> links = new ArrayList<>();
+        for (FeatureEntity feature : features) {
+            if (feature.getTags() != null) {
+                for (TagEntity tag : feature.getTags()) {
+                    links.add(new long[] { feature.getId(), tag.getId() });
+                }
+            }
+        }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_FEATURE_TAG_SQL, links, links.size(), (ps, link) -> {
+                ps.setLong(1, link[0]);
+                ps.setLong(2, link[1]);
+            });
+        }
+    }
+
+    private static void setFeatureValues(PreparedStatement ps, FeatureEntity feature) throws SQLException {
+        ps.setString(1, feature.getName());
+        ps.setString(2, feature.getDescription());
+        setId(ps, 3, feature.getRepository() != null ? feature.getRepository().getId() : null);
+        setId(ps, 4, feature.getApp() != null ? feature.getApp().getId() : null);
+    }
+
+    private static void setId(PreparedStatement ps, int index, Long id) throws SQLException {
+        if (id != null) {
+            ps.setLong(index, id);
+        } else {
+            ps.setNull(index, Types.BIGINT);
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Sets the parameters of the row at an index of a batch
+     */
+    @FunctionalInterface
+    private interface RowSetter {
+        void setValues(PreparedStatement ps, int i) throws SQLException;
+    }
+}
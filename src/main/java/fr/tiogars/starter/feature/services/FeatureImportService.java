@@ -1,64 +1,442 @@
 package fr.tiogars.starter.feature.services;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
 
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 
-import fr.tiogars.starter.feature.forms.BackupXmlImportForm;
+import fr.tiogars.starter.app.entities.AppEntity;
+import fr.tiogars.starter.feature.entities.FeatureEntity;
 import fr.tiogars.starter.feature.forms.FeatureCreateForm;
-import fr.tiogars.starter.feature.forms.FeatureXmlImportForm;
 import fr.tiogars.starter.feature.forms.FeatureXmlImportForm.FeatureXmlItem;
-import fr.tiogars.starter.feature.models.Feature;
+import fr.tiogars.starter.feature.repositories.FeatureBatchRepository;
+import fr.tiogars.starter.feature.repositories.FeatureBatchRepository.NamedTable;
+import fr.tiogars.starter.repository.entities.RepositoryEntity;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 
+/**
+ * Imports the features of an XML document in a single pass, one {@code <feature>} element at a time, so that
+ * neither the document nor its list of features is held in memory.
+ *
+ * The document is either a backup ({@code <backup><features><feature>...}), whose other sections are skipped,
+ * or a plain list ({@code <features><feature>...}): the layout is told by the elements met under the root.
+ *
+ * Features are written a chunk of {@code feature.import.chunk-size} at a time, each chunk in its own
+ * transaction: the repositories, apps and tags of the chunk are found with one query per table and the missing
+ * ones inserted with one batched statement, then the features are inserted with another. The references
+ * resolved are kept for the rest of the import. A feature whose name is used is skipped, or updated in
+ * {@code update} mode. When a chunk cannot be written, its features are written one by one.
+ */
 @Service
 public class FeatureImportService {
+
+    /**
+     * Skip the features whose name is used
+     */
+    public static final String SKIP = "skip";
+
+    /**
+     * Update the features whose name is used
+     */
+    public static final String UPDATE = "update";
+
+    static final List<String> ON_CONFLICT_MODES = List.of(SKIP, UPDATE);
+
+    /**
+     * Thread-safe once configured, so it is shared by every import
+     */
+    private static final XmlMapper XML_MAPPER = XmlMapper.builder()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    private static final String FEATURES = "features";
+    private static final String FEATURE = "feature";
+
     private final Logger logger = Logger.getLogger(FeatureImportService.class.getName());
-    private final FeatureCreateService featureCreateService;
+    private final FeatureBatchRepository featureBatchRepository;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+
+    public FeatureImportService(FeatureBatchRepository featureBatchRepository, Validator validator,
+            PlatformTransactionManager transactionManager,
+            @Value("${feature.import.chunk-size:500}") int chunkSize) {
+        this.featureBatchRepository = featureBatchRepository;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(chunkSize, 1);
+    }
+
+    /**
+     * Import the features of an XML document, read as a stream. The encoding is the one of the XML declaration.
+     *
+     * @param in The document, left open
+     * @param onConflict What to do with a feature whose name is used: skip or update, null to skip it
+     * @return The number of features created or updated
+     */
+    public int importXml(InputStream in, String onConflict) throws IOException {
+        String mode = resolveOnConflict(onConflict);
+        try {
+            return importXml(XML_MAPPER.getFactory().getXMLInputFactory().createXMLStreamReader(in), mode);
+        } catch (XMLStreamException e) {
+            throw invalidXml(e);
+        }
+    }
+
+    /**
+     * Import the features of an XML document, skipping the ones whose name is used.
+     *
+     * @param xmlContent The document
+     * @return The number of features created
+     */
+    public int importXml(String xmlContent) throws IOException {
+        try {
+            return importXml(XML_MAPPER.getFactory().getXMLInputFactory()
+                    .createXMLStreamReader(new StringReader(xmlContent)), SKIP);
+        } catch (XMLStreamException e) {
+            throw invalidXml(e);
+        }
+    }
+
+    /**
+     * @return The conflict mode, {@code skip} when it is missing
+     * @throws UnsupportedOnConflictException When the mode is not supported
+     */
+    public static String resolveOnConflict(String onConflict) {
+        if (onConflict == null || onConflict.isBlank()) {
+            return SKIP;
+        }
+        String resolved = onConflict.strip().toLowerCase(Locale.ROOT);
+        if (!ON_CONFLICT_MODES.contains(resolved)) {
+            throw new UnsupportedOnConflictException("Unsupported onConflict mode: " + resolved
+                    + ". Supported modes: " + String.join(", ", ON_CONFLICT_MODES));
+        }
+        return resolved;
+    }
 
-    public FeatureImportService(FeatureCreateService featureCreateService) {
-        this.featureCreateService = featureCreateService;
+    private int importXml(XMLStreamReader reader, String onConflict) throws IOException, XMLStreamException {
+        FeatureImport featureImport = new FeatureImport(onConflict);
+        try {
+            if (nextElement(reader)) {
+                // Under the root: the features of a plain list, or the sections of a backup
+                while (nextElement(reader)) {
+                    if (FEATURE.equals(reader.getLocalName())) {
+                        readFeature(reader, featureImport);
+                    } else if (FEATURES.equals(reader.getLocalName())) {
+                        while (nextElement(reader)) {
+                            if (FEATURE.equals(reader.getLocalName())) {
+                                readFeature(reader, featureImport);
+                            } else {
+                                skipElement(reader);
+                            }
+                        }
+                    } else {
+                        skipElement(reader);
+                    }
+                }
+            }
+        } finally {
+            // The features read before an error are kept
+            importChunk(featureImport);
+            reader.close();
+        }
+        logger.info(String.format("Imported features from XML: %d created, %d updated, %d skipped, %d failed",
+                featureImport.created, featureImport.updated, featureImport.skipped, featureImport.failed));
+        return featureImport.created + featureImport.updated;
+    }
+
+    /**
+     * Bind the current {@code <feature>} element and add it to the chunk, written once full.
+     * The reader is left on the end of the element.
+     */
+    private void readFeature(XMLStreamReader reader, FeatureImport featureImport) throws IOException {
+        FeatureXmlItem item = XML_MAPPER.readValue(reader, FeatureXmlItem.class);
+        if (item == null) {
+            return;
+        }
+        FeatureCreateForm form = new FeatureCreateForm();
+        form.setName(item.getName());
+        form.setDescription(item.getDescription());
+        form.setTagNames(item.getTag());
+        form.setRepositoryName(item.getRepository());
+        form.setAppName(item.getApp());
+        featureImport.chunk.add(form);
+        if (featureImport.chunk.size() == chunkSize) {
+            importChunk(featureImport);
+        }
     }
 
-    public int importXml(String xmlContent) throws JsonProcessingException {
-        XmlMapper xmlMapper = new XmlMapper();
-        xmlMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    /**
+     * Write the features of the chunk in one transaction, or one by one when it fails, then clear it.
+     * Invalid features, and features whose name was read earlier, are skipped first.
+     */
+    private void importChunk(FeatureImport featureImport) {
+        List<FeatureCreateForm> forms = new ArrayList<>(featureImport.chunk.size());
+        for (FeatureCreateForm form : featureImport.chunk) {
+            Set<ConstraintViolation<FeatureCreateForm>> violations = new HashSet<>(validator.validateProperty(form, "name"));
+            violations.addAll(validator.validateProperty(form, "description"));
+            if (!violations.isEmpty()) {
+                logger.warning(() -> "Invalid feature '" + form.getName() + "' skipped: "
+                        + violations.iterator().next().getMessage());
+                featureImport.failed++;
+            } else if (!featureImport.names.add(form.getName())) {
+                logger.info(() -> "Feature '" + form.getName() + "' appears more than once in the import, skipped");
+                featureImport.skipped++;
+            } else {
+                forms.add(form);
+            }
+        }
+        featureImport.chunk.clear();
+        if (forms.isEmpty()) {
+            return;
+        }
 
-        List<FeatureXmlItem> items = null;
-        // First, try the backup root (<backup><features>...)
-        BackupXmlImportForm backup = xmlMapper.readValue(xmlContent, BackupXmlImportForm.class);
-        if (backup != null && backup.getFeatures() != null && !backup.getFeatures().isEmpty()) {
-            items = backup.getFeatures();
+        try {
+            featureImport.add(transactionTemplate.execute(status -> writeChunk(forms, featureImport)));
+        } catch (RuntimeException e) {
+            logger.warning("Failed to import a chunk of " + forms.size() + " features, importing them one by one: "
+                    + e.getMessage());
+            for (FeatureCreateForm form : forms) {
+                try {
+                    featureImport.add(transactionTemplate.execute(status -> writeChunk(List.of(form), featureImport)));
+                } catch (RuntimeException singleError) {
+                    logger.severe("Failed to import feature '" + form.getName() + "': " + singleError.getMessage());
+                    featureImport.failed++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write features with distinct names: one query for the names in use, one query and one batched insert per
+     * kind of reference not resolved yet, and one batched insert, or upsert in {@code update} mode.
+     *
+     * @return The outcome of the chunk, whose references are kept once it is committed
+     */
+    private ChunkWrite writeChunk(List<FeatureCreateForm> forms, FeatureImport featureImport) {
+        ChunkWrite write = new ChunkWrite();
+        Set<String> existingNames = featureBatchRepository
+                .findIdsByName(NamedTable.FEATURE, forms.stream().map(FeatureCreateForm::getName).toList())
+                .keySet();
+        List<FeatureCreateForm> written = forms;
+        if (SKIP.equals(featureImport.onConflict)) {
+            written = forms.stream().filter(form -> !existingNames.contains(form.getName())).toList();
+            write.skipped = forms.size() - written.size();
+        }
+
+        resolveReferences(written, featureImport, write);
+        List<FeatureEntity> entities = new ArrayList<>(written.size());
+        for (FeatureCreateForm form : written) {
+            FeatureEntity entity = new FeatureEntity();
+            entity.setName(form.getName());
+            entity.setDescription(form.getDescription());
+            if (form.getRepositoryName() != null) {
+                RepositoryEntity repository = new RepositoryEntity();
+                repository.setId(featureImport.idOf(NamedTable.REPOSITORY, form.getRepositoryName(), write));
+                repository.setName(form.getRepositoryName());
+                entity.setRepository(repository);
+            }
+            if (form.getAppName() != null) {
+                AppEntity app = new AppEntity();
+                app.setId(featureImport.idOf(NamedTable.APP, form.getAppName(), write));
+                app.setName(form.getAppName());
+                entity.setApp(app);
+            }
+            for (String tagName : tagNames(form)) {
+                TagEntity tag = new TagEntity(tagName);
+                tag.setId(featureImport.idOf(NamedTable.TAG, tagName, write));
+                entity.getTags().add(tag);
+            }
+            entities.add(entity);
+        }
+
+        if (UPDATE.equals(featureImport.onConflict)) {
+            featureBatchRepository.upsertAll(entities);
         } else {
-            // Fallback to plain <features> root
-            FeatureXmlImportForm root = xmlMapper.readValue(xmlContent, FeatureXmlImportForm.class);
-            if (root != null) {
-                items = root.getFeatures();
+            featureBatchRepository.insertAll(entities);
+        }
+        for (FeatureEntity entity : entities) {
+            if (existingNames.contains(entity.getName())) {
+                write.updated++;
+            } else {
+                write.created++;
+            }
+        }
+        return write;
+    }
+
+    /**
+     * Find the repositories, apps and tags of the features not resolved yet, and insert the missing ones.
+     */
+    private void resolveReferences(List<FeatureCreateForm> forms, FeatureImport featureImport, ChunkWrite write) {
+        Map<NamedTable, Set<String>> missing = new EnumMap<>(NamedTable.class);
+        for (FeatureCreateForm form : forms) {
+            featureImport.addMissing(missing, NamedTable.REPOSITORY, form.getRepositoryName());
+            featureImport.addMissing(missing, NamedTable.APP, form.getAppName());
+            for (String tagName : tagNames(form)) {
+                featureImport.addMissing(missing, NamedTable.TAG, tagName);
             }
         }
+        for (Map.Entry<NamedTable, Set<String>> entry : missing.entrySet()) {
+            Map<String, Long> ids = featureBatchRepository.findIdsByName(entry.getKey(), entry.getValue());
+            List<String> created = entry.getValue().stream().filter(name -> !ids.containsKey(name)).toList();
+            ids.putAll(featureBatchRepository.insertNames(entry.getKey(), created));
+            write.references.put(entry.getKey(), ids);
+        }
+    }
 
-        if (items == null || items.isEmpty()) {
-            return 0;
+    /**
+     * @return The distinct tag names of the form
+     */
+    private static Set<String> tagNames(FeatureCreateForm form) {
+        Set<String> tagNames = new LinkedHashSet<>();
+        if (form.getTagNames() != null) {
+            for (String tagName : form.getTagNames()) {
+                if (tagName != null) {
+                    tagNames.add(tagName);
+                }
+            }
         }
+        return tagNames;
+    }
 
-        int created = 0;
-        for (FeatureXmlItem item : items) {
-            FeatureCreateForm form = new FeatureCreateForm();
-            form.setName(item.getName());
-            form.setDescription(item.getDescription());
-            form.setTagNames(item.getTag());
-            form.setRepositoryName(item.getRepository());
-            form.setAppName(item.getApp());
-            Feature feature = featureCreateService.create(form);
-            if (feature != null && feature.getId() != null) {
-                created++;
+    /**
+     * Move to the start of the next child element, skipping text and comments.
+     *
+     * @return false when the end of the parent element, or of the document, is reached instead
+     */
+    private static boolean nextElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
             }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Move to the end of the current element, skipping its content.
+     */
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static JsonParseException invalidXml(XMLStreamException e) {
+        return new JsonParseException((JsonParser) null, "Invalid XML document: " + e.getMessage(), e);
+    }
+
+    /**
+     * State of an import: the chunk being read, the names read, the ids of the references resolved by name and
+     * the totals
+     */
+    private static final class FeatureImport {
+
+        private final String onConflict;
+        private final List<FeatureCreateForm> chunk = new ArrayList<>();
+        private final Set<String> names = new HashSet<>();
+        private final Map<NamedTable, Map<String, Long>> references = new EnumMap<>(NamedTable.class);
+        private int created;
+        private int updated;
+        private int skipped;
+        private int failed;
+
+        private FeatureImport(String onConflict) {
+            this.onConflict = onConflict;
+        }
+
+        /**
+         * Add a reference name to the missing ones when it is not resolved yet
+         */
+        private void addMissing(Map<NamedTable, Set<String>> missing, NamedTable table, String name) {
+            if (name != null && !references.getOrDefault(table, Map.of()).containsKey(name)) {
+                missing.computeIfAbsent(table, key -> new LinkedHashSet<>()).add(name);
+            }
+        }
+
+        /**
+         * @return The id of a reference, resolved by the import or by the chunk being written
+         */
+        private Long idOf(NamedTable table, String name, ChunkWrite write) {
+            Long id = references.getOrDefault(table, Map.of()).get(name);
+            if (id == null) {
+                id = write.references.getOrDefault(table, Map.of()).get(name);
+            }
+            if (id == null) {
+                throw new IllegalStateException("Unresolved " + table.name().toLowerCase(Locale.ROOT) + ": " + name);
+            }
+            return id;
+        }
+
+        /**
+         * Count a committed chunk and keep its references: a rolled back chunk would leave ids of rows that do
+         * not exist
+         */
+        private void add(ChunkWrite write) {
+            created += write.created;
+            updated += write.updated;
+            skipped += write.skipped;
+            write.references.forEach((table, ids) -> references.computeIfAbsent(table, key -> new HashMap<>())
+                    .putAll(ids));
+        }
+    }
+
+    /**
+     * Outcome of a chunk written in a transaction
+     */
+    private static final class ChunkWrite {
+
+        private final Map<NamedTable, Map<String, Long>> references = new EnumMap<>(NamedTable.class);
+        private int created;
+        private int updated;
+        private int skipped;
+    }
+
+    /**
+     * Exception thrown when the onConflict mode of an import is not supported.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class UnsupportedOnConflictException extends RuntimeException {
+        public UnsupportedOnConflictException(String message) {
+            super(message);
         }
-        logger.info(String.format("Imported features from XML: %d", created));
-        return created;
     }
 }
@@ -2,6 +2,9 @@ package fr.tiogars.starter.sample.controller;
 
 import java.util.List;
 
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -10,7 +13,12 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import jakarta.validation.Valid;
 
@@ -19,17 +27,25 @@ import fr.tiogars.starter.common.services.dto.FindResponse;
 import fr.tiogars.starter.sample.forms.SampleCreateForm;
 import fr.tiogars.starter.sample.forms.SampleExportForm;
 import fr.tiogars.starter.sample.forms.SampleImportForm;
+import fr.tiogars.starter.sample.forms.SampleGenerateForm;
 import fr.tiogars.starter.sample.forms.SampleInitForm;
 import fr.tiogars.starter.sample.forms.SampleUpdateForm;
 import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.sample.models.SampleExportJob;
+import fr.tiogars.starter.sample.models.SampleGenerateReport;
+import fr.tiogars.starter.sample.models.SampleImportJob;
 import fr.tiogars.starter.sample.models.SampleImportReport;
 import fr.tiogars.starter.sample.models.SampleSearchRequest;
 import fr.tiogars.starter.sample.models.SampleSearchResponse;
 import fr.tiogars.starter.sample.services.SampleCreateService;
 import fr.tiogars.starter.sample.services.SampleCrudService;
 import fr.tiogars.starter.sample.services.SampleFindService;
+import fr.tiogars.starter.sample.services.SampleExportJobService;
 import fr.tiogars.starter.sample.services.SampleExportService;
+import fr.tiogars.starter.sample.services.SampleFileImportService;
+import fr.tiogars.starter.sample.services.SampleImportJobService;
 import fr.tiogars.starter.sample.services.SampleImportService;
+import fr.tiogars.starter.sample.services.SampleGenerateService;
 import fr.tiogars.starter.sample.services.SampleInitService;
 import fr.tiogars.starter.sample.services.SampleSearchService;
 import fr.tiogars.starter.sample.services.SampleUpdateService;
@@ -57,16 +73,26 @@ public class SampleController {
 
     private SampleImportService sampleImportService;
 
+    private SampleFileImportService sampleFileImportService;
+
+    private SampleImportJobService sampleImportJobService;
+
     private SampleExportService sampleExportService;
 
+    private SampleExportJobService sampleExportJobService;
+
     private SampleInitService sampleInitService;
 
+    private SampleGenerateService sampleGenerateService;
+
     private SampleSearchService sampleSearchService;
 
     public SampleController(SampleCreateService sampleCreateService, SampleCrudService sampleCrudService,
             SampleUpdateService sampleUpdateService, SampleImportService sampleImportService,
             SampleExportService sampleExportService, SampleInitService sampleInitService, 
-            SampleSearchService sampleSearchService, SampleFindService sampleFindService) {
+            SampleSearchService sampleSearchService, SampleFindService sampleFindService,
+            SampleExportJobService sampleExportJobService, SampleFileImportService sampleFileImportService,
+            SampleImportJobService sampleImportJobService, SampleGenerateService sampleGenerateService) {
         this.sampleCreateService = sampleCreateService;
         this.sampleCrudService = sampleCrudService;
         this.sampleUpdateService = sampleUpdateService;
@@ -75,6 +101,10 @@ public class SampleController {
         this.sampleInitService = sampleInitService;
         this.sampleSearchService = sampleSearchService;
         this.sampleFindService = sampleFindService;
+        this.sampleExportJobService = sampleExportJobService;
+        this.sampleFileImportService = sampleFileImportService;
+        this.sampleImportJobService = sampleImportJobService;
+        this.sampleGenerateService = sampleGenerateService;
     }
 
     @PostMapping("sample")
@@ -83,6 +113,8 @@ public class SampleController {
         @ApiResponse(responseCode = "200", description = "Sample created successfully",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Sample.class))),
         @ApiResponse(responseCode = "400", description = "Validation failed - Invalid input data",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Sample name already used",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     })
     public Sample createSample(@RequestBody SampleCreateForm form) {
@@ -116,7 +148,9 @@ public class SampleController {
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = Sample.class))),
         @ApiResponse(responseCode = "400", description = "Validation failed - Invalid input data",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
-        @ApiResponse(responseCode = "404", description = "Sample not found")
+        @ApiResponse(responseCode = "404", description = "Sample not found"),
+        @ApiResponse(responseCode = "409", description = "Sample name already used",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     })
     public Sample updateSample(@PathVariable Long id, @RequestBody SampleUpdateForm form) {
         form.setId(id);
@@ -124,17 +158,150 @@ public class SampleController {
     }
 
     @PostMapping("sample/import")
-    @Operation(summary = "Import multiple samples", description = "Imports multiple samples in bulk, checking for duplicates by name")
+    @Operation(summary = "Import multiple samples", description = "Imports multiple samples in bulk. A sample whose name is used is skipped, updated or fails the import, according to onConflict.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Import completed with detailed report",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleImportReport.class))),
         @ApiResponse(responseCode = "400", description = "Invalid input data",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "A name is used and onConflict is fail",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
     })
     public SampleImportReport importSamples(@RequestBody SampleImportForm form) {
         return this.sampleImportService.importSamples(form);
     }
 
+    @PostMapping("sample/import/stream")
+    @Operation(summary = "Import multiple samples, streaming the report",
+               description = "Imports multiple samples in bulk, writing the items of the report mode as newline-delimited JSON while the import runs. The last line is the report with its totals.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import started. One line per reported sample, then the report.",
+            content = @Content(mediaType = "application/x-ndjson", schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400", description = "Unsupported onConflict or reportMode",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> streamImportSamples(@RequestBody SampleImportForm form) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this.sampleImportService.streamSamples(form));
+    }
+
+    @PostMapping(value = "sample/import/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import samples from a file",
+               description = "Imports the samples of a CSV, XLSX, JSON or NDJSON file with the layout of the exports, optionally gzip compressed, reading it a row at a time. The format defaults to the extension of the file name.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import completed with detailed report",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleImportReport.class))),
+        @ApiResponse(responseCode = "400", description = "Unsupported format, onConflict or reportMode, or invalid file",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "A name is used and onConflict is fail",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public SampleImportReport importSampleFile(@RequestPart("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "onConflict", required = false) String onConflict,
+            @RequestParam(value = "reportMode", required = false) String reportMode) {
+        return this.sampleFileImportService.importFile(file, format, onConflict, reportMode);
+    }
+
+    @PostMapping(value = "sample/import/file/stream", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Import samples from a file, streaming the report",
+               description = "Imports the samples of a CSV, XLSX, JSON or NDJSON file, writing the items of the report mode as newline-delimited JSON while the import runs. The last line is the report with its totals.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import started. One line per reported sample, then the report.",
+            content = @Content(mediaType = "application/x-ndjson", schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "400", description = "Unsupported format, onConflict or reportMode",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> streamImportSampleFile(@RequestPart("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "onConflict", required = false) String onConflict,
+            @RequestParam(value = "reportMode", required = false) String reportMode) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this.sampleFileImportService.streamFile(file, format, onConflict, reportMode));
+    }
+
+    @PostMapping(value = "sample/import/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "Start an import job",
+               description = "Store a CSV, XLSX, JSON or NDJSON file and import it in the background, saving a checkpoint after every chunk of rows. Follow the job with its events, and resume it from its checkpoint when it fails or is interrupted.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import job queued",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleImportJob.class))),
+        @ApiResponse(responseCode = "400", description = "Unsupported format or onConflict mode",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "503", description = "Too many import jobs are queued")
+    })
+    public ResponseEntity<SampleImportJob> submitImportJob(@RequestPart("file") MultipartFile file,
+            @RequestParam(value = "format", required = false) String format,
+            @RequestParam(value = "onConflict", required = false) String onConflict) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(this.sampleImportJobService.submit(file, format, onConflict));
+    }
+
+    @GetMapping("sample/import/jobs/{id}")
+    @Operation(summary = "Get an import job", description = "Get the status, checkpoint, totals and throughput of an import job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import job found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleImportJob.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown import job")
+    })
+    public ResponseEntity<SampleImportJob> getImportJob(@PathVariable String id) {
+        SampleImportJob job = this.sampleImportJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping(value = "sample/import/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Follow an import job",
+               description = "Server-sent events with the import job: one now, a \"progress\" event after every committed chunk, and a last event named after the final status (completed, failed or interrupted)")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream of the import job"),
+        @ApiResponse(responseCode = "404", description = "Unknown import job")
+    })
+    public ResponseEntity<SseEmitter> followImportJob(@PathVariable String id) {
+        SseEmitter emitter = this.sampleImportJobService.subscribe(id);
+        if (emitter == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
+    @PostMapping("sample/import/jobs/{id}/resume")
+    @Operation(summary = "Resume an import job", description = "Queue a failed or interrupted import job again, to import the rows after its checkpoint")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Import job queued",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleImportJob.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown import job"),
+        @ApiResponse(responseCode = "409", description = "Import job not failed nor interrupted, or its file is gone"),
+        @ApiResponse(responseCode = "503", description = "Too many import jobs are queued")
+    })
+    public ResponseEntity<SampleImportJob> resumeImportJob(@PathVariable String id) {
+        SampleImportJob job = this.sampleImportJobService.resume(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job);
+    }
+
+    @DeleteMapping("sample/import/jobs/{id}")
+    @Operation(summary = "Delete an import job", description = "Delete an import job that is not queued nor running, and its stored file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import job deleted",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleImportJob.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown import job"),
+        @ApiResponse(responseCode = "409", description = "Import job queued or running")
+    })
+    public ResponseEntity<SampleImportJob> deleteImportJob(@PathVariable String id) {
+        SampleImportJob job = this.sampleImportJobService.delete(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
     @PostMapping("sample/init")
     @Operation(summary = "Initialize samples with mock data", description = "Creates a specified number of samples with randomly generated mock data for testing and development purposes")
     @ApiResponses(value = {
@@ -147,6 +314,23 @@ public class SampleController {
         return this.sampleInitService.initSamples(form);
     }
 
+    @PostMapping("sample/generate")
+    @Operation(summary = "Generate a large synthetic dataset of samples",
+               description = "Generates up to 100 million samples with batched inserts from several workers, for capacity testing. The same seed and settings generate the same samples. Writes the progress as newline-delimited JSON about every second; the last line is the outcome, with the seed used.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Generation started. One progress line per second, then the outcome.",
+            content = @Content(mediaType = "application/x-ndjson", schema = @Schema(implementation = SampleGenerateReport.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid input data",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "409", description = "Samples were already generated with the same prefix and seed",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> generateSamples(@Valid @RequestBody SampleGenerateForm form) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(this.sampleGenerateService.streamGenerate(form));
+    }
+
     @PostMapping("sample/search")
     @Operation(summary = "Search samples with pagination and filtering", 
                description = "Search samples with support for pagination, sorting, and filtering on all Sample fields. Compatible with MUI X DataGrid v7.")
@@ -165,10 +349,11 @@ public class SampleController {
         "text/csv",
         "application/xml",
         "application/json",
+        "application/x-ndjson",
         "application/zip"
     })
     @Operation(summary = "Export samples to file", 
-               description = "Export samples in various formats (XLSX, CSV, XML, JSON) with optional ZIP compression. Filename is prefixed with datetime. Returns a file attachment for download.")
+               description = "Export samples in various formats (XLSX, CSV, XML, JSON, NDJSON) with optional ZIP or gzip compression. Filename is prefixed with datetime. Returns a file attachment for download.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Export completed successfully. Returns binary file content with appropriate Content-Type and Content-Disposition headers.",
             content = {
@@ -180,6 +365,8 @@ public class SampleController {
                          schema = @Schema(type = "string", format = "binary", description = "XML file")),
                 @Content(mediaType = "application/json", 
                          schema = @Schema(type = "string", format = "binary", description = "JSON file")),
+                @Content(mediaType = "application/x-ndjson", 
+                         schema = @Schema(type = "string", format = "binary", description = "Newline-delimited JSON file, one sample per line")),
                 @Content(mediaType = "application/zip", 
                          schema = @Schema(type = "string", format = "binary", description = "ZIP compressed file"))
             }),
@@ -189,4 +376,93 @@ public class SampleController {
     public ResponseEntity<byte[]> exportSamples(@Valid @RequestBody SampleExportForm form) {
         return this.sampleExportService.exportSamples(form);
     }
+
+    @PostMapping(value = "sample/export/stream", produces = {
+        "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+        "text/csv",
+        "application/xml",
+        "application/json",
+        "application/x-ndjson",
+        "application/zip"
+    })
+    @Operation(summary = "Stream samples to a file", 
+               description = "Export all the samples matching the search request, without row limit, writing each row to the response as it is read from the database. Supports every export format with optional ZIP or gzip compression.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export started. The file is streamed with appropriate Content-Type and Content-Disposition headers.",
+            content = {
+                @Content(mediaType = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", 
+                         schema = @Schema(type = "string", format = "binary", description = "Excel file")),
+                @Content(mediaType = "text/csv", 
+                         schema = @Schema(type = "string", format = "binary", description = "CSV file")),
+                @Content(mediaType = "application/xml", 
+                         schema = @Schema(type = "string", format = "binary", description = "XML file")),
+                @Content(mediaType = "application/json", 
+                         schema = @Schema(type = "string", format = "binary", description = "JSON file")),
+                @Content(mediaType = "application/x-ndjson", 
+                         schema = @Schema(type = "string", format = "binary", description = "Newline-delimited JSON file, one sample per line")),
+                @Content(mediaType = "application/zip", 
+                         schema = @Schema(type = "string", format = "binary", description = "ZIP compressed file"))
+            }),
+        @ApiResponse(responseCode = "400", description = "Invalid export parameters",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<StreamingResponseBody> streamSamples(@Valid @RequestBody SampleExportForm form) {
+        return this.sampleExportService.streamSamples(form);
+    }
+
+    @PostMapping("sample/export/jobs")
+    @Operation(summary = "Start an export job",
+               description = "Queue an export of the samples matching the search request, without row limit. Poll the job status, then download the file once the job is completed. Supports every export format with optional ZIP or gzip compression.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "202", description = "Export job queued",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleExportJob.class))),
+        @ApiResponse(responseCode = "400", description = "Invalid export parameters",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "503", description = "Too many export jobs are queued")
+    })
+    public ResponseEntity<SampleExportJob> submitExportJob(@Valid @RequestBody SampleExportForm form) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(this.sampleExportJobService.submit(form));
+    }
+
+    @GetMapping("sample/export/jobs/{id}")
+    @Operation(summary = "Get an export job", description = "Get the status, progress and estimated remaining time of an export job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export job found",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleExportJob.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired export job")
+    })
+    public ResponseEntity<SampleExportJob> getExportJob(@PathVariable String id) {
+        SampleExportJob job = this.sampleExportJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @DeleteMapping("sample/export/jobs/{id}")
+    @Operation(summary = "Cancel an export job", description = "Cancel a queued or running export job, or delete a finished export job and its file")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Export job cancelled or deleted",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = SampleExportJob.class))),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired export job")
+    })
+    public ResponseEntity<SampleExportJob> cancelExportJob(@PathVariable String id) {
+        SampleExportJob job = this.sampleExportJobService.cancel(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    @GetMapping("sample/export/jobs/{id}/file")
+    @Operation(summary = "Download the file of an export job", description = "Download the file of a completed export job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "File of the export job",
+            content = @Content(schema = @Schema(type = "string", format = "binary"))),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired export job"),
+        @ApiResponse(responseCode = "409", description = "Export job not completed")
+    })
+    public ResponseEntity<Resource> downloadExportJob(@PathVariable String id) {
+        return this.sampleExportJobService.download(id);
+    }
 }
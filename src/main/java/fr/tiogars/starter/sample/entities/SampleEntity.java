@@ -4,6 +4,8 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.hibernate.annotations.BatchSize;
+
 import fr.tiogars.architecture.create.entities.AbstractEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -38,6 +40,11 @@ import jakarta.persistence.Table;
 @Table(name = "sample")
 public class SampleEntity extends AbstractEntity {
 
+    /**
+     * Number of samples whose tags are loaded by a single query; matches the largest MUI DataGrid page size
+     */
+    public static final int TAG_BATCH_SIZE = 100;
+
     /**
      * Primary key
      */
@@ -48,7 +55,7 @@ public class SampleEntity extends AbstractEntity {
     /**
      * Name of the sample
      */
-    @Column(nullable = false, length = 255)
+    @Column(nullable = false, length = 255, unique = true)
     private String name;
 
     /**
@@ -88,9 +95,12 @@ public class SampleEntity extends AbstractEntity {
     private String updatedBy;
 
     /**
-     * Tags associated with this sample
+     * Tags associated with this sample.
+     * Loaded in batches so that reading a page of samples costs one tag query per
+     * {@value #TAG_BATCH_SIZE} samples instead of one per sample.
      */
     @ManyToMany(fetch = FetchType.EAGER, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    @BatchSize(size = TAG_BATCH_SIZE)
     @JoinTable(name = "sample_sample_tag", joinColumns = @JoinColumn(name = "sample_id"), inverseJoinColumns = @JoinColumn(name = "tag_id"))
     private Set<fr.tiogars.starter.tag.entities.TagEntity> tags = new HashSet<>();
 
@@ -0,0 +1,214 @@
+package fr.tiogars.starter.sample.entities;
+
+import java.util.Date;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * Asynchronous sample import job, with the checkpoint it resumes from.
+ *
+ * The checkpoint is the number of rows of the file already imported and the report totals of those rows.
+ * It is saved once each chunk of rows is committed.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "sample_import_job")
+public class SampleImportJobEntity {
+
+    /**
+     * Job identifier, also the name of the stored file
+     */
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    /**
+     * Job status: "queued", "running", "completed", "failed" or "interrupted"
+     */
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    /**
+     * Format of the file: csv, xlsx, json or ndjson
+     */
+    @Column(nullable = false, length = 16)
+    private String format;
+
+    /**
+     * What the import does with a sample whose name is used: "skip", "update" or "fail"
+     */
+    @Column(nullable = false, length = 16)
+    private String onConflict = "skip";
+
+    /**
+     * Name of the uploaded file
+     */
+    @Column(length = 255)
+    private String filename;
+
+    /**
+     * Number of rows of the file already imported, skipped when the job resumes
+     */
+    @Column(nullable = false)
+    private long rowsCommitted;
+
+    @Column(nullable = false)
+    private int totalCreated;
+
+    @Column(nullable = false)
+    private int totalUpdated;
+
+    @Column(nullable = false)
+    private int totalDuplicates;
+
+    @Column(nullable = false)
+    private int totalErrors;
+
+    @Column(nullable = false)
+    private int totalSkipped;
+
+    /**
+     * Error message when the job failed
+     */
+    @Column(length = 1024)
+    private String error;
+
+    @Column(nullable = false)
+    private Date submittedAt;
+
+    /**
+     * Start of the last run
+     */
+    private Date startedAt;
+
+    private Date completedAt;
+
+    public SampleImportJobEntity() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getOnConflict() {
+        return onConflict;
+    }
+
+    public void setOnConflict(String onConflict) {
+        this.onConflict = onConflict;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public long getRowsCommitted() {
+        return rowsCommitted;
+    }
+
+    public void setRowsCommitted(long rowsCommitted) {
+        this.rowsCommitted = rowsCommitted;
+    }
+
+    public int getTotalCreated() {
+        return totalCreated;
+    }
+
+    public void setTotalCreated(int totalCreated) {
+        this.totalCreated = totalCreated;
+    }
+
+    public int getTotalUpdated() {
+        return totalUpdated;
+    }
+
+    public void setTotalUpdated(int totalUpdated) {
+        this.totalUpdated = totalUpdated;
+    }
+
+    public int getTotalDuplicates() {
+        return totalDuplicates;
+    }
+
+    public void setTotalDuplicates(int totalDuplicates) {
+        this.totalDuplicates = totalDuplicates;
+    }
+
+    public int getTotalErrors() {
+        return totalErrors;
+    }
+
+    public void setTotalErrors(int totalErrors) {
+        this.totalErrors = totalErrors;
+    }
+
+    public int getTotalSkipped() {
+        return totalSkipped;
+    }
+
+    public void setTotalSkipped(int totalSkipped) {
+        this.totalSkipped = totalSkipped;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Date getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Date submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Date startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -0,0 +1,25 @@
+package fr.tiogars.starter.sample.events;
+
+/**
+ * Application event published when samples have been written.
+ * Listeners use it to drop data derived from the sample table, such as cached counts.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+public class SampleChangedEvent {
+
+    /**
+     * Write operation that changed the samples: "created", "updated", "deleted" or "imported"
+     */
+    private final String operation;
+
+    public SampleChangedEvent(String operation) {
+        this.operation = operation;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+}
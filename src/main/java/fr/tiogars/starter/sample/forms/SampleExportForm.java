@@ -1,7 +1,10 @@
 package fr.tiogars.starter.sample.forms;
 
+import java.util.List;
+
 import fr.tiogars.starter.sample.models.SampleSearchRequest;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 
@@ -16,17 +19,42 @@ import jakarta.validation.constraints.Pattern;
 public class SampleExportForm {
     
     /**
-     * Export format: xlsx, csv, xml, or json
+     * Export format: xlsx, csv, xml, json, or ndjson
      */
     @NotBlank(message = "Format cannot be blank")
-    @Pattern(regexp = "^(xlsx|csv|xml|json)$", message = "Format must be one of: xlsx, csv, xml, json")
+    @Pattern(regexp = "^(xlsx|csv|xml|json|ndjson)$", message = "Format must be one of: xlsx, csv, xml, json, ndjson")
     private String format;
     
     /**
      * Whether to compress the exported file as ZIP
      */
     private boolean zip;
+
+    /**
+     * Whether to send the exported file with the gzip content encoding, ignored when zip is set
+     */
+    private boolean gzip;
+
+    /**
+     * Whether to indent JSON and XML documents; disable it for smaller files
+     */
+    private boolean indent = true;
     
+    /**
+     * Sample fields to export, in this order. When empty, CSV and XLSX files get every field but tags,
+     * and documents every field. Only the selected columns are read from the database.
+     */
+    private List<@Pattern(regexp = "^(id|name|description|active|createdAt|createdBy|updatedAt|updatedBy|tags)$",
+            message = "Columns must be among: id, name, description, active, createdAt, createdBy, updatedAt, updatedBy, tags")
+            String> columns;
+
+    /**
+     * Number of id ranges read in parallel by streamed exports of csv and ndjson files sorted by id,
+     * capped by the server; with zip, each range is a file of its own
+     */
+    @Min(value = 1, message = "Partitions must be at least 1")
+    private Integer partitions;
+
     /**
      * Optional search criteria to filter samples for export
      */
@@ -52,6 +80,38 @@ public class SampleExportForm {
         this.zip = zip;
     }
 
+    public boolean isGzip() {
+        return gzip;
+    }
+
+    public void setGzip(boolean gzip) {
+        this.gzip = gzip;
+    }
+
+    public boolean isIndent() {
+        return indent;
+    }
+
+    public void setIndent(boolean indent) {
+        this.indent = indent;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public void setColumns(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public Integer getPartitions() {
+        return partitions;
+    }
+
+    public void setPartitions(Integer partitions) {
+        this.partitions = partitions;
+    }
+
     public SampleSearchRequest getSearchRequest() {
         return searchRequest;
     }
@@ -0,0 +1,157 @@
+package fr.tiogars.starter.sample.forms;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+/**
+ * Form for generating a large synthetic dataset of samples.
+ * The same seed and settings generate the same samples.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+public class SampleGenerateForm {
+
+    /**
+     * Number of samples to generate
+     */
+    @NotNull(message = "Number of samples cannot be null")
+    @Min(value = 1, message = "Number of samples must be at least 1")
+    @Max(value = 100_000_000, message = "Number of samples cannot exceed 100000000")
+    private Long numberOfSamples;
+
+    /**
+     * Seed of the generated values, random when missing. The report tells the seed used.
+     */
+    private Long seed;
+
+    /**
+     * Prefix of the generated names, followed by the seed and the index of the sample
+     */
+    @NotBlank(message = "Name prefix cannot be blank")
+    @Size(max = 50, message = "Name prefix cannot exceed 50 characters")
+    private String namePrefix = "gen";
+
+    /**
+     * Number of distinct tags the samples are tagged with, the first ones being the most used
+     */
+    @Min(value = 0, message = "Tag count cannot be negative")
+    @Max(value = 10_000, message = "Tag count cannot exceed 10000")
+    private int tagCount = 50;
+
+    /**
+     * Maximum number of tags of a sample
+     */
+    @Min(value = 0, message = "Maximum tags per sample cannot be negative")
+    @Max(value = 10, message = "Maximum tags per sample cannot exceed 10")
+    private int maxTagsPerSample = 3;
+
+    /**
+     * Share of the samples that are active
+     */
+    @DecimalMin(value = "0.0", message = "Active ratio must be between 0 and 1")
+    @DecimalMax(value = "1.0", message = "Active ratio must be between 0 and 1")
+    private double activeRatio = 0.8;
+
+    /**
+     * Number of distinct users the samples are created by, the first ones being the most active
+     */
+    @Min(value = 1, message = "User count must be at least 1")
+    @Max(value = 10_000, message = "User count cannot exceed 10000")
+    private int userCount = 20;
+
+    /**
+     * Number of days before the generation the creation dates are spread over, recent days being the most used
+     */
+    @Min(value = 1, message = "Days must be at least 1")
+    @Max(value = 36_500, message = "Days cannot exceed 36500")
+    private int days = 365;
+
+    /**
+     * Number of workers inserting the samples concurrently, each with its own connection
+     */
+    @Min(value = 1, message = "Workers must be at least 1")
+    @Max(value = 32, message = "Workers cannot exceed 32")
+    private int workers = 4;
+
+    public SampleGenerateForm() {
+    }
+
+    public Long getNumberOfSamples() {
+        return numberOfSamples;
+    }
+
+    public void setNumberOfSamples(Long numberOfSamples) {
+        this.numberOfSamples = numberOfSamples;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(Long seed) {
+        this.seed = seed;
+    }
+
+    public String getNamePrefix() {
+        return namePrefix;
+    }
+
+    public void setNamePrefix(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    public void setTagCount(int tagCount) {
+        this.tagCount = tagCount;
+    }
+
+    public int getMaxTagsPerSample() {
+        return maxTagsPerSample;
+    }
+
+    public void setMaxTagsPerSample(int maxTagsPerSample) {
+        this.maxTagsPerSample = maxTagsPerSample;
+    }
+
+    public double getActiveRatio() {
+        return activeRatio;
+    }
+
+    public void setActiveRatio(double activeRatio) {
+        this.activeRatio = activeRatio;
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public void setUserCount(int userCount) {
+        this.userCount = userCount;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+}
@@ -22,6 +22,16 @@ public class SampleImportForm {
     @Valid
     private List<SampleCreateForm> samples;
 
+    /**
+     * What to do with a sample whose name is already used: "skip" (the default), "update" or "fail"
+     */
+    private String onConflict;
+
+    /**
+     * Which samples the report lists: "full" (the default), "errorsOnly" or "summary" for the totals only
+     */
+    private String reportMode;
+
     public SampleImportForm() {
     }
 
@@ -32,4 +42,20 @@ public class SampleImportForm {
     public void setSamples(List<SampleCreateForm> samples) {
         this.samples = samples;
     }
+
+    public String getOnConflict() {
+        return onConflict;
+    }
+
+    public void setOnConflict(String onConflict) {
+        this.onConflict = onConflict;
+    }
+
+    public String getReportMode() {
+        return reportMode;
+    }
+
+    public void setReportMode(String reportMode) {
+        this.reportMode = reportMode;
+    }
 }
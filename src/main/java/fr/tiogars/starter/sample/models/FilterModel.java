@@ -10,6 +10,16 @@ public class FilterModel {
     private List<FilterItem> items;
     private String logicOperator = "and";
 
+    /**
+     * Values typed in the DataGrid quick filter, matched with full-text search on name and description
+     */
+    private List<Object> quickFilterValues;
+
+    /**
+     * "and" or "or" to require all or any of the quick filter values
+     */
+    private String quickFilterLogicOperator = "and";
+
     public FilterModel() {
     }
 
@@ -28,4 +38,20 @@ public class FilterModel {
     public void setLogicOperator(String logicOperator) {
         this.logicOperator = logicOperator;
     }
+
+    public List<Object> getQuickFilterValues() {
+        return quickFilterValues;
+    }
+
+    public void setQuickFilterValues(List<Object> quickFilterValues) {
+        this.quickFilterValues = quickFilterValues;
+    }
+
+    public String getQuickFilterLogicOperator() {
+        return quickFilterLogicOperator;
+    }
+
+    public void setQuickFilterLogicOperator(String quickFilterLogicOperator) {
+        this.quickFilterLogicOperator = quickFilterLogicOperator;
+    }
 }
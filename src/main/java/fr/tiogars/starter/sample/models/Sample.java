@@ -78,6 +78,22 @@ public class Sample {
     public Sample() {
     }
 
+    /**
+     * Constructor used by read-only queries projecting sample columns directly into the model.
+     * Tags are left empty and filled separately.
+     */
+    public Sample(Long id, String name, String description, boolean active, Date createdAt, String createdBy,
+            Date updatedAt, String updatedBy) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.active = active;
+        this.createdAt = createdAt;
+        this.createdBy = createdBy;
+        this.updatedAt = updatedAt;
+        this.updatedBy = updatedBy;
+    }
+
     public Long getId() {
         return id;
     }
@@ -0,0 +1,174 @@
+package fr.tiogars.starter.sample.models;
+
+import java.util.Date;
+
+/**
+ * Status of an asynchronous sample export job.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+public class SampleExportJob {
+
+    /**
+     * Job identifier, used to poll, cancel and download the export
+     */
+    private String id;
+
+    /**
+     * Job status: "queued", "running", "completed", "failed" or "cancelled"
+     */
+    private String status;
+
+    /**
+     * Export format: xlsx, csv, xml, json, or ndjson
+     */
+    private String format;
+
+    /**
+     * Name of the file to download
+     */
+    private String filename;
+
+    /**
+     * Number of samples to export, known once the job is running
+     */
+    private Long totalRows;
+
+    /**
+     * Number of samples written so far
+     */
+    private long rowsWritten;
+
+    /**
+     * Number of bytes written to the file so far
+     */
+    private long bytesWritten;
+
+    /**
+     * Estimated number of seconds before completion, null when unknown
+     */
+    private Long etaSeconds;
+
+    /**
+     * Error message when the job failed
+     */
+    private String error;
+
+    private Date submittedAt;
+    private Date startedAt;
+    private Date completedAt;
+
+    /**
+     * Date after which the finished job and its file are deleted
+     */
+    private Date expiresAt;
+
+    public SampleExportJob() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public Long getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(Long totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    public void setRowsWritten(long rowsWritten) {
+        this.rowsWritten = rowsWritten;
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public void setBytesWritten(long bytesWritten) {
+        this.bytesWritten = bytesWritten;
+    }
+
+    public Long getEtaSeconds() {
+        return etaSeconds;
+    }
+
+    public void setEtaSeconds(Long etaSeconds) {
+        this.etaSeconds = etaSeconds;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public Date getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Date submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Date startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,131 @@
+package fr.tiogars.starter.sample.models;
+
+/**
+ * Progress, then outcome, of the generation of a synthetic dataset of samples.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+public class SampleGenerateReport {
+
+    /**
+     * Generation status: "running", "completed" or "failed"
+     */
+    private String status;
+
+    /**
+     * Seed of the generated values, to generate the same samples again
+     */
+    private long seed;
+
+    /**
+     * Number of samples requested
+     */
+    private long requested;
+
+    /**
+     * Number of samples generated and committed so far
+     */
+    private long generated;
+
+    /**
+     * Number of tags the samples are tagged with
+     */
+    private int tags;
+
+    /**
+     * Number of workers inserting the samples
+     */
+    private int workers;
+
+    /**
+     * Time spent since the generation started, in milliseconds
+     */
+    private long elapsedMillis;
+
+    /**
+     * Samples committed per second since the generation started
+     */
+    private double rowsPerSecond;
+
+    /**
+     * Error message when the generation failed
+     */
+    private String message;
+
+    public SampleGenerateReport() {
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public long getRequested() {
+        return requested;
+    }
+
+    public void setRequested(long requested) {
+        this.requested = requested;
+    }
+
+    public long getGenerated() {
+        return generated;
+    }
+
+    public void setGenerated(long generated) {
+        this.generated = generated;
+    }
+
+    public int getTags() {
+        return tags;
+    }
+
+    public void setTags(int tags) {
+        this.tags = tags;
+    }
+
+    public int getWorkers() {
+        return workers;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = workers;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
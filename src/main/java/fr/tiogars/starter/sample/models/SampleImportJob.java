@@ -0,0 +1,179 @@
+package fr.tiogars.starter.sample.models;
+
+import java.util.Date;
+
+/**
+ * Status of an asynchronous sample import job.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+public class SampleImportJob {
+
+    /**
+     * Job identifier, used to follow and resume the import
+     */
+    private String id;
+
+    /**
+     * Job status: "queued", "running", "completed", "failed" or "interrupted"
+     */
+    private String status;
+
+    /**
+     * Format of the file: csv, xlsx, json or ndjson
+     */
+    private String format;
+
+    /**
+     * What the import does with a sample whose name is used: "skip", "update" or "fail"
+     */
+    private String onConflict;
+
+    /**
+     * Name of the uploaded file
+     */
+    private String filename;
+
+    /**
+     * Number of rows of the file imported and committed, where a resumed job starts from
+     */
+    private long rowsCommitted;
+
+    /**
+     * Rows imported per second by the current run, null when the job is not running
+     */
+    private Double rowsPerSecond;
+
+    /**
+     * Totals of the rows committed so far, without items
+     */
+    private SampleImportReport report;
+
+    /**
+     * Error message when the job failed
+     */
+    private String error;
+
+    /**
+     * Whether the job can be resumed from its checkpoint
+     */
+    private boolean resumable;
+
+    private Date submittedAt;
+
+    /**
+     * Start of the last run
+     */
+    private Date startedAt;
+
+    private Date completedAt;
+
+    public SampleImportJob() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public void setFormat(String format) {
+        this.format = format;
+    }
+
+    public String getOnConflict() {
+        return onConflict;
+    }
+
+    public void setOnConflict(String onConflict) {
+        this.onConflict = onConflict;
+    }
+
+    public String getFilename() {
+        return filename;
+    }
+
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+
+    public long getRowsCommitted() {
+        return rowsCommitted;
+    }
+
+    public void setRowsCommitted(long rowsCommitted) {
+        this.rowsCommitted = rowsCommitted;
+    }
+
+    public Double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    public void setRowsPerSecond(Double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+
+    public SampleImportReport getReport() {
+        return report;
+    }
+
+    public void setReport(SampleImportReport report) {
+        this.report = report;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public boolean isResumable() {
+        return resumable;
+    }
+
+    public void setResumable(boolean resumable) {
+        this.resumable = resumable;
+    }
+
+    public Date getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Date submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Date getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Date startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Date getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Date completedAt) {
+        this.completedAt = completedAt;
+    }
+}
@@ -22,6 +22,11 @@ public class SampleImportReport {
      * Number of samples successfully created
      */
     private int totalCreated;
+
+    /**
+     * Number of existing samples updated, when the import updates the samples whose name is used
+     */
+    private int totalUpdated;
     
     /**
      * Number of samples skipped due to duplicate names
@@ -49,7 +54,7 @@ public class SampleImportReport {
     private String message;
     
     /**
-     * Detailed results for each sample
+     * Detailed results for the samples of the report mode: all of them, the errors only or none
      */
     private List<SampleImportReportItem> items;
 
@@ -73,6 +78,14 @@ public class SampleImportReport {
         this.totalCreated = totalCreated;
     }
 
+    public int getTotalUpdated() {
+        return totalUpdated;
+    }
+
+    public void setTotalUpdated(int totalUpdated) {
+        this.totalUpdated = totalUpdated;
+    }
+
     public int getTotalDuplicates() {
         return totalDuplicates;
     }
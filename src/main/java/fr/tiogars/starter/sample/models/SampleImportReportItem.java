@@ -21,7 +21,8 @@ public class SampleImportReportItem {
     private boolean created;
     
     /**
-     * Message explaining the result (e.g., "Sample created successfully" or "Sample with this name already exists")
+     * Message explaining the result (e.g., "Sample created successfully", "Sample updated successfully"
+     * or "Sample with this name already exists")
      */
     private String message;
     
@@ -8,8 +8,10 @@ import java.util.List;
  * 
  * This model supports:
  * - Pagination (page, pageSize)
+ * - Cursor pagination (paginationMode, cursor)
  * - Sorting (sortModel)
  * - Filtering (filterModel)
+ * - Total row count strategy (totalMode)
  */
 public class SampleSearchRequest {
     private int page = 0;
@@ -17,6 +19,24 @@ public class SampleSearchRequest {
     private List<SortItem> sortModel;
     private FilterModel filterModel;
 
+    /**
+     * Pagination mode: "offset" (default, uses page) or "cursor" (uses cursor, ignores page)
+     */
+    private String paginationMode = "offset";
+
+    /**
+     * Opaque cursor returned as nextCursor or prevCursor by a previous cursor mode search.
+     * Leave empty to fetch the first page in cursor mode.
+     */
+    private String cursor;
+
+    /**
+     * How rowCount is computed: "exact" (default, COUNT query on every call),
+     * "cached" (exact count memoized per filter until it expires or samples change) or
+     * "estimated" (table statistics without filter, unknown total with a filter)
+     */
+    private String totalMode = "exact";
+
     public SampleSearchRequest() {
     }
 
@@ -51,4 +71,28 @@ public class SampleSearchRequest {
     public void setFilterModel(FilterModel filterModel) {
         this.filterModel = filterModel;
     }
+
+    public String getPaginationMode() {
+        return paginationMode;
+    }
+
+    public void setPaginationMode(String paginationMode) {
+        this.paginationMode = paginationMode;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public String getTotalMode() {
+        return totalMode;
+    }
+
+    public void setTotalMode(String totalMode) {
+        this.totalMode = totalMode;
+    }
 }
@@ -8,11 +8,18 @@ import java.util.List;
  * 
  * Contains:
  * - rows: The list of Sample objects for the current page
- * - rowCount: The total number of rows matching the search criteria
+ * - rowCount: The total number of rows matching the search criteria, -1 when unknown
+ * - totalMode: The total mode that produced rowCount
+ * - hasMore: Whether another page follows the current one
+ * - nextCursor/prevCursor: Opaque cursors to the adjacent pages (cursor pagination only)
  */
 public class SampleSearchResponse {
     private List<Sample> rows;
     private long rowCount;
+    private String nextCursor;
+    private String prevCursor;
+    private String totalMode;
+    private boolean hasMore;
 
     public SampleSearchResponse() {
     }
@@ -37,4 +44,36 @@ public class SampleSearchResponse {
     public void setRowCount(long rowCount) {
         this.rowCount = rowCount;
     }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public String getPrevCursor() {
+        return prevCursor;
+    }
+
+    public void setPrevCursor(String prevCursor) {
+        this.prevCursor = prevCursor;
+    }
+
+    public String getTotalMode() {
+        return totalMode;
+    }
+
+    public void setTotalMode(String totalMode) {
+        this.totalMode = totalMode;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
 }
@@ -0,0 +1,158 @@
+package fr.tiogars.starter.sample.repositories;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.tag.entities.TagEntity;
+
+/**
+ * Writes samples with batched JDBC statements, for imports.
+ *
+ * Hibernate cannot batch the inserts of {@link SampleEntity}, whose ids are generated by the database,
+ * so the rows are inserted with one batched statement per call. With MySQL, add
+ * {@code rewriteBatchedStatements=true} to the datasource URL so that Connector/J sends a batch as a single
+ * multi-row insert. Calls must run inside a transaction, which they join.
+ *
+ * Upserts rely on the unique index on {@code sample.name} and use {@code INSERT ... ON DUPLICATE KEY UPDATE},
+ * which H2 also accepts in its MySQL mode, used by the tests.
+ */
+@Repository
+public class SampleBatchRepository {
+
+    private static final String INSERT_SAMPLE_SQL = "insert into sample "
+            + "(name, description, active, created_at, created_by, updated_at, updated_by) "
+            + "values (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPSERT_SAMPLE_SQL = INSERT_SAMPLE_SQL
+            + " on duplicate key update description = values(description), active = values(active),"
+            + " updated_at = values(updated_at), updated_by = values(updated_by)";
+
+    private static final String INSERT_SAMPLE_TAG_SQL = "insert into sample_sample_tag (sample_id, tag_id) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SampleBatchRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Insert the samples with one batched statement, then the links to their tags with another.
+     * The tags must already exist. The generated ids are set on the entities.
+     * @param samples The samples to insert
+     */
+    public void insertAll(List<SampleEntity> samples) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SAMPLE_SQL, new String[] { "id" }),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        setSampleValues(ps, samples.get(i));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return samples.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        if (keys.size() != samples.size()) {
+            throw new IllegalStateException("Expected " + samples.size() + " generated ids but got " + keys.size());
+        }
+        for (int i = 0; i < samples.size(); i++) {
+            samples.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+        insertTags(samples);
+    }
+
+    /**
+     * Insert the samples whose name is not used and update the description, active flag and update audit of the
+     * others, with one batched statement. Their ids are then read with one query, and their tags replaced.
+     * The tags must already exist. The ids are set on the entities.
+     * @param samples The samples to insert or update, with distinct names
+     */
+    public void upsertAll(List<SampleEntity> samples) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SAMPLE_SQL, samples, samples.size(), SampleBatchRepository::setSampleValues);
+
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("select id, name from sample where name in (" + placeholders(samples.size()) + ")",
+                rs -> {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                },
+                samples.stream().map(SampleEntity::getName).toArray());
+        List<Long> sampleIds = new ArrayList<>(samples.size());
+        for (SampleEntity sample : samples) {
+            Long id = ids.get(sample.getName());
+            if (id == null) {
+                // Stored with another name that the collation finds equal
+                id = jdbcTemplate.queryForObject("select id from sample where name = ?", Long.class, sample.getName());
+            }
+            sample.setId(id);
+            sampleIds.add(id);
+        }
+        jdbcTemplate.update("delete from sample_sample_tag where sample_id in (" + placeholders(sampleIds.size()) + ")",
+                sampleIds.toArray());
+        insertTags(samples);
+    }
+
+    /**
+     * Insert the links of the samples to their tags with one batched statement.
+     */
+    private void insertTags(List<SampleEntity> samples) {
+        List<long[]> links = new ArrayList<>();
+        for (SampleEntity sample : samples) {
+            if (sample.getTags() != null) {
+                for (TagEntity tag : sample.getTags()) {
+                    links.add(new long[] { sample.getId(), tag.getId() });
+                }
+            }
+        }
+        if (!links.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SAMPLE_TAG_SQL, links, links.size(), (ps, link) -> {
+                ps.setLong(1, link[0]);
+                ps.setLong(2, link[1]);
+            });
+        }
+    }
+
+    private static void setSampleValues(PreparedStatement ps, SampleEntity sample) throws SQLException {
+        ps.setString(1, sample.getName());
+        ps.setString(2, sample.getDescription());
+        ps.setBoolean(3, sample.isActive());
+        ps.setTimestamp(4, toTimestamp(sample.getCreatedAt()));
+        ps.setString(5, sample.getCreatedBy());
+        ps.setTimestamp(6, toTimestamp(sample.getUpdatedAt()));
+        ps.setString(7, sample.getUpdatedBy());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    private static Timestamp toTimestamp(Date date) {
+        return date != null ? new Timestamp(date.getTime()) : null;
+    }
+}
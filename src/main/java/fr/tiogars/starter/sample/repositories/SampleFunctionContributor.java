@@ -0,0 +1,26 @@
+package fr.tiogars.starter.sample.repositories;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Registers the SQL functions used by sample queries that JPA cannot express.
+ * Registered through {@code META-INF/services/org.hibernate.boot.model.FunctionContributor}.
+ */
+public class SampleFunctionContributor implements FunctionContributor {
+
+    /**
+     * MySQL full-text relevance of the sample name and description for a boolean mode query.
+     * Only valid on MySQL with the {@value SampleSearchCapabilities#FULLTEXT_INDEX_NAME} index.
+     */
+    public static final String MATCH_AGAINST = "sample_match_against";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        functionContributions.getFunctionRegistry().registerPattern(MATCH_AGAINST,
+                "match(?1, ?2) against (?3 in boolean mode)",
+                functionContributions.getTypeConfiguration().getBasicTypeRegistry()
+                        .resolve(StandardBasicTypes.DOUBLE));
+    }
+}
@@ -0,0 +1,39 @@
+package fr.tiogars.starter.sample.repositories;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import fr.tiogars.starter.sample.entities.SampleImportJobEntity;
+
+public interface SampleImportJobRepository extends JpaRepository<SampleImportJobEntity, String> {
+
+    /**
+     * Find the import jobs in one of the given statuses
+     * @param statuses The statuses to look for
+     * @return The matching jobs
+     */
+    List<SampleImportJobEntity> findByStatusIn(Collection<String> statuses);
+
+    /**
+     * Save the checkpoint of a job: the number of rows imported and the totals of its report.
+     * Run in the transaction writing the rows, so that both commit together.
+     * @param id The id of the job
+     * @param rowsCommitted The number of rows of the file imported
+     * @return The number of updated jobs
+     */
+    @Transactional
+    @Modifying
+    @Query("update SampleImportJobEntity j set j.rowsCommitted = :rowsCommitted, j.totalCreated = :totalCreated, "
+            + "j.totalUpdated = :totalUpdated, j.totalDuplicates = :totalDuplicates, j.totalErrors = :totalErrors, "
+            + "j.totalSkipped = :totalSkipped where j.id = :id")
+    int saveCheckpoint(@Param("id") String id, @Param("rowsCommitted") long rowsCommitted,
+            @Param("totalCreated") int totalCreated, @Param("totalUpdated") int totalUpdated,
+            @Param("totalDuplicates") int totalDuplicates, @Param("totalErrors") int totalErrors,
+            @Param("totalSkipped") int totalSkipped);
+}
@@ -1,13 +1,18 @@
 package fr.tiogars.starter.sample.repositories;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import fr.tiogars.starter.sample.entities.SampleEntity;
 
-public interface SampleRepository extends JpaRepository<SampleEntity, Long>, JpaSpecificationExecutor<SampleEntity> {
+public interface SampleRepository extends JpaRepository<SampleEntity, Long>, JpaSpecificationExecutor<SampleEntity>,
+        SampleRepositoryCustom {
     
     /**
      * Find a sample by its name
@@ -15,4 +20,12 @@ public interface SampleRepository extends JpaRepository<SampleEntity, Long>, Jpa
      * @return Optional containing the sample if found
      */
     Optional<SampleEntity> findByName(String name);
+
+    /**
+     * Find the names already used by samples, with a single query
+     * @param names The names to look for
+     * @return The matching names, as stored
+     */
+    @Query("select s.name from SampleEntity s where s.name in :names")
+    List<String> findNamesIn(@Param("names") Collection<String> names);
 }
@@ -0,0 +1,77 @@
+package fr.tiogars.starter.sample.repositories;
+
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.models.Sample;
+
+/**
+ * Custom sample queries that Spring Data cannot derive.
+ */
+public interface SampleRepositoryCustom {
+
+    /**
+     * Find a page of samples as read-only models.
+     * Columns are selected directly into {@link Sample} instead of loading managed entities,
+     * and the tags of the page are read with a single follow-up query.
+     * @param specification The filter specification
+     * @param pageable The page to read, including its sort
+     * @return The page of samples with the total number of matching samples
+     */
+    Page<Sample> findSamples(Specification<SampleEntity> specification, Pageable pageable);
+
+    /**
+     * Find a page of samples as read-only models, like {@link #findSamples(Specification, Pageable)},
+     * without running the COUNT query.
+     * @param specification The filter specification
+     * @param pageable The page to read, including its sort
+     * @return A slice telling whether a next page exists
+     */
+    Slice<Sample> findSampleSlice(Specification<SampleEntity> specification, Pageable pageable);
+
+    /**
+     * Stream all the samples matching a specification as read-only models, without their tags.
+     * Rows are read from a forward-only cursor, {@code sample.export.fetch-size} at a time, and never
+     * enter the persistence context, so memory stays constant whatever the number of rows.
+     * The stream must be consumed inside a transaction and closed afterwards.
+     * @param specification The filter specification, may be null
+     * @param sort The sort, applied after the orders set by the specification
+     * @return The stream of samples
+     */
+    Stream<Sample> streamSamples(Specification<SampleEntity> specification, Sort sort);
+
+    /**
+     * Stream the samples matching a specification like {@link #streamSamples(Specification, Sort)},
+     * reading only the given fields. The other fields of the models are left unset.
+     * Tags are read with one query per {@code sample.export.fetch-size} samples when {@code tags} is listed,
+     * and are not joined otherwise.
+     * @param specification The filter specification, may be null
+     * @param sort The sort, applied after the orders set by the specification
+     * @param fields The names of the {@link Sample} fields to read
+     * @return The stream of samples
+     */
+    Stream<Sample> streamSamples(Specification<SampleEntity> specification, Sort sort, Set<String> fields);
+
+    /**
+     * Find the lowest and highest ids of the samples matching a specification.
+     * @param specification The filter specification, may be null
+     * @return The closed range of ids, or empty when no sample matches
+     */
+    Optional<Range<Long>> findIdRange(Specification<SampleEntity> specification);
+
+    /**
+     * Estimate the number of rows of the sample table from database statistics.
+     * @return The estimated row count, or empty when the database does not provide statistics
+     */
+    OptionalLong estimateRowCount();
+}
@@ -0,0 +1,304 @@
+package fr.tiogars.starter.sample.repositories;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import javax.sql.DataSource;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Range;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.tag.models.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Implementation of {@link SampleRepositoryCustom}, picked up by Spring Data as a repository fragment.
+ */
+public class SampleRepositoryCustomImpl implements SampleRepositoryCustom {
+
+    private static final String MYSQL_TABLE_ROWS_QUERY =
+            "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'sample'";
+
+    private static final String TAGS_FIELD = "tags";
+
+    private static final String TAGS_BY_SAMPLE_IDS_QUERY =
+            "select s.id, t.id, t.name, t.description from SampleEntity s join s.tags t where s.id in :ids";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Rows fetched per round trip when streaming samples
+     */
+    private final int streamFetchSize;
+    private volatile Boolean mysql;
+
+    public SampleRepositoryCustomImpl(EntityManager entityManager, DataSource dataSource,
+            @Value("${sample.export.fetch-size:1000}") int streamFetchSize) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamFetchSize = streamFetchSize;
+    }
+
+    @Override
+    public Page<Sample> findSamples(Specification<SampleEntity> specification, Pageable pageable) {
+        List<Sample> content = selectSamples(specification, pageable.getSort(), pageable.getOffset(),
+                pageable.getPageSize());
+        // The COUNT query is skipped when the page content already tells the total
+        return PageableExecutionUtils.getPage(content, pageable, () -> countSamples(specification));
+    }
+
+    @Override
+    public Slice<Sample> findSampleSlice(Specification<SampleEntity> specification, Pageable pageable) {
+        // Read one extra row to know whether a next page exists
+        List<Sample> content = selectSamples(specification, pageable.getSort(), pageable.getOffset(),
+                pageable.getPageSize() + 1);
+        boolean hasNext = content.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+    }
+
+    @Override
+    public Stream<Sample> streamSamples(Specification<SampleEntity> specification, Sort sort) {
+        TypedQuery<Sample> typedQuery = entityManager.createQuery(buildSelectQuery(specification, sort));
+        typedQuery.setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize);
+        return typedQuery.getResultStream();
+    }
+
+    @Override
+    public Stream<Sample> streamSamples(Specification<SampleEntity> specification, Sort sort, Set<String> fields) {
+        // The id is always read, to fill the tags and to keep the models identifiable
+        List<String> columns = new ArrayList<>();
+        columns.add("id");
+        fields.stream().filter(field -> !"id".equals(field) && !TAGS_FIELD.equals(field)).forEach(columns::add);
+
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<SampleEntity> root = query.from(SampleEntity.class);
+        List<Selection<?>> selections = new ArrayList<>(columns.size());
+        for (String column : columns) {
+            selections.add(root.get(column));
+        }
+        query.multiselect(selections);
+        applySpecificationAndSort(query, root, criteriaBuilder, specification, sort);
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+        typedQuery.setHint(HibernateHints.HINT_FETCH_SIZE, streamFetchSize);
+        Stream<Tuple> tuples = typedQuery.getResultStream();
+        Stream<Sample> samples = tuples.map(tuple -> toSample(tuple, columns));
+        return fields.contains(TAGS_FIELD) ? withTags(samples) : samples;
+    }
+
+    /**
+     * Build a model holding only the selected columns.
+     */
+    private static Sample toSample(Tuple tuple, List<String> columns) {
+        Sample sample = new Sample();
+        for (int i = 0; i < columns.size(); i++) {
+            Object value = tuple.get(i);
+            switch (columns.get(i)) {
+                case "id":
+                    sample.setId((Long) value);
+                    break;
+                case "name":
+                    sample.setName((String) value);
+                    break;
+                case "description":
+                    sample.setDescription((String) value);
+                    break;
+                case "active":
+                    sample.setActive(Boolean.TRUE.equals(value));
+                    break;
+                case "createdAt":
+                    sample.setCreatedAt((Date) value);
+                    break;
+                case "createdBy":
+                    sample.setCreatedBy((String) value);
+                    break;
+                case "updatedAt":
+                    sample.setUpdatedAt((Date) value);
+                    break;
+                case "updatedBy":
+                    sample.setUpdatedBy((String) value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown sample field: " + columns.get(i));
+            }
+        }
+        return sample;
+    }
+
+    /**
+     * Fill the tags of the streamed samples, one query per {@code streamFetchSize} samples.
+     */
+    private Stream<Sample> withTags(Stream<Sample> samples) {
+        Iterator<Sample> rows = samples.iterator();
+        Iterator<Sample> batches = new Iterator<>() {
+            private Iterator<Sample> batch = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                if (!batch.hasNext() && rows.hasNext()) {
+                    List<Sample> next = new ArrayList<>(streamFetchSize);
+                    while (rows.hasNext() && next.size() < streamFetchSize) {
+                        next.add(rows.next());
+                    }
+                    fillTags(next);
+                    batch = next.iterator();
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public Sample next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batches, Spliterator.ORDERED), false)
+                .onClose(samples::close);
+    }
+
+    /**
+     * Select the sample columns into {@link Sample} models, then fill their tags.
+     */
+    private List<Sample> selectSamples(Specification<SampleEntity> specification, Sort sort, long offset, int limit) {
+        TypedQuery<Sample> typedQuery = entityManager.createQuery(buildSelectQuery(specification, sort));
+        typedQuery.setFirstResult((int) offset);
+        typedQuery.setMaxResults(limit);
+        List<Sample> samples = typedQuery.getResultList();
+        fillTags(samples);
+        return samples;
+    }
+
+    private CriteriaQuery<Sample> buildSelectQuery(Specification<SampleEntity> specification, Sort sort) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Sample> query = criteriaBuilder.createQuery(Sample.class);
+        Root<SampleEntity> root = query.from(SampleEntity.class);
+        query.select(criteriaBuilder.construct(Sample.class,
+                root.get("id"), root.get("name"), root.get("description"), root.get("active"),
+                root.get("createdAt"), root.get("createdBy"), root.get("updatedAt"), root.get("updatedBy")));
+        applySpecificationAndSort(query, root, criteriaBuilder, specification, sort);
+        return query;
+    }
+
+    private static void applySpecificationAndSort(CriteriaQuery<?> query, Root<SampleEntity> root,
+            CriteriaBuilder criteriaBuilder, Specification<SampleEntity> specification, Sort sort) {
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, criteriaBuilder) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // Orders set by the specification, such as full-text relevance, come before the requested sort
+        List<Order> orders = new ArrayList<>(query.getOrderList());
+        orders.addAll(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        query.orderBy(orders);
+    }
+
+    /**
+     * Load the tags of all the given samples with one query.
+     */
+    private void fillTags(List<Sample> samples) {
+        if (samples.isEmpty()) {
+            return;
+        }
+        Map<Long, Sample> samplesById = new HashMap<>();
+        for (Sample sample : samples) {
+            samplesById.put(sample.getId(), sample);
+        }
+        List<Object[]> rows = entityManager.createQuery(TAGS_BY_SAMPLE_IDS_QUERY, Object[].class)
+                .setParameter("ids", samplesById.keySet())
+                .getResultList();
+        for (Object[] row : rows) {
+            Sample sample = samplesById.get((Long) row[0]);
+            if (sample.getTags() == null) {
+                sample.setTags(new HashSet<>());
+            }
+            sample.getTags().add(new Tag((Long) row[1], (String) row[2], (String) row[3]));
+        }
+    }
+
+    private long countSamples(Specification<SampleEntity> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<SampleEntity> root = query.from(SampleEntity.class);
+        query.select(criteriaBuilder.count(root));
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, criteriaBuilder) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        // Drop the orders the specification may have applied
+        query.orderBy(List.of());
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    @Override
+    public Optional<Range<Long>> findIdRange(Specification<SampleEntity> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<SampleEntity> root = query.from(SampleEntity.class);
+        query.multiselect(criteriaBuilder.min(root.<Long>get("id")), criteriaBuilder.max(root.<Long>get("id")));
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, criteriaBuilder) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(List.of());
+        Tuple bounds = entityManager.createQuery(query).getSingleResult();
+        Long min = bounds.get(0, Long.class);
+        Long max = bounds.get(1, Long.class);
+        return min != null && max != null ? Optional.of(Range.closed(min, max)) : Optional.empty();
+    }
+
+    @Override
+    public OptionalLong estimateRowCount() {
+        if (!isMysql()) {
+            return OptionalLong.empty();
+        }
+        List<Long> rows = jdbcTemplate.queryForList(MYSQL_TABLE_ROWS_QUERY, Long.class);
+        return rows.isEmpty() || rows.get(0) == null ? OptionalLong.empty() : OptionalLong.of(rows.get(0));
+    }
+
+    private boolean isMysql() {
+        if (mysql == null) {
+            String productName = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            mysql = productName != null && productName.toLowerCase().contains("mysql");
+        }
+        return mysql;
+    }
+}
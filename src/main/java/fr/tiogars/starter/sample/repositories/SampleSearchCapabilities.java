@@ -0,0 +1,77 @@
+package fr.tiogars.starter.sample.repositories;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells which MySQL search features the sample table provides, as set up by the MySQL migrations:
+ * the FULLTEXT index on {@code sample(name, description)} and case-insensitive collations on its
+ * text columns. Other databases, such as H2 in tests, use the portable fallbacks.
+ */
+@Component
+public class SampleSearchCapabilities {
+
+    /**
+     * Name of the FULLTEXT index on {@code sample(name, description)}.
+     */
+    public static final String FULLTEXT_INDEX_NAME = "ft_sample_name_description";
+
+    private static final String FULLTEXT_INDEX_QUERY = "SELECT COUNT(*) FROM information_schema.STATISTICS"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'sample'"
+            + " AND INDEX_NAME = '" + FULLTEXT_INDEX_NAME + "' AND INDEX_TYPE = 'FULLTEXT'";
+
+    private static final String NAME_COLLATION_QUERY = "SELECT COLLATION_NAME FROM information_schema.COLUMNS"
+            + " WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'sample' AND COLUMN_NAME = 'name'";
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile boolean detected;
+    private boolean fullTextIndex;
+    private boolean caseInsensitiveCollation;
+
+    public SampleSearchCapabilities(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Whether the database is MySQL and the FULLTEXT index exists.
+     */
+    public boolean hasFullTextIndex() {
+        if (!detected) {
+            detect();
+        }
+        return fullTextIndex;
+    }
+
+    /**
+     * Whether the database is MySQL and the sample text columns compare case-insensitively,
+     * so that string filters do not need to wrap them in {@code lower()}.
+     */
+    public boolean hasCaseInsensitiveCollation() {
+        if (!detected) {
+            detect();
+        }
+        return caseInsensitiveCollation;
+    }
+
+    /**
+     * Inspect the schema once.
+     */
+    private synchronized void detect() {
+        if (detected) {
+            return;
+        }
+        String productName = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        if (productName != null && productName.toLowerCase().contains("mysql")) {
+            Integer indexes = jdbcTemplate.queryForObject(FULLTEXT_INDEX_QUERY, Integer.class);
+            fullTextIndex = indexes != null && indexes > 0;
+            String collation = jdbcTemplate.queryForList(NAME_COLLATION_QUERY, String.class).stream()
+                    .findFirst().orElse(null);
+            caseInsensitiveCollation = collation != null && collation.endsWith("_ci");
+        }
+        detected = true;
+    }
+}
@@ -0,0 +1,133 @@
+package fr.tiogars.starter.sample.services;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
+import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Memoizes exact sample counts per normalized filter for the "cached" search total mode.
+ * Entries expire after a configurable TTL and are all dropped when samples are written.
+ * Hit, miss and eviction metrics are published under the {@value #CACHE_NAME} cache name.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class SampleCountCache implements MeterBinder {
+
+    static final String CACHE_NAME = "sample.search.counts";
+
+    private final Cache<String, Long> counts;
+
+    /**
+     * Incremented on every invalidation so that a count computed concurrently with a write is not stored
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public SampleCountCache(@Value("${sample.search.count-cache.ttl:PT30S}") Duration ttl,
+            @Value("${sample.search.count-cache.max-entries:1000}") int maxEntries) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(Math.max(maxEntries, 0))
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Return the cached count for the filter, or compute and cache it.
+     *
+     * @param filterModel The filter the count applies to
+     * @param counter Computes the exact count on a cache miss
+     * @return The exact count, possibly up to one TTL old
+     */
+    public long getCount(FilterModel filterModel, LongSupplier counter) {
+        String key = buildFilterSignature(filterModel);
+        Long cached = counts.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long currentGeneration = generation.get();
+        long count = counter.getAsLong();
+        if (generation.get() == currentGeneration) {
+            counts.put(key, count);
+        }
+        return count;
+    }
+
+    /**
+     * Drop every cached count once a sample write has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSampleChanged(SampleChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        counts.invalidateAll();
+    }
+
+    long cachedFilterCount() {
+        counts.cleanUp();
+        return counts.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, counts, CACHE_NAME);
+    }
+
+    /**
+     * Build a signature identifying the rows matched by a filter model.
+     * Incomplete items are ignored like the search does, and items are sorted so that
+     * equivalent filters listed in a different order share the same signature.
+     * Quick filter values are part of the signature as the search terms they are split into.
+     */
+    static String buildFilterSignature(FilterModel filterModel) {
+        List<FilterItem> items = SampleSearchPlanner.effectiveItems(filterModel);
+        List<String> quickFilterTerms = quickFilterTerms(filterModel);
+        if (items.isEmpty() && quickFilterTerms == null) {
+            return "";
+        }
+        String logicOperator = "or".equalsIgnoreCase(filterModel.getLogicOperator()) ? "or" : "and";
+        String signature = logicOperator + ":" + items.stream()
+                .map(item -> item.getField() + "|" + item.getOperator() + "|" + item.getValue())
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.joining(";"));
+        if (quickFilterTerms != null) {
+            String quickLogicOperator = "or".equalsIgnoreCase(filterModel.getQuickFilterLogicOperator()) ? "or" : "and";
+            signature += "|quick:" + quickLogicOperator + ":" + String.join(" ", quickFilterTerms);
+        }
+        return signature;
+    }
+
+    /**
+     * Whether the filter model restricts the rows at all.
+     */
+    static boolean hasFilter(FilterModel filterModel) {
+        return !SampleSearchPlanner.effectiveItems(filterModel).isEmpty() || quickFilterTerms(filterModel) != null;
+    }
+
+    private static List<String> quickFilterTerms(FilterModel filterModel) {
+        return filterModel != null ? SampleFullTextMatcher.terms(filterModel.getQuickFilterValues()) : null;
+    }
+}
@@ -4,11 +4,13 @@ import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import fr.tiogars.architecture.create.services.AbstractCreateService;
 import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
 import fr.tiogars.starter.sample.forms.SampleCreateForm;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.tag.models.Tag;
@@ -25,11 +27,24 @@ public class SampleCreateService
     private final Logger logger = Logger.getLogger(SampleCreateService.class.getName());
     private final Validator validator;
     private final fr.tiogars.starter.tag.services.TagService tagService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SampleCreateService(SampleRepository sampleRepository, Validator validator, fr.tiogars.starter.tag.services.TagService tagService) {
+    public SampleCreateService(SampleRepository sampleRepository, Validator validator, fr.tiogars.starter.tag.services.TagService tagService,
+            ApplicationEventPublisher eventPublisher) {
         super(sampleRepository);
         this.validator = validator;
         this.tagService = tagService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Create a sample and notify listeners that samples changed.
+     */
+    @Override
+    public Sample create(SampleCreateForm form) {
+        Sample sample = super.create(form);
+        eventPublisher.publishEvent(new SampleChangedEvent("created"));
+        return sample;
     }
 
     @Override
@@ -4,9 +4,12 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.tag.models.Tag;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
@@ -14,27 +17,34 @@ import fr.tiogars.starter.sample.repositories.SampleRepository;
 @Service
 public class SampleCrudService {
     private final SampleRepository sampleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SampleCrudService(SampleRepository sampleRepository) {
+    public SampleCrudService(SampleRepository sampleRepository, ApplicationEventPublisher eventPublisher) {
         this.sampleRepository = sampleRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    @Transactional(readOnly = true)
     public List<Sample> findAll() {
         return sampleRepository.findAll().stream()
                 .map(this::toModel)
                 .toList();
     }
 
+    @Transactional(readOnly = true)
     public Optional<Sample> findById(Long id) {
         return sampleRepository.findById(id).map(this::toModel);
     }
 
     public Sample save(SampleEntity sample) {
-        return toModel(sampleRepository.save(sample));
+        Sample saved = toModel(sampleRepository.save(sample));
+        eventPublisher.publishEvent(new SampleChangedEvent("updated"));
+        return saved;
     }
 
     public void deleteById(Long id) {
         sampleRepository.deleteById(id);
+        eventPublisher.publishEvent(new SampleChangedEvent("deleted"));
     }
 
     private Sample toModel(SampleEntity entity) {
@@ -0,0 +1,198 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Set;
+
+import javax.xml.namespace.QName;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+
+import fr.tiogars.starter.sample.models.Sample;
+
+/**
+ * Writes samples as a JSON array, newline-delimited JSON or an XML document, one element at a time,
+ * so that the document is never held in memory.
+ *
+ * The XML document has the same layout as the one Jackson writes for a wrapped list:
+ * {@code <SamplesWrapper><samples><samples>...</samples></samples></SamplesWrapper>}.
+ * When columns are selected, only the matching fields of each sample are written.
+ * The writer does not close the output stream, which is owned by the caller.
+ */
+final class SampleDocumentWriter {
+
+    static final String XML_ROOT = "SamplesWrapper";
+    static final String XML_ELEMENT = "samples";
+
+    /**
+     * Mappers are thread-safe once configured, so they are shared by every export
+     */
+    private static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .build();
+    private static final XmlMapper XML_MAPPER = XmlMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .build();
+
+    /**
+     * Mappers writing only the fields let through by the {@value #COLUMN_FILTER} filter
+     */
+    private static final String COLUMN_FILTER = "sampleColumns";
+    private static final ObjectMapper FILTERED_JSON_MAPPER = JsonMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .addMixIn(Sample.class, ColumnFilterMixin.class)
+            .build();
+    private static final XmlMapper FILTERED_XML_MAPPER = XmlMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .addMixIn(Sample.class, ColumnFilterMixin.class)
+            .build();
+
+    private static final ObjectWriter JSON_WRITER = JSON_MAPPER.writer();
+    private static final ObjectWriter JSON_INDENT_WRITER = JSON_MAPPER.writer(SerializationFeature.INDENT_OUTPUT);
+    private static final ObjectWriter NDJSON_WRITER = JSON_MAPPER.writer().withRootValueSeparator("\n");
+    private static final ObjectWriter XML_WRITER = XML_MAPPER.writer();
+    private static final ObjectWriter XML_INDENT_WRITER = XML_MAPPER.writer(SerializationFeature.INDENT_OUTPUT);
+
+    private final String format;
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+    private long rowCount;
+
+    private SampleDocumentWriter(String format, ObjectWriter writer, OutputStream out) throws IOException {
+        this.format = format;
+        this.writer = writer;
+        this.generator = writer.createGenerator(out);
+    }
+
+    /**
+     * Whether the format is written by this class.
+     */
+    static boolean supports(String format) {
+        return "json".equals(format) || "ndjson".equals(format) || "xml".equals(format);
+    }
+
+    /**
+     * Open a writer and write the start of the document.
+     *
+     * @param format json, ndjson or xml
+     * @param indent Whether to indent the document, ignored by ndjson which has one sample per line
+     * @param out The stream to write to, left open
+     */
+    static SampleDocumentWriter open(String format, boolean indent, OutputStream out) throws IOException {
+        return open(format, indent, null, out);
+    }
+
+    /**
+     * Open a writer and write the start of the document.
+     *
+     * @param format json, ndjson or xml
+     * @param indent Whether to indent the document, ignored by ndjson which has one sample per line
+     * @param fields The names of the sample fields to write, or null to write every field
+     * @param out The stream to write to, left open
+     */
+    static SampleDocumentWriter open(String format, boolean indent, Set<String> fields, OutputStream out)
+            throws IOException {
+        SampleDocumentWriter documentWriter;
+        switch (format) {
+            case "json":
+                documentWriter = new SampleDocumentWriter(format, fields != null
+                        ? filteredWriter(FILTERED_JSON_MAPPER, fields, indent)
+                        : indent ? JSON_INDENT_WRITER : JSON_WRITER, out);
+                documentWriter.generator.writeStartArray();
+                break;
+            case "ndjson":
+                documentWriter = new SampleDocumentWriter(format, fields != null
+                        ? filteredWriter(FILTERED_JSON_MAPPER, fields, false).withRootValueSeparator("\n")
+                        : NDJSON_WRITER, out);
+                break;
+            case "xml":
+                documentWriter = new SampleDocumentWriter(format, fields != null
+                        ? filteredWriter(FILTERED_XML_MAPPER, fields, indent)
+                        : indent ? XML_INDENT_WRITER : XML_WRITER, out);
+                ToXmlGenerator xmlGenerator = (ToXmlGenerator) documentWriter.generator;
+                xmlGenerator.initGenerator();
+                xmlGenerator.setNextName(new QName(XML_ROOT));
+                xmlGenerator.writeStartObject();
+                xmlGenerator.writeFieldName(XML_ELEMENT);
+                xmlGenerator.writeStartObject();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        return documentWriter;
+    }
+
+    private static ObjectWriter filteredWriter(ObjectMapper mapper, Set<String> fields, boolean indent) {
+        ObjectWriter writer = mapper.writer(new SimpleFilterProvider()
+                .addFilter(COLUMN_FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        return indent ? writer.with(SerializationFeature.INDENT_OUTPUT) : writer;
+    }
+
+    /**
+     * Append a sample to the document.
+     */
+    void write(Sample sample) throws IOException {
+        if ("xml".equals(format)) {
+            // The element takes the name of the field instead of the class name
+            generator.writeFieldName(XML_ELEMENT);
+        }
+        writer.writeValue(generator, sample);
+        rowCount++;
+    }
+
+    /**
+     * Flush the buffered content to the output stream.
+     */
+    void flush() throws IOException {
+        generator.flush();
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Write the end of the document and flush it. The output stream is left open.
+     */
+    void finish() throws IOException {
+        switch (format) {
+            case "json":
+                generator.writeEndArray();
+                break;
+            case "xml":
+                generator.writeEndObject();
+                generator.writeEndObject();
+                break;
+            case "ndjson":
+                // Samples are separated by new lines, terminate the last one too
+                if (rowCount > 0) {
+                    generator.writeRaw('\n');
+                }
+                break;
+            default:
+                break;
+        }
+        generator.close();
+    }
+
+    /**
+     * Applies the column filter to {@link Sample}, which must not depend on the export
+     */
+    @JsonFilter(COLUMN_FILTER)
+    private abstract static class ColumnFilterMixin {
+    }
+}
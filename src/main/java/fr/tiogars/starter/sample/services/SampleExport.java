@@ -0,0 +1,120 @@
+package fr.tiogars.starter.sample.services;
+
+import java.util.List;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+
+/**
+ * Export validated and compiled from a {@link fr.tiogars.starter.sample.forms.SampleExportForm},
+ * ready to be written by {@link SampleExportService}.
+ */
+final class SampleExport {
+
+    private final String format;
+    private final boolean zip;
+
+    /**
+     * Whether the file is sent with the gzip content encoding
+     */
+    private final boolean gzip;
+    private final boolean indent;
+
+    /**
+     * Columns selected by the client, null to export the default columns
+     */
+    private final List<SampleExportColumn> columns;
+    private final Specification<SampleEntity> specification;
+    private final Sort sort;
+
+    /**
+     * Direction of the sort when the samples are only sorted by id, null otherwise
+     */
+    private final Sort.Direction idDirection;
+
+    /**
+     * Number of partitions read in parallel requested by the client
+     */
+    private final int partitions;
+
+    /**
+     * Name of the exported file, which is the ZIP entry name when compressed
+     */
+    private final String entryName;
+
+    /**
+     * Name of the downloaded file
+     */
+    private final String filename;
+    private final String contentType;
+
+    SampleExport(String format, boolean zip, boolean gzip, boolean indent, List<SampleExportColumn> columns,
+            Specification<SampleEntity> specification, Sort sort, Sort.Direction idDirection, int partitions,
+            String entryName, String filename, String contentType) {
+        this.format = format;
+        this.zip = zip;
+        this.gzip = gzip;
+        this.indent = indent;
+        this.columns = columns;
+        this.specification = specification;
+        this.sort = sort;
+        this.idDirection = idDirection;
+        this.partitions = partitions;
+        this.entryName = entryName;
+        this.filename = filename;
+        this.contentType = contentType;
+    }
+
+    String getFormat() {
+        return format;
+    }
+
+    boolean isZip() {
+        return zip;
+    }
+
+    boolean isGzip() {
+        return gzip;
+    }
+
+    boolean isIndent() {
+        return indent;
+    }
+
+    List<SampleExportColumn> getColumns() {
+        return columns;
+    }
+
+    /**
+     * @return The filter of the exported samples, or null to export every sample
+     */
+    Specification<SampleEntity> getSpecification() {
+        return specification;
+    }
+
+    Sort getSort() {
+        return sort;
+    }
+
+    Sort.Direction getIdDirection() {
+        return idDirection;
+    }
+
+    int getPartitions() {
+        return partitions;
+    }
+
+    String getEntryName() {
+        return entryName;
+    }
+
+    String getFilename() {
+        return filename;
+    }
+
+    String getContentType() {
+        return contentType;
+    }
+}
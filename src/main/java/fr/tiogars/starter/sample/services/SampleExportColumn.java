@@ -0,0 +1,133 @@
+package fr.tiogars.starter.sample.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.tag.models.Tag;
+
+/**
+ * Column of a sample export, named after the {@link Sample} field it holds.
+ */
+enum SampleExportColumn {
+
+    ID("id", "ID"),
+    NAME("name", "Name"),
+    DESCRIPTION("description", "Description"),
+    ACTIVE("active", "Active"),
+    CREATED_AT("createdAt", "Created At"),
+    CREATED_BY("createdBy", "Created By"),
+    UPDATED_AT("updatedAt", "Updated At"),
+    UPDATED_BY("updatedBy", "Updated By"),
+    TAGS("tags", "Tags");
+
+    /**
+     * Columns of CSV and XLSX files when none is selected
+     */
+    static final List<SampleExportColumn> DEFAULT_COLUMNS = List.of(ID, NAME, DESCRIPTION, ACTIVE, CREATED_AT,
+            CREATED_BY, UPDATED_AT, UPDATED_BY);
+
+    private final String field;
+    private final String header;
+
+    SampleExportColumn(String field, String header) {
+        this.field = field;
+        this.header = header;
+    }
+
+    String getField() {
+        return field;
+    }
+
+    String getHeader() {
+        return header;
+    }
+
+    /**
+     * @return The value of the column as CSV and XLSX text, empty when missing
+     */
+    String text(Sample sample) {
+        switch (this) {
+            case ID:
+                return sample.getId() != null ? sample.getId().toString() : "";
+            case NAME:
+                return sample.getName() != null ? sample.getName() : "";
+            case DESCRIPTION:
+                return sample.getDescription() != null ? sample.getDescription() : "";
+            case ACTIVE:
+                return String.valueOf(sample.isActive());
+            case CREATED_AT:
+                return sample.getCreatedAt() != null ? sample.getCreatedAt().toString() : "";
+            case CREATED_BY:
+                return sample.getCreatedBy() != null ? sample.getCreatedBy() : "";
+            case UPDATED_AT:
+                return sample.getUpdatedAt() != null ? sample.getUpdatedAt().toString() : "";
+            case UPDATED_BY:
+                return sample.getUpdatedBy() != null ? sample.getUpdatedBy() : "";
+            case TAGS:
+                // Tag names in a stable order, so that exports can be compared
+                return sample.getTags() == null ? "" : sample.getTags().stream()
+                        .map(Tag::getName)
+                        .sorted()
+                        .collect(Collectors.joining(", "));
+            default:
+                throw new IllegalStateException("Unknown column: " + this);
+        }
+    }
+
+    /**
+     * Resolve the columns selected by the client, in the requested order, without duplicates.
+     *
+     * @param fields The selected field names, null or empty for the default columns
+     * @return The columns, or null when none is selected
+     * @throws SampleExportService.UnsupportedExportColumnException When a field is not exportable
+     */
+    static List<SampleExportColumn> of(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        Set<SampleExportColumn> columns = new LinkedHashSet<>();
+        for (String field : fields) {
+            columns.add(byField(field));
+        }
+        return new ArrayList<>(columns);
+    }
+
+    private static SampleExportColumn byField(String field) {
+        for (SampleExportColumn column : values()) {
+            if (column.field.equals(field)) {
+                return column;
+            }
+        }
+        throw new SampleExportService.UnsupportedExportColumnException("Column cannot be exported: " + field);
+    }
+
+    /**
+     * Find the column of an import file header, written by an export as the column header or the field name.
+     *
+     * @param header The header, compared ignoring case and surrounding spaces
+     * @return The column, or null when the header is not a column
+     */
+    static SampleExportColumn ofHeader(String header) {
+        if (header == null) {
+            return null;
+        }
+        String text = header.strip();
+        for (SampleExportColumn column : values()) {
+            if (column.header.equalsIgnoreCase(text) || column.field.equalsIgnoreCase(text)) {
+                return column;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The field names of the columns
+     */
+    static Set<String> fields(List<SampleExportColumn> columns) {
+        return columns.stream().map(SampleExportColumn::getField).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -0,0 +1,69 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import fr.tiogars.starter.common.compression.ParallelGzipOutputStream;
+import fr.tiogars.starter.common.compression.ParallelZipOutputStream;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Compresses the exports of {@link SampleExportService} on every core, deflating blocks of
+ * {@code sample.export.compression.block-size} bytes concurrently on a pool of
+ * {@code sample.export.compression.parallelism} threads, at {@code sample.export.compression.level}.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class SampleExportCompressor {
+
+    private final ForkJoinPool pool;
+    private final int level;
+    private final int blockSize;
+
+    /**
+     * Blocks being compressed or waiting to be written, per export
+     */
+    private final int maxPendingBlocks;
+
+    public SampleExportCompressor(@Value("${sample.export.compression.level:6}") int level,
+            @Value("${sample.export.compression.block-size:131072}") int blockSize,
+            @Value("${sample.export.compression.parallelism:0}") int parallelism) {
+        if (level < -1 || level > 9) {
+            throw new IllegalArgumentException("Compression level must be between -1 and 9: " + level);
+        }
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.pool = new ForkJoinPool(threads);
+        this.level = level;
+        this.blockSize = Math.max(blockSize, 1024);
+        this.maxPendingBlocks = threads * 2;
+    }
+
+    /**
+     * @param out The stream receiving the archive
+     * @return A ZIP archive whose entries are deflated in parallel
+     */
+    ParallelZipOutputStream zip(OutputStream out) {
+        return new ParallelZipOutputStream(out, pool, level, blockSize, maxPendingBlocks);
+    }
+
+    /**
+     * @param out The stream receiving the compressed data
+     * @return A GZIP stream deflated in parallel
+     */
+    ParallelGzipOutputStream gzip(OutputStream out) throws IOException {
+        return new ParallelGzipOutputStream(out, pool, level, blockSize, maxPendingBlocks);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,383 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Scheduler;
+
+import fr.tiogars.starter.sample.forms.SampleExportForm;
+import fr.tiogars.starter.sample.models.SampleExportJob;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs sample exports in the background and keeps their files on disk until they are downloaded.
+ *
+ * At most {@code sample.export.jobs.concurrency} exports run at once, the others wait in a queue of
+ * {@code sample.export.jobs.queue-capacity} jobs; submissions beyond it are rejected. Finished jobs and
+ * their files are deleted {@code sample.export.jobs.ttl} after completion.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class SampleExportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleExportJobService.class);
+
+    static final String QUEUED = "queued";
+    static final String RUNNING = "running";
+    static final String COMPLETED = "completed";
+    static final String FAILED = "failed";
+    static final String CANCELLED = "cancelled";
+
+    /**
+     * Extension of the job files, so that files left by a previous run can be recognized
+     */
+    private static final String FILE_EXTENSION = ".export";
+
+    private final SampleExportService sampleExportService;
+    private final Path directory;
+    private final Duration ttl;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Jobs by id: unfinished jobs never expire, finished ones expire after the TTL and their file is deleted
+     */
+    private final Cache<String, Job> jobs;
+
+    public SampleExportJobService(SampleExportService sampleExportService,
+            @Value("${sample.export.jobs.directory:${java.io.tmpdir}/sample-export-jobs}") String directory,
+            @Value("${sample.export.jobs.concurrency:2}") int concurrency,
+            @Value("${sample.export.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${sample.export.jobs.ttl:PT1H}") Duration ttl) throws IOException {
+        this.sampleExportService = sampleExportService;
+        this.directory = Paths.get(directory);
+        this.ttl = ttl;
+        Files.createDirectories(this.directory);
+        deleteLeftoverFiles();
+
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("sample-export-"));
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(new Expiry<String, Job>() {
+                    @Override
+                    public long expireAfterCreate(String id, Job job, long currentTime) {
+                        return job.isFinished() ? SampleExportJobService.this.ttl.toNanos() : Long.MAX_VALUE;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Job job, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, job, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Job job, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .removalListener((String id, Job job, RemovalCause cause) -> {
+                    if (job != null) {
+                        job.deleteFile();
+                    }
+                })
+                .scheduler(Scheduler.systemScheduler())
+                .build();
+    }
+
+    /**
+     * Validate the form and queue its export.
+     *
+     * @param form The export form containing format, zip option, and optional filters
+     * @return The queued job
+     * @throws ExportJobQueueFullException When the queue is full
+     */
+    public SampleExportJob submit(SampleExportForm form) {
+        SampleExport export = sampleExportService.prepareExport(form);
+        String id = UUID.randomUUID().toString();
+        Job job = new Job(id, export, directory.resolve(id + FILE_EXTENSION));
+        jobs.put(id, job);
+        try {
+            job.future = executor.submit(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(id);
+            throw new ExportJobQueueFullException("Too many export jobs, retry later");
+        }
+        logger.info("Export job {} queued in format: {}", id, export.getFormat());
+        return job.toModel();
+    }
+
+    /**
+     * @return The job, or null when it does not exist or has expired
+     */
+    public SampleExportJob getJob(String id) {
+        Job job = jobs.getIfPresent(id);
+        return job != null ? job.toModel() : null;
+    }
+
+    /**
+     * Cancel a queued or running job, or delete a finished job and its file.
+     * A running job stops at the next row it reads.
+     *
+     * @return The job, or null when it does not exist or has expired
+     */
+    public SampleExportJob cancel(String id) {
+        Job job = jobs.getIfPresent(id);
+        if (job == null) {
+            return null;
+        }
+        if (job.isFinished()) {
+            jobs.invalidate(id);
+        } else if (job.requestCancel()) {
+            // The job had not started: it will never run
+            Future<?> future = job.future;
+            if (future != null) {
+                future.cancel(false);
+                executor.remove((Runnable) future);
+            }
+            jobs.asMap().replace(id, job);
+        }
+        logger.info("Export job {} cancelled", id);
+        return job.toModel();
+    }
+
+    /**
+     * Build the download response of a completed job.
+     *
+     * @return The file, 404 when the job does not exist, or 409 when it is not completed
+     */
+    public ResponseEntity<Resource> download(String id) {
+        Job job = jobs.getIfPresent(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!COMPLETED.equals(job.status)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(job.export.getContentType()));
+        headers.setContentDispositionFormData("attachment", job.export.getFilename());
+        if (job.export.isGzip()) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return new ResponseEntity<>(new FileSystemResource(job.file), headers, HttpStatus.OK);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Write the export of the job to its file.
+     */
+    private void run(Job job) {
+        if (!job.start()) {
+            return;
+        }
+        try (CountingOutputStream out = new CountingOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(job.file)), job)) {
+            job.totalRows = sampleExportService.countExport(job.export);
+            sampleExportService.writeExport(job.export, out, rowCount -> {
+                if (job.cancelRequested || Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+                job.rowsWritten = rowCount;
+            });
+            out.flush();
+            job.finish(COMPLETED, null);
+            logger.info("Export job {} completed: {} samples, {} bytes", job.id, job.rowsWritten, job.bytesWritten);
+        } catch (CancellationException e) {
+            job.finish(CANCELLED, null);
+        } catch (Exception e) {
+            logger.error("Export job {} failed", job.id, e);
+            job.finish(FAILED, e.getMessage() != null ? e.getMessage() : e.toString());
+        } finally {
+            if (!COMPLETED.equals(job.status)) {
+                job.deleteFile();
+            }
+            // Start the TTL of the finished job, unless it was deleted meanwhile
+            jobs.asMap().replace(job.id, job);
+        }
+    }
+
+    private void deleteLeftoverFiles() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_EXTENSION)) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * State of a job, updated by the worker thread and read by the request threads.
+     */
+    private final class Job {
+
+        private final String id;
+        private final SampleExport export;
+        private final Path file;
+        private final Date submittedAt = new Date();
+        private volatile Future<?> future;
+        private volatile String status = QUEUED;
+        private volatile boolean cancelRequested;
+        private volatile Long totalRows;
+        private volatile long rowsWritten;
+        private volatile long bytesWritten;
+        private volatile Date startedAt;
+        private volatile Date completedAt;
+        private volatile String error;
+
+        Job(String id, SampleExport export, Path file) {
+            this.id = id;
+            this.export = export;
+            this.file = file;
+        }
+
+        /**
+         * @return false when the job was cancelled before it started
+         */
+        synchronized boolean start() {
+            if (cancelRequested) {
+                return false;
+            }
+            startedAt = new Date();
+            status = RUNNING;
+            return true;
+        }
+
+        /**
+         * @return true when the job had not started and is now cancelled
+         */
+        synchronized boolean requestCancel() {
+            cancelRequested = true;
+            if (QUEUED.equals(status)) {
+                finish(CANCELLED, null);
+                return true;
+            }
+            return false;
+        }
+
+        synchronized void finish(String finalStatus, String message) {
+            completedAt = new Date();
+            error = message;
+            status = finalStatus;
+        }
+
+        boolean isFinished() {
+            String current = status;
+            return !QUEUED.equals(current) && !RUNNING.equals(current);
+        }
+
+        void deleteFile() {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                logger.warn("Failed to delete export file {}: {}", file, e.getMessage());
+            }
+        }
+
+        SampleExportJob toModel() {
+            SampleExportJob model = new SampleExportJob();
+            model.setId(id);
+            model.setStatus(status);
+            model.setFormat(export.getFormat());
+            model.setFilename(export.getFilename());
+            model.setTotalRows(totalRows);
+            model.setRowsWritten(rowsWritten);
+            model.setBytesWritten(bytesWritten);
+            model.setError(error);
+            model.setSubmittedAt(submittedAt);
+            model.setStartedAt(startedAt);
+            Date completed = completedAt;
+            model.setCompletedAt(completed);
+            if (completed != null && isFinished()) {
+                model.setExpiresAt(new Date(completed.getTime() + ttl.toMillis()));
+            }
+            model.setEtaSeconds(estimateRemainingSeconds());
+            return model;
+        }
+
+        /**
+         * Extrapolate the remaining time from the rows written so far.
+         */
+        private Long estimateRemainingSeconds() {
+            Long total = totalRows;
+            long rows = rowsWritten;
+            Date started = startedAt;
+            if (!RUNNING.equals(status) || total == null || rows == 0 || started == null) {
+                return null;
+            }
+            long elapsedMillis = System.currentTimeMillis() - started.getTime();
+            long remainingRows = Math.max(total - rows, 0);
+            return (long) Math.ceil(elapsedMillis * (double) remainingRows / rows / 1000);
+        }
+    }
+
+    /**
+     * Output stream counting the bytes written to the job file.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private final Job job;
+
+        CountingOutputStream(OutputStream out, Job job) {
+            super(out);
+            this.job = job;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            job.bytesWritten++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            job.bytesWritten += len;
+        }
+    }
+
+    /**
+     * Exception raised when the export job queue is full.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class ExportJobQueueFullException extends RuntimeException {
+        public ExportJobQueueFullException(String message) {
+            super(message);
+        }
+    }
+}
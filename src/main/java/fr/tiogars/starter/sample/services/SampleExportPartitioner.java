@@ -0,0 +1,108 @@
+package fr.tiogars.starter.sample.services;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+
+/**
+ * Splits the ids of exported samples into contiguous ranges, read in parallel by
+ * {@link SampleExportService}, each one with its own connection.
+ *
+ * The number of ranges is capped by {@code sample.export.parallel.max-partitions}, by the connections
+ * left in the pool and by {@code sample.export.parallel.min-partition-ids}, so that small exports
+ * are not split.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class SampleExportPartitioner {
+
+    private final SampleRepository sampleRepository;
+    private final DataSource dataSource;
+    private final int maxPartitions;
+
+    /**
+     * Smallest span of ids worth a partition of its own
+     */
+    private final long minPartitionIds;
+
+    public SampleExportPartitioner(SampleRepository sampleRepository, DataSource dataSource,
+            @Value("${sample.export.parallel.max-partitions:4}") int maxPartitions,
+            @Value("${sample.export.parallel.min-partition-ids:10000}") long minPartitionIds) {
+        this.sampleRepository = sampleRepository;
+        this.dataSource = dataSource;
+        this.maxPartitions = maxPartitions;
+        this.minPartitionIds = minPartitionIds;
+    }
+
+    /**
+     * Cap the requested number of partitions by the configured maximum and the pool headroom.
+     * Call it before opening the transaction of {@link #partition}, whose connection would be counted.
+     *
+     * @param requested The number of partitions requested by the client
+     * @return The number of partitions allowed, 1 when the export should not be split
+     */
+    int allowedPartitions(int requested) {
+        return Math.max(1, Math.min(Math.min(requested, maxPartitions), poolHeadroom()));
+    }
+
+    /**
+     * Split the ids of the samples matching the specification into at most {@code partitions} ranges.
+     * Must be called inside a transaction.
+     *
+     * @param specification The filter specification, may be null
+     * @param partitions The number of partitions allowed by {@link #allowedPartitions}
+     * @return The id ranges in ascending order, or an empty list when the export should not be split
+     */
+    List<Range<Long>> partition(Specification<SampleEntity> specification, int partitions) {
+        if (partitions <= 1) {
+            return List.of();
+        }
+        Range<Long> ids = sampleRepository.findIdRange(specification).orElse(null);
+        if (ids == null) {
+            return List.of();
+        }
+        long min = ids.getLowerBound().getValue().orElseThrow();
+        long max = ids.getUpperBound().getValue().orElseThrow();
+        long span = max - min + 1;
+        int count = (int) Math.min(partitions, span / Math.max(minPartitionIds, 1));
+        if (count <= 1) {
+            return List.of();
+        }
+
+        long step = (span + count - 1) / count;
+        List<Range<Long>> ranges = new ArrayList<>(count);
+        for (long lower = min; lower <= max; lower += step) {
+            ranges.add(Range.closed(lower, Math.min(lower + step - 1, max)));
+        }
+        return ranges;
+    }
+
+    /**
+     * Connections that can be taken from the pool while leaving one to the other requests.
+     * Only known for a single Hikari pool; with a read/write split, only the configured maximum applies.
+     */
+    int poolHeadroom() {
+        if (dataSource instanceof HikariDataSource hikariDataSource) {
+            HikariPoolMXBean pool = hikariDataSource.getHikariPoolMXBean();
+            if (pool != null) {
+                return hikariDataSource.getMaximumPoolSize() - pool.getActiveConnections() - 1;
+            }
+        }
+        return maxPartitions;
+    }
+}
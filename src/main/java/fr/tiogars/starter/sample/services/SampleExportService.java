@@ -1,37 +1,54 @@
 package fr.tiogars.starter.sample.services;
 
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
-
-import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.ss.usermodel.CellStyle;
-import org.apache.poi.ss.usermodel.Font;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.ss.usermodel.Sheet;
-import org.apache.poi.ss.usermodel.Workbook;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Range;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.dataformat.xml.XmlMapper;
 import com.opencsv.CSVWriter;
 
+import fr.tiogars.starter.common.compression.ParallelGzipOutputStream;
+import fr.tiogars.starter.common.compression.ParallelZipOutputStream;
 import fr.tiogars.starter.sample.entities.SampleEntity;
 import fr.tiogars.starter.sample.forms.SampleExportForm;
 import fr.tiogars.starter.sample.models.Sample;
@@ -40,7 +57,8 @@ import fr.tiogars.starter.sample.repositories.SampleRepository;
 
 /**
  * Service for exporting samples in various formats.
- * Supports XLSX, CSV, XML, and JSON formats with optional ZIP compression.
+ * Supports XLSX, CSV, XML, JSON and NDJSON formats with optional ZIP or GZIP compression,
+ * deflated on every core by {@link SampleExportCompressor}.
  * 
  * @author Generated
  * @version 1.0
@@ -51,12 +69,49 @@ import fr.tiogars.starter.sample.repositories.SampleRepository;
 public class SampleExportService {
 
     private static final Logger logger = LoggerFactory.getLogger(SampleExportService.class);
+
+    /**
+     * Formats written row by row, which can be streamed
+     */
+    private static final Set<String> STREAMABLE_FORMATS = Set.of("csv", "xlsx", "json", "ndjson", "xml");
+
+    /**
+     * Formats whose partitions can be concatenated, which can be read in parallel
+     */
+    private static final Set<String> PARTITIONABLE_FORMATS = Set.of("csv", "ndjson");
+
+    /**
+     * Rows written to a streamed response between two flushes
+     */
+    private static final int STREAM_FLUSH_ROWS = 1000;
+
+    /**
+     * Fields read for JSON, NDJSON and XML documents when no column is selected
+     */
+    private static final Set<String> EVERY_FIELD = SampleExportColumn.fields(List.of(SampleExportColumn.values()));
+
     private final SampleRepository sampleRepository;
     private final SampleSearchService sampleSearchService;
+    private final SampleSearchPlanner sampleSearchPlanner;
+    private final SampleExportPartitioner sampleExportPartitioner;
+    private final SampleExportCompressor sampleExportCompressor;
+
+    /**
+     * Read-only transaction around the database cursor of streamed exports, which are written
+     * after the controller has returned
+     */
+    private final TransactionTemplate readOnlyTransaction;
 
-    public SampleExportService(SampleRepository sampleRepository, SampleSearchService sampleSearchService) {
+    public SampleExportService(SampleRepository sampleRepository, SampleSearchService sampleSearchService,
+            SampleSearchPlanner sampleSearchPlanner, SampleExportPartitioner sampleExportPartitioner,
+            SampleExportCompressor sampleExportCompressor, PlatformTransactionManager transactionManager) {
         this.sampleRepository = sampleRepository;
         this.sampleSearchService = sampleSearchService;
+        this.sampleSearchPlanner = sampleSearchPlanner;
+        this.sampleExportPartitioner = sampleExportPartitioner;
+        this.sampleExportCompressor = sampleExportCompressor;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     /**
@@ -65,7 +120,9 @@ public class SampleExportService {
      * @param form The export form containing format, zip option, and optional filters
      * @return ResponseEntity with the exported file as byte array
      */
+    @Transactional(readOnly = true)
     public ResponseEntity<byte[]> exportSamples(SampleExportForm form) {
+        List<SampleExportColumn> columns = SampleExportColumn.of(form != null ? form.getColumns() : null);
         try {
             String format = (form != null && form.getFormat() != null) ? form.getFormat() : "unknown";
             logger.info("Starting export in format: {}", format);
@@ -80,20 +137,21 @@ public class SampleExportService {
             String baseFilename = timestamp + "_samples." + format;
 
             // Generate file content
-            byte[] fileContent = generateFileContent(samples, format);
+            byte[] fileContent = generateFileContent(samples, format, form == null || form.isIndent(), columns);
 
-            // Apply ZIP compression if requested
+            // Apply ZIP or GZIP compression if requested
             byte[] finalContent;
             String filename;
             String contentType;
 
             boolean zip = form != null && form.isZip();
+            boolean gzip = !zip && form != null && form.isGzip();
             if (zip) {
                 finalContent = zipContent(fileContent, baseFilename);
                 filename = timestamp + "_samples.zip";
                 contentType = "application/zip";
             } else {
-                finalContent = fileContent;
+                finalContent = gzip ? gzipContent(fileContent) : fileContent;
                 filename = baseFilename;
                 contentType = getContentType(format);
             }
@@ -103,6 +161,9 @@ public class SampleExportService {
             headers.setContentType(MediaType.parseMediaType(contentType));
             headers.setContentDispositionFormData("attachment", filename);
             headers.setContentLength(finalContent.length);
+            if (gzip) {
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
 
             logger.info("Export completed successfully: {}", filename);
 
@@ -116,6 +177,396 @@ public class SampleExportService {
         }
     }
 
+    /**
+     * Stream the samples matching the form to the response, with no row limit.
+     * Rows are read from a database cursor and each one is written to the response as soon as
+     * it is read, so memory stays constant whatever the number of exported samples.
+     * Every format can be streamed; XLSX rows go through compressed temporary files
+     * and the workbook is written to the response once all rows are read.
+     *
+     * @param form The export form containing format, zip option, and optional filters
+     * @return ResponseEntity whose body writes the file to the response
+     */
+    public ResponseEntity<StreamingResponseBody> streamSamples(SampleExportForm form) {
+        SampleExport export = prepareExport(form);
+        StreamingResponseBody body = out -> writeExport(export, out, null);
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.parseMediaType(export.getContentType()));
+        headers.setContentDispositionFormData("attachment", export.getFilename());
+        if (export.isGzip()) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        logger.info("Starting streamed export in format: {}", export.getFormat());
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * Validate the form and compile its filter and sort, so that invalid criteria are rejected
+     * before anything is written.
+     *
+     * @param form The export form containing format, zip option, and optional filters
+     * @return The export, to be written by {@link #writeExport}
+     */
+    SampleExport prepareExport(SampleExportForm form) {
+        String format = (form != null && form.getFormat() != null) ? form.getFormat().toLowerCase() : "unknown";
+        if (!STREAMABLE_FORMATS.contains(format)) {
+            throw new UnsupportedExportFormatException("Format cannot be streamed: " + format);
+        }
+        List<SampleExportColumn> columns = SampleExportColumn.of(form.getColumns());
+
+        SampleSearchRequest searchRequest = form.getSearchRequest();
+        Specification<SampleEntity> specification;
+        Sort sort;
+        boolean relevanceSort = false;
+        if (searchRequest != null) {
+            SampleSearchPlan plan = sampleSearchPlanner.plan(searchRequest.getFilterModel(), searchRequest.getSortModel());
+            specification = plan.bind(searchRequest.getFilterModel());
+            sort = plan.getSort();
+            relevanceSort = plan.hasRelevanceSort();
+        } else {
+            specification = null;
+            sort = Sort.by(Sort.Direction.ASC, "id");
+        }
+        // Id ranges can only be concatenated in the export order when the samples are only sorted by id
+        List<Sort.Order> orders = sort.toList();
+        Sort.Direction idDirection = !relevanceSort && orders.size() == 1 && "id".equals(orders.get(0).getProperty())
+                ? orders.get(0).getDirection()
+                : null;
+
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date());
+        String baseFilename = timestamp + "_samples." + format;
+        boolean zip = form.isZip();
+        int partitions = form.getPartitions() != null ? form.getPartitions() : 1;
+        return new SampleExport(format, zip, !zip && form.isGzip(), form.isIndent(), columns, specification, sort,
+                idDirection, partitions, baseFilename,
+                zip ? timestamp + "_samples.zip" : baseFilename,
+                zip ? "application/zip" : getContentType(format));
+    }
+
+    /**
+     * Write the export to the output stream, which is left open.
+     * The ZIP or GZIP compression, if any, is applied here.
+     *
+     * @param export The export prepared by {@link #prepareExport}
+     * @param out The stream to write to
+     * @param progress Called with the number of rows read after each row, may be null.
+     *                 An exception thrown by it aborts the export.
+     */
+    void writeExport(SampleExport export, OutputStream out, LongConsumer progress) throws IOException {
+        List<Range<Long>> partitions = partitionsOf(export);
+        if (!partitions.isEmpty()) {
+            writePartitions(export, partitions, out, progress);
+        } else if (export.isZip()) {
+            ParallelZipOutputStream zipOut = sampleExportCompressor.zip(out);
+            zipOut.putNextEntry(export.getEntryName());
+            streamFile(export, progress, zipOut);
+            zipOut.finish();
+        } else if (export.isGzip()) {
+            ParallelGzipOutputStream gzipOut = sampleExportCompressor.gzip(out);
+            streamFile(export, progress, gzipOut);
+            gzipOut.finish();
+        } else {
+            streamFile(export, progress, out);
+        }
+    }
+
+    /**
+     * Split the export into id ranges when it was requested and can be concatenated.
+     *
+     * @return The id ranges in ascending order, or an empty list to read a single cursor
+     */
+    private List<Range<Long>> partitionsOf(SampleExport export) {
+        if (export.getPartitions() <= 1 || export.getIdDirection() == null
+                || !PARTITIONABLE_FORMATS.contains(export.getFormat())) {
+            return List.of();
+        }
+        int allowed = sampleExportPartitioner.allowedPartitions(export.getPartitions());
+        if (allowed <= 1) {
+            return List.of();
+        }
+        List<Range<Long>> ranges = readOnlyTransaction.execute(
+                status -> sampleExportPartitioner.partition(export.getSpecification(), allowed));
+        return ranges != null ? ranges : List.of();
+    }
+
+    /**
+     * Read each id range on its own virtual thread and connection into a temporary file, then copy the
+     * files to the output in the export order. With zip, each range is an entry of its own; with gzip,
+     * the files are compressed as a single stream.
+     */
+    private void writePartitions(SampleExport export, List<Range<Long>> ranges, OutputStream out,
+            LongConsumer progress) throws IOException {
+        List<Range<Long>> ordered = new ArrayList<>(ranges);
+        if (export.getIdDirection() == Sort.Direction.DESC) {
+            Collections.reverse(ordered);
+        }
+
+        AtomicBoolean aborted = new AtomicBoolean();
+        AtomicLong rowCount = new AtomicLong();
+        LongConsumer partitionProgress = partitionRows -> {
+            if (aborted.get()) {
+                throw new CancellationException();
+            }
+            long total = rowCount.incrementAndGet();
+            if (progress != null) {
+                progress.accept(total);
+            }
+        };
+
+        List<Path> files = new ArrayList<>(ordered.size());
+        List<Future<Long>> futures = new ArrayList<>(ordered.size());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            try {
+                for (int i = 0; i < ordered.size(); i++) {
+                    Path file = Files.createTempFile("sample-export-", ".part");
+                    files.add(file);
+                    Specification<SampleEntity> specification = idBetween(export.getSpecification(), ordered.get(i));
+                    // Concatenated CSV partitions share the header of the first one
+                    boolean header = export.isZip() || i == 0;
+                    futures.add(executor.submit(
+                            () -> writePartition(export, specification, header, file, partitionProgress)));
+                }
+
+                ParallelZipOutputStream zipOut = export.isZip() ? sampleExportCompressor.zip(out) : null;
+                ParallelGzipOutputStream gzipOut = export.isGzip() ? sampleExportCompressor.gzip(out) : null;
+                for (int i = 0; i < ordered.size(); i++) {
+                    awaitPartition(futures.get(i));
+                    if (zipOut != null) {
+                        zipOut.putNextEntry(partitionEntryName(export, i + 1));
+                        Files.copy(files.get(i), zipOut);
+                    } else {
+                        Files.copy(files.get(i), gzipOut != null ? gzipOut : out);
+                    }
+                    Files.delete(files.get(i));
+                }
+                if (zipOut != null) {
+                    zipOut.finish();
+                }
+                if (gzipOut != null) {
+                    gzipOut.finish();
+                }
+                logger.info("Streamed export completed: {} samples in {} partitions", rowCount.get(), ordered.size());
+            } finally {
+                // Stop the partitions still running, then wait for them before deleting their files
+                aborted.set(true);
+                futures.forEach(future -> future.cancel(true));
+                executor.shutdown();
+            }
+        } finally {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Write the samples of one partition to its temporary file.
+     *
+     * @return The number of rows written
+     */
+    private long writePartition(SampleExport export, Specification<SampleEntity> specification, boolean header,
+            Path file, LongConsumer progress) throws IOException {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            return readStream(specification, export.getSort(), readFields(export.getFormat(), export.getColumns()),
+                    progress,
+                    samples -> "csv".equals(export.getFormat())
+                            ? writeCsv(samples, tableColumns(export.getColumns()), out, header)
+                            : writeDocument(samples, export.getFormat(), export.isIndent(),
+                                    documentFields(export.getColumns()), out));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Wait for a partition, rethrowing its failure.
+     */
+    private static void awaitPartition(Future<Long> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an export partition");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SampleExportException("Export partition failed", cause);
+        }
+    }
+
+    /**
+     * Restrict the specification to an id range.
+     */
+    private static Specification<SampleEntity> idBetween(Specification<SampleEntity> specification, Range<Long> ids) {
+        long lower = ids.getLowerBound().getValue().orElseThrow();
+        long upper = ids.getUpperBound().getValue().orElseThrow();
+        Specification<SampleEntity> range = (root, query, criteriaBuilder) ->
+                criteriaBuilder.between(root.<Long>get("id"), lower, upper);
+        return specification != null ? specification.and(range) : range;
+    }
+
+    /**
+     * Name of the ZIP entry of a partition: the file name suffixed by the partition number.
+     */
+    private static String partitionEntryName(SampleExport export, int partition) {
+        String entryName = export.getEntryName();
+        int extension = entryName.lastIndexOf('.');
+        return String.format("%s_part-%03d%s", entryName.substring(0, extension), partition,
+                entryName.substring(extension));
+    }
+
+    /**
+     * Count the samples of the export.
+     */
+    long countExport(SampleExport export) {
+        Long count = readOnlyTransaction.execute(status -> export.getSpecification() != null
+                ? sampleRepository.count(export.getSpecification())
+                : sampleRepository.count());
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Read the samples from a cursor and write them in the format of the export.
+     */
+    private void streamFile(SampleExport export, LongConsumer progress, OutputStream out) throws IOException {
+        Specification<SampleEntity> specification = export.getSpecification();
+        Sort sort = export.getSort();
+        List<SampleExportColumn> columns = export.getColumns();
+        String format = export.getFormat();
+        try {
+            long rowCount;
+            if ("xlsx".equals(format)) {
+                try (SampleXlsxWriter xlsxWriter = new SampleXlsxWriter(tableColumns(columns))) {
+                    readStream(specification, sort, readFields(format, columns), progress, samples -> {
+                        samples.forEachRemaining(xlsxWriter::write);
+                        return xlsxWriter.getRowCount();
+                    });
+                    // Assemble the workbook once the cursor and its connection are released
+                    xlsxWriter.finish(out);
+                    rowCount = xlsxWriter.getRowCount();
+                }
+            } else if (SampleDocumentWriter.supports(format)) {
+                rowCount = readStream(specification, sort, readFields(format, columns), progress,
+                        samples -> writeDocument(samples, format, export.isIndent(), documentFields(columns), out));
+            } else {
+                rowCount = readStream(specification, sort, readFields(format, columns), progress,
+                        samples -> writeCsv(samples, tableColumns(columns), out, true));
+            }
+            logger.info("Streamed export completed: {} samples", rowCount);
+        } catch (UncheckedIOException e) {
+            // Usually the client went away: stop reading the cursor
+            logger.warn("Streamed export aborted: {}", e.getCause().getMessage());
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Consumes the samples read from the database cursor.
+     */
+    @FunctionalInterface
+    private interface SampleStreamConsumer {
+        long accept(Iterator<Sample> samples) throws IOException;
+    }
+
+    /**
+     * Open the sample cursor in a read-only transaction and hand it to the consumer.
+     *
+     * @param fields The fields to read, see {@link #readFields}, or null for every column without the tags
+     * @return The value returned by the consumer
+     */
+    private long readStream(Specification<SampleEntity> specification, Sort sort, Set<String> fields,
+            LongConsumer progress, SampleStreamConsumer consumer) {
+        Long result = readOnlyTransaction.execute(status -> {
+            try (Stream<Sample> samples = fields != null
+                    ? sampleRepository.streamSamples(specification, sort, fields)
+                    : sampleRepository.streamSamples(specification, sort)) {
+                Iterator<Sample> iterator = samples.iterator();
+                return consumer.accept(progress != null ? new ProgressIterator(iterator, progress) : iterator);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return result != null ? result : 0;
+    }
+
+    /**
+     * Iterator reporting the number of rows read after each row.
+     */
+    private static final class ProgressIterator implements Iterator<Sample> {
+
+        private final Iterator<Sample> delegate;
+        private final LongConsumer progress;
+        private long rowCount;
+
+        ProgressIterator(Iterator<Sample> delegate, LongConsumer progress) {
+            this.delegate = delegate;
+            this.progress = progress;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Sample next() {
+            Sample sample = delegate.next();
+            progress.accept(++rowCount);
+            return sample;
+        }
+    }
+
+    /**
+     * Write the CSV header, unless the rows follow another partition, and rows, flushing every
+     * {@value #STREAM_FLUSH_ROWS} rows. The writer is flushed but not closed, the caller owns the output stream.
+     *
+     * @return The number of rows written
+     */
+    private long writeCsv(Iterator<Sample> samples, List<SampleExportColumn> columns, OutputStream out,
+            boolean header) throws IOException {
+        CSVWriter csvWriter = new CSVWriter(new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)));
+        if (header) {
+            csvWriter.writeNext(csvHeaders(columns));
+        }
+        long rowCount = 0;
+        while (samples.hasNext()) {
+            csvWriter.writeNext(toCsvRow(samples.next(), columns));
+            rowCount++;
+            // CSVWriter keeps write errors: checkError flushes and reports them
+            if (rowCount % STREAM_FLUSH_ROWS == 0 && csvWriter.checkError()) {
+                throw new IOException("Failed to write CSV row " + rowCount);
+            }
+        }
+        csvWriter.flush();
+        return rowCount;
+    }
+
+    /**
+     * Write the samples as a JSON, NDJSON or XML document, flushing every {@value #STREAM_FLUSH_ROWS} rows.
+     * The caller owns the output stream, which is left open.
+     *
+     * @return The number of rows written
+     */
+    private long writeDocument(Iterator<Sample> samples, String format, boolean indent, Set<String> fields,
+            OutputStream out) throws IOException {
+        SampleDocumentWriter documentWriter = SampleDocumentWriter.open(format, indent, fields, out);
+        while (samples.hasNext()) {
+            documentWriter.write(samples.next());
+            if (documentWriter.getRowCount() % STREAM_FLUSH_ROWS == 0) {
+                documentWriter.flush();
+            }
+        }
+        documentWriter.finish();
+        return documentWriter.getRowCount();
+    }
+
     /**
      * Custom exception for sample export errors.
      */
@@ -125,6 +576,26 @@ public class SampleExportService {
         }
     }
 
+    /**
+     * Exception raised when a selected column is not an exportable sample field.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class UnsupportedExportColumnException extends RuntimeException {
+        public UnsupportedExportColumnException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Exception raised when the requested format cannot be exported by the called method.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class UnsupportedExportFormatException extends RuntimeException {
+        public UnsupportedExportFormatException(String message) {
+            super(message);
+        }
+    }
+
     /**
      * Fetch samples based on search criteria or all samples if no criteria provided.
      * Note: Exports are limited to 100,000 records to prevent memory issues.
@@ -155,17 +626,18 @@ public class SampleExportService {
     /**
      * Generate file content based on format.
      */
-    private byte[] generateFileContent(List<Sample> samples, String format) throws IOException {
+    private byte[] generateFileContent(List<Sample> samples, String format, boolean indent,
+            List<SampleExportColumn> columns) throws IOException {
         try {
             switch (format.toLowerCase()) {
                 case "xlsx":
-                    return generateXlsx(samples);
+                    return generateXlsx(samples, tableColumns(columns));
                 case "csv":
-                    return generateCsv(samples);
+                    return generateCsv(samples, tableColumns(columns));
                 case "xml":
-                    return generateXml(samples);
                 case "json":
-                    return generateJson(samples);
+                case "ndjson":
+                    return generateDocument(samples, format.toLowerCase(), indent, documentFields(columns));
                 default:
                     throw new IllegalArgumentException("Unsupported format: " + format);
             }
@@ -178,46 +650,13 @@ public class SampleExportService {
     /**
      * Generate XLSX file content.
      */
-    private byte[] generateXlsx(List<Sample> samples) throws IOException {
-        try (Workbook workbook = new XSSFWorkbook();
+    private byte[] generateXlsx(List<Sample> samples, List<SampleExportColumn> columns) throws IOException {
+        try (SampleXlsxWriter xlsxWriter = new SampleXlsxWriter(columns);
              ByteArrayOutputStream out = new ByteArrayOutputStream()) {
-            
-            Sheet sheet = workbook.createSheet("Samples");
-            
-            // Create header row with bold font
-            Row headerRow = sheet.createRow(0);
-            CellStyle headerStyle = workbook.createCellStyle();
-            Font headerFont = workbook.createFont();
-            headerFont.setBold(true);
-            headerStyle.setFont(headerFont);
-            
-            String[] headers = {"ID", "Name", "Description", "Active", "Created At", "Created By", "Updated At", "Updated By"};
-            for (int i = 0; i < headers.length; i++) {
-                Cell cell = headerRow.createCell(i);
-                cell.setCellValue(headers[i]);
-                cell.setCellStyle(headerStyle);
-            }
-            
-            // Add data rows
-            int rowNum = 1;
             for (Sample sample : samples) {
-                Row row = sheet.createRow(rowNum++);
-                row.createCell(0).setCellValue(sample.getId() != null ? sample.getId() : 0);
-                row.createCell(1).setCellValue(sample.getName() != null ? sample.getName() : "");
-                row.createCell(2).setCellValue(sample.getDescription() != null ? sample.getDescription() : "");
-                row.createCell(3).setCellValue(sample.isActive());
-                row.createCell(4).setCellValue(sample.getCreatedAt() != null ? sample.getCreatedAt().toString() : "");
-                row.createCell(5).setCellValue(sample.getCreatedBy() != null ? sample.getCreatedBy() : "");
-                row.createCell(6).setCellValue(sample.getUpdatedAt() != null ? sample.getUpdatedAt().toString() : "");
-                row.createCell(7).setCellValue(sample.getUpdatedBy() != null ? sample.getUpdatedBy() : "");
+                xlsxWriter.write(sample);
             }
-            
-            // Auto-size columns
-            for (int i = 0; i < headers.length; i++) {
-                sheet.autoSizeColumn(i);
-            }
-            
-            workbook.write(out);
+            xlsxWriter.finish(out);
             return out.toByteArray();
         }
     }
@@ -225,28 +664,17 @@ public class SampleExportService {
     /**
      * Generate CSV file content.
      */
-    private byte[] generateCsv(List<Sample> samples) throws IOException {
+    private byte[] generateCsv(List<Sample> samples, List<SampleExportColumn> columns) throws IOException {
         try (ByteArrayOutputStream out = new ByteArrayOutputStream();
              OutputStreamWriter writer = new OutputStreamWriter(out);
              CSVWriter csvWriter = new CSVWriter(writer)) {
             
             // Write header
-            String[] headers = {"ID", "Name", "Description", "Active", "Created At", "Created By", "Updated At", "Updated By"};
-            csvWriter.writeNext(headers);
+            csvWriter.writeNext(csvHeaders(columns));
             
             // Write data rows
             for (Sample sample : samples) {
-                String[] row = {
-                    sample.getId() != null ? sample.getId().toString() : "",
-                    sample.getName() != null ? sample.getName() : "",
-                    sample.getDescription() != null ? sample.getDescription() : "",
-                    String.valueOf(sample.isActive()),
-                    sample.getCreatedAt() != null ? sample.getCreatedAt().toString() : "",
-                    sample.getCreatedBy() != null ? sample.getCreatedBy() : "",
-                    sample.getUpdatedAt() != null ? sample.getUpdatedAt().toString() : "",
-                    sample.getUpdatedBy() != null ? sample.getUpdatedBy() : ""
-                };
-                csvWriter.writeNext(row);
+                csvWriter.writeNext(toCsvRow(sample, columns));
             }
             
             csvWriter.flush();
@@ -254,34 +682,51 @@ public class SampleExportService {
         }
     }
 
+    private static String[] csvHeaders(List<SampleExportColumn> columns) {
+        return columns.stream().map(SampleExportColumn::getHeader).toArray(String[]::new);
+    }
+
+    private static String[] toCsvRow(Sample sample, List<SampleExportColumn> columns) {
+        String[] row = new String[columns.size()];
+        for (int i = 0; i < row.length; i++) {
+            row[i] = columns.get(i).text(sample);
+        }
+        return row;
+    }
+
     /**
-     * Generate XML file content.
+     * Columns of CSV and XLSX files: the selected columns, or the default ones.
      */
-    private byte[] generateXml(List<Sample> samples) throws IOException {
-        try {
-            XmlMapper xmlMapper = new XmlMapper();
-            xmlMapper.enable(SerializationFeature.INDENT_OUTPUT);
+    private static List<SampleExportColumn> tableColumns(List<SampleExportColumn> columns) {
+        return columns != null ? columns : SampleExportColumn.DEFAULT_COLUMNS;
+    }
 
-            // Wrap samples in a root element
-            SamplesWrapper wrapper = new SamplesWrapper(samples);
-            return xmlMapper.writeValueAsBytes(wrapper);
-        } catch (Exception e) {
-            logger.error("Failed to generate XML content", e);
-            throw new SampleExportException("Failed to generate XML content", e);
+    /**
+     * Fields read from the database: the selected columns, or every field with the tags for JSON, NDJSON
+     * and XML documents. Null for the default CSV and XLSX columns, which do not hold the tags.
+     */
+    private static Set<String> readFields(String format, List<SampleExportColumn> columns) {
+        if (columns != null) {
+            return SampleExportColumn.fields(columns);
         }
+        return SampleDocumentWriter.supports(format) ? EVERY_FIELD : null;
     }
 
     /**
-     * Generate JSON file content.
+     * Fields of JSON, NDJSON and XML documents: the selected columns, or null for every field.
      */
-    private byte[] generateJson(List<Sample> samples) throws IOException {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-            return objectMapper.writeValueAsBytes(samples);
-        } catch (Exception e) {
-            logger.error("Failed to generate JSON content", e);
-            throw new SampleExportException("Failed to generate JSON content", e);
+    private static Set<String> documentFields(List<SampleExportColumn> columns) {
+        return columns != null ? SampleExportColumn.fields(columns) : null;
+    }
+
+    /**
+     * Generate JSON, NDJSON or XML file content.
+     */
+    private byte[] generateDocument(List<Sample> samples, String format, boolean indent, Set<String> fields)
+            throws IOException {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            writeDocument(samples.iterator(), format, indent, fields, out);
+            return out.toByteArray();
         }
     }
 
@@ -290,12 +735,10 @@ public class SampleExportService {
      */
     private byte[] zipContent(byte[] content, String filename) throws IOException {
         try (ByteArrayOutputStream out = new ByteArrayOutputStream();
-             ZipOutputStream zipOut = new ZipOutputStream(out)) {
+             ParallelZipOutputStream zipOut = sampleExportCompressor.zip(out)) {
 
-            ZipEntry zipEntry = new ZipEntry(filename);
-            zipOut.putNextEntry(zipEntry);
+            zipOut.putNextEntry(filename);
             zipOut.write(content);
-            zipOut.closeEntry();
             zipOut.finish();
 
             return out.toByteArray();
@@ -305,6 +748,20 @@ public class SampleExportService {
         }
     }
 
+    /**
+     * Compress content with GZIP, for the gzip content encoding.
+     */
+    private byte[] gzipContent(byte[] content) throws IOException {
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+             ParallelGzipOutputStream gzipOut = sampleExportCompressor.gzip(out)) {
+
+            gzipOut.write(content);
+            gzipOut.finish();
+
+            return out.toByteArray();
+        }
+    }
+
     /**
      * Get content type based on format.
      */
@@ -318,6 +775,8 @@ public class SampleExportService {
                 return "application/xml";
             case "json":
                 return "application/json";
+            case "ndjson":
+                return "application/x-ndjson";
             default:
                 return "application/octet-stream";
         }
@@ -338,20 +797,4 @@ public class SampleExportService {
         model.setUpdatedBy(entity.getUpdatedBy());
         return model;
     }
-
-    /**
-     * Wrapper class for XML serialization.
-     */
-    private static class SamplesWrapper {
-        private final List<Sample> samples;
-
-        public SamplesWrapper(List<Sample> samples) {
-            this.samples = samples;
-        }
-
-        @SuppressWarnings("unused")
-        public List<Sample> getSamples() {
-            return samples;
-        }
-    }
 }
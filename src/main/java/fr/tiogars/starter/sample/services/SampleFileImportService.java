@@ -0,0 +1,370 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.models.SampleImportReport;
+
+/**
+ * Service for importing the samples of an uploaded CSV, XLSX, JSON or NDJSON file, such as an export.
+ *
+ * The file is parsed a row at a time on a virtual thread, which hands the samples to the
+ * {@link SampleImportService} through a queue of {@code sample.import.queue-capacity} samples: parsing and
+ * database writes overlap, and memory does not grow with the size of the file. A gzip compressed file is
+ * decompressed on the fly.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class SampleFileImportService {
+
+    static final List<String> FORMATS = List.of("csv", "xlsx", "json", "ndjson");
+
+    /**
+     * Queued after the last sample of the file
+     */
+    private static final SampleCreateForm END_OF_FILE = new SampleCreateForm();
+
+    private final Logger logger = Logger.getLogger(SampleFileImportService.class.getName());
+    private final SampleImportService sampleImportService;
+    private final int queueCapacity;
+
+    public SampleFileImportService(SampleImportService sampleImportService,
+            @Value("${sample.import.queue-capacity:1000}") int queueCapacity) {
+        this.sampleImportService = sampleImportService;
+        this.queueCapacity = Math.max(queueCapacity, 1);
+    }
+
+    /**
+     * Import the samples of a file and return a detailed report.
+     * The samples are written a chunk at a time: when the file turns out to be invalid, the samples of the
+     * chunks written before the error are kept.
+     *
+     * @param file The uploaded file
+     * @param format The format of the file, or null to use the extension of its name
+     * @param onConflict What to do with a sample whose name is used: skip, update or fail, null to skip it
+     * @param reportMode Which samples the report lists: full, errorsOnly or summary, null to list them all
+     * @return A report with import statistics and the items of its report mode
+     */
+    public SampleImportReport importFile(MultipartFile file, String format, String onConflict, String reportMode) {
+        String fileFormat = resolveFormat(format, file.getOriginalFilename());
+        String mode = SampleImportService.resolveOnConflict(onConflict);
+        String itemMode = SampleImportService.resolveReportMode(reportMode);
+        logger.info("Starting import of " + fileFormat + " file '" + file.getOriginalFilename() + "', on conflict: "
+                + mode);
+        return importFile(file, fileFormat, 0, samples -> sampleImportService.importSamples(samples, mode, itemMode));
+    }
+
+    /**
+     * Import the samples of a file, writing the reported items as NDJSON while the import runs, then the report.
+     * The format and modes are checked before the body is returned.
+     *
+     * @param file The uploaded file
+     * @param format The format of the file, or null to use the extension of its name
+     * @param onConflict What to do with a sample whose name is used: skip, update or fail, null to skip it
+     * @param reportMode Which samples are written: full, errorsOnly or summary, null to write them all
+     * @return The body writing the report lines
+     */
+    public StreamingResponseBody streamFile(MultipartFile file, String format, String onConflict,
+            String reportMode) {
+        String fileFormat = resolveFormat(format, file.getOriginalFilename());
+        String mode = SampleImportService.resolveOnConflict(onConflict);
+        String itemMode = SampleImportService.resolveReportMode(reportMode);
+        logger.info("Starting streamed import of " + fileFormat + " file '" + file.getOriginalFilename()
+                + "', on conflict: " + mode);
+        return out -> SampleImportReportWriter.writeImport(out, (report, items) -> importFile(file, fileFormat, 0,
+                samples -> sampleImportService.importSamples(samples, mode, itemMode, report, items)));
+    }
+
+    /**
+     * Import the samples of a stored file, after the ones already imported by an earlier run, continuing the
+     * totals of its report. The items are not kept: the report only holds totals.
+     *
+     * @param file The stored file
+     * @param format The format of the file, as resolved when it was stored
+     * @param onConflict What to do with a sample whose name is used, as resolved when the file was stored
+     * @param skippedRows The number of samples of the file already imported
+     * @param report The report of the earlier runs, whose totals are continued
+     * @param checkpoint Called with the totals of the samples imported so far, in the transaction writing them
+     * @return The report, with its totals updated
+     */
+    SampleImportReport importFile(InputStreamSource file, String format, String onConflict, long skippedRows,
+            SampleImportReport report, Consumer<SampleImportReport> checkpoint) {
+        return importFile(file, format, skippedRows,
+                samples -> sampleImportService.importSamples(samples, onConflict, report, checkpoint));
+    }
+
+    private SampleImportReport importFile(InputStreamSource file, String format, long skippedRows,
+            Function<Iterator<SampleCreateForm>, SampleImportReport> importer) {
+        try {
+            switch (format) {
+                case "csv":
+                    return importRows(consumer -> {
+                        try (InputStream in = open(file)) {
+                            SampleFileReader.readCsv(in, consumer);
+                        }
+                    }, skippedRows, importer);
+                case "json":
+                    return importRows(consumer -> {
+                        try (InputStream in = open(file)) {
+                            SampleFileReader.readJson(in, consumer);
+                        }
+                    }, skippedRows, importer);
+                case "ndjson":
+                    return importRows(consumer -> {
+                        try (InputStream in = open(file)) {
+                            SampleFileReader.readNdjson(in, consumer);
+                        }
+                    }, skippedRows, importer);
+                case "xlsx":
+                    return importXlsx(file, skippedRows, importer);
+                default:
+                    throw new UnsupportedImportFormatException("Unsupported import format: " + format);
+            }
+        } catch (IOException e) {
+            throw new SampleFileImportException("Failed to read the import file", e);
+        }
+    }
+
+    /**
+     * The parts of a workbook are read out of order, so the XLSX file is copied to disk first.
+     */
+    private SampleImportReport importXlsx(InputStreamSource file, long skippedRows,
+            Function<Iterator<SampleCreateForm>, SampleImportReport> importer) throws IOException {
+        Path workbook = Files.createTempFile("sample-import-", ".xlsx");
+        try {
+            try (InputStream in = open(file)) {
+                Files.copy(in, workbook, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return importRows(consumer -> SampleXlsxReader.read(workbook.toFile(), consumer), skippedRows, importer);
+        } finally {
+            Files.deleteIfExists(workbook);
+        }
+    }
+
+    /**
+     * Read the samples on a virtual thread and import them on the calling thread as they are queued.
+     */
+    private SampleImportReport importRows(RowSource source, long skippedRows,
+            Function<Iterator<SampleCreateForm>, SampleImportReport> importer) {
+        BlockingQueue<SampleCreateForm> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = Thread.ofVirtual().name("sample-import-reader").start(() -> {
+            try {
+                source.read(new Consumer<SampleCreateForm>() {
+                    private long rows;
+
+                    @Override
+                    public void accept(SampleCreateForm form) {
+                        // Samples imported by an earlier run are parsed, but not imported again
+                        if (rows++ >= skippedRows) {
+                            put(queue, form);
+                        }
+                    }
+                });
+            } catch (ImportCancelledException e) {
+                // The import stopped: nobody reads the queue anymore
+                return;
+            } catch (Throwable e) {
+                // Rethrown by the import once the samples read before it are queued
+                failure.set(e);
+            }
+            try {
+                put(queue, END_OF_FILE);
+            } catch (ImportCancelledException e) {
+                // The import stopped while the queue was full
+            }
+        });
+        try {
+            return importer.apply(new QueuedSamples(queue, failure));
+        } finally {
+            // Stop the reader when the import failed, and release the file before returning
+            reader.interrupt();
+            try {
+                reader.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void put(BlockingQueue<SampleCreateForm> queue, SampleCreateForm form) {
+        try {
+            queue.put(form);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImportCancelledException();
+        }
+    }
+
+    /**
+     * @return The content of the file, decompressed when it is gzip compressed
+     */
+    private static InputStream open(InputStreamSource file) throws IOException {
+        InputStream in = new BufferedInputStream(file.getInputStream());
+        in.mark(2);
+        int first = in.read();
+        int second = in.read();
+        in.reset();
+        if (first == 0x1f && second == 0x8b) {
+            return new GZIPInputStream(in, 65536);
+        }
+        return in;
+    }
+
+    /**
+     * @return The requested format, or the one of the file name extension, a {@code .gz} suffix aside
+     */
+    static String resolveFormat(String format, String filename) {
+        String resolved = format;
+        if ((resolved == null || resolved.isBlank()) && filename != null) {
+            String name = filename.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".gz")) {
+                name = name.substring(0, name.length() - 3);
+            }
+            int dot = name.lastIndexOf('.');
+            resolved = dot >= 0 ? name.substring(dot + 1) : null;
+        }
+        if (resolved == null || resolved.isBlank()) {
+            throw new UnsupportedImportFormatException("Import format is missing: set the format or a file extension");
+        }
+        resolved = resolved.strip().toLowerCase(Locale.ROOT);
+        if (!FORMATS.contains(resolved)) {
+            throw new UnsupportedImportFormatException("Unsupported import format: " + resolved
+                    + ". Supported formats: " + String.join(", ", FORMATS));
+        }
+        return resolved;
+    }
+
+    /**
+     * Parser of an import file, handing the samples to a consumer as they are read
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        void read(Consumer<SampleCreateForm> consumer) throws IOException;
+    }
+
+    /**
+     * Samples taken from the queue, until the end of the file, rethrowing the error that stopped the reader
+     */
+    private final class QueuedSamples implements Iterator<SampleCreateForm> {
+
+        private final BlockingQueue<SampleCreateForm> queue;
+        private final AtomicReference<Throwable> failure;
+        private SampleCreateForm next;
+        private boolean ended;
+
+        private QueuedSamples(BlockingQueue<SampleCreateForm> queue, AtomicReference<Throwable> failure) {
+            this.queue = queue;
+            this.failure = failure;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !ended) {
+                try {
+                    next = queue.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SampleFileImportException("Import interrupted", e);
+                }
+                if (next == END_OF_FILE) {
+                    next = null;
+                    ended = true;
+                    rethrowFailure();
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public SampleCreateForm next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            SampleCreateForm form = next;
+            next = null;
+            return form;
+        }
+
+        private void rethrowFailure() {
+            Throwable e = failure.get();
+            if (e == null) {
+                return;
+            }
+            logger.log(Level.WARNING, "Import file could not be read: " + e.getMessage());
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e instanceof Error error) {
+                throw error;
+            }
+            throw new SampleFileImportException("Failed to read the import file", e);
+        }
+    }
+
+    /**
+     * Thrown on the reader thread when the import stopped before the end of the file
+     */
+    private static class ImportCancelledException extends RuntimeException {
+        ImportCancelledException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Exception thrown when the import file cannot be read.
+     */
+    public static class SampleFileImportException extends RuntimeException {
+        public SampleFileImportException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+
+    /**
+     * Exception thrown when the content of the import file is not valid for its format.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidImportFileException extends RuntimeException {
+        public InvalidImportFileException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Exception thrown when the format of the import file is missing or not supported.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class UnsupportedImportFormatException extends RuntimeException {
+        public UnsupportedImportFormatException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.opencsv.exceptions.CsvValidationException;
+
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.services.SampleFileImportService.InvalidImportFileException;
+
+/**
+ * Reads the samples of a CSV, JSON or newline-delimited JSON import file one at a time, handing each one to a
+ * consumer as soon as it is parsed, so that the file is never held in memory.
+ *
+ * Files have the layout of the exports: CSV columns are recognized by their header, the JSON elements are
+ * samples, and tags are given by name. Ids, dates and authors are ignored, as imported samples are created.
+ * The reader does not close the input stream, which is owned by the caller.
+ */
+final class SampleFileReader {
+
+    private static final ObjectMapper JSON_MAPPER = JsonMapper.builder()
+            .disable(StreamReadFeature.AUTO_CLOSE_SOURCE)
+            .build();
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    private SampleFileReader() {
+    }
+
+    /**
+     * Read a CSV file whose first row holds the column headers.
+     */
+    static void readCsv(InputStream in, Consumer<SampleCreateForm> consumer) throws IOException {
+        CSVReader reader = new CSVReaderBuilder(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))).build();
+        try {
+            String[] headers = reader.readNext();
+            if (headers == null) {
+                return;
+            }
+            if (headers.length > 0 && !headers[0].isEmpty() && headers[0].charAt(0) == BYTE_ORDER_MARK) {
+                headers[0] = headers[0].substring(1);
+            }
+            Columns columns = Columns.of(Arrays.asList(headers));
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                if (!Columns.isBlank(row)) {
+                    consumer.accept(columns.toForm(row));
+                }
+            }
+        } catch (CsvValidationException e) {
+            throw new InvalidImportFileException("Invalid CSV file at line " + reader.getLinesRead() + ": "
+                    + e.getMessage());
+        }
+    }
+
+    /**
+     * Read a JSON array of samples, or an import form whose {@code samples} field holds that array.
+     */
+    static void readJson(InputStream in, Consumer<SampleCreateForm> consumer) throws IOException {
+        int count = 0;
+        try (JsonParser parser = JSON_MAPPER.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return;
+            }
+            if (token == JsonToken.START_OBJECT) {
+                // Import form: skip to the samples array
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME && !"samples".equals(parser.currentName())) {
+                    parser.nextToken();
+                    parser.skipChildren();
+                }
+                if (token != JsonToken.FIELD_NAME) {
+                    return;
+                }
+                token = parser.nextToken();
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new InvalidImportFileException("Invalid JSON file: expected an array of samples");
+            }
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                consumer.accept(toForm(parser, token, count + 1));
+                count++;
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportFileException("Invalid JSON file after sample " + count + ": "
+                    + e.getOriginalMessage());
+        }
+    }
+
+    /**
+     * Read newline-delimited JSON, one sample per line.
+     */
+    static void readNdjson(InputStream in, Consumer<SampleCreateForm> consumer) throws IOException {
+        int count = 0;
+        try (JsonParser parser = JSON_MAPPER.createParser(in)) {
+            JsonToken token;
+            while ((token = parser.nextToken()) != null) {
+                consumer.accept(toForm(parser, token, count + 1));
+                count++;
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidImportFileException("Invalid NDJSON file at line " + (count + 1) + ": "
+                    + e.getOriginalMessage());
+        }
+    }
+
+    private static SampleCreateForm toForm(JsonParser parser, JsonToken token, int index) throws IOException {
+        if (token != JsonToken.START_OBJECT) {
+            throw new InvalidImportFileException("Invalid JSON file: sample " + index + " is not an object");
+        }
+        JsonNode node = JSON_MAPPER.readTree(parser);
+        SampleCreateForm form = new SampleCreateForm();
+        form.setName(text(node.get("name")));
+        form.setDescription(text(node.get("description")));
+        form.setActive(node.path("active").asBoolean(false));
+
+        Set<String> tagNames = new LinkedHashSet<>();
+        JsonNode tags = node.has("tagNames") ? node.get("tagNames") : node.get("tags");
+        if (tags != null && tags.isArray()) {
+            for (JsonNode tag : tags) {
+                // Exported tags are objects, form tags are names
+                String name = text(tag.isObject() ? tag.get("name") : tag);
+                if (name != null && !name.isBlank()) {
+                    tagNames.add(name);
+                }
+            }
+        } else if (tags != null && tags.isTextual()) {
+            tagNames.addAll(Columns.splitTags(tags.textValue()));
+        }
+        form.setTagNames(tagNames);
+        return form;
+    }
+
+    private static String text(JsonNode node) {
+        return node == null || node.isNull() ? null : node.asText();
+    }
+
+    /**
+     * Columns of a CSV file or XLSX sheet, recognized by the headers of the exports
+     */
+    static final class Columns {
+
+        private final SampleExportColumn[] columns;
+
+        private Columns(SampleExportColumn[] columns) {
+            this.columns = columns;
+        }
+
+        /**
+         * @param headers The header row, whose unknown columns are ignored
+         * @throws InvalidImportFileException When there is no name column
+         */
+        static Columns of(List<String> headers) {
+            SampleExportColumn[] columns = new SampleExportColumn[headers.size()];
+            boolean hasName = false;
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = SampleExportColumn.ofHeader(headers.get(i));
+                hasName |= columns[i] == SampleExportColumn.NAME;
+            }
+            if (!hasName) {
+                throw new InvalidImportFileException("Import file has no Name column: " + headers);
+            }
+            return new Columns(columns);
+        }
+
+        /**
+         * @param row The cells of a row, missing ones being null
+         */
+        SampleCreateForm toForm(String[] row) {
+            SampleCreateForm form = new SampleCreateForm();
+            Set<String> tagNames = new LinkedHashSet<>();
+            for (int i = 0; i < columns.length && i < row.length; i++) {
+                if (columns[i] == null) {
+                    continue;
+                }
+                String value = row[i];
+                switch (columns[i]) {
+                    case NAME:
+                        form.setName(value != null ? value : "");
+                        break;
+                    case DESCRIPTION:
+                        form.setDescription(value == null || value.isEmpty() ? null : value);
+                        break;
+                    case ACTIVE:
+                        form.setActive(value != null && Boolean.parseBoolean(value.strip()));
+                        break;
+                    case TAGS:
+                        tagNames.addAll(splitTags(value));
+                        break;
+                    default:
+                        // Ids, dates and authors are set when the sample is created
+                        break;
+                }
+            }
+            form.setTagNames(tagNames);
+            return form;
+        }
+
+        /**
+         * @return The tag names of a cell, as joined by the exports
+         */
+        static Set<String> splitTags(String value) {
+            Set<String> names = new LinkedHashSet<>();
+            if (value != null) {
+                for (String name : value.split(",")) {
+                    if (!name.isBlank()) {
+                        names.add(name.strip());
+                    }
+                }
+            }
+            return names;
+        }
+
+        static boolean isBlank(String[] row) {
+            for (String cell : row) {
+                if (cell != null && !cell.isBlank()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
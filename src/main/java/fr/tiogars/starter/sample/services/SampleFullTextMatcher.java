@@ -0,0 +1,111 @@
+package fr.tiogars.starter.sample.services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.repositories.SampleFunctionContributor;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Builds full-text predicates and relevance scores on the sample name and description.
+ *
+ * With the MySQL FULLTEXT index, terms are matched as prefixes with {@code MATCH ... AGAINST} in boolean mode.
+ * Without it, each term is matched with a case-insensitive LIKE and the relevance is the number of
+ * matching columns, a name match counting twice.
+ */
+final class SampleFullTextMatcher {
+
+    /**
+     * Whitespace and characters with a meaning in MySQL boolean mode queries, both split user input into terms.
+     */
+    private static final Pattern SEPARATORS = Pattern.compile("[\\s+\\-<>()~*\"@]+");
+
+    private final boolean fullTextIndex;
+
+    SampleFullTextMatcher(boolean fullTextIndex) {
+        this.fullTextIndex = fullTextIndex;
+    }
+
+    /**
+     * Split search values into lower case terms.
+     *
+     * @return The terms, or null when there are none
+     */
+    static List<String> terms(Object value) {
+        List<String> terms = new ArrayList<>();
+        if (value instanceof Collection<?> values) {
+            for (Object item : values) {
+                if (item != null) {
+                    addTerms(terms, item.toString());
+                }
+            }
+        } else if (value != null) {
+            addTerms(terms, value.toString());
+        }
+        return terms.isEmpty() ? null : terms;
+    }
+
+    private static void addTerms(List<String> terms, String text) {
+        for (String term : SEPARATORS.split(text.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+    }
+
+    /**
+     * Match samples whose name or description contains all (or any) of the terms.
+     */
+    Predicate matches(Root<SampleEntity> root, CriteriaBuilder cb, List<String> terms, boolean all) {
+        if (fullTextIndex) {
+            return cb.greaterThan(matchAgainst(root, cb, terms, all), 0.0);
+        }
+        Predicate[] predicates = new Predicate[terms.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            String pattern = "%" + terms.get(i) + "%";
+            predicates[i] = cb.or(cb.like(cb.lower(root.<String>get("name")), pattern),
+                    cb.like(cb.lower(root.<String>get("description")), pattern));
+        }
+        return all ? cb.and(predicates) : cb.or(predicates);
+    }
+
+    /**
+     * Relevance of a sample for the terms, higher is more relevant.
+     */
+    Expression<? extends Number> relevance(Root<SampleEntity> root, CriteriaBuilder cb, List<String> terms) {
+        if (fullTextIndex) {
+            return matchAgainst(root, cb, terms, false);
+        }
+        Expression<Integer> score = cb.literal(0);
+        for (String term : terms) {
+            String pattern = "%" + term + "%";
+            score = cb.sum(score, cb.<Integer>selectCase()
+                    .when(cb.like(cb.lower(root.<String>get("name")), pattern), 2)
+                    .otherwise(0));
+            score = cb.sum(score, cb.<Integer>selectCase()
+                    .when(cb.like(cb.lower(root.<String>get("description")), pattern), 1)
+                    .otherwise(0));
+        }
+        return score;
+    }
+
+    private Expression<Double> matchAgainst(Root<SampleEntity> root, CriteriaBuilder cb, List<String> terms,
+            boolean all) {
+        StringBuilder query = new StringBuilder();
+        for (String term : terms) {
+            if (query.length() > 0) {
+                query.append(' ');
+            }
+            query.append(all ? "+" : "").append(term).append('*');
+        }
+        return cb.function(SampleFunctionContributor.MATCH_AGAINST, Double.class,
+                root.get("name"), root.get("description"), cb.literal(query.toString()));
+    }
+}
@@ -0,0 +1,382 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
+import fr.tiogars.starter.sample.forms.SampleGenerateForm;
+import fr.tiogars.starter.sample.models.SampleGenerateReport;
+import fr.tiogars.starter.sample.repositories.SampleBatchRepository;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import fr.tiogars.starter.tag.services.TagService;
+import jakarta.validation.Valid;
+
+/**
+ * Generates large synthetic datasets of samples, for capacity testing.
+ *
+ * The samples are generated in blocks of {@code sample.generate.batch-size} rows, each block inserted with one
+ * batched statement in its own transaction by one of several workers running on virtual threads. Each block draws
+ * its values from a {@link SplittableRandom} seeded with the seed and the index of the block, so the samples
+ * generated do not depend on which worker writes them, and the same seed generates the same samples.
+ * Creation dates are relative to the start of the generation. A {@link SampleChangedEvent} is published every
+ * {@value #LOGGED_PROGRESS_INTERVAL} seconds while samples are written, and when the generation ends.
+ *
+ * Values follow skewed distributions, closer to production data than uniform ones: recent dates, the first users
+ * and the first tags are the most used.
+ */
+@Service
+@Validated
+public class SampleGenerateService {
+
+    public static final String RUNNING = "running";
+    public static final String COMPLETED = "completed";
+    public static final String FAILED = "failed";
+
+    private static final long DAY_MILLIS = TimeUnit.DAYS.toMillis(1);
+    private static final long PROGRESS_INTERVAL_MILLIS = 1000;
+    private static final int LOGGED_PROGRESS_INTERVAL = 10;
+
+    /**
+     * Spreads the seeds of consecutive blocks over the seed space
+     */
+    private static final long BLOCK_SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Shared, as writers are thread-safe once configured
+     */
+    private static final ObjectWriter JSON_WRITER = JsonMapper.builder().build().writer();
+
+    private final Logger logger = Logger.getLogger(SampleGenerateService.class.getName());
+    private final SampleBatchRepository sampleBatchRepository;
+    private final SampleRepository sampleRepository;
+    private final TagService tagService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public SampleGenerateService(SampleBatchRepository sampleBatchRepository, SampleRepository sampleRepository,
+            TagService tagService, ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager,
+            @Value("${sample.generate.batch-size:1000}") int batchSize) {
+        this.sampleBatchRepository = sampleBatchRepository;
+        this.sampleRepository = sampleRepository;
+        this.tagService = tagService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(batchSize, 1);
+    }
+
+    /**
+     * Generate samples, handing their progress to the listener about every second.
+     *
+     * @param form The settings of the generation
+     * @param progressListener Receives the progress of the running generation
+     * @return The outcome of the generation. The blocks committed before a failure are kept.
+     * @throws SampleGenerateConflictException When samples were already generated with the same prefix and seed
+     */
+    public SampleGenerateReport generate(@Valid SampleGenerateForm form,
+            Consumer<SampleGenerateReport> progressListener) {
+        return run(prepare(form), progressListener);
+    }
+
+    /**
+     * Generate samples, writing their progress as newline-delimited JSON about every second.
+     * The last line is the outcome of the generation. The conflicts are checked before the response starts.
+     *
+     * @param form The settings of the generation
+     * @return The body writing the progress of the generation
+     * @throws SampleGenerateConflictException When samples were already generated with the same prefix and seed
+     */
+    public StreamingResponseBody streamGenerate(@Valid SampleGenerateForm form) {
+        Generation generation = prepare(form);
+        return out -> {
+            SampleGenerateReport report;
+            try {
+                report = run(generation, progress -> {
+                    try {
+                        writeLine(out, progress);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                // The client is gone, the workers are stopped
+                throw e.getCause();
+            }
+            writeLine(out, report);
+        };
+    }
+
+    /**
+     * Resolve the seed and create the tags of the generation.
+     */
+    private Generation prepare(SampleGenerateForm form) {
+        long seed = form.getSeed() != null ? form.getSeed() : new SplittableRandom().nextLong();
+        String prefix = form.getNamePrefix().strip();
+        if (sampleRepository.findByName(nameOf(prefix, seed, 0)).isPresent()) {
+            throw new SampleGenerateConflictException("Samples were already generated with prefix '" + prefix
+                    + "' and seed " + seed + ", choose another prefix or seed");
+        }
+
+        Generation generation = new Generation(form, prefix, seed);
+        List<String> tagNames = new ArrayList<>(form.getTagCount());
+        for (int i = 1; i <= form.getTagCount(); i++) {
+            tagNames.add(prefix + "-tag-" + i);
+        }
+        List<TagEntity> tags = transactionTemplate.execute(status -> tagService.findOrCreateTags(tagNames));
+        Map<String, TagEntity> tagsByName = new HashMap<>();
+        if (tags != null) {
+            tags.forEach(tag -> tagsByName.put(tag.getName(), tag));
+        }
+        generation.tags = tagNames.stream().map(tagsByName::get).toArray(TagEntity[]::new);
+        return generation;
+    }
+
+    /**
+     * Run the workers until every block is written or one of them fails.
+     */
+    private SampleGenerateReport run(Generation generation, Consumer<SampleGenerateReport> progressListener) {
+        long blocks = (generation.requested + batchSize - 1) / batchSize;
+        int workers = (int) Math.min(generation.workers, blocks);
+        AtomicLong nextBlock = new AtomicLong();
+        AtomicLong generated = new AtomicLong();
+        AtomicBoolean stopped = new AtomicBoolean();
+        CountDownLatch done = new CountDownLatch(workers);
+        List<Future<Void>> futures = new ArrayList<>(workers);
+        long startNanos = System.nanoTime();
+        long published = 0;
+        String error = null;
+        logger.info("Generating " + generation.requested + " samples with seed " + generation.seed + " and "
+                + workers + " workers");
+
+        try {
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                try {
+                    for (int i = 0; i < workers; i++) {
+                        futures.add(executor.submit(() -> {
+                            try {
+                                writeBlocks(generation, blocks, nextBlock, generated, stopped);
+                            } catch (RuntimeException e) {
+                                stopped.set(true);
+                                throw e;
+                            } finally {
+                                done.countDown();
+                            }
+                            return null;
+                        }));
+                    }
+                    int ticks = 0;
+                    while (!done.await(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                        SampleGenerateReport progress = report(generation, RUNNING, generated.get(), startNanos);
+                        progress.setWorkers(workers);
+                        if (++ticks % LOGGED_PROGRESS_INTERVAL == 0) {
+                            logger.info(String.format("Generated %d of %d samples, %.0f rows/s",
+                                    progress.getGenerated(), progress.getRequested(), progress.getRowsPerSecond()));
+                            // The caches do not wait for the end of a long generation
+                            published = publishChanged(progress.getGenerated(), published);
+                        }
+                        progressListener.accept(progress);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    error = "Generation interrupted";
+                } finally {
+                    // Stop the workers when the listener fails, then wait for their current block
+                    stopped.set(true);
+                }
+            }
+        } finally {
+            // The blocks committed before a failure are kept
+            publishChanged(generated.get(), published);
+        }
+
+        for (Future<Void> future : futures) {
+            if (error == null && future.state() == Future.State.FAILED) {
+                error = String.valueOf(future.exceptionNow().getMessage());
+            }
+        }
+        SampleGenerateReport report = report(generation, error == null ? COMPLETED : FAILED, generated.get(),
+                startNanos);
+        report.setWorkers(workers);
+        if (error == null) {
+            report.setMessage(String.format("Generated %d samples in %d ms, %.0f rows/s", report.getGenerated(),
+                    report.getElapsedMillis(), report.getRowsPerSecond()));
+            logger.info(report.getMessage());
+        } else {
+            report.setMessage("Generation failed after " + report.getGenerated() + " samples: " + error);
+            logger.warning(report.getMessage());
+        }
+        return report;
+    }
+
+    /**
+     * Notify listeners, such as the search caches, when samples were generated since the last notification.
+     *
+     * @return The number of samples generated, as last notified
+     */
+    private long publishChanged(long generated, long published) {
+        if (generated > published) {
+            eventPublisher.publishEvent(new SampleChangedEvent("generated"));
+        }
+        return generated;
+    }
+
+    /**
+     * Take the next blocks and insert them, each in its own transaction, until none is left or the generation
+     * is stopped.
+     */
+    private void writeBlocks(Generation generation, long blocks, AtomicLong nextBlock, AtomicLong generated,
+            AtomicBoolean stopped) {
+        long block;
+        while (!stopped.get() && (block = nextBlock.getAndIncrement()) < blocks) {
+            List<SampleEntity> samples = generateBlock(generation, block);
+            transactionTemplate.executeWithoutResult(status -> sampleBatchRepository.insertAll(samples));
+            generated.addAndGet(samples.size());
+        }
+    }
+
+    /**
+     * Generate the samples of a block from its own random generator.
+     */
+    private List<SampleEntity> generateBlock(Generation generation, long block) {
+        SplittableRandom random = new SplittableRandom(generation.seed ^ (block * BLOCK_SEED_GAMMA));
+        long first = block * batchSize;
+        long last = Math.min(first + batchSize, generation.requested);
+        List<SampleEntity> samples = new ArrayList<>((int) (last - first));
+        for (long index = first; index < last; index++) {
+            SampleEntity sample = new SampleEntity();
+            sample.setName(nameOf(generation.prefix, generation.seed, index));
+            if (random.nextInt(10) > 0) {
+                sample.setDescription("Generated sample of a "
+                        + SampleInitService.ADJECTIVES[random.nextInt(SampleInitService.ADJECTIVES.length)]
+                                .toLowerCase()
+                        + " " + SampleInitService.NOUNS[random.nextInt(SampleInitService.NOUNS.length)]
+                                .toLowerCase());
+            }
+            sample.setActive(random.nextDouble() < generation.activeRatio);
+
+            // Recent dates are the most used, and most samples are never updated
+            long age = (long) (generation.days * DAY_MILLIS * Math.pow(random.nextDouble(), 2));
+            long createdAt = generation.startMillis - age;
+            sample.setCreatedAt(new Date(createdAt));
+            sample.setUpdatedAt(new Date(random.nextInt(10) < 7 ? createdAt
+                    : createdAt + (long) (age * random.nextDouble())));
+            String createdBy = "user-" + (skewed(random, generation.users, 3) + 1);
+            sample.setCreatedBy(createdBy);
+            sample.setUpdatedBy(random.nextInt(10) < 8 ? createdBy
+                    : "user-" + (skewed(random, generation.users, 3) + 1));
+
+            if (generation.tags.length > 0) {
+                int tagCount = random.nextInt(generation.maxTagsPerSample + 1);
+                for (int i = 0; i < tagCount; i++) {
+                    sample.addTag(generation.tags[skewed(random, generation.tags.length, 2)]);
+                }
+            }
+            samples.add(sample);
+        }
+        return samples;
+    }
+
+    /**
+     * @return An index below the bound, the lowest ones being the most likely
+     */
+    private static int skewed(SplittableRandom random, int bound, double exponent) {
+        return Math.min((int) (bound * Math.pow(random.nextDouble(), exponent)), bound - 1);
+    }
+
+    /**
+     * @return The name of the sample at an index, unique for a prefix and a seed
+     */
+    static String nameOf(String prefix, long seed, long index) {
+        return prefix + "-" + seed + "-" + (index + 1);
+    }
+
+    private static SampleGenerateReport report(Generation generation, String status, long generated,
+            long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        SampleGenerateReport report = new SampleGenerateReport();
+        report.setStatus(status);
+        report.setSeed(generation.seed);
+        report.setRequested(generation.requested);
+        report.setGenerated(generated);
+        report.setTags(generation.tags.length);
+        report.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.setRowsPerSecond(elapsedNanos > 0 ? generated * 1e9 / elapsedNanos : 0);
+        return report;
+    }
+
+    private static void writeLine(OutputStream out, SampleGenerateReport report) throws IOException {
+        out.write(JSON_WRITER.writeValueAsBytes(report));
+        out.write('\n');
+        out.flush();
+    }
+
+    /**
+     * Settings of a generation, resolved from its form
+     */
+    private static final class Generation {
+
+        private final String prefix;
+        private final long seed;
+        private final long requested;
+        private final int maxTagsPerSample;
+        private final double activeRatio;
+        private final int users;
+        private final int days;
+        private final int workers;
+        private final long startMillis = System.currentTimeMillis();
+        private TagEntity[] tags = new TagEntity[0];
+
+        private Generation(SampleGenerateForm form, String prefix, long seed) {
+            this.prefix = prefix;
+            this.seed = seed;
+            this.requested = form.getNumberOfSamples();
+            this.maxTagsPerSample = form.getMaxTagsPerSample();
+            this.activeRatio = form.getActiveRatio();
+            this.users = form.getUserCount();
+            this.days = form.getDays();
+            this.workers = form.getWorkers();
+        }
+    }
+
+    /**
+     * Exception thrown when samples were already generated with the same prefix and seed.
+     */
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public static class SampleGenerateConflictException extends RuntimeException {
+        public SampleGenerateConflictException(String message) {
+            super(message);
+        }
+    }
+}
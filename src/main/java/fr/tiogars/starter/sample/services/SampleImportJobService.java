@@ -0,0 +1,489 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import fr.tiogars.starter.sample.entities.SampleImportJobEntity;
+import fr.tiogars.starter.sample.models.SampleImportJob;
+import fr.tiogars.starter.sample.models.SampleImportReport;
+import fr.tiogars.starter.sample.repositories.SampleImportJobRepository;
+import fr.tiogars.starter.sample.services.SampleFileImportService.SampleFileImportException;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs sample file imports in the background, with a checkpoint saved with every chunk.
+ *
+ * The uploaded file is stored in {@code sample.import.jobs.directory} until the job completes. The number of rows
+ * imported and the report totals are saved with the job in the transaction of each chunk of rows: a failed job, or
+ * one interrupted by a shutdown, resumes after those rows instead of importing the file again. At most
+ * {@code sample.import.jobs.concurrency} imports run at once, the others wait in a queue of
+ * {@code sample.import.jobs.queue-capacity} jobs; submissions beyond it are rejected.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+public class SampleImportJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SampleImportJobService.class);
+
+    static final String QUEUED = "queued";
+    static final String RUNNING = "running";
+    static final String COMPLETED = "completed";
+    static final String FAILED = "failed";
+    static final String INTERRUPTED = "interrupted";
+
+    /**
+     * Name of the server-sent events of a job that is not finished; the last event is named after the final status
+     */
+    static final String PROGRESS_EVENT = "progress";
+
+    private static final String FILE_EXTENSION = ".import";
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final SampleFileImportService sampleFileImportService;
+    private final SampleImportJobRepository jobRepository;
+    private final Path directory;
+    private final Duration eventsTimeout;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Jobs running on this instance, by id
+     */
+    private final Map<String, Run> runs = new ConcurrentHashMap<>();
+
+    /**
+     * Event streams following a job, by job id
+     */
+    private final Map<String, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    private volatile boolean shuttingDown;
+
+    public SampleImportJobService(SampleFileImportService sampleFileImportService,
+            SampleImportJobRepository jobRepository,
+            @Value("${sample.import.jobs.directory:${java.io.tmpdir}/sample-import-jobs}") String directory,
+            @Value("${sample.import.jobs.concurrency:2}") int concurrency,
+            @Value("${sample.import.jobs.queue-capacity:20}") int queueCapacity,
+            @Value("${sample.import.jobs.events-timeout:PT1H}") Duration eventsTimeout) throws IOException {
+        this.sampleFileImportService = sampleFileImportService;
+        this.jobRepository = jobRepository;
+        this.directory = Paths.get(directory);
+        this.eventsTimeout = eventsTimeout;
+        Files.createDirectories(this.directory);
+
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("sample-import-"));
+    }
+
+    /**
+     * Jobs left queued or running when the application stopped are marked interrupted, to be resumed.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void interruptLeftoverJobs() {
+        for (SampleImportJobEntity job : jobRepository.findByStatusIn(List.of(QUEUED, RUNNING))) {
+            job.setStatus(INTERRUPTED);
+            job.setCompletedAt(new Date());
+            jobRepository.save(job);
+            logger.warn("Import job {} was interrupted after {} rows", job.getId(), job.getRowsCommitted());
+        }
+    }
+
+    /**
+     * Store the file and queue its import.
+     *
+     * @param file The uploaded file
+     * @param format The format of the file, or null to use the extension of its name
+     * @param onConflict What to do with a sample whose name is used: skip, update or fail, null to skip it
+     * @return The queued job
+     * @throws ImportJobQueueFullException When the queue is full
+     */
+    public SampleImportJob submit(MultipartFile file, String format, String onConflict) {
+        String fileFormat = SampleFileImportService.resolveFormat(format, file.getOriginalFilename());
+        String mode = SampleImportService.resolveOnConflict(onConflict);
+        String id = UUID.randomUUID().toString();
+        Path stored = fileOf(id);
+        try {
+            file.transferTo(stored);
+        } catch (IOException e) {
+            deleteFile(stored);
+            throw new SampleFileImportException("Failed to store the import file", e);
+        }
+
+        SampleImportJobEntity job = new SampleImportJobEntity();
+        job.setId(id);
+        job.setStatus(QUEUED);
+        job.setFormat(fileFormat);
+        job.setOnConflict(mode);
+        job.setFilename(file.getOriginalFilename());
+        job.setSubmittedAt(new Date());
+        jobRepository.save(job);
+        try {
+            schedule(id);
+        } catch (ImportJobQueueFullException e) {
+            jobRepository.deleteById(id);
+            deleteFile(stored);
+            throw e;
+        }
+        logger.info("Import job {} queued for {} file '{}'", id, fileFormat, file.getOriginalFilename());
+        return toModel(job);
+    }
+
+    /**
+     * @return The job, or null when it does not exist
+     */
+    public SampleImportJob getJob(String id) {
+        return jobRepository.findById(id).map(this::toModel).orElse(null);
+    }
+
+    /**
+     * Queue a failed or interrupted job again, to import the rows after its checkpoint.
+     *
+     * @return The queued job, or null when it does not exist
+     * @throws ImportJobStatusException When the job is not failed nor interrupted, or its file is gone
+     * @throws ImportJobQueueFullException When the queue is full
+     */
+    public synchronized SampleImportJob resume(String id) {
+        SampleImportJobEntity job = jobRepository.findById(id).orElse(null);
+        if (job == null) {
+            return null;
+        }
+        if (!isResumable(job)) {
+            throw new ImportJobStatusException("Import job " + id + " is " + job.getStatus()
+                    + " and cannot be resumed");
+        }
+        String previousStatus = job.getStatus();
+        job.setStatus(QUEUED);
+        jobRepository.save(job);
+        try {
+            schedule(id);
+        } catch (ImportJobQueueFullException e) {
+            job.setStatus(previousStatus);
+            jobRepository.save(job);
+            throw e;
+        }
+        logger.info("Import job {} resumed after {} rows", id, job.getRowsCommitted());
+        return toModel(job);
+    }
+
+    /**
+     * Delete a job that is not queued nor running, and its file.
+     *
+     * @return The deleted job, or null when it does not exist
+     * @throws ImportJobStatusException When the job is queued or running
+     */
+    public synchronized SampleImportJob delete(String id) {
+        SampleImportJobEntity job = jobRepository.findById(id).orElse(null);
+        if (job == null) {
+            return null;
+        }
+        if (!isFinished(job.getStatus())) {
+            throw new ImportJobStatusException("Import job " + id + " is " + job.getStatus()
+                    + " and cannot be deleted");
+        }
+        jobRepository.delete(job);
+        deleteFile(fileOf(id));
+        logger.info("Import job {} deleted", id);
+        return toModel(job);
+    }
+
+    /**
+     * Follow the progress of a job: an event with the job is sent now, then after every chunk, and the stream
+     * ends with an event named after the final status.
+     *
+     * @return The event stream, or null when the job does not exist
+     */
+    public SseEmitter subscribe(String id) {
+        if (!jobRepository.existsById(id)) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(eventsTimeout.toMillis());
+        subscribers.compute(id, (key, emitters) -> {
+            List<SseEmitter> list = emitters != null ? emitters : new CopyOnWriteArrayList<>();
+            list.add(emitter);
+            return list;
+        });
+        emitter.onCompletion(() -> unsubscribe(id, emitter));
+        emitter.onTimeout(() -> unsubscribe(id, emitter));
+        emitter.onError(e -> unsubscribe(id, emitter));
+
+        // Read after subscribing, so that an update made meanwhile is sent rather than missed
+        jobRepository.findById(id).ifPresentOrElse(job -> {
+            SampleImportJob model = toModel(job);
+            if (send(id, emitter, model) && isFinished(model.getStatus())) {
+                emitter.complete();
+            }
+        }, emitter::complete);
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        shuttingDown = true;
+        executor.shutdownNow();
+        // Let the running jobs save their status before the datasource closes
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        subscribers.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    private void schedule(String id) {
+        try {
+            executor.execute(() -> run(id));
+        } catch (RejectedExecutionException e) {
+            throw new ImportJobQueueFullException("Too many import jobs, retry later");
+        }
+    }
+
+    /**
+     * Import the rows of the job file after its checkpoint.
+     */
+    private void run(String id) {
+        SampleImportJobEntity job = jobRepository.findById(id).orElse(null);
+        if (job == null || !QUEUED.equals(job.getStatus())) {
+            return;
+        }
+        Run run = new Run(job.getRowsCommitted());
+        runs.put(id, run);
+        try {
+            job.setStatus(RUNNING);
+            job.setStartedAt(new Date());
+            job.setCompletedAt(null);
+            job.setError(null);
+            jobRepository.save(job);
+            publish(job);
+
+            SampleImportReport report = sampleFileImportService.importFile(new FileSystemResource(fileOf(id)),
+                    job.getFormat(), job.getOnConflict(), job.getRowsCommitted(), toReport(job),
+                    progress -> checkpoint(job, run, progress));
+            finish(job, COMPLETED, null);
+            deleteFile(fileOf(id));
+            logger.info("Import job {} completed: {}", id, report.getMessage());
+        } catch (RuntimeException e) {
+            // Clear the interrupt of a shutdown, so that the status can be saved
+            if (Thread.interrupted() || shuttingDown) {
+                logger.warn("Import job {} interrupted after {} rows", id, job.getRowsCommitted());
+                finish(job, INTERRUPTED, null);
+            } else {
+                logger.error("Import job {} failed after {} rows", id, job.getRowsCommitted(), e);
+                finish(job, FAILED, e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+        } finally {
+            runs.remove(id, run);
+        }
+    }
+
+    /**
+     * Save the checkpoint of a chunk of rows in the transaction writing them, so that both commit together.
+     * The job is updated and its progress published once they are committed.
+     */
+    private void checkpoint(SampleImportJobEntity job, Run run, SampleImportReport report) {
+        jobRepository.saveCheckpoint(job.getId(), report.getTotalProvided(), report.getTotalCreated(),
+                report.getTotalUpdated(), report.getTotalDuplicates(), report.getTotalErrors(),
+                report.getTotalSkipped());
+        afterCommit(() -> {
+            job.setRowsCommitted(report.getTotalProvided());
+            job.setTotalCreated(report.getTotalCreated());
+            job.setTotalUpdated(report.getTotalUpdated());
+            job.setTotalDuplicates(report.getTotalDuplicates());
+            job.setTotalErrors(report.getTotalErrors());
+            job.setTotalSkipped(report.getTotalSkipped());
+            run.rowsCommitted = report.getTotalProvided();
+            publish(job);
+        });
+    }
+
+    /**
+     * Run an action once the current transaction commits, or right away outside a transaction.
+     */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private void finish(SampleImportJobEntity job, String status, String error) {
+        // No longer running once the status is visible, so that a failed job can be resumed right away
+        runs.remove(job.getId());
+        job.setStatus(status);
+        job.setCompletedAt(new Date());
+        job.setError(error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        try {
+            jobRepository.save(job);
+        } catch (RuntimeException e) {
+            // Marked interrupted at the next startup
+            logger.error("Failed to save the status of import job {}", job.getId(), e);
+        }
+        publish(job);
+    }
+
+    /**
+     * Send the job to the event streams following it, and end them once the job is finished.
+     */
+    private void publish(SampleImportJobEntity job) {
+        List<SseEmitter> emitters = subscribers.get(job.getId());
+        if (emitters == null) {
+            return;
+        }
+        SampleImportJob model = toModel(job);
+        boolean finished = isFinished(model.getStatus());
+        for (SseEmitter emitter : emitters) {
+            if (send(job.getId(), emitter, model) && finished) {
+                emitter.complete();
+            }
+        }
+    }
+
+    /**
+     * @return false when the client is gone
+     */
+    private boolean send(String id, SseEmitter emitter, SampleImportJob model) {
+        String name = isFinished(model.getStatus()) ? model.getStatus() : PROGRESS_EVENT;
+        try {
+            emitter.send(SseEmitter.event().name(name).data(model, MediaType.APPLICATION_JSON));
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            unsubscribe(id, emitter);
+            return false;
+        }
+    }
+
+    private void unsubscribe(String id, SseEmitter emitter) {
+        subscribers.computeIfPresent(id, (key, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private boolean isResumable(SampleImportJobEntity job) {
+        return (FAILED.equals(job.getStatus()) || INTERRUPTED.equals(job.getStatus()))
+                && !runs.containsKey(job.getId()) && Files.exists(fileOf(job.getId()));
+    }
+
+    private static boolean isFinished(String status) {
+        return !QUEUED.equals(status) && !RUNNING.equals(status);
+    }
+
+    private Path fileOf(String id) {
+        return directory.resolve(id + FILE_EXTENSION);
+    }
+
+    private void deleteFile(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Failed to delete import file {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * @return The report of the rows committed so far, without items
+     */
+    private static SampleImportReport toReport(SampleImportJobEntity job) {
+        SampleImportReport report = new SampleImportReport();
+        report.setTotalProvided((int) job.getRowsCommitted());
+        report.setTotalCreated(job.getTotalCreated());
+        report.setTotalUpdated(job.getTotalUpdated());
+        report.setTotalDuplicates(job.getTotalDuplicates());
+        report.setTotalErrors(job.getTotalErrors());
+        report.setTotalSkipped(job.getTotalSkipped());
+        SampleImportService.summarize(report);
+        return report;
+    }
+
+    private SampleImportJob toModel(SampleImportJobEntity job) {
+        SampleImportJob model = new SampleImportJob();
+        model.setId(job.getId());
+        model.setStatus(job.getStatus());
+        model.setFormat(job.getFormat());
+        model.setOnConflict(job.getOnConflict());
+        model.setFilename(job.getFilename());
+        model.setRowsCommitted(job.getRowsCommitted());
+        model.setReport(toReport(job));
+        model.setError(job.getError());
+        model.setResumable(isResumable(job));
+        model.setSubmittedAt(job.getSubmittedAt());
+        model.setStartedAt(job.getStartedAt());
+        model.setCompletedAt(job.getCompletedAt());
+        Run run = runs.get(job.getId());
+        if (run != null && RUNNING.equals(job.getStatus())) {
+            model.setRowsPerSecond(run.rowsPerSecond());
+        }
+        return model;
+    }
+
+    /**
+     * Throughput of the current run of a job.
+     */
+    private static final class Run {
+
+        private final long startNanos = System.nanoTime();
+        private final long startRows;
+        private volatile long rowsCommitted;
+
+        Run(long startRows) {
+            this.startRows = startRows;
+            this.rowsCommitted = startRows;
+        }
+
+        double rowsPerSecond() {
+            long elapsedNanos = System.nanoTime() - startNanos;
+            return elapsedNanos > 0 ? (rowsCommitted - startRows) * 1e9 / elapsedNanos : 0;
+        }
+    }
+
+    /**
+     * Exception raised when the import job queue is full.
+     */
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public static class ImportJobQueueFullException extends RuntimeException {
+        public ImportJobQueueFullException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Exception raised when a job cannot be resumed or deleted in its current status.
+     */
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public static class ImportJobStatusException extends RuntimeException {
+        public ImportJobStatusException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import fr.tiogars.starter.sample.models.SampleImportReport;
+import fr.tiogars.starter.sample.models.SampleImportReportItem;
+
+/**
+ * Writes the report of an import as newline-delimited JSON while the import runs: one line per reported item,
+ * then one line with the report, whose items are left empty.
+ *
+ * Lines are flushed every {@value #FLUSH_LINES} items, or when a second has passed since the last flush, so that
+ * the client sees the progress of the import without a flush per line.
+ * The writer does not close the output stream, which is owned by the caller.
+ */
+final class SampleImportReportWriter implements Consumer<SampleImportReportItem> {
+
+    static final int FLUSH_LINES = 500;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Shared, as writers are thread-safe once configured
+     */
+    private static final ObjectWriter NDJSON_WRITER = JsonMapper.builder()
+            .disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+            .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+            .build()
+            .writer()
+            .withRootValueSeparator("\n");
+
+    private static final Logger logger = Logger.getLogger(SampleImportReportWriter.class.getName());
+
+    private final JsonGenerator generator;
+    private int unflushedLines;
+    private long flushedAt = System.nanoTime();
+
+    SampleImportReportWriter(OutputStream out) throws IOException {
+        this.generator = NDJSON_WRITER.createGenerator(out);
+    }
+
+    /**
+     * Run an import and write its report to the stream.
+     * When the import fails, the samples already written are kept and the last line is the partial report,
+     * with an error alert level. When the stream fails, the client is gone and the import is stopped.
+     *
+     * @param out The stream to write to, left open
+     * @param importer Runs the import, counting it in the report and handing the reported items to the consumer
+     */
+    static void writeImport(OutputStream out,
+            BiConsumer<SampleImportReport, Consumer<SampleImportReportItem>> importer) throws IOException {
+        SampleImportReportWriter writer = new SampleImportReportWriter(out);
+        SampleImportReport report = new SampleImportReport();
+        try {
+            importer.accept(report, writer);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } catch (RuntimeException e) {
+            logger.warning("Streamed import failed after " + report.getTotalProvided() + " samples: "
+                    + e.getMessage());
+            SampleImportService.summarize(report);
+            report.setAlertLevel("error");
+            report.setMessage("Import failed after " + report.getTotalProvided() + " samples: " + e.getMessage());
+        }
+        writer.finish(report);
+    }
+
+    /**
+     * Write a reported item.
+     *
+     * @throws UncheckedIOException When the stream fails
+     */
+    @Override
+    public void accept(SampleImportReportItem item) {
+        try {
+            NDJSON_WRITER.writeValue(generator, item);
+            unflushedLines++;
+            long now = System.nanoTime();
+            if (unflushedLines >= FLUSH_LINES || now - flushedAt >= FLUSH_INTERVAL_NANOS) {
+                generator.flush();
+                unflushedLines = 0;
+                flushedAt = now;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write the report as the last line and flush it. The output stream is left open.
+     */
+    void finish(SampleImportReport report) throws IOException {
+        NDJSON_WRITER.writeValue(generator, report);
+        generator.writeRaw('\n');
+        generator.close();
+    }
+}
@@ -1,21 +1,63 @@
 package fr.tiogars.starter.sample.services;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
 import fr.tiogars.starter.sample.forms.SampleCreateForm;
 import fr.tiogars.starter.sample.forms.SampleImportForm;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.sample.models.SampleImportReport;
 import fr.tiogars.starter.sample.models.SampleImportReportItem;
+import fr.tiogars.starter.sample.repositories.SampleBatchRepository;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.sample.repositories.SampleSearchCapabilities;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import fr.tiogars.starter.tag.models.Tag;
+import fr.tiogars.starter.tag.services.TagService;
 import jakarta.validation.ConstraintViolationException;
 
 /**
  * Service for importing multiple samples in bulk.
  * Handles duplicate checking and provides detailed reporting for each sample.
+ *
+ * Samples are read a chunk of {@code sample.import.chunk-size} at a time, from a form or a file. A name repeated
+ * in the import is reported as a duplicate, whatever the chunks holding it. The names of a form are held in a set
+ * and checked before any database access. A file is not held in memory: the hashes of its names are, and a name
+ * whose hash was read is confirmed by the query for the names in use. The other samples of each chunk are
+ * written in one transaction: their duplicates and tags are resolved with one query each and they are inserted
+ * with one batched statement.
+ * When a chunk cannot be written, its samples are imported one by one, to report which of them failed.
+ *
+ * A sample whose name is already used is handled according to the {@code onConflict} mode of the import:
+ * {@code skip} reports it as a duplicate, {@code update} updates the existing sample with a batched upsert and
+ * {@code fail} stops the import, rolling back the chunk. The unique index on the name keeps concurrent imports
+ * from inserting the same name twice.
+ *
+ * The {@code reportMode} of the import selects the reported items: all of them, the errors only, or none. The
+ * outcome of each sample is counted as it is written, its item and message are only built when it is reported.
  * 
  * @author Generated
  * @version 1.0
@@ -25,72 +67,281 @@ import jakarta.validation.ConstraintViolationException;
 @Validated
 public class SampleImportService {
 
+    /**
+     * Report the samples whose name is used as duplicates
+     */
+    public static final String SKIP = "skip";
+
+    /**
+     * Update the samples whose name is used
+     */
+    public static final String UPDATE = "update";
+
+    /**
+     * Stop the import at the first sample whose name is used
+     */
+    public static final String FAIL = "fail";
+
+    static final List<String> ON_CONFLICT_MODES = List.of(SKIP, UPDATE, FAIL);
+
+    /**
+     * Report every sample
+     */
+    public static final String FULL = "full";
+
+    /**
+     * Report only the samples that failed validation or could not be written
+     */
+    public static final String ERRORS_ONLY = "errorsOnly";
+
+    /**
+     * Report the totals only
+     */
+    public static final String SUMMARY = "summary";
+
+    static final List<String> REPORT_MODES = List.of(FULL, ERRORS_ONLY, SUMMARY);
+
     private final Logger logger = Logger.getLogger(SampleImportService.class.getName());
     private final SampleRepository sampleRepository;
     private final SampleCreateService sampleCreateService;
+    private final SampleBatchRepository sampleBatchRepository;
+    private final TagService tagService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final SampleSearchCapabilities searchCapabilities;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
 
-    public SampleImportService(SampleRepository sampleRepository, SampleCreateService sampleCreateService) {
+    public SampleImportService(SampleRepository sampleRepository, SampleCreateService sampleCreateService,
+            SampleBatchRepository sampleBatchRepository, TagService tagService,
+            ApplicationEventPublisher eventPublisher, SampleSearchCapabilities searchCapabilities,
+            PlatformTransactionManager transactionManager,
+            @Value("${sample.import.chunk-size:500}") int chunkSize) {
         this.sampleRepository = sampleRepository;
         this.sampleCreateService = sampleCreateService;
+        this.sampleBatchRepository = sampleBatchRepository;
+        this.tagService = tagService;
+        this.eventPublisher = eventPublisher;
+        this.searchCapabilities = searchCapabilities;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(chunkSize, 1);
     }
 
     /**
      * Import multiple samples and return a detailed report.
      * 
      * @param form The form containing samples to import
-     * @return A report with import statistics and individual item results
+     * @return A report with import statistics and the items of its report mode
+     * @throws SampleImportConflictException In {@code fail} mode, when a name is used
      */
     public SampleImportReport importSamples(SampleImportForm form) {
-        SampleImportReport report = new SampleImportReport();
-        
+        String onConflict = resolveOnConflict(form.getOnConflict());
+        String reportMode = resolveReportMode(form.getReportMode());
         if (form.getSamples() == null || form.getSamples().isEmpty()) {
-            report.setTotalProvided(0);
-            report.setTotalCreated(0);
-            report.setTotalDuplicates(0);
-            report.setTotalErrors(0);
-            report.setTotalSkipped(0);
-            report.setMessage("No samples provided for import");
-            report.setAlertLevel("warning");
-            return report;
+            return emptyReport();
         }
-        
-        int totalProvided = form.getSamples().size();
-        int totalCreated = 0;
-        int totalDuplicates = 0;
-        int totalErrors = 0;
-        int totalSkipped = 0;
-        
-        logger.info("Starting import of " + totalProvided + " samples");
-        
-        for (SampleCreateForm sampleForm : form.getSamples()) {
-            SampleImportReportItem item = importSingleSample(sampleForm);
-            report.addItem(item);
-            
-            if (item.isCreated()) {
-                totalCreated++;
-            } else if ("info".equals(item.getAlertLevel())) {
-                // Duplicate sample
-                totalDuplicates++;
-            } else if (item.getMessage() != null && item.getMessage().startsWith("Validation failed")) {
-                totalErrors++;
-            } else {
-                // Unexpected failure during creation
-                totalSkipped++;
+        logger.info("Starting import of " + form.getSamples().size() + " samples, on conflict: " + onConflict);
+        SampleImportReport report = new SampleImportReport();
+        importSamples(form.getSamples().iterator(), onConflict, reportMode, report, report::addItem, null,
+                ReadNames.exact());
+        return report;
+    }
+
+    /**
+     * Import multiple samples, writing the reported items as NDJSON while the import runs, then the report.
+     * The modes of the form are checked before the body is returned.
+     *
+     * @param form The form containing samples to import
+     * @return The body writing the report lines
+     */
+    public StreamingResponseBody streamSamples(SampleImportForm form) {
+        String onConflict = resolveOnConflict(form.getOnConflict());
+        String reportMode = resolveReportMode(form.getReportMode());
+        List<SampleCreateForm> samples = form.getSamples() != null ? form.getSamples() : List.of();
+        logger.info("Starting streamed import of " + samples.size() + " samples, on conflict: " + onConflict);
+        return out -> SampleImportReportWriter.writeImport(out, (report, items) -> importSamples(samples.iterator(),
+                onConflict, reportMode, report, items, null, ReadNames.exact()));
+    }
+
+    /**
+     * Import samples as they are read, one chunk at a time, and return a detailed report.
+     * Only the samples of the current chunk are held in memory, besides the report and the hashes of the names.
+     *
+     * @param samples The samples to import, read as they are consumed
+     * @param onConflict What to do with a sample whose name is used, as resolved by {@link #resolveOnConflict}
+     * @param reportMode Which items the report holds, as resolved by {@link #resolveReportMode}
+     * @return A report with import statistics and the items of its report mode
+     * @throws SampleImportConflictException In {@code fail} mode, when a name is used
+     */
+    public SampleImportReport importSamples(Iterator<SampleCreateForm> samples, String onConflict,
+            String reportMode) {
+        SampleImportReport report = new SampleImportReport();
+        importSamples(samples, onConflict, reportMode, report, report::addItem, null, ReadNames.hashed());
+        return report;
+    }
+
+    /**
+     * Import samples as they are read, one chunk at a time, handing the reported items to a listener instead of
+     * keeping them in the report.
+     *
+     * @param samples The samples to import, read as they are consumed
+     * @param onConflict What to do with a sample whose name is used, as resolved by {@link #resolveOnConflict}
+     * @param reportMode Which items are reported, as resolved by {@link #resolveReportMode}
+     * @param report The report receiving the totals
+     * @param itemListener Called with each reported item, once its chunk is written
+     * @return The report, with its totals, message and alert level updated
+     * @throws SampleImportConflictException In {@code fail} mode, when a name is used
+     */
+    public SampleImportReport importSamples(Iterator<SampleCreateForm> samples, String onConflict,
+            String reportMode, SampleImportReport report, Consumer<SampleImportReportItem> itemListener) {
+        importSamples(samples, onConflict, reportMode, report, itemListener, null, ReadNames.hashed());
+        return report;
+    }
+
+    /**
+     * Import samples as they are read, one chunk at a time, adding their outcome to the totals of a report.
+     * The items are not reported, so that memory does not grow with the number of samples.
+     *
+     * @param samples The samples to import, read as they are consumed
+     * @param onConflict What to do with a sample whose name is used, as resolved by {@link #resolveOnConflict}
+     * @param report The report whose totals are continued, such as the ones of an earlier run
+     * @param checkpoint Called with the totals of the samples imported so far, in the transaction writing them,
+     *        so that what it saves commits with the samples
+     * @return The report, with its totals, message and alert level updated
+     * @throws SampleImportConflictException In {@code fail} mode, when a name is used
+     */
+    public SampleImportReport importSamples(Iterator<SampleCreateForm> samples, String onConflict,
+            SampleImportReport report, Consumer<SampleImportReport> checkpoint) {
+        importSamples(samples, onConflict, SUMMARY, report, null, checkpoint, ReadNames.hashed());
+        return report;
+    }
+
+    /**
+     * @return The conflict mode, {@code skip} when it is missing
+     * @throws UnsupportedOnConflictException When the mode is not supported
+     */
+    public static String resolveOnConflict(String onConflict) {
+        if (onConflict == null || onConflict.isBlank()) {
+            return SKIP;
+        }
+        String resolved = onConflict.strip().toLowerCase(Locale.ROOT);
+        if (!ON_CONFLICT_MODES.contains(resolved)) {
+            throw new UnsupportedOnConflictException("Unsupported onConflict mode: " + resolved
+                    + ". Supported modes: " + String.join(", ", ON_CONFLICT_MODES));
+        }
+        return resolved;
+    }
+
+    /**
+     * @return The report mode, ignoring case, {@code full} when it is missing
+     * @throws UnsupportedReportModeException When the mode is not supported
+     */
+    public static String resolveReportMode(String reportMode) {
+        if (reportMode == null || reportMode.isBlank()) {
+            return FULL;
+        }
+        for (String mode : REPORT_MODES) {
+            if (mode.equalsIgnoreCase(reportMode.strip())) {
+                return mode;
             }
         }
-        
-        report.setTotalProvided(totalProvided);
-        report.setTotalCreated(totalCreated);
-        report.setTotalDuplicates(totalDuplicates);
-        report.setTotalErrors(totalErrors);
-        report.setTotalSkipped(totalSkipped);
-        
-        // Set overall message and alert level
-        if (totalCreated == totalProvided) {
-            report.setMessage("Successfully imported " + totalCreated + " of " + totalProvided + " samples");
+        throw new UnsupportedReportModeException("Unsupported reportMode: " + reportMode.strip()
+                + ". Supported modes: " + String.join(", ", REPORT_MODES));
+    }
+
+    private void importSamples(Iterator<SampleCreateForm> samples, String onConflict, String reportMode,
+            SampleImportReport report, Consumer<SampleImportReportItem> itemListener,
+            Consumer<SampleImportReport> checkpoint, ReadNames readNames) {
+        int importedBefore = report.getTotalCreated() + report.getTotalUpdated();
+        Consumer<SampleImportReportItem> reported = SUMMARY.equals(reportMode) ? null : itemListener;
+        boolean errorsOnly = ERRORS_ONLY.equals(reportMode);
+        List<SampleCreateForm> block = new ArrayList<>(chunkSize);
+        try {
+            while (samples.hasNext()) {
+                block.add(samples.next());
+                if (block.size() == chunkSize) {
+                    importBlock(block, onConflict, report, errorsOnly, reported, checkpoint, readNames);
+                    block.clear();
+                }
+            }
+            if (!block.isEmpty()) {
+                importBlock(block, onConflict, report, errorsOnly, reported, checkpoint, readNames);
+            }
+        } finally {
+            // The chunks committed before a failure are kept
+            if (report.getTotalCreated() + report.getTotalUpdated() > importedBefore) {
+                eventPublisher.publishEvent(new SampleChangedEvent("imported"));
+            }
+        }
+        summarize(report);
+        if (report.getTotalProvided() == 0) {
+            return;
+        }
+
+        logger.info("Import completed: " + report.getTotalCreated() + " created, " + report.getTotalUpdated()
+                + " updated, " + report.getTotalDuplicates() + " duplicates, " + report.getTotalErrors() + " errors, "
+                + report.getTotalSkipped() + " skipped");
+    }
+
+    private SampleImportReport emptyReport() {
+        SampleImportReport report = new SampleImportReport();
+        summarize(report);
+        return report;
+    }
+
+    /**
+     * Count the outcome of a sample in the totals of the report.
+     */
+    private static void count(SampleImportReport report, Outcome outcome) {
+        report.setTotalProvided(report.getTotalProvided() + 1);
+        switch (outcome.kind) {
+            case CREATED:
+                report.setTotalCreated(report.getTotalCreated() + 1);
+                break;
+            case UPDATED:
+                report.setTotalUpdated(report.getTotalUpdated() + 1);
+                break;
+            case EXISTING:
+            case REPEATED:
+                report.setTotalDuplicates(report.getTotalDuplicates() + 1);
+                break;
+            case INVALID:
+                report.setTotalErrors(report.getTotalErrors() + 1);
+                break;
+            default:
+                // Unexpected failure during creation
+                report.setTotalSkipped(report.getTotalSkipped() + 1);
+                break;
+        }
+    }
+
+    /**
+     * Set the overall message and alert level of a report from its totals.
+     * The updated samples count as imported.
+     */
+    static void summarize(SampleImportReport report) {
+        int totalProvided = report.getTotalProvided();
+        int totalUpdated = report.getTotalUpdated();
+        int totalCreated = report.getTotalCreated() + totalUpdated;
+        int totalDuplicates = report.getTotalDuplicates();
+        int totalErrors = report.getTotalErrors();
+        int totalSkipped = report.getTotalSkipped();
+
+        if (totalProvided == 0) {
+            report.setMessage("No samples provided for import");
+            report.setAlertLevel("warning");
+        } else if (totalCreated == totalProvided) {
+            StringBuilder message = new StringBuilder("Successfully imported " + totalCreated + " of " + totalProvided
+                    + " samples");
+            if (totalUpdated > 0) {
+                message.append(". ").append(totalUpdated).append(" updated");
+            }
+            report.setMessage(message.toString());
             report.setAlertLevel("success");
         } else if (totalCreated > 0) {
             StringBuilder message = new StringBuilder("Imported " + totalCreated + " of " + totalProvided + " samples");
+            if (totalUpdated > 0) {
+                message.append(". ").append(totalUpdated).append(" updated");
+            }
             if (totalDuplicates > 0) {
                 message.append(". ").append(totalDuplicates).append(" duplicate").append(totalDuplicates > 1 ? "s" : "");
             }
@@ -130,58 +381,472 @@ public class SampleImportService {
                 report.setAlertLevel("error");
             }
         }
-        
-        logger.info("Import completed: " + totalCreated + " created, " + totalDuplicates + " duplicates, " + totalErrors + " errors, " + totalSkipped + " skipped");
-        
-        return report;
     }
 
     /**
-     * Import a single sample, checking for duplicates.
+     * Import a block of samples read in a row and count their outcome in the report, in order.
+     * The samples whose name appears earlier in the block, or in an earlier block, are reported as duplicates
+     * without querying the database. A name whose hash only was read is a candidate, reported as a duplicate when
+     * the query for the names in use finds it. Names are compared by {@link #nameKey}, as the unique index does.
+     *
+     * @param block The sample forms read
+     * @param onConflict What to do with a sample whose name is used
+     * @param report The report receiving the totals
+     * @param errorsOnly Whether only the samples that failed are reported
+     * @param itemListener Called with the reported items, or null when none is reported
+     * @param checkpoint Called with the totals of the rows imported so far, in the transaction writing them,
+     *        or null
+     * @param readNames The names read in the earlier blocks, receiving the names of this one
+     */
+    private void importBlock(List<SampleCreateForm> block, String onConflict, SampleImportReport report,
+            boolean errorsOnly, Consumer<SampleImportReportItem> itemListener,
+            Consumer<SampleImportReport> checkpoint, ReadNames readNames) {
+        Outcome[] outcomes = new Outcome[block.size()];
+        List<Integer> positions = new ArrayList<>(block.size());
+        Set<String> names = new HashSet<>();
+        Set<String> candidates = new HashSet<>();
+        for (int i = 0; i < block.size(); i++) {
+            String name = block.get(i).getName();
+            String key = nameKey(name);
+            if (key != null && (readNames.contains(key) || !names.add(key))) {
+                outcomes[i] = new Outcome(name, OutcomeKind.REPEATED, null);
+            } else {
+                positions.add(i);
+                if (key != null && readNames.mightContain(key)) {
+                    candidates.add(name);
+                }
+            }
+        }
+        names.forEach(readNames::add);
+
+        int checkpointed = positions.isEmpty() ? 0
+                : importChunk(block, positions, candidates, outcomes, onConflict, report, checkpoint);
+        if (checkpoint != null && checkpointed < block.size()) {
+            // The rows left wrote nothing, their checkpoint commits on its own
+            checkpoint.accept(totalsAfter(report, outcomes, block.size()));
+        }
+        for (Outcome outcome : outcomes) {
+            count(report, outcome);
+            if (itemListener != null && (!errorsOnly || outcome.isError())) {
+                itemListener.accept(outcome.toItem());
+            }
+        }
+    }
+
+    /**
+     * Import the samples of a block at the given positions in one transaction, or one by one when it fails,
+     * setting their outcomes. The checkpoint is saved in the transaction writing the samples.
+     * A sample inserted by a concurrent import breaks the unique index on the name and fails the chunk: one by
+     * one, it is then found.
+     *
+     * @param block The sample forms read
+     * @param positions The positions of the samples to write in the block, in order
+     * @param candidates The names whose hash was read in an earlier block
+     * @param outcomes The outcomes of the block, set at the given positions
+     * @param onConflict What to do with a sample whose name is used
+     * @param report The report holding the totals before the block
+     * @param checkpoint Called with the totals of the rows imported so far, or null
+     * @return The number of rows of the block covered by the last checkpoint
+     */
+    private int importChunk(List<SampleCreateForm> block, List<Integer> positions, Set<String> candidates,
+            Outcome[] outcomes, String onConflict, SampleImportReport report,
+            Consumer<SampleImportReport> checkpoint) {
+        List<SampleCreateForm> chunk = positions.stream().map(block::get).toList();
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Outcome> written = writeChunk(chunk, onConflict, candidates);
+                for (int i = 0; i < positions.size(); i++) {
+                    outcomes[positions.get(i)] = written.get(i);
+                }
+                if (checkpoint != null) {
+                    checkpoint.accept(totalsAfter(report, outcomes, outcomes.length));
+                }
+            });
+            return outcomes.length;
+        } catch (SampleImportConflictException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            logger.warning("Failed to import a chunk of " + chunk.size() + " samples, importing them one by one: "
+                    + e.getMessage());
+            int checkpointed = 0;
+            for (int position : positions) {
+                if (importSingleSample(block.get(position), onConflict, candidates, position, outcomes, report,
+                        checkpoint)) {
+                    checkpointed = position + 1;
+                }
+            }
+            return checkpointed;
+        }
+    }
+
+    /**
+     * Import a single sample of a block in its own transaction, along with the checkpoint of the rows up to it.
+     *
+     * @return Whether the transaction committed
+     */
+    private boolean importSingleSample(SampleCreateForm sampleForm, String onConflict, Set<String> candidates,
+            int position, Outcome[] outcomes, SampleImportReport report, Consumer<SampleImportReport> checkpoint) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                outcomes[position] = importSingleSample(sampleForm, onConflict, candidates);
+                if (checkpoint != null) {
+                    checkpoint.accept(totalsAfter(report, outcomes, position + 1));
+                }
+            });
+            return true;
+        } catch (SampleImportConflictException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            // Rolled back, the sample was not written
+            logger.severe("Failed to import sample '" + sampleForm.getName() + "': " + e.getMessage());
+            outcomes[position] = new Outcome(sampleForm.getName(), OutcomeKind.FAILED,
+                    "Failed to import sample: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return A copy of the totals of the report, counting the outcomes of the first rows of a block
+     */
+    private static SampleImportReport totalsAfter(SampleImportReport report, Outcome[] outcomes, int rows) {
+        SampleImportReport totals = new SampleImportReport();
+        totals.setTotalProvided(report.getTotalProvided());
+        totals.setTotalCreated(report.getTotalCreated());
+        totals.setTotalUpdated(report.getTotalUpdated());
+        totals.setTotalDuplicates(report.getTotalDuplicates());
+        totals.setTotalErrors(report.getTotalErrors());
+        totals.setTotalSkipped(report.getTotalSkipped());
+        for (int i = 0; i < rows; i++) {
+            count(totals, outcomes[i]);
+        }
+        return totals;
+    }
+
+    /**
+     * Write a chunk of samples: one query for the names in use, one for the tags and one batched insert, or
+     * upsert in {@code update} mode.
+     *
+     * @param chunk The sample forms to import, with distinct names
+     * @param onConflict What to do with a sample whose name is used
+     * @param candidates The names whose hash was read in an earlier chunk: when used, they were read
+     * @return The outcomes of the samples, in the order of the forms
+     * @throws SampleImportConflictException In {@code fail} mode, when a name is used
+     */
+    private List<Outcome> writeChunk(List<SampleCreateForm> chunk, String onConflict, Set<String> candidates) {
+        Outcome[] outcomes = new Outcome[chunk.size()];
+        Set<String> existingNames = findExistingNames(chunk);
+        List<Integer> positions = new ArrayList<>();
+        List<Sample> samples = new ArrayList<>();
+
+        for (int i = 0; i < chunk.size(); i++) {
+            String name = chunk.get(i).getName();
+            if (existingNames.contains(name) && candidates.contains(name)) {
+                // Written or found by an earlier chunk of the import
+                outcomes[i] = new Outcome(name, OutcomeKind.REPEATED, null);
+                continue;
+            }
+            if (existingNames.contains(name) && FAIL.equals(onConflict)) {
+                throw new SampleImportConflictException("Sample with name '" + name + "' already exists");
+            }
+            if (existingNames.contains(name) && SKIP.equals(onConflict)) {
+                outcomes[i] = new Outcome(name, OutcomeKind.EXISTING, null);
+                continue;
+            }
+            Sample sample = sampleCreateService.toModel(chunk.get(i));
+            try {
+                sampleCreateService.validate(sample);
+            } catch (ConstraintViolationException e) {
+                logger.warning(() -> "Validation failed for sample '" + name + "': " + e.getMessage());
+                outcomes[i] = new Outcome(name, OutcomeKind.INVALID, e.getMessage());
+                continue;
+            }
+            positions.add(i);
+            samples.add(sample);
+        }
+
+        List<SampleEntity> entities = toEntities(samples);
+        if (UPDATE.equals(onConflict)) {
+            sampleBatchRepository.upsertAll(entities);
+        } else {
+            sampleBatchRepository.insertAll(entities);
+        }
+        int updated = 0;
+        for (int position : positions) {
+            String name = chunk.get(position).getName();
+            if (existingNames.contains(name)) {
+                updated++;
+                outcomes[position] = new Outcome(name, OutcomeKind.UPDATED, null);
+            } else {
+                outcomes[position] = new Outcome(name, OutcomeKind.CREATED, null);
+            }
+        }
+        logger.info("Imported a chunk of " + chunk.size() + " samples: " + (entities.size() - updated) + " created, "
+                + updated + " updated");
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * Find the names of the chunk already used by a sample, with one query.
+     * The database compares names with its collation, which may ignore case or accents: stored names are matched
+     * to the requested ones by {@link #nameKey}, and when stored names are left unmatched, the requested names
+     * without a match are checked one by one.
+     *
+     * @param chunk The sample forms to import
+     * @return The names of the forms that are used by a sample
+     */
+    private Set<String> findExistingNames(List<SampleCreateForm> chunk) {
+        List<String> names = chunk.stream()
+                .map(SampleCreateForm::getName)
+                .filter(Objects::nonNull)
+                .toList();
+        if (names.isEmpty()) {
+            return Set.of();
+        }
+        Set<String> stored = new HashSet<>();
+        for (String name : sampleRepository.findNamesIn(names)) {
+            stored.add(nameKey(name));
+        }
+        Set<String> existing = new HashSet<>();
+        Set<String> matched = new HashSet<>();
+        List<String> unmatched = new ArrayList<>();
+        for (String name : names) {
+            String key = nameKey(name);
+            if (stored.contains(key)) {
+                existing.add(name);
+                matched.add(key);
+            } else {
+                unmatched.add(name);
+            }
+        }
+        stored.removeAll(matched);
+        if (!stored.isEmpty()) {
+            for (String name : unmatched) {
+                if (sampleRepository.findByName(name).isPresent()) {
+                    existing.add(name);
+                }
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Key comparing sample names as the unique index on the name does: lower-cased when the database compares
+     * them case-insensitively, as the MySQL collation of the column does.
+     *
+     * @param name The name, may be null
+     * @return The key, null for a null name
+     */
+    private String nameKey(String name) {
+        if (name == null || !searchCapabilities.hasCaseInsensitiveCollation()) {
+            return name;
+        }
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Convert the samples to entities, finding or creating the tags of all of them at once.
+     */
+    private List<SampleEntity> toEntities(List<Sample> samples) {
+        Set<String> tagNames = new LinkedHashSet<>();
+        for (Sample sample : samples) {
+            if (sample.getTags() != null) {
+                sample.getTags().forEach(tag -> tagNames.add(tag.getName()));
+            }
+        }
+        Map<String, TagEntity> tagsByName = new HashMap<>();
+        if (!tagNames.isEmpty()) {
+            for (TagEntity tag : tagService.findOrCreateTags(new ArrayList<>(tagNames))) {
+                tagsByName.put(tag.getName(), tag);
+            }
+        }
+
+        List<SampleEntity> entities = new ArrayList<>(samples.size());
+        for (Sample sample : samples) {
+            SampleEntity entity = new SampleEntity();
+            entity.setName(sample.getName());
+            entity.setDescription(sample.getDescription());
+            entity.setActive(sample.isActive());
+            entity.setCreatedAt(sample.getCreatedAt());
+            entity.setCreatedBy(sample.getCreatedBy());
+            entity.setUpdatedAt(sample.getUpdatedAt());
+            entity.setUpdatedBy(sample.getUpdatedBy());
+            if (sample.getTags() != null) {
+                for (Tag tag : sample.getTags()) {
+                    TagEntity tagEntity = tagsByName.get(tag.getName());
+                    if (tagEntity == null) {
+                        throw new IllegalStateException("Tag not found: " + tag.getName());
+                    }
+                    entity.addTag(tagEntity);
+                }
+            }
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    /**
+     * Import a single sample, checking for duplicates, in the transaction of the caller.
+     * A sample failing validation is reported before anything is written. Any other failure is thrown, so that
+     * the caller rolls the transaction back and reports the sample as failed.
      * 
      * @param sampleForm The sample form to import
-     * @return A report item with the result of the import
+     * @param onConflict What to do with a sample whose name is used
+     * @param candidates The names whose hash was read in an earlier chunk
+     * @return The outcome of the import
      */
-    private SampleImportReportItem importSingleSample(SampleCreateForm sampleForm) {
+    private Outcome importSingleSample(SampleCreateForm sampleForm, String onConflict, Set<String> candidates) {
         String name = sampleForm.getName();
+
+        if (UPDATE.equals(onConflict)) {
+            return writeChunk(List.of(sampleForm), onConflict, candidates).get(0);
+        }
         
         // Check if sample with same name already exists
         if (sampleRepository.findByName(name).isPresent()) {
+            if (candidates.contains(name)) {
+                return new Outcome(name, OutcomeKind.REPEATED, null);
+            }
+            if (FAIL.equals(onConflict)) {
+                throw new SampleImportConflictException("Sample with name '" + name + "' already exists");
+            }
             logger.info("Sample with name '" + name + "' already exists, skipping");
-            return new SampleImportReportItem(
-                name,
-                false,
-                "Sample with name '" + name + "' already exists",
-                "info"
-            );
+            return new Outcome(name, OutcomeKind.EXISTING, null);
         }
         
-        // Try to create the sample
         try {
-            Sample createdSample = sampleCreateService.create(sampleForm);
-            logger.info("Sample '" + name + "' created successfully with ID: " + createdSample.getId());
-            return new SampleImportReportItem(
-                name,
-                true,
-                "Sample created successfully",
-                "success"
-            );
+            sampleCreateService.validate(sampleCreateService.toModel(sampleForm));
         } catch (ConstraintViolationException e) {
             logger.warning("Validation failed for sample '" + name + "': " + e.getMessage());
-            return new SampleImportReportItem(
-                name,
-                false,
-                "Validation failed: " + e.getMessage(),
-                "error"
-            );
-        } catch (Exception e) {
-            logger.severe("Failed to create sample '" + name + "': " + e.getMessage());
-            return new SampleImportReportItem(
-                name,
-                false,
-                "Failed to create sample: " + e.getMessage(),
-                "error"
-            );
+            return new Outcome(name, OutcomeKind.INVALID, e.getMessage());
+        }
+
+        Sample createdSample = sampleCreateService.create(sampleForm);
+        logger.info("Sample '" + name + "' created successfully with ID: " + createdSample.getId());
+        return new Outcome(name, OutcomeKind.CREATED, null);
+    }
+
+    /**
+     * Names read in the earlier chunks of an import. The names of a form are kept, as the form is held in memory
+     * anyway. The names of a file are only kept as hashes, so that memory stays small whatever its size: a name
+     * whose hash was read must be confirmed by the database, where its first occurrence was written.
+     */
+    private static final class ReadNames {
+
+        private final Set<String> names;
+        private final SampleNameHashSet hashes;
+
+        private ReadNames(Set<String> names, SampleNameHashSet hashes) {
+            this.names = names;
+            this.hashes = hashes;
+        }
+
+        static ReadNames exact() {
+            return new ReadNames(new HashSet<>(), null);
+        }
+
+        static ReadNames hashed() {
+            return new ReadNames(null, new SampleNameHashSet());
+        }
+
+        /**
+         * @return Whether the name was certainly read
+         */
+        boolean contains(String name) {
+            return names != null && names.contains(name);
+        }
+
+        /**
+         * @return Whether the name may have been read
+         */
+        boolean mightContain(String name) {
+            return names != null ? names.contains(name) : hashes.mightContain(name);
+        }
+
+        void add(String name) {
+            if (names != null) {
+                names.add(name);
+            } else {
+                hashes.add(name);
+            }
+        }
+    }
+
+    private enum OutcomeKind {
+        CREATED, UPDATED, EXISTING, REPEATED, INVALID, FAILED
+    }
+
+    /**
+     * Outcome of a sample, counted in the totals. Its report item, and the message of the item, are only
+     * built when the sample is reported.
+     */
+    private static final class Outcome {
+
+        private final String name;
+        private final OutcomeKind kind;
+
+        /**
+         * Validation message, or failure message
+         */
+        private final String detail;
+
+        Outcome(String name, OutcomeKind kind, String detail) {
+            this.name = name;
+            this.kind = kind;
+            this.detail = detail;
+        }
+
+        boolean isError() {
+            return kind == OutcomeKind.INVALID || kind == OutcomeKind.FAILED;
+        }
+
+        SampleImportReportItem toItem() {
+            switch (kind) {
+                case CREATED:
+                    return new SampleImportReportItem(name, true, "Sample created successfully", "success");
+                case UPDATED:
+                    return new SampleImportReportItem(name, false, "Sample updated successfully", "success");
+                case EXISTING:
+                    return new SampleImportReportItem(name, false, "Sample with name '" + name + "' already exists",
+                            "info");
+                case REPEATED:
+                    return new SampleImportReportItem(name, false,
+                            "Sample with name '" + name + "' appears more than once in the import", "info");
+                case INVALID:
+                    return new SampleImportReportItem(name, false, "Validation failed: " + detail, "error");
+                default:
+                    return new SampleImportReportItem(name, false, detail, "error");
+            }
+        }
+    }
+
+    /**
+     * Exception thrown in {@code fail} mode when the name of an imported sample is already used.
+     * The chunks of samples written before it are kept.
+     */
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public static class SampleImportConflictException extends RuntimeException {
+        public SampleImportConflictException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Exception thrown when the onConflict mode of an import is not supported.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class UnsupportedOnConflictException extends RuntimeException {
+        public UnsupportedOnConflictException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Exception thrown when the reportMode of an import is not supported.
+     */
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class UnsupportedReportModeException extends RuntimeException {
+        public UnsupportedReportModeException(String message) {
+            super(message);
         }
     }
 }
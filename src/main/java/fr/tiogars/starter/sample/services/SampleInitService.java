@@ -3,6 +3,7 @@ package fr.tiogars.starter.sample.services;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
 import org.springframework.stereotype.Service;
@@ -26,17 +27,30 @@ import jakarta.validation.Valid;
 public class SampleInitService {
 
     private static final int MAX_NAME_LENGTH = 10;
-    
+
+    /**
+     * Base-36 digits of the run token and decimal digits of the index in generated names.
+     * Both have a fixed width, so that a token followed by an index never reads as another pair.
+     */
+    private static final int RUN_TOKEN_LENGTH = 5;
+    private static final int INDEX_LENGTH = MAX_NAME_LENGTH - 2 - RUN_TOKEN_LENGTH;
+    private static final long RUN_TOKEN_RANGE = 60_466_176L;
+
     private final Logger logger = Logger.getLogger(SampleInitService.class.getName());
     private final SampleCreateService sampleCreateService;
     private final Random random = new Random();
 
+    /**
+     * Numbers the runs, seeded with the clock so that names stay unique across restarts
+     */
+    private final AtomicLong runCounter = new AtomicLong(System.currentTimeMillis() / 1000);
+
     // Mock data for generating samples
-    private static final String[] ADJECTIVES = {
+    static final String[] ADJECTIVES = {
         "Quick", "Lazy", "Happy", "Sad", "Bright", "Dark", "Fast", "Slow", "Big", "Small"
     };
     
-    private static final String[] NOUNS = {
+    static final String[] NOUNS = {
         "Fox", "Dog", "Cat", "Bird", "Fish", "Lion", "Tiger", "Bear", "Wolf", "Eagle"
     };
 
@@ -55,13 +69,14 @@ public class SampleInitService {
         logger.info("Initializing " + numberOfSamples + " samples with mock data");
         
         List<Sample> createdSamples = new ArrayList<>();
+        String runToken = nextRunToken();
         
         for (int i = 0; i < numberOfSamples; i++) {
-            SampleCreateForm createForm = generateMockSampleForm(i);
+            SampleCreateForm createForm = generateMockSampleForm(i, runToken);
             try {
                 Sample createdSample = sampleCreateService.create(createForm);
                 createdSamples.add(createdSample);
-                logger.info("Created sample " + (i + 1) + "/" + numberOfSamples + ": " + createdSample.getName());
+                logger.fine("Created sample " + (i + 1) + "/" + numberOfSamples + ": " + createdSample.getName());
             } catch (Exception e) {
                 logger.warning("Failed to create sample " + (i + 1) + ": " + e.getMessage());
             }
@@ -71,32 +86,34 @@ public class SampleInitService {
         return createdSamples;
     }
 
+    /**
+     * Build the token identifying a run in the names of its samples.
+     * Sample names are unique, so a run must not reuse the names of a previous one.
+     *
+     * @return RUN_TOKEN_LENGTH lowercase base-36 digits
+     */
+    String nextRunToken() {
+        String token = Long.toString(Math.floorMod(runCounter.getAndIncrement(), RUN_TOKEN_RANGE), 36);
+        return "0".repeat(RUN_TOKEN_LENGTH - token.length()) + token;
+    }
+
     /**
      * Generate a mock sample form with random data.
      * 
      * @param index The index of the sample being created
+     * @param runToken The token of the current run
      * @return A SampleCreateForm with mock data
      */
-    private SampleCreateForm generateMockSampleForm(int index) {
+    private SampleCreateForm generateMockSampleForm(int index, String runToken) {
         SampleCreateForm form = new SampleCreateForm();
         
-        // Generate a random name (max MAX_NAME_LENGTH characters to comply with validation)
         String adjective = ADJECTIVES[random.nextInt(ADJECTIVES.length)];
         String noun = NOUNS[random.nextInt(NOUNS.length)];
         
-        // Create name with format: adjective prefix + noun prefix + index
-        // Use smaller prefixes to accommodate larger index numbers
-        int indexDigits = String.valueOf(index + 1).length();
-        int maxPrefixLength = (MAX_NAME_LENGTH - indexDigits) / 2;
-        
-        String name = adjective.substring(0, Math.min(maxPrefixLength, adjective.length())) + 
-                      noun.substring(0, Math.min(maxPrefixLength, noun.length())) + 
-                      (index + 1);
-        
-        // Ensure name doesn't exceed MAX_NAME_LENGTH characters
-        if (name.length() > MAX_NAME_LENGTH) {
-            name = name.substring(0, MAX_NAME_LENGTH);
-        }
+        // Create name with format: adjective initial + noun initial + run token + zero-padded index,
+        // exactly MAX_NAME_LENGTH characters to comply with validation
+        String name = "" + adjective.charAt(0) + noun.charAt(0) + runToken
+                + String.format("%0" + INDEX_LENGTH + "d", index + 1);
         
         form.setName(name);
         form.setDescription("Mock sample generated with " + adjective.toLowerCase() + " " + noun.toLowerCase());
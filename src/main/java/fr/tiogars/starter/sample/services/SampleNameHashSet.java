@@ -0,0 +1,103 @@
+package fr.tiogars.starter.sample.services;
+
+/**
+ * Set of 64-bit hashes of sample names, to remember the names read by a streamed import in 11 to 22 bytes each
+ * instead of the names themselves. A hash found in the set only tells that the name may have been read: two
+ * names share a hash with a probability of about n²/2⁶⁵ for n names, so a match must be confirmed elsewhere.
+ *
+ * The hashes are kept in an open-addressing table with linear probing, grown when it is three quarters full.
+ */
+final class SampleNameHashSet {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Marks an empty slot: a name hashing to it is stored as {@link #ZERO_SUBSTITUTE}
+     */
+    private static final long EMPTY = 0L;
+    private static final long ZERO_SUBSTITUTE = 1L;
+
+    private long[] table = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Add the hash of a name.
+     *
+     * @param name The name, not null
+     * @return Whether the hash was not in the set yet
+     */
+    boolean add(String name) {
+        long hash = hash(name);
+        if (!insert(table, hash)) {
+            return false;
+        }
+        size++;
+        if (size * 4L >= table.length * 3L) {
+            grow();
+        }
+        return true;
+    }
+
+    /**
+     * @param name The name, not null
+     * @return Whether a name with the same hash was added
+     */
+    boolean mightContain(String name) {
+        long hash = hash(name);
+        int mask = table.length - 1;
+        for (int slot = slot(hash, mask); table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (table[slot] == hash) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the characters of a name, never {@link #EMPTY}.
+     */
+    static long hash(String name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == EMPTY ? ZERO_SUBSTITUTE : hash;
+    }
+
+    private void grow() {
+        long[] grown = new long[table.length * 2];
+        for (long hash : table) {
+            if (hash != EMPTY) {
+                insert(grown, hash);
+            }
+        }
+        table = grown;
+    }
+
+    private static boolean insert(long[] table, long hash) {
+        int mask = table.length - 1;
+        int slot = slot(hash, mask);
+        while (table[slot] != EMPTY) {
+            if (table[slot] == hash) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = hash;
+        return true;
+    }
+
+    /**
+     * Spread the bits of the hash before masking, FNV-1a low bits being weak for short names.
+     */
+    private static int slot(long hash, int mask) {
+        long mixed = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        mixed ^= mixed >>> 33;
+        return (int) mixed & mask;
+    }
+}
@@ -0,0 +1,89 @@
+package fr.tiogars.starter.sample.services;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Opaque keyset cursor used by cursor pagination of sample searches.
+ *
+ * A cursor holds the scan direction, the signature of the sort it was produced for
+ * and the sort-key values (id last, as tiebreaker) of the row the requested page
+ * starts after. Values are kept as strings; typing them is left to the search service.
+ */
+final class SampleSearchCursor {
+
+    private static final String VERSION = "v1";
+    private static final String FORWARD = "next";
+    private static final String BACKWARD = "prev";
+    private static final String SEPARATOR = "~";
+    private static final String NULL_VALUE = "!";
+
+    private final boolean backward;
+    private final String sortSignature;
+    private final List<String> values;
+
+    SampleSearchCursor(boolean backward, String sortSignature, List<String> values) {
+        this.backward = backward;
+        this.sortSignature = sortSignature;
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    boolean isBackward() {
+        return backward;
+    }
+
+    String getSortSignature() {
+        return sortSignature;
+    }
+
+    List<String> getValues() {
+        return values;
+    }
+
+    /**
+     * Encode this cursor as an URL-safe opaque token.
+     */
+    String encode() {
+        List<String> parts = new ArrayList<>();
+        parts.add(VERSION);
+        parts.add(backward ? BACKWARD : FORWARD);
+        parts.add(encodePart(sortSignature));
+        for (String value : values) {
+            parts.add(value == null ? NULL_VALUE : encodePart(value));
+        }
+        return encodePart(String.join(SEPARATOR, parts));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @throws SampleSearchService.InvalidSearchRequestException if the token is malformed
+     */
+    static SampleSearchCursor decode(String token) {
+        try {
+            String[] parts = decodePart(token).split(SEPARATOR, -1);
+            if (parts.length < 4 || !VERSION.equals(parts[0])
+                    || !(FORWARD.equals(parts[1]) || BACKWARD.equals(parts[1]))) {
+                throw new SampleSearchService.InvalidSearchRequestException("Malformed search cursor");
+            }
+            List<String> values = new ArrayList<>();
+            for (int i = 3; i < parts.length; i++) {
+                values.add(NULL_VALUE.equals(parts[i]) ? null : decodePart(parts[i]));
+            }
+            return new SampleSearchCursor(BACKWARD.equals(parts[1]), decodePart(parts[2]), values);
+        } catch (IllegalArgumentException e) {
+            throw new SampleSearchService.InvalidSearchRequestException("Malformed search cursor");
+        }
+    }
+
+    private static String encodePart(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String value) {
+        return new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+    }
+}
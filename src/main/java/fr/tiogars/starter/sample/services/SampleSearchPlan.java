@@ -0,0 +1,155 @@
+package fr.tiogars.starter.sample.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Filter and sort plan compiled by {@link SampleSearchPlanner} for one request shape.
+ *
+ * The shape is made of the filter fields, operators and value types, the logic operator, the
+ * presence of quick filter values and the sort model. Fields and operators are resolved once when
+ * the plan is compiled; binding a request to the plan only converts its filter values.
+ */
+final class SampleSearchPlan {
+
+    /**
+     * Builds the predicate of one filter item from its converted value.
+     */
+    @FunctionalInterface
+    interface PredicateFactory {
+        Predicate create(Root<SampleEntity> root, CriteriaBuilder criteriaBuilder, Object value);
+    }
+
+    /**
+     * Compiled filter item: converts the raw value, returning null when it cannot be applied,
+     * and builds the predicate from the converted value.
+     */
+    static final class FilterStep {
+        private final Function<Object, Object> binder;
+        private final PredicateFactory predicateFactory;
+
+        /**
+         * Whether the step is a full-text match, whose converted value is the list of search terms
+         */
+        private final boolean fullText;
+
+        FilterStep(Function<Object, Object> binder, PredicateFactory predicateFactory) {
+            this(binder, predicateFactory, false);
+        }
+
+        FilterStep(Function<Object, Object> binder, PredicateFactory predicateFactory, boolean fullText) {
+            this.binder = binder;
+            this.predicateFactory = predicateFactory;
+            this.fullText = fullText;
+        }
+    }
+
+    /**
+     * One step per effective filter item of the shape, null for items that are ignored
+     * (unknown field or operator).
+     */
+    private final List<FilterStep> filterSteps;
+    private final boolean or;
+
+    /**
+     * Full-text match of the quick filter values, null when the request has none
+     */
+    private final FilterStep quickFilterStep;
+
+    private final Sort sort;
+
+    /**
+     * Direction of the relevance sort applied before {@link #sort}, null when not requested
+     */
+    private final Sort.Direction relevanceDirection;
+    private final SampleFullTextMatcher fullTextMatcher;
+
+    SampleSearchPlan(List<FilterStep> filterSteps, boolean or, FilterStep quickFilterStep, Sort sort,
+            Sort.Direction relevanceDirection, SampleFullTextMatcher fullTextMatcher) {
+        this.filterSteps = filterSteps;
+        this.or = or;
+        this.quickFilterStep = quickFilterStep;
+        this.sort = sort;
+        this.relevanceDirection = relevanceDirection;
+        this.fullTextMatcher = fullTextMatcher;
+    }
+
+    Sort getSort() {
+        return sort;
+    }
+
+    boolean hasRelevanceSort() {
+        return relevanceDirection != null;
+    }
+
+    /**
+     * Bind the filter values of a request having this plan's shape.
+     * When relevance sort is requested, the specification also orders the query by the relevance
+     * of the full-text terms of the filter and quick filter.
+     *
+     * @param filterModel The filter model the plan was compiled for, or one with the same shape
+     * @return The specification applying the filter
+     */
+    @SuppressWarnings("unchecked")
+    Specification<SampleEntity> bind(FilterModel filterModel) {
+        List<FilterItem> items = SampleSearchPlanner.effectiveItems(filterModel);
+        List<FilterStep> steps = new ArrayList<>(items.size());
+        List<Object> values = new ArrayList<>(items.size());
+        List<String> searchTerms = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            FilterStep step = filterSteps.get(i);
+            if (step == null) {
+                continue;
+            }
+            Object value = step.binder.apply(items.get(i).getValue());
+            if (value != null) {
+                steps.add(step);
+                values.add(value);
+                if (step.fullText) {
+                    searchTerms.addAll((List<String>) value);
+                }
+            }
+        }
+        Object quickFilterValue = quickFilterStep != null
+                ? quickFilterStep.binder.apply(filterModel.getQuickFilterValues())
+                : null;
+        if (quickFilterValue != null) {
+            searchTerms.addAll((List<String>) quickFilterValue);
+        }
+
+        return (root, query, criteriaBuilder) -> {
+            if (relevanceDirection != null && !searchTerms.isEmpty()) {
+                Expression<? extends Number> relevance = fullTextMatcher.relevance(root, criteriaBuilder, searchTerms);
+                query.orderBy(relevanceDirection.isAscending()
+                        ? criteriaBuilder.asc(relevance)
+                        : criteriaBuilder.desc(relevance));
+            }
+
+            Predicate quickFilter = quickFilterValue != null
+                    ? quickFilterStep.predicateFactory.create(root, criteriaBuilder, quickFilterValue)
+                    : null;
+            if (steps.isEmpty()) {
+                return quickFilter != null ? quickFilter : criteriaBuilder.conjunction();
+            }
+            Predicate[] predicates = new Predicate[steps.size()];
+            for (int i = 0; i < predicates.length; i++) {
+                predicates[i] = steps.get(i).predicateFactory.create(root, criteriaBuilder, values.get(i));
+            }
+            Predicate filter = or ? criteriaBuilder.or(predicates) : criteriaBuilder.and(predicates);
+            // The quick filter narrows the filter items, as in the DataGrid
+            return quickFilter != null ? criteriaBuilder.and(filter, quickFilter) : filter;
+        };
+    }
+}
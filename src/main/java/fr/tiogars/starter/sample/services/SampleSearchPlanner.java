@@ -0,0 +1,433 @@
+package fr.tiogars.starter.sample.services;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
+import fr.tiogars.starter.sample.models.SortItem;
+import fr.tiogars.starter.sample.repositories.SampleSearchCapabilities;
+import fr.tiogars.starter.sample.services.SampleSearchPlan.FilterStep;
+import fr.tiogars.starter.sample.services.SampleSearchPlan.PredicateFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Compiles MUI DataGrid filter and sort models into {@link SampleSearchPlan}s.
+ * Besides the field filters, plans support full-text search (the {@code search}/{@code fullText}
+ * operators and the quick filter values) and sorting by full-text relevance.
+ * Plans are cached by request shape in a bounded LRU, so that requests differing only
+ * by their filter values reuse the same plan and only bind their values.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class SampleSearchPlanner {
+
+    /**
+     * Fields that can be used in the sort model.
+     */
+    static final Set<String> SORTABLE_FIELDS = Set.of(
+            "id", "name", "description", "active", "createdAt", "createdBy", "updatedAt", "updatedBy");
+
+    /**
+     * Pseudo sort field ordering by full-text relevance of the search terms.
+     */
+    static final String RELEVANCE_FIELD = "relevance";
+
+    private static final Sort DEFAULT_SORT = Sort.by(Sort.Direction.DESC, "id");
+
+    private enum FieldType { NUMBER, STRING, BOOLEAN, DATE }
+
+    private final Map<String, SampleSearchPlan> plans;
+    private final SampleSearchCapabilities searchCapabilities;
+    private volatile SampleFullTextMatcher fullTextMatcher;
+
+    public SampleSearchPlanner(@Value("${sample.search.plan-cache.max-entries:256}") int maxEntries,
+            SampleSearchCapabilities searchCapabilities) {
+        this.searchCapabilities = searchCapabilities;
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SampleSearchPlan> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Return the plan for the shape of the given filter and sort models, compiling it on first use.
+     *
+     * @throws SampleSearchService.InvalidSearchRequestException if the sort model uses an unknown field
+     */
+    SampleSearchPlan plan(FilterModel filterModel, List<SortItem> sortModel) {
+        List<FilterItem> items = effectiveItems(filterModel);
+        boolean or = filterModel != null && "or".equalsIgnoreCase(filterModel.getLogicOperator());
+        Boolean quickFilterAll = quickFilterAll(filterModel);
+        String shape = buildShape(items, or, quickFilterAll, sortModel);
+
+        SampleSearchPlan plan;
+        synchronized (plans) {
+            plan = plans.get(shape);
+        }
+        if (plan == null) {
+            plan = compile(items, or, quickFilterAll, sortModel);
+            synchronized (plans) {
+                plans.put(shape, plan);
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Number of plans currently cached.
+     */
+    int cachedPlanCount() {
+        synchronized (plans) {
+            return plans.size();
+        }
+    }
+
+    /**
+     * Filter items that take part in the search: items missing a field, an operator or a value are ignored.
+     */
+    static List<FilterItem> effectiveItems(FilterModel filterModel) {
+        if (filterModel == null || filterModel.getItems() == null) {
+            return List.of();
+        }
+        return filterModel.getItems().stream()
+                .filter(Objects::nonNull)
+                .filter(item -> item.getField() != null && item.getOperator() != null && item.getValue() != null)
+                .toList();
+    }
+
+    /**
+     * Whether all quick filter values are required, or null when there are no quick filter values.
+     */
+    private static Boolean quickFilterAll(FilterModel filterModel) {
+        if (filterModel == null || filterModel.getQuickFilterValues() == null
+                || filterModel.getQuickFilterValues().stream().allMatch(Objects::isNull)) {
+            return null;
+        }
+        return !"or".equalsIgnoreCase(filterModel.getQuickFilterLogicOperator());
+    }
+
+    private static String buildShape(List<FilterItem> items, boolean or, Boolean quickFilterAll,
+            List<SortItem> sortModel) {
+        StringBuilder shape = new StringBuilder(or ? "or" : "and");
+        for (FilterItem item : items) {
+            shape.append('|').append(item.getField())
+                    .append(':').append(item.getOperator())
+                    .append(':').append(valueType(item.getValue()));
+        }
+        if (quickFilterAll != null) {
+            shape.append("|quick:").append(quickFilterAll ? "and" : "or");
+        }
+        shape.append("|sort");
+        if (sortModel != null) {
+            for (SortItem item : sortModel) {
+                shape.append('|').append(item.getField())
+                        .append(':').append(isDescending(item) ? "desc" : "asc");
+            }
+        }
+        return shape.toString();
+    }
+
+    private static String valueType(Object value) {
+        if (value instanceof Number) {
+            return "number";
+        }
+        if (value instanceof Boolean) {
+            return "boolean";
+        }
+        if (value instanceof Date) {
+            return "date";
+        }
+        return "string";
+    }
+
+    private static boolean isDescending(SortItem item) {
+        return "desc".equalsIgnoreCase(item.getSort());
+    }
+
+    private SampleSearchPlan compile(List<FilterItem> items, boolean or, Boolean quickFilterAll,
+            List<SortItem> sortModel) {
+        List<FilterStep> steps = new ArrayList<>(items.size());
+        for (FilterItem item : items) {
+            steps.add(compileFilter(item.getField(), item.getOperator(), valueType(item.getValue())));
+        }
+        FilterStep quickFilterStep = quickFilterAll != null ? compileFullText(quickFilterAll) : null;
+
+        Sort.Direction relevanceDirection = null;
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sortModel != null) {
+            for (SortItem item : sortModel) {
+                Sort.Direction direction = isDescending(item) ? Sort.Direction.DESC : Sort.Direction.ASC;
+                if (RELEVANCE_FIELD.equals(item.getField())) {
+                    relevanceDirection = direction;
+                } else if (item.getField() == null || !SORTABLE_FIELDS.contains(item.getField())) {
+                    throw new SampleSearchService.InvalidSearchRequestException(
+                            "Unknown sort field: " + item.getField());
+                } else {
+                    orders.add(new Sort.Order(direction, item.getField()));
+                }
+            }
+        }
+        Sort sort = orders.isEmpty() ? DEFAULT_SORT : Sort.by(orders);
+        return new SampleSearchPlan(steps, or, quickFilterStep, sort, relevanceDirection,
+                relevanceDirection != null ? fullTextMatcher() : null);
+    }
+
+    private SampleFullTextMatcher fullTextMatcher() {
+        if (fullTextMatcher == null) {
+            fullTextMatcher = new SampleFullTextMatcher(searchCapabilities.hasFullTextIndex());
+        }
+        return fullTextMatcher;
+    }
+
+    private static FieldType fieldType(String field) {
+        switch (field) {
+            case "id":
+                return FieldType.NUMBER;
+            case "name":
+            case "description":
+            case "createdBy":
+            case "updatedBy":
+                return FieldType.STRING;
+            case "active":
+                return FieldType.BOOLEAN;
+            case "createdAt":
+            case "updatedAt":
+                return FieldType.DATE;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Compile one filter item, or return null when the item is ignored (unknown field or operator).
+     */
+    private FilterStep compileFilter(String field, String operator, String valueType) {
+        FieldType fieldType = fieldType(field);
+        if (fieldType == null) {
+            return null;
+        }
+        switch (fieldType) {
+            case NUMBER:
+                return compileComparison(field, numericComparison(operator), numberBinder(valueType));
+            case DATE:
+                return compileComparison(field, dateComparison(operator), dateBinder(valueType));
+            case BOOLEAN:
+                return new FilterStep(booleanBinder(valueType),
+                        (root, cb, value) -> cb.equal(root.get(field), value));
+            default:
+                return compileString(field, operator);
+        }
+    }
+
+    private static String numericComparison(String operator) {
+        switch (operator) {
+            case "=":
+            case "equals":
+                return "=";
+            case "!=":
+            case "not":
+                return "!=";
+            case ">":
+            case "greaterThan":
+                return ">";
+            case ">=":
+            case "greaterThanOrEqual":
+                return ">=";
+            case "<":
+            case "lessThan":
+                return "<";
+            case "<=":
+            case "lessThanOrEqual":
+                return "<=";
+            default:
+                return null;
+        }
+    }
+
+    private static String dateComparison(String operator) {
+        switch (operator) {
+            case "is":
+            case "equals":
+                return "=";
+            case "not":
+                return "!=";
+            case "after":
+            case ">":
+                return ">";
+            case "onOrAfter":
+            case ">=":
+                return ">=";
+            case "before":
+            case "<":
+                return "<";
+            case "onOrBefore":
+            case "<=":
+                return "<=";
+            default:
+                return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static FilterStep compileComparison(String field, String comparison, Function<Object, Object> binder) {
+        if (comparison == null) {
+            return null;
+        }
+        PredicateFactory factory;
+        switch (comparison) {
+            case "=":
+                factory = (root, cb, value) -> cb.equal(root.get(field), value);
+                break;
+            case "!=":
+                factory = (root, cb, value) -> cb.notEqual(root.get(field), value);
+                break;
+            case ">":
+                factory = (root, cb, value) -> cb.greaterThan(root.<Comparable<Object>>get(field), (Comparable<Object>) value);
+                break;
+            case ">=":
+                factory = (root, cb, value) -> cb.greaterThanOrEqualTo(root.<Comparable<Object>>get(field), (Comparable<Object>) value);
+                break;
+            case "<":
+                factory = (root, cb, value) -> cb.lessThan(root.<Comparable<Object>>get(field), (Comparable<Object>) value);
+                break;
+            default:
+                factory = (root, cb, value) -> cb.lessThanOrEqualTo(root.<Comparable<Object>>get(field), (Comparable<Object>) value);
+                break;
+        }
+        return new FilterStep(binder, factory);
+    }
+
+    private FilterStep compileString(String field, String operator) {
+        switch (operator) {
+            case "search":
+            case "fullText":
+                // Full-text search always covers both name and description
+                if (!"name".equals(field) && !"description".equals(field)) {
+                    return null;
+                }
+                return compileFullText(true);
+            case "contains":
+                return new FilterStep(value -> "%" + value.toString().toLowerCase() + "%",
+                        (root, cb, value) -> cb.like(textColumn(root, cb, field), (String) value));
+            case "equals":
+                return new FilterStep(value -> value.toString().toLowerCase(),
+                        (root, cb, value) -> cb.equal(textColumn(root, cb, field), value));
+            case "startsWith":
+                return new FilterStep(value -> value.toString().toLowerCase() + "%",
+                        (root, cb, value) -> cb.like(textColumn(root, cb, field), (String) value));
+            case "endsWith":
+                return new FilterStep(value -> "%" + value.toString().toLowerCase(),
+                        (root, cb, value) -> cb.like(textColumn(root, cb, field), (String) value));
+            case "isEmpty":
+                return new FilterStep(value -> Boolean.TRUE, (root, cb, value) -> {
+                    Path<String> path = root.get(field);
+                    return cb.or(cb.isNull(path), cb.equal(cb.length(path), 0));
+                });
+            case "isNotEmpty":
+                return new FilterStep(value -> Boolean.TRUE, (root, cb, value) -> {
+                    Path<String> path = root.get(field);
+                    return cb.and(cb.isNotNull(path), cb.greaterThan(cb.length(path), 0));
+                });
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Text column compared case-insensitively to a lower case value.
+     * With a case-insensitive collation the column is compared as is, so that its index can be used.
+     */
+    private Expression<String> textColumn(Root<SampleEntity> root, CriteriaBuilder cb, String field) {
+        Path<String> path = root.get(field);
+        return searchCapabilities.hasCaseInsensitiveCollation() ? path : cb.lower(path);
+    }
+
+    @SuppressWarnings("unchecked")
+    private FilterStep compileFullText(boolean all) {
+        SampleFullTextMatcher matcher = fullTextMatcher();
+        return new FilterStep(SampleFullTextMatcher::terms,
+                (root, cb, value) -> matcher.matches(root, cb, (List<String>) value, all), true);
+    }
+
+    private static Function<Object, Object> numberBinder(String valueType) {
+        if ("number".equals(valueType)) {
+            return value -> ((Number) value).longValue();
+        }
+        return value -> parseLong(value.toString());
+    }
+
+    private static Function<Object, Object> dateBinder(String valueType) {
+        switch (valueType) {
+            case "date":
+                return value -> value;
+            case "number":
+                return value -> new Date(((Number) value).longValue());
+            default:
+                return value -> {
+                    Long timestamp = parseLong(value.toString());
+                    return timestamp != null ? new Date(timestamp) : null;
+                };
+        }
+    }
+
+    private static Function<Object, Object> booleanBinder(String valueType) {
+        if ("boolean".equals(valueType)) {
+            return value -> value;
+        }
+        return value -> {
+            String text = value.toString().toLowerCase();
+            if ("true".equals(text) || "1".equals(text)) {
+                return Boolean.TRUE;
+            }
+            if ("false".equals(text) || "0".equals(text)) {
+                return Boolean.FALSE;
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Parse a decimal long, returning null instead of throwing when the text is not a number.
+     */
+    static Long parseLong(String text) {
+        int length = text.length();
+        int start = length > 0 && (text.charAt(0) == '-' || text.charAt(0) == '+') ? 1 : 0;
+        if (start == length) {
+            return null;
+        }
+        for (int i = start; i < length; i++) {
+            if (!Character.isDigit(text.charAt(i))) {
+                return null;
+            }
+        }
+        if (length - start < 19) {
+            return Long.parseLong(text);
+        }
+        // Only values close to the long range need an overflow check
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package fr.tiogars.starter.sample.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
+import fr.tiogars.starter.sample.models.SampleSearchRequest;
+import fr.tiogars.starter.sample.models.SampleSearchResponse;
+import fr.tiogars.starter.sample.models.SortItem;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Caches sample search responses per canonical request, so that identical polling requests
+ * do not query the database until the entry expires or samples are written.
+ * Hit, miss and eviction metrics are published under the {@value #CACHE_NAME} cache name.
+ *
+ * @author Generated
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class SampleSearchResultCache implements MeterBinder {
+
+    static final String CACHE_NAME = "sample.search.results";
+
+    private final long maxEntries;
+
+    /**
+     * Requests with a larger page size, such as exports, bypass the cache
+     */
+    private final int maxPageSize;
+    private final Cache<String, SampleSearchResponse> responses;
+
+    /**
+     * Incremented on every invalidation so that a response computed concurrently with a write is not stored
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    public SampleSearchResultCache(@Value("${sample.search.result-cache.ttl:PT10S}") Duration ttl,
+            @Value("${sample.search.result-cache.max-entries:500}") long maxEntries,
+            @Value("${sample.search.result-cache.max-page-size:100}") int maxPageSize) {
+        this.maxEntries = maxEntries;
+        this.maxPageSize = maxPageSize;
+        this.responses = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Return the cached response for the request, or run the search and cache its response.
+     *
+     * @param request The search request
+     * @param search Runs the search on a cache miss
+     * @return The search response, possibly up to one TTL old
+     */
+    public SampleSearchResponse get(SampleSearchRequest request, Supplier<SampleSearchResponse> search) {
+        if (maxEntries <= 0 || request.getPageSize() > maxPageSize) {
+            return search.get();
+        }
+        String key = buildKey(request);
+        SampleSearchResponse cached = responses.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long currentGeneration = generation.get();
+        SampleSearchResponse response = search.get();
+        if (generation.get() == currentGeneration) {
+            responses.put(key, response);
+        }
+        return response;
+    }
+
+    /**
+     * Drop every cached response once a sample write has been committed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSampleChanged(SampleChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        responses.invalidateAll();
+    }
+
+    long cachedResponseCount() {
+        responses.cleanUp();
+        return responses.estimatedSize();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, responses, CACHE_NAME);
+    }
+
+    /**
+     * Build the cache key of a request: a SHA-256 hash of its canonical form.
+     * The canonical form normalizes the modes and the filter like the search does, so that
+     * requests returning the same response share the same key.
+     */
+    static String buildKey(SampleSearchRequest request) {
+        boolean cursorMode = "cursor".equalsIgnoreCase(request.getPaginationMode());
+        StringBuilder canonical = new StringBuilder();
+        if (cursorMode) {
+            canonical.append("cursor:").append(request.getCursor() != null ? request.getCursor() : "");
+        } else {
+            canonical.append("page:").append(request.getPage());
+        }
+        canonical.append("|size:").append(request.getPageSize());
+        String totalMode = request.getTotalMode();
+        canonical.append("|total:").append(totalMode == null || totalMode.isBlank()
+                ? "exact"
+                : totalMode.toLowerCase(Locale.ROOT));
+        canonical.append("|sort:");
+        if (request.getSortModel() != null) {
+            for (SortItem item : request.getSortModel()) {
+                canonical.append(item.getField()).append(':')
+                        .append(item.getSort() != null ? item.getSort().toLowerCase(Locale.ROOT) : null)
+                        .append(',');
+            }
+        }
+        canonical.append("|filter:").append(SampleCountCache.buildFilterSignature(request.getFilterModel()));
+        return sha256(canonical.toString());
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,331 +1,334 @@
 package fr.tiogars.starter.sample.services;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ResponseStatus;
 
 import fr.tiogars.starter.sample.entities.SampleEntity;
-import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.sample.models.SampleSearchRequest;
 import fr.tiogars.starter.sample.models.SampleSearchResponse;
-import fr.tiogars.starter.sample.models.SortItem;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
 import jakarta.persistence.criteria.Predicate;
 
 /**
  * Service for searching Sample entities with MUI DataGrid compatible interface.
  * Supports pagination, sorting, and filtering on all Sample entity fields.
+ * Pagination is either offset based (page, pageSize) or cursor based (keyset), and the
+ * total row count is either exact, cached or estimated.
  */
 @Service
 public class SampleSearchService {
+
+    /**
+     * Sortable fields whose column accepts NULL values.
+     */
+    private static final Set<String> NULLABLE_FIELDS = Set.of("description");
+
+    private static final String TOTAL_MODE_EXACT = "exact";
+    private static final String TOTAL_MODE_CACHED = "cached";
+    private static final String TOTAL_MODE_ESTIMATED = "estimated";
+
+    /**
+     * Row count returned when the total is unknown, as expected by MUI DataGrid.
+     */
+    private static final long UNKNOWN_ROW_COUNT = -1;
+
     private final SampleRepository sampleRepository;
+    private final SampleCountCache sampleCountCache;
+    private final SampleSearchPlanner sampleSearchPlanner;
+    private final SampleSearchResultCache sampleSearchResultCache;
+    private final TransactionTemplate readOnlyTransaction;
 
-    public SampleSearchService(SampleRepository sampleRepository) {
+    public SampleSearchService(SampleRepository sampleRepository, SampleCountCache sampleCountCache,
+            SampleSearchPlanner sampleSearchPlanner, SampleSearchResultCache sampleSearchResultCache,
+            PlatformTransactionManager transactionManager) {
         this.sampleRepository = sampleRepository;
+        this.sampleCountCache = sampleCountCache;
+        this.sampleSearchPlanner = sampleSearchPlanner;
+        this.sampleSearchResultCache = sampleSearchResultCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
 
     /**
      * Search samples with pagination, sorting, and filtering.
+     * Identical requests are answered from the result cache until samples are written. Only the requests
+     * missing from the cache open a read-only transaction, and a connection.
      * 
      * @param request The search request containing pagination, sort, and filter criteria
      * @return SampleSearchResponse with rows and total count
      */
     public SampleSearchResponse search(SampleSearchRequest request) {
-        // Build sorting
-        Sort sort = buildSort(request.getSortModel());
-        
-        // Build pageable
-        Pageable pageable = PageRequest.of(request.getPage(), request.getPageSize(), sort);
-        
-        // Build specification for filtering
-        Specification<SampleEntity> specification = buildSpecification(request.getFilterModel());
-        
-        // Execute query
-        Page<SampleEntity> page = sampleRepository.findAll(specification, pageable);
-        
-        // Convert to models
-        List<Sample> samples = page.getContent().stream()
-                .map(this::toModel)
-                .collect(Collectors.toList());
-        
-        return new SampleSearchResponse(samples, page.getTotalElements());
+        return sampleSearchResultCache.get(request,
+                () -> readOnlyTransaction.execute(status -> executeSearch(request)));
     }
 
-    /**
-     * Build Spring Data Sort from MUI DataGrid sort model.
-     */
-    private Sort buildSort(List<SortItem> sortModel) {
-        if (sortModel == null || sortModel.isEmpty()) {
-            return Sort.by(Sort.Direction.DESC, "id");
+    private SampleSearchResponse executeSearch(SampleSearchRequest request) {
+        String totalMode = resolveTotalMode(request.getTotalMode());
+        // Compiled sort and filter, reused by requests of the same shape
+        SampleSearchPlan plan = sampleSearchPlanner.plan(request.getFilterModel(), request.getSortModel());
+        if ("cursor".equalsIgnoreCase(request.getPaginationMode())) {
+            return searchByCursor(request, totalMode, plan);
         }
+
+        // Build pageable
+        Pageable pageable = PageRequest.of(request.getPage(), request.getPageSize(), plan.getSort());
         
-        List<Sort.Order> orders = sortModel.stream()
-                .map(item -> {
-                    Sort.Direction direction = "desc".equalsIgnoreCase(item.getSort()) 
-                            ? Sort.Direction.DESC 
-                            : Sort.Direction.ASC;
-                    return new Sort.Order(direction, item.getField());
-                })
-                .collect(Collectors.toList());
+        // Bind the filter values
+        Specification<SampleEntity> specification = plan.bind(request.getFilterModel());
         
-        return Sort.by(orders);
+        SampleSearchResponse response;
+        if (TOTAL_MODE_EXACT.equals(totalMode)) {
+            // Execute query, with its COUNT query
+            Page<Sample> page = sampleRepository.findSamples(specification, pageable);
+            response = new SampleSearchResponse(page.getContent(), page.getTotalElements());
+            response.setHasMore(page.hasNext());
+        } else {
+            // Execute query without COUNT, the total comes from the cache or the estimate
+            Slice<Sample> slice = sampleRepository.findSampleSlice(specification, pageable);
+            long rowCount = countRows(totalMode, specification, request.getFilterModel());
+            response = new SampleSearchResponse(slice.getContent(), rowCount);
+            response.setHasMore(slice.hasNext());
+        }
+        response.setTotalMode(totalMode);
+        return response;
     }
 
     /**
-     * Build JPA Specification from MUI DataGrid filter model.
-     * Supports filtering on all Sample entity fields.
+     * Count the rows matching the filter according to the total mode.
+     *
+     * @return The row count, or -1 when it is unknown (estimated mode with a filter)
      */
-    private Specification<SampleEntity> buildSpecification(fr.tiogars.starter.sample.models.FilterModel filterModel) {
-        return (root, query, criteriaBuilder) -> {
-            if (filterModel == null || filterModel.getItems() == null || filterModel.getItems().isEmpty()) {
-                return criteriaBuilder.conjunction();
-            }
-            
-            List<Predicate> predicates = new ArrayList<>();
-            
-            for (FilterItem item : filterModel.getItems()) {
-                String field = item.getField();
-                String operator = item.getOperator();
-                Object value = item.getValue();
-                
-                if (field == null || operator == null || value == null) {
-                    continue;
-                }
-                
-                Predicate predicate = buildPredicate(root, criteriaBuilder, field, operator, value);
-                if (predicate != null) {
-                    predicates.add(predicate);
+    private long countRows(String totalMode, Specification<SampleEntity> specification, FilterModel filterModel) {
+        switch (totalMode) {
+            case TOTAL_MODE_CACHED:
+                return sampleCountCache.getCount(filterModel, () -> sampleRepository.count(specification));
+            case TOTAL_MODE_ESTIMATED:
+                if (SampleCountCache.hasFilter(filterModel)) {
+                    return UNKNOWN_ROW_COUNT;
                 }
-            }
-            
-            if (predicates.isEmpty()) {
-                return criteriaBuilder.conjunction();
-            }
-            
-            // Apply logic operator (and/or)
-            if ("or".equalsIgnoreCase(filterModel.getLogicOperator())) {
-                return criteriaBuilder.or(predicates.toArray(new Predicate[0]));
-            } else {
-                return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
-            }
-        };
-    }
-
-    /**
-     * Build individual predicate based on field, operator, and value.
-     */
-    private Predicate buildPredicate(jakarta.persistence.criteria.Root<SampleEntity> root, 
-                                     jakarta.persistence.criteria.CriteriaBuilder criteriaBuilder,
-                                     String field, String operator, Object value) {
-        switch (field) {
-            case "id":
-                return buildNumericPredicate(root.get("id"), criteriaBuilder, operator, value);
-            case "name":
-            case "description":
-            case "createdBy":
-            case "updatedBy":
-                return buildStringPredicate(root.get(field), criteriaBuilder, operator, value);
-            case "active":
-                return buildBooleanPredicate(root.get("active"), criteriaBuilder, operator, value);
-            case "createdAt":
-            case "updatedAt":
-                return buildDatePredicate(root.get(field), criteriaBuilder, operator, value);
+                return sampleRepository.estimateRowCount().orElseGet(() -> sampleRepository.count());
             default:
-                return null;
+                return sampleRepository.count(specification);
         }
     }
 
-    /**
-     * Build predicate for numeric fields.
-     */
-    private Predicate buildNumericPredicate(jakarta.persistence.criteria.Path<Long> path,
-                                           jakarta.persistence.criteria.CriteriaBuilder cb,
-                                           String operator, Object value) {
-        Long numValue = convertToLong(value);
-        if (numValue == null) {
-            return null;
+    private String resolveTotalMode(String totalMode) {
+        if (totalMode == null || totalMode.isBlank()) {
+            return TOTAL_MODE_EXACT;
         }
-        
-        switch (operator) {
-            case "=":
-            case "equals":
-                return cb.equal(path, numValue);
-            case "!=":
-            case "not":
-                return cb.notEqual(path, numValue);
-            case ">":
-            case "greaterThan":
-                return cb.greaterThan(path, numValue);
-            case ">=":
-            case "greaterThanOrEqual":
-                return cb.greaterThanOrEqualTo(path, numValue);
-            case "<":
-            case "lessThan":
-                return cb.lessThan(path, numValue);
-            case "<=":
-            case "lessThanOrEqual":
-                return cb.lessThanOrEqualTo(path, numValue);
-            default:
-                return null;
+        String mode = totalMode.toLowerCase();
+        if (!TOTAL_MODE_EXACT.equals(mode) && !TOTAL_MODE_CACHED.equals(mode) && !TOTAL_MODE_ESTIMATED.equals(mode)) {
+            throw new InvalidSearchRequestException("Unknown total mode: " + totalMode);
         }
+        return mode;
     }
 
     /**
-     * Build predicate for string fields.
+     * Search samples using keyset pagination.
+     * The cursor is turned into a predicate on the sort keys (id as tiebreaker) instead of
+     * an OFFSET, so that every page costs about the same as the first one.
      */
-    private Predicate buildStringPredicate(jakarta.persistence.criteria.Path<String> path,
-                                          jakarta.persistence.criteria.CriteriaBuilder cb,
-                                          String operator, Object value) {
-        String strValue = value.toString();
-        
-        switch (operator) {
-            case "contains":
-                return cb.like(cb.lower(path), "%" + strValue.toLowerCase() + "%");
-            case "equals":
-                return cb.equal(cb.lower(path), strValue.toLowerCase());
-            case "startsWith":
-                return cb.like(cb.lower(path), strValue.toLowerCase() + "%");
-            case "endsWith":
-                return cb.like(cb.lower(path), "%" + strValue.toLowerCase());
-            case "isEmpty":
-                return cb.or(cb.isNull(path), cb.equal(cb.length(path), 0));
-            case "isNotEmpty":
-                return cb.and(cb.isNotNull(path), cb.greaterThan(cb.length(path), 0));
-            default:
-                return null;
+    private SampleSearchResponse searchByCursor(SampleSearchRequest request, String totalMode, SampleSearchPlan plan) {
+        if (plan.hasRelevanceSort()) {
+            throw new InvalidSearchRequestException("Relevance sort is not supported with cursor pagination");
         }
-    }
+        List<Sort.Order> keys = buildKeysetOrders(plan.getSort());
+        String sortSignature = buildSortSignature(keys);
+        Specification<SampleEntity> specification = plan.bind(request.getFilterModel());
 
-    /**
-     * Build predicate for boolean fields.
-     */
-    private Predicate buildBooleanPredicate(jakarta.persistence.criteria.Path<Boolean> path,
-                                           jakarta.persistence.criteria.CriteriaBuilder cb,
-                                           String operator, Object value) {
-        Boolean boolValue = convertToBoolean(value);
-        if (boolValue == null) {
-            return null;
+        SampleSearchCursor cursor = null;
+        if (request.getCursor() != null && !request.getCursor().isBlank()) {
+            cursor = SampleSearchCursor.decode(request.getCursor());
+            if (!sortSignature.equals(cursor.getSortSignature())
+                    || cursor.getValues().size() != keys.size()) {
+                throw new InvalidSearchRequestException("Search cursor does not match the requested sort model");
+            }
         }
-        
-        return cb.equal(path, boolValue);
+
+        // A backward page is read in reverse sort order, then flipped back
+        boolean backward = cursor != null && cursor.isBackward();
+        List<Sort.Order> scanOrders = backward ? reverseOrders(keys) : keys;
+        Specification<SampleEntity> pageSpecification = cursor == null
+                ? specification
+                : specification.and(buildKeysetSpecification(scanOrders, cursor.getValues()));
+
+        // The slice reads one extra row to know whether another page exists in the scan direction
+        int pageSize = request.getPageSize();
+        Slice<Sample> slice = sampleRepository.findSampleSlice(pageSpecification,
+                PageRequest.of(0, pageSize, Sort.by(scanOrders)));
+        boolean hasMore = slice.hasNext();
+        List<Sample> pageSamples = new ArrayList<>(slice.getContent());
+        if (backward) {
+            Collections.reverse(pageSamples);
+        }
+
+        long rowCount = countRows(totalMode, specification, request.getFilterModel());
+        SampleSearchResponse response = new SampleSearchResponse(pageSamples, rowCount);
+        response.setTotalMode(totalMode);
+        boolean hasNext = backward || hasMore;
+        response.setHasMore(hasNext);
+        if (!pageSamples.isEmpty()) {
+            boolean hasPrev = backward ? hasMore : cursor != null;
+            if (hasNext) {
+                response.setNextCursor(buildCursor(false, sortSignature, keys,
+                        pageSamples.get(pageSamples.size() - 1)));
+            }
+            if (hasPrev) {
+                response.setPrevCursor(buildCursor(true, sortSignature, keys, pageSamples.get(0)));
+            }
+        }
+        return response;
     }
 
     /**
-     * Build predicate for date fields.
+     * Build the keyset sort keys: the requested sort followed by id as a unique tiebreaker.
      */
-    private Predicate buildDatePredicate(jakarta.persistence.criteria.Path<Date> path,
-                                        jakarta.persistence.criteria.CriteriaBuilder cb,
-                                        String operator, Object value) {
-        Date dateValue = convertToDate(value);
-        if (dateValue == null) {
-            return null;
-        }
-        
-        switch (operator) {
-            case "is":
-            case "equals":
-                return cb.equal(path, dateValue);
-            case "not":
-                return cb.notEqual(path, dateValue);
-            case "after":
-            case ">":
-                return cb.greaterThan(path, dateValue);
-            case "onOrAfter":
-            case ">=":
-                return cb.greaterThanOrEqualTo(path, dateValue);
-            case "before":
-            case "<":
-                return cb.lessThan(path, dateValue);
-            case "onOrBefore":
-            case "<=":
-                return cb.lessThanOrEqualTo(path, dateValue);
-            default:
-                return null;
+    private List<Sort.Order> buildKeysetOrders(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>(sort.toList());
+        if (orders.stream().noneMatch(order -> "id".equals(order.getProperty()))) {
+            orders.add(Sort.Order.asc("id"));
         }
+        return orders;
+    }
+
+    private List<Sort.Order> reverseOrders(List<Sort.Order> orders) {
+        return orders.stream()
+                .map(order -> order.with(order.isAscending() ? Sort.Direction.DESC : Sort.Direction.ASC))
+                .collect(Collectors.toList());
+    }
+
+    private String buildSortSignature(List<Sort.Order> orders) {
+        return orders.stream()
+                .map(order -> order.getProperty() + ":" + (order.isAscending() ? "asc" : "desc"))
+                .collect(Collectors.joining(","));
+    }
+
+    private String buildCursor(boolean backward, String sortSignature, List<Sort.Order> keys, Sample sample) {
+        List<String> values = keys.stream()
+                .map(order -> toCursorValue(sample, order.getProperty()))
+                .collect(Collectors.toList());
+        return new SampleSearchCursor(backward, sortSignature, values).encode();
     }
 
     /**
-     * Convert value to Long.
+     * Build the "row comes after the cursor" predicate for the given scan order.
+     * Equivalent to the row value comparison (k1, ..., id) > (v1, ..., idValue), expanded as
+     * (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... so that it can be expressed with the Criteria API
+     * and honours mixed sort directions.
      */
-    private Long convertToLong(Object value) {
-        try {
-            if (value instanceof Number) {
-                return ((Number) value).longValue();
+    private Specification<SampleEntity> buildKeysetSpecification(List<Sort.Order> orders, List<String> values) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalities = new ArrayList<>();
+            for (int i = 0; i < orders.size(); i++) {
+                Sort.Order order = orders.get(i);
+                String field = order.getProperty();
+                Path<Comparable<Object>> path = root.get(field);
+                Comparable<Object> value = fromCursorValue(field, values.get(i));
+
+                List<Predicate> branch = new ArrayList<>(equalities);
+                branch.add(buildAfterPredicate(criteriaBuilder, path, value, order.isAscending(),
+                        NULLABLE_FIELDS.contains(field)));
+                alternatives.add(criteriaBuilder.and(branch.toArray(new Predicate[0])));
+                equalities.add(value == null ? criteriaBuilder.isNull(path) : criteriaBuilder.equal(path, value));
             }
-            return Long.parseLong(value.toString());
-        } catch (NumberFormatException e) {
-            // Invalid number format, return null to skip this filter
-            return null;
-        }
+            return criteriaBuilder.or(alternatives.toArray(new Predicate[0]));
+        };
     }
 
     /**
-     * Convert value to Boolean.
+     * Build the predicate selecting values strictly after the cursor value in the given direction.
+     * NULL values sort lowest, as in MySQL and H2.
      */
-    private Boolean convertToBoolean(Object value) {
-        if (value instanceof Boolean) {
-            return (Boolean) value;
+    private Predicate buildAfterPredicate(CriteriaBuilder cb, Path<Comparable<Object>> path,
+                                          Comparable<Object> value, boolean ascending, boolean nullable) {
+        if (value == null) {
+            return ascending ? cb.isNotNull(path) : cb.disjunction();
         }
-        String str = value.toString().toLowerCase();
-        if ("true".equals(str) || "1".equals(str)) {
-            return true;
+        if (ascending) {
+            return cb.greaterThan(path, value);
         }
-        if ("false".equals(str) || "0".equals(str)) {
-            return false;
+        return nullable ? cb.or(cb.lessThan(path, value), cb.isNull(path)) : cb.lessThan(path, value);
+    }
+
+    /**
+     * Read a sort-key value from a sample as a cursor string.
+     */
+    private String toCursorValue(Sample sample, String field) {
+        switch (field) {
+            case "id":
+                return String.valueOf(sample.getId());
+            case "name":
+                return sample.getName();
+            case "description":
+                return sample.getDescription();
+            case "active":
+                return String.valueOf(sample.isActive());
+            case "createdAt":
+                return sample.getCreatedAt() != null ? String.valueOf(sample.getCreatedAt().getTime()) : null;
+            case "createdBy":
+                return sample.getCreatedBy();
+            case "updatedAt":
+                return sample.getUpdatedAt() != null ? String.valueOf(sample.getUpdatedAt().getTime()) : null;
+            case "updatedBy":
+                return sample.getUpdatedBy();
+            default:
+                throw new InvalidSearchRequestException("Unknown sort field: " + field);
         }
-        return null;
     }
 
     /**
-     * Convert value to Date.
+     * Convert a cursor string back to the typed value of the given field.
      */
-    private Date convertToDate(Object value) {
+    @SuppressWarnings("unchecked")
+    private Comparable<Object> fromCursorValue(String field, String value) {
+        if (value == null) {
+            return null;
+        }
         try {
-            if (value instanceof Date) {
-                return (Date) value;
-            }
-            if (value instanceof Number) {
-                return new Date(((Number) value).longValue());
+            switch (field) {
+                case "id":
+                    return (Comparable<Object>) (Comparable<?>) Long.valueOf(value);
+                case "active":
+                    return (Comparable<Object>) (Comparable<?>) Boolean.valueOf(value);
+                case "createdAt":
+                case "updatedAt":
+                    return (Comparable<Object>) (Comparable<?>) new Date(Long.parseLong(value));
+                default:
+                    return (Comparable<Object>) (Comparable<?>) value;
             }
-            // Try parsing as timestamp
-            long timestamp = Long.parseLong(value.toString());
-            return new Date(timestamp);
         } catch (NumberFormatException e) {
-            // Invalid timestamp format, return null to skip this filter
-            return null;
+            throw new InvalidSearchRequestException("Malformed search cursor");
         }
     }
 
     /**
-     * Convert SampleEntity to Sample model.
+     * Exception raised when search criteria cannot be applied, e.g. a malformed or stale cursor.
      */
-    private Sample toModel(SampleEntity entity) {
-        Sample model = new Sample();
-        model.setId(entity.getId());
-        model.setName(entity.getName());
-        model.setDescription(entity.getDescription());
-        model.setActive(entity.isActive());
-        model.setCreatedAt(entity.getCreatedAt());
-        model.setCreatedBy(entity.getCreatedBy());
-        model.setUpdatedAt(entity.getUpdatedAt());
-        model.setUpdatedBy(entity.getUpdatedBy());
-        if (entity.getTags() != null) {
-            model.setTags(
-                entity.getTags()
-                    .stream()
-                    .map(tag -> new fr.tiogars.starter.tag.models.Tag(tag.getId(), tag.getName(), tag.getDescription()))
-                    .collect(java.util.stream.Collectors.toSet())
-            );
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public static class InvalidSearchRequestException extends RuntimeException {
+        public InvalidSearchRequestException(String message) {
+            super(message);
         }
-        return model;
     }
 }
@@ -4,10 +4,12 @@ import java.util.Set;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
 import fr.tiogars.starter.sample.forms.SampleUpdateForm;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.tag.models.Tag;
@@ -25,11 +27,14 @@ public class SampleUpdateService {
     private final SampleRepository sampleRepository;
     private final Validator validator;
     private final TagService tagService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public SampleUpdateService(SampleRepository sampleRepository, Validator validator, TagService tagService) {
+    public SampleUpdateService(SampleRepository sampleRepository, Validator validator, TagService tagService,
+            ApplicationEventPublisher eventPublisher) {
         this.sampleRepository = sampleRepository;
         this.validator = validator;
         this.tagService = tagService;
+        this.eventPublisher = eventPublisher;
     }
 
     public Sample update(SampleUpdateForm form) {
@@ -41,6 +46,7 @@ public class SampleUpdateService {
         validate(sample);
         SampleEntity entity = toEntity(sample, existingEntity);
         SampleEntity savedEntity = sampleRepository.save(entity);
+        eventPublisher.publishEvent(new SampleChangedEvent("updated"));
         return toModel(savedEntity);
     }
 
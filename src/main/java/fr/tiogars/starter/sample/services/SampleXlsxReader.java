@@ -0,0 +1,125 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.apache.poi.UnsupportedFileFormatException;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler.SheetContentsHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.services.SampleFileImportService.InvalidImportFileException;
+
+/**
+ * Reads the samples of an XLSX import file with the SAX event API of POI, one row at a time, so that the
+ * workbook is never loaded in memory.
+ *
+ * Every sheet holds samples below a header row, as written by {@link SampleXlsxWriter} when the rows are split
+ * over several sheets.
+ */
+final class SampleXlsxReader {
+
+    private SampleXlsxReader() {
+    }
+
+    /**
+     * @param file The XLSX file, read from disk since the ZIP entries of the workbook are read out of order
+     * @param consumer Receives the samples as they are read
+     */
+    static void read(File file, Consumer<SampleCreateForm> consumer) throws IOException {
+        OPCPackage workbook;
+        try {
+            workbook = OPCPackage.open(file, PackageAccess.READ);
+        } catch (OpenXML4JException | UnsupportedFileFormatException e) {
+            throw new InvalidImportFileException("Invalid XLSX file: " + e.getMessage());
+        }
+        try {
+            ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(workbook);
+            XSSFReader reader = new XSSFReader(workbook);
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (sheets.hasNext()) {
+                try (InputStream sheet = sheets.next()) {
+                    XMLReader parser = XMLHelper.newXMLReader();
+                    parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(), null, strings,
+                            new RowHandler(sheets.getSheetName(), consumer), new DataFormatter(), false));
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new InvalidImportFileException("Invalid XLSX file: " + e.getMessage());
+        } finally {
+            // Read-only packages are released without being saved
+            workbook.revert();
+        }
+    }
+
+    /**
+     * Collects the cells of each row of a sheet, the first row giving the columns
+     */
+    private static final class RowHandler implements SheetContentsHandler {
+
+        private final String sheetName;
+        private final Consumer<SampleCreateForm> consumer;
+        private final List<String> cells = new ArrayList<>();
+        private SampleFileReader.Columns columns;
+        private int nextColumn;
+
+        private RowHandler(String sheetName, Consumer<SampleCreateForm> consumer) {
+            this.sheetName = sheetName;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            cells.clear();
+            nextColumn = 0;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            // Empty cells are not written: the reference tells the column
+            int column = cellReference != null ? new CellReference(cellReference).getCol() : nextColumn;
+            while (cells.size() < column) {
+                cells.add(null);
+            }
+            cells.add(formattedValue);
+            nextColumn = column + 1;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            String[] row = cells.toArray(new String[0]);
+            if (columns == null) {
+                if (SampleFileReader.Columns.isBlank(row)) {
+                    return;
+                }
+                try {
+                    columns = SampleFileReader.Columns.of(Arrays.asList(row));
+                } catch (InvalidImportFileException e) {
+                    throw new InvalidImportFileException("Sheet '" + sheetName + "': " + e.getMessage());
+                }
+            } else if (!SampleFileReader.Columns.isBlank(row)) {
+                consumer.accept(columns.toForm(row));
+            }
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package fr.tiogars.starter.sample.services;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import fr.tiogars.starter.sample.models.Sample;
+
+/**
+ * Writes samples to an XLSX workbook with POI SXSSF, keeping only a small window of rows in memory.
+ *
+ * Rows leaving the window are flushed to compressed temporary files, which are assembled into the
+ * XLSX file by {@link #finish(OutputStream)}. Column widths are estimated from the first rows instead
+ * of measuring every cell. When a sheet is full, writing continues on a new sheet.
+ * Only the selected columns are written, the default ones unless selected otherwise.
+ * The writer must be closed to delete the temporary files.
+ */
+final class SampleXlsxWriter implements Closeable {
+
+    /**
+     * Rows kept in memory before being flushed to the temporary file
+     */
+    private static final int ROW_WINDOW = 100;
+
+    /**
+     * Number of first rows whose content sets the column widths
+     */
+    private static final int WIDTH_SAMPLE_ROWS = 200;
+
+    /**
+     * Widest column allowed by Excel, in characters
+     */
+    private static final int MAX_COLUMN_CHARS = 255;
+
+    private final List<SampleExportColumn> columns;
+    private final SXSSFWorkbook workbook;
+    private final CellStyle headerStyle;
+
+    /**
+     * Rows per sheet, header included
+     */
+    private final int maxRowsPerSheet;
+
+    private final int[] columnChars;
+    private boolean widthsEstimated;
+    private SXSSFSheet sheet;
+    private int sheetCount;
+    private int nextRowIndex;
+    private long rowCount;
+
+    SampleXlsxWriter() {
+        this(SampleExportColumn.DEFAULT_COLUMNS);
+    }
+
+    SampleXlsxWriter(List<SampleExportColumn> columns) {
+        this(columns, SpreadsheetVersion.EXCEL2007.getMaxRows());
+    }
+
+    SampleXlsxWriter(List<SampleExportColumn> columns, int maxRowsPerSheet) {
+        this.columns = columns;
+        this.maxRowsPerSheet = maxRowsPerSheet;
+        this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+        this.workbook.setCompressTempFiles(true);
+        this.headerStyle = workbook.createCellStyle();
+        Font headerFont = workbook.createFont();
+        headerFont.setBold(true);
+        this.headerStyle.setFont(headerFont);
+        this.columnChars = new int[columns.size()];
+        for (int i = 0; i < columns.size(); i++) {
+            columnChars[i] = columns.get(i).getHeader().length();
+        }
+    }
+
+    /**
+     * Append a sample row, starting a new sheet when the current one is full.
+     */
+    void write(Sample sample) {
+        if (sheet == null || nextRowIndex >= maxRowsPerSheet) {
+            newSheet();
+        }
+        Row row = sheet.createRow(nextRowIndex++);
+        for (int i = 0; i < columns.size(); i++) {
+            SampleExportColumn column = columns.get(i);
+            Cell cell = row.createCell(i);
+            if (column == SampleExportColumn.ID) {
+                cell.setCellValue(sample.getId() != null ? sample.getId() : 0);
+            } else if (column == SampleExportColumn.ACTIVE) {
+                cell.setCellValue(sample.isActive());
+            } else {
+                cell.setCellValue(column.text(sample));
+            }
+            if (!widthsEstimated) {
+                measure(i, column.text(sample));
+            }
+        }
+        rowCount++;
+        if (!widthsEstimated && rowCount >= WIDTH_SAMPLE_ROWS) {
+            estimateColumnWidths();
+        }
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Write the workbook to the output stream, which is left open.
+     */
+    void finish(OutputStream out) throws IOException {
+        if (sheet == null) {
+            newSheet();
+        }
+        if (!widthsEstimated) {
+            estimateColumnWidths();
+        }
+        workbook.write(out);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            workbook.dispose();
+        } finally {
+            workbook.close();
+        }
+    }
+
+    private void newSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? "Samples" : "Samples " + sheetCount);
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < columns.size(); i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(columns.get(i).getHeader());
+            cell.setCellStyle(headerStyle);
+        }
+        sheet.createFreezePane(0, 1);
+        nextRowIndex = 1;
+        if (widthsEstimated) {
+            applyColumnWidths(sheet);
+        }
+    }
+
+    private void measure(int column, String value) {
+        columnChars[column] = Math.max(columnChars[column], value.length());
+    }
+
+    /**
+     * Apply the widths measured so far to the sheets created so far; later sheets get them when created.
+     */
+    private void estimateColumnWidths() {
+        for (int i = 0; i < sheetCount; i++) {
+            applyColumnWidths(workbook.getSheetAt(i));
+        }
+        widthsEstimated = true;
+    }
+
+    private void applyColumnWidths(Sheet target) {
+        for (int i = 0; i < columns.size(); i++) {
+            // Width unit is 1/256 of a character, plus some padding for the cell margins
+            target.setColumnWidth(i, Math.min(columnChars[i] + 2, MAX_COLUMN_CHARS) * 256);
+        }
+    }
+}
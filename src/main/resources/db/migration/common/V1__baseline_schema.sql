@@ -0,0 +1,75 @@
+-- Baseline schema, as previously generated by Hibernate from the JPA entities.
+-- Databases created before migrations were introduced are baselined at this version
+-- (spring.flyway.baseline-on-migrate) and only run the following migrations.
+
+create table app (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    version varchar(64),
+    primary key (id),
+    constraint uk_app_name unique (name)
+);
+
+create table repository (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    url varchar(512),
+    description varchar(1024),
+    primary key (id),
+    constraint uk_repository_name unique (name)
+);
+
+create table route (
+    id bigint not null auto_increment,
+    name varchar(255),
+    path varchar(255),
+    primary key (id)
+);
+
+create table sample_tag (
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    description varchar(255),
+    primary key (id),
+    constraint uk_sample_tag_name unique (name)
+);
+
+create table sample (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    description varchar(255),
+    active bit not null,
+    created_at datetime(6) not null,
+    created_by varchar(255) not null,
+    updated_at datetime(6) not null,
+    updated_by varchar(255) not null,
+    primary key (id)
+);
+
+create table sample_sample_tag (
+    sample_id bigint not null,
+    tag_id bigint not null,
+    primary key (sample_id, tag_id),
+    constraint fk_sample_sample_tag_sample foreign key (sample_id) references sample (id),
+    constraint fk_sample_sample_tag_tag foreign key (tag_id) references sample_tag (id)
+);
+
+create table feature (
+    id bigint not null auto_increment,
+    name varchar(255) not null,
+    description varchar(1024),
+    repository_id bigint,
+    app_id bigint,
+    primary key (id),
+    constraint uk_feature_name unique (name),
+    constraint fk_feature_repository foreign key (repository_id) references repository (id),
+    constraint fk_feature_app foreign key (app_id) references app (id)
+);
+
+create table feature_tag (
+    feature_id bigint not null,
+    tag_id bigint not null,
+    primary key (feature_id, tag_id),
+    constraint fk_feature_tag_feature foreign key (feature_id) references feature (id),
+    constraint fk_feature_tag_tag foreign key (tag_id) references sample_tag (id)
+);
@@ -0,0 +1,13 @@
+-- Indexes for the sample search and import paths.
+-- The DataGrid sorts by id DESC by default: filter indexes end with id so that a filtered page
+-- is read in index order, and keyset (cursor) pages can seek on (column, id).
+
+-- findByName on every imported row, and equals/startsWith name filters
+create index idx_sample_name on sample (name);
+create index idx_sample_active_id on sample (active, id);
+create index idx_sample_created_at_id on sample (created_at, id);
+create index idx_sample_updated_at_id on sample (updated_at, id);
+
+-- Join tables: the primary keys cover the owner -> tag direction, these cover tag -> owner
+create index idx_sample_sample_tag_tag_sample on sample_sample_tag (tag_id, sample_id);
+create index idx_feature_tag_tag_feature on feature_tag (tag_id, feature_id);
@@ -0,0 +1,21 @@
+-- Asynchronous sample imports. The checkpoint of a job (rows_committed and the report totals) is
+-- saved after every chunk, so that a failed or interrupted job resumes after its committed rows.
+create table sample_import_job (
+    id varchar(36) not null,
+    status varchar(16) not null,
+    format varchar(16) not null,
+    filename varchar(255),
+    rows_committed bigint not null,
+    total_created integer not null,
+    total_duplicates integer not null,
+    total_errors integer not null,
+    total_skipped integer not null,
+    error varchar(1024),
+    submitted_at datetime(6) not null,
+    started_at datetime(6),
+    completed_at datetime(6),
+    primary key (id)
+);
+
+-- Jobs left queued or running by a stopped instance are found at startup
+create index idx_sample_import_job_status on sample_import_job (status);
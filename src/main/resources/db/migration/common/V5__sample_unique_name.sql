@@ -0,0 +1,7 @@
+-- Sample names are unique: imports rely on the index to detect existing names, and concurrent imports
+-- can no longer insert the same name twice. On MySQL the name compares with its case-insensitive collation.
+-- Fails when names are already duplicated: rename or delete the extra rows first, found with
+--   select name, count(*) from sample group by name having count(*) > 1;
+-- The unique index is created first, so that the former one is kept when this fails.
+create unique index uk_sample_name on sample (name);
+drop index idx_sample_name on sample;
@@ -0,0 +1,3 @@
+-- Import jobs remember how they handle existing names, and count the samples they updated
+alter table sample_import_job add column on_conflict varchar(16) default 'skip' not null;
+alter table sample_import_job add column total_updated integer default 0 not null;
@@ -0,0 +1,10 @@
+-- Case-insensitive (accent-sensitive) collation on the searchable text columns: string filters
+-- compare the columns directly instead of lower(column), so equals/startsWith can use an index.
+alter table sample
+    modify name varchar(255) character set utf8mb4 collate utf8mb4_0900_as_ci not null,
+    modify description varchar(255) character set utf8mb4 collate utf8mb4_0900_as_ci,
+    modify created_by varchar(255) character set utf8mb4 collate utf8mb4_0900_as_ci not null,
+    modify updated_by varchar(255) character set utf8mb4 collate utf8mb4_0900_as_ci not null;
+
+-- Full-text search on name and description (search/fullText operators and quick filter)
+create fulltext index ft_sample_name_description on sample (name, description);
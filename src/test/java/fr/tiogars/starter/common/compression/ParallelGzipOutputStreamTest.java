@@ -0,0 +1,163 @@
+package fr.tiogars.starter.common.compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelGzipOutputStreamTest {
+
+    private final ExecutorService executor = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testWrite_ManyBlocks_IsReadableByGzipInputStream() throws Exception {
+        // Arrange
+        byte[] data = csvLikeData(200_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        try (ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(out, executor, 6, 4096, 8)) {
+            gzipOut.write(data, 0, 1000);
+            gzipOut.flush();
+            gzipOut.write(data, 1000, data.length - 1000);
+        }
+
+        // Assert
+        assertArrayEquals(data, gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void testWrite_RandomData_IsReadableByGzipInputStream() throws Exception {
+        // Arrange
+        byte[] data = new byte[100_000];
+        new Random(42).nextBytes(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        try (ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(out, executor, 9, 1024, 2)) {
+            for (byte b : data) {
+                gzipOut.write(b);
+            }
+        }
+
+        // Assert
+        assertArrayEquals(data, gunzip(out.toByteArray()));
+    }
+
+    @Test
+    void testWrite_NoData_WritesEmptyGzip() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        new ParallelGzipOutputStream(out, executor, 6, 1024, 2).close();
+
+        // Assert
+        assertEquals(0, gunzip(out.toByteArray()).length);
+    }
+
+    @Test
+    void testWrite_CompressesAboutAsWellAsGzipOutputStream() throws Exception {
+        // Arrange
+        byte[] data = csvLikeData(500_000);
+        ByteArrayOutputStream parallel = new ByteArrayOutputStream();
+        ByteArrayOutputStream sequential = new ByteArrayOutputStream();
+
+        // Act
+        try (ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(parallel, executor, 6, 64 * 1024, 8)) {
+            gzipOut.write(data);
+        }
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(sequential)) {
+            gzipOut.write(data);
+        }
+
+        // Assert: the blocks share their dictionary, so they compress almost as well as a single stream
+        assertTrue(parallel.size() < sequential.size() * 1.05,
+                parallel.size() + " bytes compared to " + sequential.size());
+    }
+
+    @Test
+    void testFinish_LeavesUnderlyingStreamOpen() throws Exception {
+        // Arrange
+        boolean[] closed = new boolean[1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        // Act
+        ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(out, executor, 6, 1024, 2);
+        gzipOut.write("sample".getBytes(StandardCharsets.UTF_8));
+        gzipOut.finish();
+
+        // Assert
+        assertFalse(closed[0]);
+        assertEquals("sample", new String(gunzip(out.toByteArray()), StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> gzipOut.write(1));
+    }
+
+    @Test
+    void testWrite_UnderlyingStreamFails_ThrowsIOException() throws Exception {
+        // Arrange
+        OutputStream failing = new OutputStream() {
+            private int written;
+
+            @Override
+            public void write(int b) throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                written += len;
+                if (written > 100) {
+                    throw new IOException("client disconnected");
+                }
+            }
+        };
+        byte[] data = new byte[50_000];
+        new Random(7).nextBytes(data);
+
+        // Act & Assert
+        ParallelGzipOutputStream gzipOut = new ParallelGzipOutputStream(failing, executor, 6, 1024, 2);
+        IOException exception = assertThrows(IOException.class, () -> {
+            gzipOut.write(data);
+            gzipOut.finish();
+        });
+        assertEquals("client disconnected", exception.getMessage());
+    }
+
+    static byte[] csvLikeData(int rows) {
+        StringBuilder builder = new StringBuilder();
+        Random random = new Random(1);
+        for (int i = 0; builder.length() < rows; i++) {
+            builder.append('"').append(i).append("\",\"Sample").append(random.nextInt(1000))
+                .append("\",\"Description of the sample\",\"").append(random.nextBoolean()).append("\"\n");
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gunzip(byte[] compressed) throws IOException {
+        try (GZIPInputStream gzis = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return gzis.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package fr.tiogars.starter.common.compression;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ParallelZipOutputStreamTest {
+
+    @TempDir
+    Path directory;
+
+    private final ExecutorService executor = new ForkJoinPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testEntries_AreReadableByZipInputStream() throws Exception {
+        // Arrange
+        byte[] first = ParallelGzipOutputStreamTest.csvLikeData(100_000);
+        byte[] second = "second entry".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        try (ParallelZipOutputStream zipOut = new ParallelZipOutputStream(out, executor, 6, 4096, 8)) {
+            zipOut.putNextEntry("first.csv");
+            zipOut.write(first);
+            zipOut.putNextEntry("été.txt");
+            zipOut.write(second);
+            zipOut.putNextEntry("empty.txt");
+        }
+
+        // Assert
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertEquals("first.csv", zis.getNextEntry().getName());
+            assertArrayEquals(first, zis.readAllBytes());
+            assertEquals("été.txt", zis.getNextEntry().getName());
+            assertArrayEquals(second, zis.readAllBytes());
+            assertEquals("empty.txt", zis.getNextEntry().getName());
+            assertEquals(0, zis.readAllBytes().length);
+            assertNull(zis.getNextEntry());
+        }
+    }
+
+    @Test
+    void testCentralDirectory_IsReadableByZipFile() throws Exception {
+        // Arrange
+        byte[] data = ParallelGzipOutputStreamTest.csvLikeData(50_000);
+        Path file = directory.resolve("samples.zip");
+
+        // Act
+        try (ParallelZipOutputStream zipOut = new ParallelZipOutputStream(Files.newOutputStream(file), executor, 6,
+                1024, 2)) {
+            zipOut.putNextEntry("a.csv");
+            zipOut.write(data);
+            zipOut.putNextEntry("b.csv");
+            zipOut.write(data, 0, 10);
+        }
+
+        // Assert
+        try (ZipFile zipFile = new ZipFile(file.toFile())) {
+            assertEquals(2, zipFile.size());
+            ZipEntry a = zipFile.getEntry("a.csv");
+            assertEquals(data.length, a.getSize());
+            assertEquals(ZipEntry.DEFLATED, a.getMethod());
+            assertTrue(a.getCompressedSize() < data.length);
+            assertArrayEquals(data, zipFile.getInputStream(a).readAllBytes());
+            ZipEntry b = zipFile.getEntry("b.csv");
+            assertEquals(10, b.getSize());
+            assertArrayEquals(Arrays.copyOf(data, 10), zipFile.getInputStream(b).readAllBytes());
+        }
+    }
+
+    @Test
+    void testWrite_WithoutEntry_ThrowsIOException() {
+        // Arrange
+        ParallelZipOutputStream zipOut = new ParallelZipOutputStream(new ByteArrayOutputStream(), executor, 6, 1024, 2);
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> zipOut.write(1));
+    }
+
+    @Test
+    void testPutNextEntry_AfterFinish_ThrowsIOException() throws Exception {
+        // Arrange
+        ParallelZipOutputStream zipOut = new ParallelZipOutputStream(new ByteArrayOutputStream(), executor, 6, 1024, 2);
+        zipOut.putNextEntry("samples.csv");
+        zipOut.finish();
+
+        // Act & Assert
+        assertThrows(IOException.class, () -> zipOut.putNextEntry("other.csv"));
+    }
+}
@@ -0,0 +1,73 @@
+package fr.tiogars.starter.common.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.models.SampleSearchRequest;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.sample.services.SampleCreateService;
+import fr.tiogars.starter.sample.services.SampleSearchService;
+
+/**
+ * Routing with a replica URL pointing to the test database, standing in for a real replica.
+ */
+@SpringBootTest(properties = "datasource.replica.url=jdbc:h2:mem:testdb;MODE=MySQL;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE")
+@ActiveProfiles("test")
+class ReadWriteDataSourceConfigTest {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private ReadWriteRoutingDataSource readWriteRoutingDataSource;
+
+    @Autowired
+    private SampleSearchService sampleSearchService;
+
+    @Autowired
+    private SampleCreateService sampleCreateService;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @AfterEach
+    void tearDown() {
+        sampleRepository.deleteAll();
+    }
+
+    @Test
+    void testDataSource_IsLazyRoutingProxy() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+    }
+
+    @Test
+    void testSearch_UsesReplica() {
+        long replicaConnections = readWriteRoutingDataSource.replicaConnectionCount();
+
+        sampleSearchService.search(new SampleSearchRequest());
+
+        assertTrue(readWriteRoutingDataSource.replicaConnectionCount() > replicaConnections);
+    }
+
+    @Test
+    void testCreate_UsesPrimary() {
+        long primaryConnections = readWriteRoutingDataSource.primaryConnectionCount();
+        SampleCreateForm form = new SampleCreateForm();
+        form.setName("Routed");
+        form.setActive(true);
+
+        sampleCreateService.create(form);
+
+        assertTrue(readWriteRoutingDataSource.primaryConnectionCount() > primaryConnections);
+    }
+}
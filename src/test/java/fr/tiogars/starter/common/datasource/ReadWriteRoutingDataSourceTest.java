@@ -0,0 +1,138 @@
+package fr.tiogars.starter.common.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ReadWriteRoutingDataSourceTest {
+
+    private ReadWriteRoutingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class),
+                Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void testReadOnlyTransaction_RoutesToReplica() {
+        readOnlyTransaction();
+
+        assertEquals(ReadWriteRoutingDataSource.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testReadWriteTransaction_RoutesToPrimary() {
+        readWriteTransaction();
+
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testNoTransaction_RoutesToPrimary() {
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testReadAfterWriteOfSameSession_RoutesToPrimary() {
+        request("alice");
+        readWriteTransaction();
+        dataSource.determineCurrentLookupKey();
+
+        readOnlyTransaction();
+
+        assertEquals(ReadWriteRoutingDataSource.PRIMARY, dataSource.determineCurrentLookupKey());
+        assertEquals(1, dataSource.stickyReadCount());
+    }
+
+    @Test
+    void testReadAfterWriteOfOtherSession_RoutesToReplica() {
+        request("alice");
+        readWriteTransaction();
+        dataSource.determineCurrentLookupKey();
+
+        request("bob");
+        readOnlyTransaction();
+
+        assertEquals(ReadWriteRoutingDataSource.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testReadAfterStickyWindow_RoutesToReplica() {
+        dataSource = new ReadWriteRoutingDataSource(mock(DataSource.class), mock(DataSource.class), Duration.ZERO);
+        request("alice");
+        readWriteTransaction();
+        dataSource.determineCurrentLookupKey();
+
+        readOnlyTransaction();
+
+        assertEquals(ReadWriteRoutingDataSource.REPLICA, dataSource.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testCurrentSession() {
+        assertNull(ReadWriteRoutingDataSource.currentSession());
+
+        request("alice");
+        assertEquals("user:alice", ReadWriteRoutingDataSource.currentSession());
+
+        request(null);
+        assertEquals("address:127.0.0.1", ReadWriteRoutingDataSource.currentSession());
+    }
+
+    @Test
+    void testBindTo_PublishesConnectionsPerPool() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        dataSource.bindTo(registry);
+
+        readOnlyTransaction();
+        dataSource.determineCurrentLookupKey();
+        dataSource.determineCurrentLookupKey();
+        readWriteTransaction();
+        dataSource.determineCurrentLookupKey();
+
+        assertEquals(2.0, registry.get("datasource.routing.connections").tag("pool", "replica")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("datasource.routing.connections").tag("pool", "primary")
+                .functionCounter().count());
+    }
+
+    private void readOnlyTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+    }
+
+    private void readWriteTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    private void request(String user) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        if (user != null) {
+            request.setUserPrincipal(() -> user);
+        }
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -115,4 +116,33 @@ class GlobalExceptionHandlerTest {
         assertNotNull(errorResponse);
         assertEquals(0, errorResponse.getViolations().size());
     }
+
+    @Test
+    void testHandleDataIntegrityViolationException_DuplicateSampleName_ReturnsConflict() {
+        // Arrange
+        DataIntegrityViolationException exception = new DataIntegrityViolationException("could not execute statement",
+                new RuntimeException("Duplicate entry 'Used' for key 'sample.uk_sample_name'"));
+
+        // Act
+        ResponseEntity<ErrorResponse> response = globalExceptionHandler.handleDataIntegrityViolationException(exception);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        ErrorResponse errorResponse = response.getBody();
+        assertNotNull(errorResponse);
+        assertEquals(409, errorResponse.getStatus());
+        assertTrue(errorResponse.getViolations().containsKey("name"));
+    }
+
+    @Test
+    void testHandleDataIntegrityViolationException_OtherConstraint_IsRethrown() {
+        // Arrange
+        DataIntegrityViolationException exception = new DataIntegrityViolationException(
+                "Referential integrity constraint violation: \"FK_SAMPLE_TAGS_TAG\"");
+
+        // Act & Assert
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> globalExceptionHandler.handleDataIntegrityViolationException(exception));
+        assertSame(exception, thrown);
+    }
 }
@@ -1,7 +1,8 @@
 package fr.tiogars.starter.feature.controller;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
@@ -16,6 +17,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.InputStream;
 import java.util.Arrays;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -176,7 +178,7 @@ class FeatureControllerTest {
                 </feature>
             </features>
             """;
-        when(featureImportService.importXml(anyString())).thenReturn(1);
+        when(featureImportService.importXml(any(InputStream.class), isNull())).thenReturn(1);
 
         // Act & Assert
         mockMvc.perform(post("/features/import")
@@ -185,7 +187,7 @@ class FeatureControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Imported 1 features"));
 
-        verify(featureImportService, times(1)).importXml(anyString());
+        verify(featureImportService, times(1)).importXml(any(InputStream.class));
     }
 
     @Test
@@ -205,14 +207,14 @@ class FeatureControllerTest {
                 MediaType.APPLICATION_XML_VALUE,
                 xmlContent.getBytes()
         );
-        when(featureImportService.importXml(anyString())).thenReturn(1);
+        when(featureImportService.importXml(any(InputStream.class), isNull())).thenReturn(1);
 
         // Act & Assert
         mockMvc.perform(multipart("/features/import").file(file))
                 .andExpect(status().isOk())
                 .andExpect(content().string("Imported 1 features"));
 
-        verify(featureImportService, times(1)).importXml(anyString());
+        verify(featureImportService, times(1)).importXml(any(InputStream.class));
     }
 
     @Test
@@ -228,7 +230,7 @@ class FeatureControllerTest {
                 </feature>
             </features>
             """;
-        when(featureImportService.importXml(anyString())).thenReturn(2);
+        when(featureImportService.importXml(any(InputStream.class), isNull())).thenReturn(2);
 
         // Act & Assert
         mockMvc.perform(post("/features/import")
@@ -237,7 +239,33 @@ class FeatureControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Imported 2 features"));
 
-        verify(featureImportService, times(1)).importXml(anyString());
+        verify(featureImportService, times(1)).importXml(any(InputStream.class));
+    }
+
+    @Test
+    void shouldPassOnConflictToXmlFileImport() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "features.xml", MediaType.APPLICATION_XML_VALUE,
+                "<features><feature><name>Feature 1</name></feature></features>".getBytes());
+        when(featureImportService.importXml(any(InputStream.class), eq("update"))).thenReturn(1);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/features/import").file(file).param("onConflict", "update"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Imported 1 features"));
+    }
+
+    @Test
+    void shouldRejectUnsupportedOnConflict() throws Exception {
+        // Arrange
+        when(featureImportService.importXml(any(InputStream.class), eq("merge")))
+                .thenThrow(new FeatureImportService.UnsupportedOnConflictException("Unsupported onConflict mode: merge"));
+
+        // Act & Assert
+        mockMvc.perform(post("/features/import").param("onConflict", "merge")
+                .contentType(MediaType.APPLICATION_XML)
+                .content("<features/>"))
+                .andExpect(status().isBadRequest());
     }
 
     @TestConfiguration
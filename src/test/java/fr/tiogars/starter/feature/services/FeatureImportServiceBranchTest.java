@@ -1,6 +1,11 @@
 package fr.tiogars.starter.feature.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,9 +14,10 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-
+import fr.tiogars.starter.app.repositories.AppRepository;
+import fr.tiogars.starter.feature.entities.FeatureEntity;
 import fr.tiogars.starter.feature.repositories.FeatureRepository;
+import fr.tiogars.starter.tag.repositories.TagRepository;
 
 @SpringBootTest
 @ActiveProfiles("test")
@@ -24,13 +30,19 @@ class FeatureImportServiceBranchTest {
     @Autowired
     private FeatureRepository featureRepository;
 
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private AppRepository appRepository;
+
     @BeforeEach
     void setUp() {
         featureRepository.deleteAll();
     }
 
     @Test
-    void shouldImportFeaturesFromBackupXmlFormat() throws JsonProcessingException {
+    void shouldImportFeaturesFromBackupXmlFormat() throws IOException {
         // Test backup XML format with proper features
         String xmlContent = """
                 <backup>
@@ -56,7 +68,7 @@ class FeatureImportServiceBranchTest {
     }
 
     @Test
-    void shouldFallbackToPlainFeaturesXmlWhenBackupEmpty() throws JsonProcessingException {
+    void shouldFallbackToPlainFeaturesXmlWhenBackupEmpty() throws IOException {
         // Test fallback to plain <features> root when backup format empty
         String xmlContent = """
                 <features>
@@ -75,7 +87,7 @@ class FeatureImportServiceBranchTest {
     }
 
     @Test
-    void shouldReturnZeroWhenEmptyXmlContent() throws JsonProcessingException {
+    void shouldReturnZeroWhenEmptyXmlContent() throws IOException {
         // Test empty XML content
         String xmlContent = "<features></features>";
 
@@ -85,7 +97,7 @@ class FeatureImportServiceBranchTest {
     }
 
     @Test
-    void shouldCountOnlySuccessfullyCreatedFeatures() throws JsonProcessingException {
+    void shouldCountOnlySuccessfullyCreatedFeatures() throws IOException {
         // Test counting only features with non-null ID (successful creation)
         String xmlContent = """
                 <features>
@@ -102,4 +114,91 @@ class FeatureImportServiceBranchTest {
         assertEquals(1, result);
         assertEquals(1, featureRepository.count());
     }
+
+    @Test
+    void shouldSkipExistingFeaturesOnReimport() throws IOException {
+        String xmlContent = """
+                <features>
+                    <feature>
+                        <name>Feature1</name>
+                        <description>Desc 1</description>
+                    </feature>
+                </features>
+                """;
+        featureImportService.importXml(xmlContent);
+
+        // The unique name is not violated, the feature is left as it is
+        int result = featureImportService.importXml(xmlContent.replace("Desc 1", "Changed"));
+
+        assertEquals(0, result);
+        assertEquals(1, featureRepository.count());
+        assertEquals("Desc 1", featureRepository.findByName("Feature1").orElseThrow().getDescription());
+    }
+
+    @Test
+    void shouldUpdateExistingFeaturesInUpdateMode() throws IOException {
+        featureImportService.importXml("""
+                <features>
+                    <feature>
+                        <name>Feature1</name>
+                        <description>Desc 1</description>
+                        <tag>old</tag>
+                    </feature>
+                </features>
+                """);
+        String xmlContent = """
+                <features>
+                    <feature>
+                        <name>Feature1</name>
+                        <description>Changed</description>
+                        <tag>new</tag>
+                        <app>App1</app>
+                    </feature>
+                    <feature>
+                        <name>Feature2</name>
+                    </feature>
+                </features>
+                """;
+
+        int result = featureImportService.importXml(
+                new ByteArrayInputStream(xmlContent.getBytes(StandardCharsets.UTF_8)), "update");
+
+        assertEquals(2, result);
+        assertEquals(2, featureRepository.count());
+        FeatureEntity feature = featureRepository.findByName("Feature1").orElseThrow();
+        assertEquals("Changed", feature.getDescription());
+        assertEquals("App1", feature.getApp().getName());
+        assertEquals(1, feature.getTags().size());
+        assertEquals("new", feature.getTags().iterator().next().getName());
+    }
+
+    @Test
+    void shouldCreateSharedReferencesOnce() throws IOException {
+        String xmlContent = """
+                <features>
+                    <feature>
+                        <name>Feature1</name>
+                        <tag>shared</tag>
+                        <app>SharedApp</app>
+                    </feature>
+                    <feature>
+                        <name>Feature2</name>
+                        <tag>shared</tag>
+                        <tag>other</tag>
+                        <app>SharedApp</app>
+                    </feature>
+                </features>
+                """;
+
+        int result = featureImportService.importXml(xmlContent);
+
+        assertEquals(2, result);
+        long appId = appRepository.findByName("SharedApp").orElseThrow().getId();
+        long tagId = tagRepository.findByName("shared").orElseThrow().getId();
+        for (String name : new String[] { "Feature1", "Feature2" }) {
+            FeatureEntity feature = featureRepository.findByName(name).orElseThrow();
+            assertEquals(appId, feature.getApp().getId());
+            assertTrue(feature.getTags().stream().anyMatch(tag -> tag.getId() == tagId));
+        }
+    }
 }
@@ -1,259 +1,313 @@
 package fr.tiogars.starter.feature.services;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
 
-import fr.tiogars.starter.feature.models.Feature;
+import com.fasterxml.jackson.core.JsonProcessingException;
+
+import fr.tiogars.starter.feature.entities.FeatureEntity;
+import fr.tiogars.starter.feature.repositories.FeatureBatchRepository;
+import fr.tiogars.starter.feature.repositories.FeatureBatchRepository.NamedTable;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import jakarta.validation.Validator;
 
 class FeatureImportServiceTest {
 
-    private FeatureCreateService featureCreateService;
+    private FeatureBatchRepository featureBatchRepository;
+    private Validator validator;
+    private PlatformTransactionManager transactionManager;
     private FeatureImportService featureImportService;
+    private long nextId;
 
     @BeforeEach
     void setUp() {
-        featureCreateService = mock(FeatureCreateService.class);
-        featureImportService = new FeatureImportService(featureCreateService);
+        featureBatchRepository = mock(FeatureBatchRepository.class);
+        validator = mock(Validator.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        featureImportService = newService(500);
+        nextId = 1;
+
+        // Inserted references get new ids
+        when(featureBatchRepository.insertNames(any(NamedTable.class), anyList())).thenAnswer(invocation -> {
+            Map<String, Long> ids = new HashMap<>();
+            for (String name : invocation.<List<String>>getArgument(1)) {
+                ids.put(name, nextId++);
+            }
+            return ids;
+        });
+    }
+
+    private FeatureImportService newService(int chunkSize) {
+        return new FeatureImportService(featureBatchRepository, validator, transactionManager, chunkSize);
+    }
 
-        Feature created = new Feature();
-        created.setId(1L);
-        when(featureCreateService.create(any())).thenReturn(created);
+    @SuppressWarnings("unchecked")
+    private List<FeatureEntity> insertedFeatures(int times) {
+        ArgumentCaptor<List<FeatureEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(featureBatchRepository, times(times)).insertAll(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
     }
 
     @Test
-    void shouldImportFromBackupFileWithBackupRootAndTitle() throws IOException, com.fasterxml.jackson.core.JsonProcessingException {
-        // Load the provided backup XML from docs
+    void testImportXml_BackupStream_ImportsEveryFeature() throws IOException {
+        // Arrange
         Path path = Path.of("docs", "features", "assets", "features-backup-2026-01-23T07-00-13-017Z.xml");
-        String xml = Files.readString(path, StandardCharsets.UTF_8);
-
-        int created = featureImportService.importXml(xml);
 
-        assertTrue(created >= 1, "Expected at least one feature imported");
-        verify(featureCreateService, atLeastOnce()).create(any());
+        // Act
+        int imported;
+        try (InputStream in = Files.newInputStream(path)) {
+            imported = featureImportService.importXml(in, null);
+        }
+
+        // Assert: one chunk, the tags of all the features resolved at once
+        assertEquals(26, imported);
+        List<FeatureEntity> features = insertedFeatures(1);
+        assertEquals(26, features.size());
+        assertEquals("Documentation - Powered by section in README", features.get(0).getName());
+        assertEquals(Set.of("devops", "docs", "mermaid", "mindmap"),
+                Set.copyOf(features.get(0).getTags().stream().map(TagEntity::getName).toList()));
+        verify(featureBatchRepository, times(1)).findIdsByName(eq(NamedTable.TAG), any());
+        verify(featureBatchRepository, times(1)).insertNames(eq(NamedTable.TAG), anyList());
     }
 
     @Test
-    void testImportXml_PlainFeaturesRoot_Success() throws Exception {
+    void testImportXml_PlainFeaturesRoot_InsertsFeaturesWithReferences() throws Exception {
         // Arrange
         String xml = """
             <features>
                 <feature>
                     <name>Feature1</name>
                     <description>Description 1</description>
-                    <tag>Tag1</tag>
+                    <tags><tag>Tag1</tag></tags>
                     <repository>Repo1</repository>
                     <app>App1</app>
                 </feature>
                 <feature>
                     <name>Feature2</name>
                     <description>Description 2</description>
-                    <tag>Tag2</tag>
-                    <repository>Repo2</repository>
-                    <app>App2</app>
+                    <tags><tag>Tag1</tag><tag>Tag2</tag></tags>
+                    <repository>Repo1</repository>
                 </feature>
             </features>
             """;
-
-        Feature created = new Feature();
-        created.setId(1L);
-        when(featureCreateService.create(any())).thenReturn(created);
+        when(featureBatchRepository.findIdsByName(eq(NamedTable.REPOSITORY), any()))
+                .thenReturn(new HashMap<>(Map.of("Repo1", 40L)));
 
         // Act
         int result = featureImportService.importXml(xml);
 
         // Assert
-        assertTrue(result == 2, "Expected 2 features imported");
-        verify(featureCreateService, atLeastOnce()).create(any());
+        assertEquals(2, result);
+        List<FeatureEntity> features = insertedFeatures(1);
+        assertEquals("Description 1", features.get(0).getDescription());
+        assertEquals(40L, features.get(0).getRepository().getId());
+        assertEquals(40L, features.get(1).getRepository().getId());
+        assertEquals("App1", features.get(0).getApp().getName());
+        assertNull(features.get(1).getApp());
+        assertEquals(2, features.get(1).getTags().size());
+        // The existing repository is not inserted again
+        verify(featureBatchRepository).insertNames(NamedTable.REPOSITORY, List.of());
+        verify(featureBatchRepository).insertNames(NamedTable.APP, List.of("App1"));
+        verify(featureBatchRepository).insertNames(NamedTable.TAG, List.of("Tag1", "Tag2"));
     }
 
     @Test
     void testImportXml_EmptyXml_ReturnsZero() throws Exception {
-        // Arrange
-        String xml = "<features></features>";
-
         // Act
-        int result = featureImportService.importXml(xml);
+        int result = featureImportService.importXml("<features></features>");
 
         // Assert
-        assertTrue(result == 0, "Expected 0 features imported for empty XML");
+        assertEquals(0, result);
+        verify(featureBatchRepository, never()).insertAll(any());
     }
 
     @Test
     void testImportXml_NullFeaturesList_ReturnsZero() throws Exception {
-        // Arrange
-        String xml = "<backup></backup>";
-
         // Act
-        int result = featureImportService.importXml(xml);
+        int result = featureImportService.importXml("<backup></backup>");
 
         // Assert
-        assertTrue(result == 0, "Expected 0 features imported for null features list");
+        assertEquals(0, result);
+        verify(featureBatchRepository, never()).insertAll(any());
     }
 
     @Test
-    void testImportXml_BackupRootWithFeatures_Success() throws Exception {
-        // Arrange
+    void testImportXml_BackupOtherSections_Skipped() throws Exception {
+        // Arrange - sections around the features, with elements named like the ones of a feature
         String xml = """
-            <backup>
+            <?xml version="1.0" encoding="UTF-8"?>
+            <backup version="2.0">
+                <tags>
+                    <tag>red</tag>
+                </tags>
                 <features>
+                    <!-- exported features -->
                     <feature>
-                        <name>BackupFeature</name>
-                        <description>Backup Description</description>
-                        <tag>BackupTag</tag>
-                        <repository>BackupRepo</repository>
-                        <app>BackupApp</app>
+                        <title>Feature1</title>
+                        <tags><tag>red</tag></tags>
                     </feature>
                 </features>
+                <apps>
+                    <app><name>App1</name></app>
+                </apps>
             </backup>
             """;
 
-        Feature created = new Feature();
-        created.setId(1L);
-        when(featureCreateService.create(any())).thenReturn(created);
-
         // Act
-        int result = featureImportService.importXml(xml);
+        int result = featureImportService.importXml(xml.strip());
 
         // Assert
-        assertTrue(result == 1, "Expected 1 feature imported from backup XML");
-        verify(featureCreateService, atLeastOnce()).create(any());
+        assertEquals(1, result);
+        List<FeatureEntity> features = insertedFeatures(1);
+        assertEquals("Feature1", features.get(0).getName());
+        assertEquals("red", features.get(0).getTags().iterator().next().getName());
+        verify(featureBatchRepository, never()).insertNames(eq(NamedTable.APP), anyList());
     }
 
     @Test
-    void testImportXml_FeatureWithoutId_CountsAsCreated() throws Exception {
+    void testImportXml_Malformed_KeepsFeaturesReadBeforeError() {
         // Arrange
-        String xml = """
-            <features>
-                <feature>
-                    <name>TestFeature</name>
-                    <description>Test Description</description>
-                </feature>
-            </features>
-            """;
+        String xml = "<features><feature><name>Feature1</name></feature><feature><name>Feature2</feature>";
 
-        Feature created = new Feature();
-        created.setId(1L);
-        when(featureCreateService.create(any())).thenReturn(created);
-
-        // Act
-        int result = featureImportService.importXml(xml);
-
-        // Assert
-        assertTrue(result == 1, "Expected 1 feature counted as created");
+        // Act & Assert
+        assertThrows(JsonProcessingException.class, () -> featureImportService.importXml(xml));
+        assertEquals(List.of("Feature1"), insertedFeatures(1).stream().map(FeatureEntity::getName).toList());
     }
 
     @Test
-    void testImportXml_FeatureCreationReturnsNull_NotCounted() throws Exception {
+    void testImportXml_SkipMode_SkipsUsedAndRepeatedNames() throws Exception {
         // Arrange
         String xml = """
             <features>
-                <feature>
-                    <name>FailedFeature</name>
-                </feature>
+                <feature><name>Used</name></feature>
+                <feature><name>New</name></feature>
+                <feature><name>New</name></feature>
             </features>
             """;
-
-        when(featureCreateService.create(any())).thenReturn(null);
+        when(featureBatchRepository.findIdsByName(eq(NamedTable.FEATURE), any()))
+                .thenReturn(new HashMap<>(Map.of("Used", 7L)));
 
         // Act
         int result = featureImportService.importXml(xml);
 
         // Assert
-        assertTrue(result == 0, "Expected 0 features counted when creation returns null");
+        assertEquals(1, result);
+        assertEquals(List.of("New"), insertedFeatures(1).stream().map(FeatureEntity::getName).toList());
+        verify(featureBatchRepository, never()).upsertAll(any());
     }
 
     @Test
-    void testImportXml_FeatureWithNullId_NotCounted() throws Exception {
+    @SuppressWarnings("unchecked")
+    void testImportXml_UpdateMode_UpsertsUsedNames() throws Exception {
         // Arrange
-        String xml = """
-            <features>
-                <feature>
-                    <name>NoIdFeature</name>
-                </feature>
-            </features>
-            """;
-
-        Feature created = new Feature();
-        // ID is null
-        when(featureCreateService.create(any())).thenReturn(created);
+        String xml = "<features><feature><name>Used</name></feature><feature><name>New</name></feature></features>";
+        when(featureBatchRepository.findIdsByName(eq(NamedTable.FEATURE), any()))
+                .thenReturn(new HashMap<>(Map.of("Used", 7L)));
 
         // Act
-        int result = featureImportService.importXml(xml);
+        int result = featureImportService.importXml(new ByteArrayInputStream(xml.getBytes()), "Update");
 
         // Assert
-        assertTrue(result == 0, "Expected 0 features counted when ID is null");
+        assertEquals(2, result);
+        ArgumentCaptor<List<FeatureEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(featureBatchRepository).upsertAll(captor.capture());
+        assertEquals(List.of("Used", "New"), captor.getValue().stream().map(FeatureEntity::getName).toList());
+        verify(featureBatchRepository, never()).insertAll(any());
     }
 
     @Test
-    void testImportXml_MultipleFeatures_SomeWithNullId() throws Exception {
-        // Arrange
+    @SuppressWarnings("unchecked")
+    void testImportXml_ReferencesResolvedOncePerImport() throws Exception {
+        // Arrange - 3 features in chunks of 2, all with the same tag and app
+        featureImportService = newService(2);
         String xml = """
             <features>
-                <feature>
-                    <name>Feature1</name>
-                </feature>
-                <feature>
-                    <name>Feature2</name>
-                </feature>
-                <feature>
-                    <name>Feature3</name>
-                </feature>
+                <feature><name>F1</name><tags><tag>red</tag></tags><app>App1</app></feature>
+                <feature><name>F2</name><tags><tag>red</tag></tags><app>App1</app></feature>
+                <feature><name>F3</name><tags><tag>red</tag></tags><app>App1</app></feature>
             </features>
             """;
 
-        Feature created1 = new Feature();
-        created1.setId(1L);
-        
-        Feature created2 = new Feature();
-        // ID is null
-        
-        Feature created3 = new Feature();
-        created3.setId(3L);
+        // Act
+        int result = featureImportService.importXml(xml);
+
+        // Assert: the second chunk reuses the ids resolved by the first one
+        assertEquals(3, result);
+        ArgumentCaptor<Collection<String>> names = ArgumentCaptor.forClass(Collection.class);
+        verify(featureBatchRepository, times(1)).findIdsByName(eq(NamedTable.TAG), names.capture());
+        assertEquals(List.of("red"), List.copyOf(names.getValue()));
+        verify(featureBatchRepository, times(1)).findIdsByName(eq(NamedTable.APP), any());
+        List<FeatureEntity> features = insertedFeatures(2);
+        assertEquals(features.get(0).getApp().getId(), features.get(2).getApp().getId());
+    }
 
-        when(featureCreateService.create(any()))
-            .thenReturn(created1)
-            .thenReturn(created2)
-            .thenReturn(created3);
+    @Test
+    void testImportXml_ChunkFailure_WritesFeaturesOneByOne() throws Exception {
+        // Arrange - the chunk fails, then the second feature fails on its own
+        String xml = "<features><feature><name>F1</name></feature><feature><name>F2</name></feature></features>";
+        doThrow(new RuntimeException("Batch failed"))
+                .doAnswer(invocation -> null)
+                .doThrow(new RuntimeException("Lock timeout"))
+                .when(featureBatchRepository).insertAll(anyList());
 
         // Act
         int result = featureImportService.importXml(xml);
 
         // Assert
-        assertTrue(result == 2, "Expected 2 features counted (excluding one with null ID)");
+        assertEquals(1, result);
+        verify(featureBatchRepository, times(3)).insertAll(anyList());
+        verify(transactionManager, times(2)).rollback(any());
     }
 
     @Test
-    void testImportXml_FallbackToPlainRoot_WhenBackupIsEmpty() throws Exception {
-        // Arrange - XML with backup root but empty features, should fallback to plain features
-        String xml = """
-            <features>
-                <feature>
-                    <name>PlainFeature</name>
-                    <description>Plain Description</description>
-                </feature>
-            </features>
-            """;
-
-        Feature created = new Feature();
-        created.setId(1L);
-        when(featureCreateService.create(any())).thenReturn(created);
+    void testImportXml_ChunkFailure_ForgetsRolledBackReferences() throws Exception {
+        // Arrange - the tag inserted by the failed chunk is rolled back, and inserted again
+        String xml = "<features><feature><name>F1</name><tags><tag>red</tag></tags></feature></features>";
+        doThrow(new RuntimeException("Batch failed")).doAnswer(invocation -> null)
+                .when(featureBatchRepository).insertAll(anyList());
 
         // Act
         int result = featureImportService.importXml(xml);
 
         // Assert
-        assertTrue(result == 1, "Expected 1 feature imported from plain features root");
+        assertEquals(1, result);
+        verify(featureBatchRepository, times(2)).insertNames(NamedTable.TAG, List.of("red"));
+    }
+
+    @Test
+    void testResolveOnConflict() {
+        assertEquals("skip", FeatureImportService.resolveOnConflict(null));
+        assertEquals("skip", FeatureImportService.resolveOnConflict(" "));
+        assertEquals("update", FeatureImportService.resolveOnConflict("UPDATE"));
+        assertThrows(FeatureImportService.UnsupportedOnConflictException.class,
+                () -> FeatureImportService.resolveOnConflict("fail"));
+        assertTrue(FeatureImportService.ON_CONFLICT_MODES.contains("skip"));
     }
 }
@@ -1,18 +1,23 @@
 package fr.tiogars.starter.sample.controller;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.Arrays;
@@ -27,8 +32,12 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -36,9 +45,17 @@ import fr.tiogars.starter.config.TestSecurityConfig;
 import fr.tiogars.starter.sample.forms.SampleCreateForm;
 import fr.tiogars.starter.sample.forms.SampleUpdateForm;
 import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.sample.models.SampleExportJob;
+import fr.tiogars.starter.sample.models.SampleImportJob;
+import fr.tiogars.starter.sample.models.SampleImportReport;
+import fr.tiogars.starter.sample.forms.SampleExportForm;
 import fr.tiogars.starter.sample.services.SampleCreateService;
 import fr.tiogars.starter.sample.services.SampleCrudService;
+import fr.tiogars.starter.sample.services.SampleExportJobService;
 import fr.tiogars.starter.sample.services.SampleExportService;
+import fr.tiogars.starter.sample.services.SampleFileImportService;
+import fr.tiogars.starter.sample.services.SampleGenerateService;
+import fr.tiogars.starter.sample.services.SampleImportJobService;
 import fr.tiogars.starter.sample.services.SampleImportService;
 import fr.tiogars.starter.sample.services.SampleInitService;
 import fr.tiogars.starter.sample.services.SampleSearchService;
@@ -82,13 +99,26 @@ class SampleControllerTest {
     @Autowired
     private SampleFindService sampleFindService;
 
+    @Autowired
+    private SampleExportJobService sampleExportJobService;
+
+    @Autowired
+    private SampleFileImportService sampleFileImportService;
+
+    @Autowired
+    private SampleImportJobService sampleImportJobService;
+
+    @Autowired
+    private SampleGenerateService sampleGenerateService;
+
     private Sample sample;
     private Date testDate;
 
     @BeforeEach
     void setUp() {
         reset(sampleCreateService, sampleCrudService, sampleUpdateService, sampleImportService, sampleExportService,
-                sampleInitService, sampleSearchService, sampleFindService);
+                sampleInitService, sampleSearchService, sampleFindService, sampleExportJobService,
+                sampleFileImportService, sampleImportJobService, sampleGenerateService);
         testDate = new Date();
         sample = new Sample();
         sample.setId(1L);
@@ -123,6 +153,24 @@ class SampleControllerTest {
         verify(sampleCreateService, times(1)).create(any(SampleCreateForm.class));
     }
 
+    @Test
+    void testCreateSample_DuplicateName_ReturnsConflict() throws Exception {
+        // Arrange
+        SampleCreateForm form = new SampleCreateForm();
+        form.setName("Used");
+
+        when(sampleCreateService.create(any(SampleCreateForm.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement [Duplicate entry 'Used' for key 'sample.uk_sample_name']"));
+
+        // Act & Assert
+        mockMvc.perform(post("/sample")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(form)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.violations.name").exists());
+    }
+
     @Test
     void testGetSample_ReturnsSampleWhenExists() throws Exception {
         // Arrange
@@ -237,6 +285,251 @@ class SampleControllerTest {
         verify(sampleUpdateService, times(1)).update(any(SampleUpdateForm.class));
     }
 
+    @Test
+    void testUpdateSample_DuplicateName_ReturnsConflict() throws Exception {
+        // Arrange
+        SampleUpdateForm form = new SampleUpdateForm();
+        form.setName("Used");
+
+        when(sampleUpdateService.update(any(SampleUpdateForm.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new RuntimeException("Unique index or primary key violation: \"PUBLIC.UK_SAMPLE_NAME ON PUBLIC.SAMPLE(NAME)\"")));
+
+        // Act & Assert
+        mockMvc.perform(put("/sample/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(form)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409));
+    }
+
+    @Test
+    void testSubmitExportJob_ReturnsAcceptedJob() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        SampleExportJob job = new SampleExportJob();
+        job.setId("job-1");
+        job.setStatus("queued");
+
+        when(sampleExportJobService.submit(any(SampleExportForm.class))).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(post("/sample/export/jobs")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(form)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("queued"));
+    }
+
+    @Test
+    void testGetExportJob_Returns404WhenUnknown() throws Exception {
+        // Arrange
+        when(sampleExportJobService.getJob("unknown")).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(get("/sample/export/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelExportJob_ReturnsJob() throws Exception {
+        // Arrange
+        SampleExportJob job = new SampleExportJob();
+        job.setId("job-1");
+        job.setStatus("cancelled");
+
+        when(sampleExportJobService.cancel("job-1")).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(delete("/sample/export/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("cancelled"));
+    }
+
+    @Test
+    void testImportSampleFile_ReturnsReport() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "samples.csv", "text/csv",
+                "Name,Description\nImported,From a file\n".getBytes());
+        SampleImportReport report = new SampleImportReport();
+        report.setTotalProvided(1);
+        report.setTotalCreated(1);
+        report.setAlertLevel("success");
+
+        when(sampleFileImportService.importFile(any(), isNull(), isNull(), isNull())).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/sample/import/file").file(file))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCreated").value(1))
+                .andExpect(jsonPath("$.alertLevel").value("success"));
+
+        verify(sampleFileImportService, times(1)).importFile(any(), isNull(), isNull(), isNull());
+    }
+
+    @Test
+    void testImportSampleFile_UnsupportedFormat_ReturnsBadRequest() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "samples.txt", "text/plain", "Name".getBytes());
+        when(sampleFileImportService.importFile(any(), eq("txt"), isNull(), isNull()))
+                .thenThrow(new SampleFileImportService.UnsupportedImportFormatException("Unsupported import format: txt"));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/sample/import/file").file(file).param("format", "txt"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testImportSampleFile_FailOnConflict_ReturnsConflict() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "samples.csv", "text/csv", "Name\nUsed\n".getBytes());
+        when(sampleFileImportService.importFile(any(), isNull(), eq("fail"), isNull()))
+                .thenThrow(new SampleImportService.SampleImportConflictException("Sample with name 'Used' already exists"));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/sample/import/file").file(file).param("onConflict", "fail"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testStreamImportSampleFile_WritesReportLines() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "samples.csv", "text/csv", "Name\nImported\n".getBytes());
+        StreamingResponseBody body = out -> out.write("{\"totalProvided\":1}\n".getBytes());
+        when(sampleFileImportService.streamFile(any(), isNull(), isNull(), eq("errorsOnly"))).thenReturn(body);
+
+        // Act
+        MvcResult result = mockMvc.perform(multipart("/sample/import/file/stream").file(file)
+                        .param("reportMode", "errorsOnly"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"totalProvided\":1}\n"));
+    }
+
+    @Test
+    void testStreamImportSampleFile_UnsupportedReportMode_ReturnsBadRequest() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "samples.csv", "text/csv", "Name\nImported\n".getBytes());
+        when(sampleFileImportService.streamFile(any(), isNull(), isNull(), eq("verbose")))
+                .thenThrow(new SampleImportService.UnsupportedReportModeException("Unsupported reportMode: verbose"));
+
+        // Act & Assert
+        mockMvc.perform(multipart("/sample/import/file/stream").file(file).param("reportMode", "verbose"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGenerateSamples_WritesProgressLines() throws Exception {
+        // Arrange
+        StreamingResponseBody body = out -> out.write("{\"status\":\"completed\",\"generated\":5000}\n".getBytes());
+        when(sampleGenerateService.streamGenerate(any())).thenReturn(body);
+
+        // Act
+        MvcResult result = mockMvc.perform(post("/sample/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numberOfSamples\": 5000, \"seed\": 42}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Assert
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"status\":\"completed\",\"generated\":5000}\n"));
+    }
+
+    @Test
+    void testGenerateSamples_TooManyWorkers_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/sample/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numberOfSamples\": 5000, \"workers\": 64}"))
+                .andExpect(status().isBadRequest());
+        verify(sampleGenerateService, times(0)).streamGenerate(any());
+    }
+
+    @Test
+    void testGenerateSamples_SeedAlreadyGenerated_ReturnsConflict() throws Exception {
+        // Arrange
+        when(sampleGenerateService.streamGenerate(any())).thenThrow(
+                new SampleGenerateService.SampleGenerateConflictException("Samples were already generated"));
+
+        // Act & Assert
+        mockMvc.perform(post("/sample/generate")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"numberOfSamples\": 5000, \"seed\": 42}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void testSubmitImportJob_ReturnsAccepted() throws Exception {
+        // Arrange
+        MockMultipartFile file = new MockMultipartFile("file", "samples.csv", "text/csv", "Name\nImported\n".getBytes());
+        SampleImportJob job = new SampleImportJob();
+        job.setId("job-1");
+        job.setStatus("queued");
+        when(sampleImportJobService.submit(any(), isNull(), isNull())).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(multipart("/sample/import/jobs").file(file))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("queued"));
+    }
+
+    @Test
+    void testGetImportJob_Unknown_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(sampleImportJobService.getJob("unknown")).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(get("/sample/import/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testFollowImportJob_Unknown_ReturnsNotFound() throws Exception {
+        // Arrange
+        when(sampleImportJobService.subscribe("unknown")).thenReturn(null);
+
+        // Act & Assert
+        mockMvc.perform(get("/sample/import/jobs/unknown/events"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testResumeImportJob_ReturnsAccepted() throws Exception {
+        // Arrange
+        SampleImportJob job = new SampleImportJob();
+        job.setId("job-1");
+        job.setStatus("queued");
+        job.setRowsCommitted(500);
+        when(sampleImportJobService.resume("job-1")).thenReturn(job);
+
+        // Act & Assert
+        mockMvc.perform(post("/sample/import/jobs/job-1/resume"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.rowsCommitted").value(500));
+    }
+
+    @Test
+    void testResumeImportJob_Completed_ReturnsConflict() throws Exception {
+        // Arrange
+        when(sampleImportJobService.resume("job-1"))
+                .thenThrow(new SampleImportJobService.ImportJobStatusException("Import job job-1 is completed and cannot be resumed"));
+
+        // Act & Assert
+        mockMvc.perform(post("/sample/import/jobs/job-1/resume"))
+                .andExpect(status().isConflict());
+    }
+
     @TestConfiguration
     static class MockConfig {
         @Bean
@@ -278,5 +571,25 @@ class SampleControllerTest {
         SampleFindService sampleFindService() {
             return mock(SampleFindService.class);
         }
+
+        @Bean
+        SampleExportJobService sampleExportJobService() {
+            return mock(SampleExportJobService.class);
+        }
+
+        @Bean
+        SampleFileImportService sampleFileImportService() {
+            return mock(SampleFileImportService.class);
+        }
+
+        @Bean
+        SampleImportJobService sampleImportJobService() {
+            return mock(SampleImportJobService.class);
+        }
+
+        @Bean
+        SampleGenerateService sampleGenerateService() {
+            return mock(SampleGenerateService.class);
+        }
     }
 }
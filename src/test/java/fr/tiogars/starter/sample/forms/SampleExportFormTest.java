@@ -93,6 +93,24 @@ class SampleExportFormTest {
         assertFalse(form.isZip());
     }
 
+    @Test
+    void testIsIndentDefaultValue() {
+        // Arrange & Act
+        SampleExportForm form = new SampleExportForm();
+
+        // Assert
+        assertTrue(form.isIndent());
+    }
+
+    @Test
+    void testIsGzipDefaultValue() {
+        // Arrange & Act
+        SampleExportForm form = new SampleExportForm();
+
+        // Assert
+        assertFalse(form.isGzip());
+    }
+
     @Test
     void testWithNullSearchRequest() {
         // Arrange
@@ -82,4 +82,30 @@ class SampleImportFormTest {
         // Assert
         assertNull(form.getSamples());
     }
+
+    @Test
+    void testOnConflict() {
+        // Arrange
+        SampleImportForm form = new SampleImportForm();
+
+        // Act
+        form.setOnConflict("update");
+
+        // Assert
+        assertEquals("update", form.getOnConflict());
+        assertNull(new SampleImportForm().getOnConflict());
+    }
+
+    @Test
+    void testReportMode() {
+        // Arrange
+        SampleImportForm form = new SampleImportForm();
+
+        // Act
+        form.setReportMode("errorsOnly");
+
+        // Assert
+        assertEquals("errorsOnly", form.getReportMode());
+        assertNull(new SampleImportForm().getReportMode());
+    }
 }
@@ -25,7 +25,8 @@ class SampleImportReportTest {
         // Arrange
         SampleImportReport report = new SampleImportReport();
         int totalProvided = 10;
-        int totalCreated = 7;
+        int totalCreated = 5;
+        int totalUpdated = 2;
         int totalDuplicates = 2;
         int totalErrors = 1;
         int totalSkipped = 0;
@@ -35,6 +36,7 @@ class SampleImportReportTest {
         // Act
         report.setTotalProvided(totalProvided);
         report.setTotalCreated(totalCreated);
+        report.setTotalUpdated(totalUpdated);
         report.setTotalDuplicates(totalDuplicates);
         report.setTotalErrors(totalErrors);
         report.setTotalSkipped(totalSkipped);
@@ -44,6 +46,7 @@ class SampleImportReportTest {
         // Assert
         assertEquals(totalProvided, report.getTotalProvided());
         assertEquals(totalCreated, report.getTotalCreated());
+        assertEquals(totalUpdated, report.getTotalUpdated());
         assertEquals(totalDuplicates, report.getTotalDuplicates());
         assertEquals(totalErrors, report.getTotalErrors());
         assertEquals(totalSkipped, report.getTotalSkipped());
@@ -124,4 +124,28 @@ class SampleSearchRequestTest {
         // Assert
         assertEquals(2, request.getSortModel().size());
     }
+
+    @Test
+    void testCursorPaginationFields() {
+        // Arrange
+        SampleSearchRequest request = new SampleSearchRequest();
+
+        // Act
+        request.setPaginationMode("cursor");
+        request.setCursor("abc");
+
+        // Assert
+        assertEquals("cursor", request.getPaginationMode());
+        assertEquals("abc", request.getCursor());
+    }
+
+    @Test
+    void testDefaultPaginationMode() {
+        // Act
+        SampleSearchRequest request = new SampleSearchRequest();
+
+        // Assert
+        assertEquals("offset", request.getPaginationMode());
+        assertNull(request.getCursor());
+    }
 }
@@ -100,4 +100,18 @@ class SampleSearchResponseTest {
         // Assert
         assertEquals(0L, response.getRowCount());
     }
+
+    @Test
+    void testCursors() {
+        // Arrange
+        SampleSearchResponse response = new SampleSearchResponse();
+
+        // Act
+        response.setNextCursor("next");
+        response.setPrevCursor("prev");
+
+        // Assert
+        assertEquals("next", response.getNextCursor());
+        assertEquals("prev", response.getPrevCursor());
+    }
 }
@@ -0,0 +1,68 @@
+package fr.tiogars.starter.sample.repositories;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Checks the schema created by the Flyway migrations on H2.
+ * Hibernate validates the tables and columns against the entities at startup.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SampleSchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SampleSearchCapabilities searchCapabilities;
+
+    @ParameterizedTest
+    @CsvSource({
+        "sample, idx_sample_active_id",
+        "sample, idx_sample_created_at_id",
+        "sample, idx_sample_updated_at_id",
+        "sample_sample_tag, idx_sample_sample_tag_tag_sample",
+        "feature_tag, idx_feature_tag_tag_feature"
+    })
+    void testSearchIndexesExist(String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE UPPER(TABLE_NAME) = ? AND UPPER(INDEX_NAME) = ?",
+                Integer.class, table.toUpperCase(), index.toUpperCase());
+
+        assertEquals(1, count);
+    }
+
+    @Test
+    void testSampleName_IsUnique() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM INFORMATION_SCHEMA.INDEXES WHERE UPPER(TABLE_NAME) = 'SAMPLE'"
+                        + " AND UPPER(INDEX_NAME) = 'UK_SAMPLE_NAME' AND INDEX_TYPE_NAME = 'UNIQUE INDEX'",
+                Integer.class);
+
+        assertEquals(1, count);
+        assertThrows(DuplicateKeyException.class, () -> {
+            for (int i = 0; i < 2; i++) {
+                jdbcTemplate.update("INSERT INTO sample (name, active, created_at, created_by, updated_at, updated_by)"
+                        + " VALUES ('Unique', true, CURRENT_TIMESTAMP, 'test', CURRENT_TIMESTAMP, 'test')");
+            }
+        });
+        jdbcTemplate.update("DELETE FROM sample WHERE name = 'Unique'");
+    }
+
+    @Test
+    void testMysqlOnlyCapabilities_AreDisabledOnH2() {
+        assertFalse(searchCapabilities.hasFullTextIndex());
+        assertFalse(searchCapabilities.hasCaseInsensitiveCollation());
+    }
+}
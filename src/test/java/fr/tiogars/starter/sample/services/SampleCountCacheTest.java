@@ -0,0 +1,166 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
+import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SampleCountCacheTest {
+
+    @Test
+    void testGetCount_SameFilter_CountsOnce() {
+        SampleCountCache cache = new SampleCountCache(Duration.ofMinutes(1), 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        long first = cache.getCount(filter("name", "contains", "a"), () -> calls.incrementAndGet() * 10L);
+        long second = cache.getCount(filter("name", "contains", "a"), () -> calls.incrementAndGet() * 10L);
+
+        assertEquals(10, first);
+        assertEquals(10, second);
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.cachedFilterCount());
+    }
+
+    @Test
+    void testGetCount_QuickFilter_DoesNotReuseUnfilteredCount() {
+        SampleCountCache cache = new SampleCountCache(Duration.ofMinutes(1), 10);
+        FilterModel quick = new FilterModel();
+        quick.setQuickFilterValues(Arrays.asList("alpha"));
+
+        cache.getCount(new FilterModel(), () -> 1000L);
+
+        assertEquals(2, cache.getCount(quick, () -> 2L));
+    }
+
+    @Test
+    void testGetCount_ExpiredEntry_CountsAgain() {
+        SampleCountCache cache = new SampleCountCache(Duration.ZERO, 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.getCount(null, calls::incrementAndGet);
+        cache.getCount(null, calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testOnSampleChanged_DropsCachedCounts() {
+        SampleCountCache cache = new SampleCountCache(Duration.ofMinutes(1), 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.getCount(null, calls::incrementAndGet);
+        cache.onSampleChanged(new SampleChangedEvent("created"));
+        long count = cache.getCount(null, calls::incrementAndGet);
+
+        assertEquals(2, count);
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testGetCount_WriteDuringCount_DoesNotStoreStaleCount() {
+        SampleCountCache cache = new SampleCountCache(Duration.ofMinutes(1), 10);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.getCount(null, () -> {
+            cache.invalidate();
+            return calls.incrementAndGet();
+        });
+        assertEquals(0, cache.cachedFilterCount());
+        cache.getCount(null, calls::incrementAndGet);
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testGetCount_MaxEntries_EvictsOldCounts() {
+        SampleCountCache cache = new SampleCountCache(Duration.ofMinutes(1), 2);
+
+        for (int i = 0; i < 5; i++) {
+            cache.getCount(filter("name", "contains", "n" + i), () -> 1L);
+        }
+
+        assertTrue(cache.cachedFilterCount() <= 2);
+    }
+
+    @Test
+    void testBindTo_PublishesHitAndMissMetrics() {
+        SampleCountCache cache = new SampleCountCache(Duration.ofMinutes(1), 10);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        cache.getCount(filter("name", "contains", "a"), () -> 1L);
+        cache.getCount(filter("name", "contains", "a"), () -> 1L);
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", SampleCountCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", SampleCountCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void testBuildFilterSignature_IgnoresItemOrderAndIncompleteItems() {
+        FilterModel first = filter("name", "contains", "a");
+        first.getItems().add(item("active", "is", true));
+        first.getItems().add(item("description", null, "x"));
+        FilterModel second = new FilterModel();
+        second.setItems(Arrays.asList(item("active", "is", true), item("name", "contains", "a")));
+
+        assertEquals(SampleCountCache.buildFilterSignature(first), SampleCountCache.buildFilterSignature(second));
+        assertNotEquals(SampleCountCache.buildFilterSignature(first),
+                SampleCountCache.buildFilterSignature(filter("name", "contains", "b")));
+    }
+
+    @Test
+    void testBuildFilterSignature_IncludesQuickFilterValues() {
+        FilterModel quick = filter("name", "contains", "a");
+        quick.setQuickFilterValues(Arrays.asList("Alpha"));
+        FilterModel sameTerms = filter("name", "contains", "a");
+        sameTerms.setQuickFilterValues(Arrays.asList("alpha"));
+        FilterModel anyTerm = filter("name", "contains", "a");
+        anyTerm.setQuickFilterValues(Arrays.asList("alpha"));
+        anyTerm.setQuickFilterLogicOperator("or");
+
+        assertNotEquals(SampleCountCache.buildFilterSignature(filter("name", "contains", "a")),
+                SampleCountCache.buildFilterSignature(quick));
+        assertEquals(SampleCountCache.buildFilterSignature(quick), SampleCountCache.buildFilterSignature(sameTerms));
+        assertNotEquals(SampleCountCache.buildFilterSignature(quick), SampleCountCache.buildFilterSignature(anyTerm));
+    }
+
+    @Test
+    void testHasFilter() {
+        FilterModel incomplete = filter("name", "contains", null);
+        FilterModel quickOnly = new FilterModel();
+        quickOnly.setQuickFilterValues(Arrays.asList("alpha"));
+
+        assertFalse(SampleCountCache.hasFilter(null));
+        assertFalse(SampleCountCache.hasFilter(incomplete));
+        assertTrue(SampleCountCache.hasFilter(filter("name", "contains", "a")));
+        assertTrue(SampleCountCache.hasFilter(quickOnly));
+    }
+
+    private FilterModel filter(String field, String operator, Object value) {
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(new ArrayList<>(Arrays.asList(item(field, operator, value))));
+        return filterModel;
+    }
+
+    private FilterItem item(String field, String operator, Object value) {
+        FilterItem item = new FilterItem();
+        item.setField(field);
+        item.setOperator(operator);
+        item.setValue(value);
+        return item;
+    }
+}
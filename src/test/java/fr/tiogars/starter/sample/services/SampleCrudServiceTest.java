@@ -15,8 +15,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
 
@@ -26,6 +28,9 @@ class SampleCrudServiceTest {
     @Mock
     private SampleRepository sampleRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SampleCrudService sampleCrudService;
 
@@ -145,6 +150,7 @@ class SampleCrudServiceTest {
 
         // Assert
         verify(sampleRepository, times(1)).deleteById(idToDelete);
+        verify(eventPublisher, times(1)).publishEvent(any(SampleChangedEvent.class));
     }
 
     @Test
@@ -0,0 +1,60 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.tag.models.Tag;
+
+class SampleExportColumnTest {
+
+    @Test
+    void testOf_KeepsRequestedOrderWithoutDuplicates() {
+        // Act
+        List<SampleExportColumn> columns = SampleExportColumn.of(List.of("name", "id", "name", "tags"));
+
+        // Assert
+        assertEquals(List.of(SampleExportColumn.NAME, SampleExportColumn.ID, SampleExportColumn.TAGS), columns);
+        assertEquals(List.of("name", "id", "tags"), List.copyOf(SampleExportColumn.fields(columns)));
+    }
+
+    @Test
+    void testOf_NoColumn_ReturnsNull() {
+        // Act & Assert
+        assertNull(SampleExportColumn.of(null));
+        assertNull(SampleExportColumn.of(List.of()));
+    }
+
+    @Test
+    void testOf_UnknownColumn_Throws() {
+        // Act & Assert
+        assertThrows(SampleExportService.UnsupportedExportColumnException.class,
+            () -> SampleExportColumn.of(List.of("id", "Name")));
+    }
+
+    @Test
+    void testText_JoinsSortedTagNames() {
+        // Arrange
+        Sample sample = new Sample();
+        sample.setTags(Set.of(new Tag(1L, "red", null), new Tag(2L, "blue", null)));
+
+        // Act & Assert
+        assertEquals("blue, red", SampleExportColumn.TAGS.text(sample));
+        assertEquals("", SampleExportColumn.NAME.text(sample));
+        assertEquals("false", SampleExportColumn.ACTIVE.text(sample));
+    }
+
+    @Test
+    void testOfHeader_MatchesHeadersAndFields() {
+        // Act & Assert
+        assertEquals(SampleExportColumn.CREATED_AT, SampleExportColumn.ofHeader("Created At"));
+        assertEquals(SampleExportColumn.CREATED_AT, SampleExportColumn.ofHeader("createdAt"));
+        assertEquals(SampleExportColumn.NAME, SampleExportColumn.ofHeader(" NAME "));
+        assertNull(SampleExportColumn.ofHeader("Colour"));
+        assertNull(SampleExportColumn.ofHeader(null));
+    }
+}
@@ -0,0 +1,221 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import fr.tiogars.starter.sample.forms.SampleExportForm;
+import fr.tiogars.starter.sample.models.SampleExportJob;
+
+class SampleExportJobServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private final SampleExportService sampleExportService = mock(SampleExportService.class);
+    private final SampleExport export = new SampleExport("csv", false, false, true, null, null, Sort.by("id"),
+            Sort.Direction.ASC, 1, "samples.csv", "samples.csv", "text/csv");
+    private SampleExportJobService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testSubmit_WritesFileAndCompletes() throws Exception {
+        // Arrange
+        service = newService(1, 10, Duration.ofHours(1));
+        SampleExportForm form = new SampleExportForm();
+        when(sampleExportService.prepareExport(form)).thenReturn(export);
+        when(sampleExportService.countExport(export)).thenReturn(2L);
+        doAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            LongConsumer progress = invocation.getArgument(2);
+            out.write("row1\n".getBytes(StandardCharsets.UTF_8));
+            progress.accept(1);
+            out.write("row2\n".getBytes(StandardCharsets.UTF_8));
+            progress.accept(2);
+            return null;
+        }).when(sampleExportService).writeExport(eq(export), any(OutputStream.class), any(LongConsumer.class));
+
+        // Act
+        SampleExportJob submitted = service.submit(form);
+        SampleExportJob job = awaitFinished(submitted.getId());
+
+        // Assert
+        assertEquals(SampleExportJobService.COMPLETED, job.getStatus());
+        assertEquals(2L, job.getTotalRows());
+        assertEquals(2, job.getRowsWritten());
+        assertEquals(10, job.getBytesWritten());
+        assertNotNull(job.getExpiresAt());
+        assertNull(job.getEtaSeconds());
+
+        ResponseEntity<Resource> response = service.download(submitted.getId());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("row1\nrow2\n", response.getBody().getContentAsString(StandardCharsets.UTF_8));
+        assertTrue(response.getHeaders().getContentDisposition().toString().contains("samples.csv"));
+    }
+
+    @Test
+    void testCancel_RunningJob_StopsAndDeletesFile() throws Exception {
+        // Arrange
+        service = newService(1, 10, Duration.ofHours(1));
+        SampleExportForm form = new SampleExportForm();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        when(sampleExportService.prepareExport(form)).thenReturn(export);
+        doAnswer(invocation -> {
+            LongConsumer progress = invocation.getArgument(2);
+            progress.accept(1);
+            started.countDown();
+            cancelled.await(5, TimeUnit.SECONDS);
+            progress.accept(2);
+            return null;
+        }).when(sampleExportService).writeExport(eq(export), any(OutputStream.class), any(LongConsumer.class));
+
+        SampleExportJob submitted = service.submit(form);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        service.cancel(submitted.getId());
+        cancelled.countDown();
+        SampleExportJob job = awaitFinished(submitted.getId());
+
+        // Assert
+        assertEquals(SampleExportJobService.CANCELLED, job.getStatus());
+        assertEquals(1, job.getRowsWritten());
+        assertEquals(HttpStatus.CONFLICT, service.download(submitted.getId()).getStatusCode());
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testSubmit_QueueFull_Rejects() throws Exception {
+        // Arrange: one running job and one queued job
+        service = newService(1, 1, Duration.ofHours(1));
+        SampleExportForm form = new SampleExportForm();
+        CountDownLatch release = new CountDownLatch(1);
+        when(sampleExportService.prepareExport(form)).thenReturn(export);
+        doAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(sampleExportService).writeExport(eq(export), any(OutputStream.class), any(LongConsumer.class));
+
+        SampleExportJob running = service.submit(form);
+        SampleExportJob queued = service.submit(form);
+
+        // Act & Assert
+        assertThrows(SampleExportJobService.ExportJobQueueFullException.class, () -> service.submit(form));
+
+        SampleExportJob cancelled = service.cancel(queued.getId());
+        assertEquals(SampleExportJobService.CANCELLED, cancelled.getStatus());
+        release.countDown();
+        assertEquals(SampleExportJobService.COMPLETED, awaitFinished(running.getId()).getStatus());
+        verify(sampleExportService, times(1)).writeExport(eq(export), any(OutputStream.class), any(LongConsumer.class));
+    }
+
+    @Test
+    void testWriteFailure_MarksJobFailed() throws Exception {
+        // Arrange
+        service = newService(1, 10, Duration.ofHours(1));
+        SampleExportForm form = new SampleExportForm();
+        when(sampleExportService.prepareExport(form)).thenReturn(export);
+        doThrow(new IllegalStateException("database unavailable"))
+            .when(sampleExportService).writeExport(eq(export), any(OutputStream.class), any(LongConsumer.class));
+
+        // Act
+        SampleExportJob job = awaitFinished(service.submit(form).getId());
+
+        // Assert
+        assertEquals(SampleExportJobService.FAILED, job.getStatus());
+        assertEquals("database unavailable", job.getError());
+    }
+
+    @Test
+    void testFinishedJob_ExpiresAfterTtl() throws Exception {
+        // Arrange
+        service = newService(1, 10, Duration.ZERO);
+        SampleExportForm form = new SampleExportForm();
+        CountDownLatch written = new CountDownLatch(1);
+        when(sampleExportService.prepareExport(form)).thenReturn(export);
+        doAnswer(invocation -> {
+            written.countDown();
+            return null;
+        }).when(sampleExportService).writeExport(eq(export), any(OutputStream.class), any(LongConsumer.class));
+
+        // Act
+        SampleExportJob submitted = service.submit(form);
+        assertTrue(written.await(5, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (service.getJob(submitted.getId()) != null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        // Assert
+        assertNull(service.getJob(submitted.getId()));
+        assertEquals(HttpStatus.NOT_FOUND, service.download(submitted.getId()).getStatusCode());
+    }
+
+    @Test
+    void testGetJob_Unknown_ReturnsNull() throws Exception {
+        // Arrange
+        service = newService(1, 10, Duration.ofHours(1));
+
+        // Act & Assert
+        assertNull(service.getJob("unknown"));
+        assertNull(service.cancel("unknown"));
+    }
+
+    @Test
+    void testConstructor_DeletesLeftoverFiles() throws Exception {
+        // Arrange
+        Path leftover = Files.writeString(directory.resolve("previous.export"), "partial");
+        Path other = Files.writeString(directory.resolve("other.txt"), "kept");
+
+        // Act
+        service = newService(1, 10, Duration.ofHours(1));
+
+        // Assert
+        assertFalse(Files.exists(leftover));
+        assertTrue(Files.exists(other));
+    }
+
+    private SampleExportJobService newService(int concurrency, int queueCapacity, Duration ttl) throws Exception {
+        return new SampleExportJobService(sampleExportService, directory.toString(), concurrency, queueCapacity, ttl);
+    }
+
+    private SampleExportJob awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        SampleExportJob job = service.getJob(id);
+        while (job != null && (SampleExportJobService.QUEUED.equals(job.getStatus())
+                || SampleExportJobService.RUNNING.equals(job.getStatus()))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            job = service.getJob(id);
+        }
+        assertNotNull(job);
+        return job;
+    }
+}
@@ -0,0 +1,97 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Optional;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Range;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+
+class SampleExportPartitionerTest {
+
+    private final SampleRepository sampleRepository = mock(SampleRepository.class);
+
+    @Test
+    void testPartition_SplitsIdsIntoContiguousRanges() {
+        // Arrange
+        SampleExportPartitioner partitioner = new SampleExportPartitioner(sampleRepository, mock(DataSource.class), 4, 10);
+        when(sampleRepository.findIdRange(any())).thenReturn(Optional.of(Range.closed(1L, 100L)));
+
+        // Act
+        List<Range<Long>> ranges = partitioner.partition(null, 4);
+
+        // Assert
+        assertEquals(List.of(Range.closed(1L, 25L), Range.closed(26L, 50L), Range.closed(51L, 75L),
+                Range.closed(76L, 100L)), ranges);
+    }
+
+    @Test
+    void testPartition_UnevenSpan_CoversEveryId() {
+        // Arrange
+        SampleExportPartitioner partitioner = new SampleExportPartitioner(sampleRepository, mock(DataSource.class), 4, 1);
+        when(sampleRepository.findIdRange(any())).thenReturn(Optional.of(Range.closed(5L, 14L)));
+
+        // Act
+        List<Range<Long>> ranges = partitioner.partition(null, 3);
+
+        // Assert
+        assertEquals(List.of(Range.closed(5L, 8L), Range.closed(9L, 12L), Range.closed(13L, 14L)), ranges);
+    }
+
+    @Test
+    void testPartition_SmallSpan_IsNotSplit() {
+        // Arrange
+        SampleExportPartitioner partitioner = new SampleExportPartitioner(sampleRepository, mock(DataSource.class), 4, 10000);
+        when(sampleRepository.findIdRange(any())).thenReturn(Optional.of(Range.closed(1L, 15000L)));
+
+        // Act & Assert
+        assertTrue(partitioner.partition(null, 4).isEmpty());
+    }
+
+    @Test
+    void testPartition_NoMatchingSample_IsNotSplit() {
+        // Arrange
+        SampleExportPartitioner partitioner = new SampleExportPartitioner(sampleRepository, mock(DataSource.class), 4, 1);
+        when(sampleRepository.findIdRange(any())).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertTrue(partitioner.partition(null, 4).isEmpty());
+    }
+
+    @Test
+    void testAllowedPartitions_CappedByConfiguredMaximum() {
+        // Arrange
+        SampleExportPartitioner partitioner = new SampleExportPartitioner(sampleRepository, mock(DataSource.class), 4, 1);
+
+        // Act & Assert
+        assertEquals(4, partitioner.allowedPartitions(16));
+        assertEquals(2, partitioner.allowedPartitions(2));
+    }
+
+    @Test
+    void testAllowedPartitions_CappedByPoolHeadroom() {
+        // Arrange: 10 connections, 6 in use, 1 left to the other requests
+        HikariDataSource dataSource = mock(HikariDataSource.class);
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(dataSource.getHikariPoolMXBean()).thenReturn(pool);
+        when(dataSource.getMaximumPoolSize()).thenReturn(10);
+        when(pool.getActiveConnections()).thenReturn(6);
+        SampleExportPartitioner partitioner = new SampleExportPartitioner(sampleRepository, dataSource, 8, 1);
+
+        // Act & Assert
+        assertEquals(3, partitioner.allowedPartitions(8));
+
+        when(pool.getActiveConnections()).thenReturn(10);
+        assertEquals(1, partitioner.allowedPartitions(8));
+    }
+}
@@ -5,27 +5,44 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import fr.tiogars.starter.sample.entities.SampleEntity;
 import fr.tiogars.starter.sample.forms.SampleExportForm;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.sample.models.SampleSearchRequest;
 import fr.tiogars.starter.sample.models.SampleSearchResponse;
+import fr.tiogars.starter.sample.models.SortItem;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.sample.repositories.SampleSearchCapabilities;
+import fr.tiogars.starter.tag.models.Tag;
 
 @ExtendWith(MockitoExtension.class)
 class SampleExportServiceTest {
@@ -36,6 +53,21 @@ class SampleExportServiceTest {
     @Mock
     private SampleSearchService sampleSearchService;
 
+    @Spy
+    private SampleSearchPlanner sampleSearchPlanner = new SampleSearchPlanner(16, mock(SampleSearchCapabilities.class));
+
+    @Mock
+    private SampleExportPartitioner sampleExportPartitioner;
+
+    /**
+     * Small blocks, so that the exports below span several compressed blocks
+     */
+    @Spy
+    private SampleExportCompressor sampleExportCompressor = new SampleExportCompressor(6, 1024, 2);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private SampleExportService sampleExportService;
 
@@ -529,4 +561,436 @@ class SampleExportServiceTest {
 
         verify(sampleRepository, times(1)).findAll(any(org.springframework.data.domain.PageRequest.class));
     }
+
+    @Test
+    void testStreamSamples_Csv_WritesEveryRow() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+
+        when(sampleRepository.streamSamples(isNull(), eq(Sort.by(Sort.Direction.ASC, "id"))))
+            .thenReturn(Stream.of(model(1L, "Sample1"), model(2L, "Sample2")));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = sampleExportService.streamSamples(form);
+        String content = write(response.getBody());
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getHeaders().getContentType().toString().contains("text/csv"));
+        assertNull(response.getHeaders().get("Content-Length"));
+        String[] lines = content.split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"ID\""));
+        assertTrue(lines[1].contains("\"Sample1\""));
+        assertTrue(lines[2].contains("\"Sample2\""));
+    }
+
+    @Test
+    void testStreamSamples_ClosesTheStream() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(sampleRepository.streamSamples(any(), any(Sort.class)))
+            .thenReturn(Stream.of(model(1L, "Sample1")).onClose(() -> closed.set(true)));
+
+        // Act
+        write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void testStreamSamples_CsvWithZip_WritesSingleEntry() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setZip(true);
+
+        when(sampleRepository.streamSamples(any(), any(Sort.class)))
+            .thenReturn(Stream.of(model(1L, "Sample1")));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = sampleExportService.streamSamples(form);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertTrue(response.getHeaders().getContentType().toString().contains("application/zip"));
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry = zis.getNextEntry();
+            assertNotNull(entry);
+            assertTrue(entry.getName().endsWith("_samples.csv"));
+            String content = new String(zis.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.contains("\"Sample1\""));
+            assertNull(zis.getNextEntry());
+        }
+    }
+
+    @Test
+    void testStreamSamples_CsvWithGzip_WritesGzipEncodedCsv() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setGzip(true);
+
+        when(sampleRepository.streamSamples(any(), any(Sort.class)))
+            .thenReturn(IntStream.rangeClosed(1, 500).mapToObj(i -> model((long) i, "Sample" + i)));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = sampleExportService.streamSamples(form);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertEquals("gzip", response.getHeaders().getFirst("Content-Encoding"));
+        assertTrue(response.getHeaders().getContentType().toString().contains("text/csv"));
+        assertTrue(response.getHeaders().getContentDisposition().getFilename().endsWith("_samples.csv"));
+        try (GZIPInputStream gzis = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            String[] lines = new String(gzis.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            assertEquals(501, lines.length);
+            assertTrue(lines[500].contains("\"Sample500\""));
+        }
+    }
+
+    @Test
+    void testExportSamples_WithGzip_CompressesContent() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("json");
+        form.setGzip(true);
+
+        when(sampleRepository.findAll(any(org.springframework.data.domain.PageRequest.class)))
+            .thenReturn(new org.springframework.data.domain.PageImpl<>(sampleEntities));
+
+        // Act
+        ResponseEntity<byte[]> response = sampleExportService.exportSamples(form);
+
+        // Assert
+        assertEquals("gzip", response.getHeaders().getFirst("Content-Encoding"));
+        assertEquals(response.getBody().length, response.getHeaders().getContentLength());
+        try (GZIPInputStream gzis = new GZIPInputStream(new ByteArrayInputStream(response.getBody()))) {
+            String content = new String(gzis.readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(content.contains("\"Sample1\""));
+        }
+    }
+
+    @Test
+    void testStreamSamples_ZipAndGzip_UsesZipOnly() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setZip(true);
+        form.setGzip(true);
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = sampleExportService.streamSamples(form);
+
+        // Assert
+        assertNull(response.getHeaders().getFirst("Content-Encoding"));
+        assertTrue(response.getHeaders().getContentType().toString().contains("application/zip"));
+    }
+
+    @Test
+    void testStreamSamples_CsvWithColumns_ReadsAndWritesOnlyThoseColumns() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setColumns(List.of("name", "id", "name"));
+
+        when(sampleRepository.streamSamples(isNull(), any(Sort.class), eq(Set.of("name", "id"))))
+            .thenReturn(Stream.of(model(1L, "Sample1")));
+
+        // Act
+        String content = write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        assertEquals("\"Name\",\"ID\"\n\"Sample1\",\"1\"\n", content);
+        verify(sampleRepository, never()).streamSamples(any(), any(Sort.class));
+    }
+
+    @Test
+    void testStreamSamples_JsonWithColumns_WritesOnlyThoseFields() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("json");
+        form.setIndent(false);
+        form.setColumns(List.of("id", "name"));
+
+        when(sampleRepository.streamSamples(any(), any(Sort.class), any()))
+            .thenReturn(Stream.of(model(1L, "Sample1")));
+
+        // Act
+        String content = write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        assertEquals("[{\"id\":1,\"name\":\"Sample1\"}]", content);
+    }
+
+    @Test
+    void testStreamSamples_UnknownColumn_ThrowsBeforeStreaming() {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setColumns(List.of("id", "password"));
+
+        // Act & Assert
+        assertThrows(SampleExportService.UnsupportedExportColumnException.class,
+            () -> sampleExportService.streamSamples(form));
+        verifyNoInteractions(sampleRepository);
+    }
+
+    @Test
+    void testExportSamples_XmlWithColumns_WritesOnlyThoseFields() {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("xml");
+        form.setIndent(false);
+        form.setColumns(List.of("name"));
+
+        when(sampleRepository.findAll(any(org.springframework.data.domain.PageRequest.class)))
+            .thenReturn(new org.springframework.data.domain.PageImpl<>(sampleEntities));
+
+        // Act
+        ResponseEntity<byte[]> response = sampleExportService.exportSamples(form);
+
+        // Assert
+        String content = new String(response.getBody(), StandardCharsets.UTF_8);
+        assertTrue(content.contains("<samples><name>Sample1</name></samples>"));
+        assertFalse(content.contains("<id>"));
+        assertFalse(content.contains("<tags"));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testStreamSamples_WithSearchRequest_UsesSearchSort() throws Exception {
+        // Arrange
+        SortItem sortItem = new SortItem();
+        sortItem.setField("name");
+        sortItem.setSort("desc");
+        SampleSearchRequest searchRequest = new SampleSearchRequest();
+        searchRequest.setSortModel(Arrays.asList(sortItem));
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setSearchRequest(searchRequest);
+
+        when(sampleRepository.streamSamples(any(Specification.class), eq(Sort.by(Sort.Direction.DESC, "name"))))
+            .thenReturn(Stream.of(model(2L, "Sample2"), model(1L, "Sample1")));
+
+        // Act
+        String content = write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        assertTrue(content.indexOf("Sample2") < content.indexOf("Sample1"));
+    }
+
+    @Test
+    void testStreamSamples_Xlsx_WritesWorkbook() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("xlsx");
+        AtomicBoolean closed = new AtomicBoolean();
+
+        when(sampleRepository.streamSamples(isNull(), eq(Sort.by(Sort.Direction.ASC, "id"))))
+            .thenReturn(Stream.of(model(1L, "Sample1"), model(2L, "Sample2")).onClose(() -> closed.set(true)));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = sampleExportService.streamSamples(form);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+
+        // Assert
+        assertTrue(response.getHeaders().getContentType().toString().contains("spreadsheetml"));
+        assertTrue(closed.get());
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals("ID", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("Sample1", sheet.getRow(1).getCell(1).getStringCellValue());
+            assertEquals("Sample2", sheet.getRow(2).getCell(1).getStringCellValue());
+            assertNull(sheet.getRow(3));
+        }
+    }
+
+    @Test
+    void testStreamSamples_Ndjson_WritesOneSamplePerLine() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("ndjson");
+
+        when(sampleRepository.streamSamples(isNull(), eq(Sort.by(Sort.Direction.ASC, "id")), any()))
+            .thenReturn(Stream.of(model(1L, "Sample1"), model(2L, "Sample2")));
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = sampleExportService.streamSamples(form);
+        String content = write(response.getBody());
+
+        // Assert
+        assertTrue(response.getHeaders().getContentType().toString().contains("application/x-ndjson"));
+        String[] lines = content.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{\"id\":1,"));
+        assertTrue(lines[1].startsWith("{\"id\":2,"));
+        assertTrue(content.endsWith("}\n"));
+    }
+
+    @Test
+    void testStreamSamples_JsonWithoutColumns_ReadsAndWritesTags() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("json");
+        form.setIndent(false);
+        Sample sample = model(1L, "Sample1");
+        sample.setTags(Set.of(new Tag(7L, "red", null)));
+
+        when(sampleRepository.streamSamples(isNull(), any(Sort.class), argThat(fields -> fields.contains("tags"))))
+            .thenReturn(Stream.of(sample));
+
+        // Act
+        String content = write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        assertTrue(content.contains("\"tags\":[{"));
+        assertTrue(content.contains("\"name\":\"red\""));
+        verify(sampleRepository, never()).streamSamples(any(), any(Sort.class));
+    }
+
+    @Test
+    void testStreamSamples_JsonWithoutIndent_WritesCompactArray() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("json");
+        form.setIndent(false);
+
+        when(sampleRepository.streamSamples(any(), any(Sort.class), any()))
+            .thenReturn(Stream.of(model(1L, "Sample1"), model(2L, "Sample2")));
+
+        // Act
+        String content = write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        assertTrue(content.startsWith("[{\"id\":1,"));
+        assertTrue(content.contains("},{\"id\":2,"));
+        assertTrue(content.endsWith("}]"));
+        assertFalse(content.contains("\n"));
+    }
+
+    @Test
+    void testStreamSamples_Xml_WritesWrappedElements() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("xml");
+        form.setIndent(false);
+
+        when(sampleRepository.streamSamples(any(), any(Sort.class), any()))
+            .thenReturn(Stream.of(model(1L, "Sample1"), model(2L, "Sample2")));
+
+        // Act
+        String content = write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        assertTrue(content.startsWith("<SamplesWrapper><samples><samples><id>1</id><name>Sample1</name>"));
+        assertTrue(content.contains("</samples><samples><id>2</id><name>Sample2</name>"));
+        assertTrue(content.endsWith("</samples></samples></SamplesWrapper>"));
+    }
+
+    @Test
+    void testWriteExport_ReportsProgress() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        List<Long> progress = new java.util.ArrayList<>();
+
+        when(sampleRepository.streamSamples(any(), any(Sort.class)))
+            .thenReturn(Stream.of(model(1L, "Sample1"), model(2L, "Sample2")));
+
+        // Act
+        SampleExport export = sampleExportService.prepareExport(form);
+        sampleExportService.writeExport(export, new ByteArrayOutputStream(), progress::add);
+
+        // Assert
+        assertEquals(List.of(1L, 2L), progress);
+    }
+
+    @Test
+    void testCountExport_WithoutFilter_CountsEverySample() {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+
+        when(sampleRepository.count()).thenReturn(42L);
+
+        // Act & Assert
+        assertEquals(42L, sampleExportService.countExport(sampleExportService.prepareExport(form)));
+    }
+
+    @Test
+    void testStreamSamples_PartitionsWithoutPoolHeadroom_ReadsSingleCursor() throws Exception {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setPartitions(4);
+
+        when(sampleExportPartitioner.allowedPartitions(4)).thenReturn(1);
+        when(sampleRepository.streamSamples(isNull(), eq(Sort.by(Sort.Direction.ASC, "id"))))
+            .thenReturn(Stream.of(model(1L, "Sample1")));
+
+        // Act
+        String content = write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        assertTrue(content.contains("\"Sample1\""));
+        verify(sampleExportPartitioner, never()).partition(any(), anyInt());
+    }
+
+    @Test
+    void testStreamSamples_PartitionsWithNonIdSort_ReadsSingleCursor() throws Exception {
+        // Arrange
+        SortItem sortItem = new SortItem();
+        sortItem.setField("name");
+        sortItem.setSort("asc");
+        SampleSearchRequest searchRequest = new SampleSearchRequest();
+        searchRequest.setSortModel(Arrays.asList(sortItem));
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("ndjson");
+        form.setPartitions(4);
+        form.setSearchRequest(searchRequest);
+
+        when(sampleRepository.streamSamples(any(), any(Sort.class), any()))
+            .thenReturn(Stream.of(model(1L, "Sample1")));
+
+        // Act
+        write(sampleExportService.streamSamples(form).getBody());
+
+        // Assert
+        verifyNoInteractions(sampleExportPartitioner);
+    }
+
+    @Test
+    void testStreamSamples_UnsupportedFormat_ThrowsBeforeStreaming() {
+        // Arrange
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("pdf");
+
+        // Act & Assert
+        assertThrows(SampleExportService.UnsupportedExportFormatException.class,
+            () -> sampleExportService.streamSamples(form));
+        verify(sampleRepository, never()).streamSamples(any(), any());
+    }
+
+    private String write(StreamingResponseBody body) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private Sample model(Long id, String name) {
+        Sample sample = new Sample();
+        sample.setId(id);
+        sample.setName(name);
+        sample.setActive(true);
+        return sample;
+    }
 }
@@ -0,0 +1,196 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.models.SampleImportReport;
+import fr.tiogars.starter.sample.models.SampleImportReportItem;
+import fr.tiogars.starter.sample.services.SampleFileImportService.InvalidImportFileException;
+import fr.tiogars.starter.sample.services.SampleFileImportService.UnsupportedImportFormatException;
+
+@ExtendWith(MockitoExtension.class)
+class SampleFileImportServiceTest {
+
+    @Mock
+    private SampleImportService sampleImportService;
+
+    private List<String> importedNames;
+
+    @BeforeEach
+    void setUp() {
+        importedNames = new ArrayList<>();
+    }
+
+    /**
+     * Make the import drain the samples it is given, recording their names
+     */
+    @SuppressWarnings("unchecked")
+    private void drainImport() {
+        when(sampleImportService.importSamples(any(Iterator.class), eq("skip"), eq("full"))).thenAnswer(invocation -> {
+            Iterator<SampleCreateForm> samples = invocation.getArgument(0);
+            while (samples.hasNext()) {
+                importedNames.add(samples.next().getName());
+            }
+            return new SampleImportReport();
+        });
+    }
+
+    @Test
+    void testImportFile_Csv_ImportsRowsInOrderThroughSmallQueue() {
+        // Arrange
+        drainImport();
+        StringBuilder csv = new StringBuilder("Name,Active\n");
+        for (int i = 1; i <= 50; i++) {
+            csv.append("Sample").append(i).append(",true\n");
+        }
+        SampleFileImportService service = new SampleFileImportService(sampleImportService, 1);
+
+        // Act
+        service.importFile(file("samples.csv", csv.toString().getBytes(StandardCharsets.UTF_8)), null, null, null);
+
+        // Assert
+        assertEquals(50, importedNames.size());
+        assertEquals("Sample1", importedNames.get(0));
+        assertEquals("Sample50", importedNames.get(49));
+    }
+
+    @Test
+    void testImportFile_GzipNdjson_Decompressed() throws Exception {
+        // Arrange
+        drainImport();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write("{\"name\":\"Sample1\"}\n{\"name\":\"Sample2\"}\n".getBytes(StandardCharsets.UTF_8));
+        }
+        SampleFileImportService service = new SampleFileImportService(sampleImportService, 10);
+
+        // Act
+        service.importFile(file("samples.ndjson.gz", compressed.toByteArray()), null, null, null);
+
+        // Assert
+        assertEquals(List.of("Sample1", "Sample2"), importedNames);
+    }
+
+    @Test
+    void testImportFile_InvalidContent_ThrowsAfterReadSamples() {
+        // Arrange
+        drainImport();
+        SampleFileImportService service = new SampleFileImportService(sampleImportService, 10);
+        byte[] json = "[{\"name\":\"Sample1\"}, {\"name\": ]".getBytes(StandardCharsets.UTF_8);
+
+        // Act & Assert
+        assertThrows(InvalidImportFileException.class, () -> service.importFile(file("samples.txt", json), "json", null, null));
+        assertEquals(List.of("Sample1"), importedNames);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testImportFile_ImportFails_StopsReader() {
+        // Arrange: the import takes one sample then fails while the reader waits on a full queue
+        when(sampleImportService.importSamples(any(Iterator.class), eq("skip"), eq("full"))).thenAnswer(invocation -> {
+            Iterator<SampleCreateForm> samples = invocation.getArgument(0);
+            samples.next();
+            throw new IllegalStateException("Database unavailable");
+        });
+        StringBuilder csv = new StringBuilder("Name\n");
+        for (int i = 1; i <= 100; i++) {
+            csv.append("Sample").append(i).append('\n');
+        }
+        SampleFileImportService service = new SampleFileImportService(sampleImportService, 1);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+                () -> service.importFile(file("samples.csv", csv.toString().getBytes(StandardCharsets.UTF_8)), null, null, null));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testStreamFile_InvalidContent_WritesReadSamplesThenErrorReport() throws Exception {
+        // Arrange: report each imported sample
+        when(sampleImportService.importSamples(any(Iterator.class), eq("update"), eq("full"),
+                any(SampleImportReport.class), any(Consumer.class))).thenAnswer(invocation -> {
+                    Iterator<SampleCreateForm> samples = invocation.getArgument(0);
+                    SampleImportReport report = invocation.getArgument(3);
+                    Consumer<SampleImportReportItem> items = invocation.getArgument(4);
+                    while (samples.hasNext()) {
+                        String name = samples.next().getName();
+                        report.setTotalProvided(report.getTotalProvided() + 1);
+                        report.setTotalCreated(report.getTotalCreated() + 1);
+                        items.accept(new SampleImportReportItem(name, true, "Sample created successfully", "success"));
+                    }
+                    return report;
+                });
+        SampleFileImportService service = new SampleFileImportService(sampleImportService, 10);
+        byte[] json = "[{\"name\":\"Sample1\"}, {\"name\": ]".getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        service.streamFile(file("samples.json", json), null, "update", null).writeTo(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Sample1\""));
+        assertTrue(lines[1].contains("\"totalCreated\":1"));
+        assertTrue(lines[1].contains("\"alertLevel\":\"error\""));
+        assertTrue(lines[1].contains("Import failed after 1 samples: Invalid JSON file"));
+    }
+
+    @Test
+    void testStreamFile_UnsupportedReportMode_ThrowsBeforeStreaming() {
+        // Arrange
+        SampleFileImportService service = new SampleFileImportService(sampleImportService, 10);
+
+        // Act & Assert
+        assertThrows(SampleImportService.UnsupportedReportModeException.class,
+                () -> service.streamFile(file("samples.csv", new byte[0]), null, null, "all"));
+        verifyNoInteractions(sampleImportService);
+    }
+
+    @Test
+    void testImportFile_UnsupportedFormat_Throws() {
+        // Arrange
+        SampleFileImportService service = new SampleFileImportService(sampleImportService, 10);
+
+        // Act & Assert
+        assertThrows(UnsupportedImportFormatException.class,
+                () -> service.importFile(file("samples.xml", new byte[0]), null, null, null));
+        verifyNoInteractions(sampleImportService);
+    }
+
+    @Test
+    void testResolveFormat() {
+        assertEquals("csv", SampleFileImportService.resolveFormat(null, "samples.csv"));
+        assertEquals("xlsx", SampleFileImportService.resolveFormat("", "Samples.XLSX"));
+        assertEquals("ndjson", SampleFileImportService.resolveFormat(null, "samples.ndjson.gz"));
+        assertEquals("json", SampleFileImportService.resolveFormat(" JSON ", "samples.txt"));
+        assertThrows(UnsupportedImportFormatException.class,
+                () -> SampleFileImportService.resolveFormat(null, "samples"));
+        assertThrows(UnsupportedImportFormatException.class,
+                () -> SampleFileImportService.resolveFormat(null, null));
+        assertThrows(UnsupportedImportFormatException.class,
+                () -> SampleFileImportService.resolveFormat("xml", "samples.json"));
+    }
+
+    private static MockMultipartFile file(String filename, byte[] content) {
+        return new MockMultipartFile("file", filename, "application/octet-stream", content);
+    }
+}
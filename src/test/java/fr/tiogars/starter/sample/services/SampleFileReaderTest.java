@@ -0,0 +1,176 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.sample.services.SampleFileImportService.InvalidImportFileException;
+import fr.tiogars.starter.tag.models.Tag;
+
+class SampleFileReaderTest {
+
+    @Test
+    void testReadCsv_ExportLayout_ReadsNameDescriptionActiveAndTags() throws Exception {
+        // Arrange - the layout of a CSV export with the tags column
+        String csv = "\"ID\",\"Name\",\"Description\",\"Active\",\"Created At\",\"Tags\"\n"
+                + "\"1\",\"Sample1\",\"First, with a comma\",\"true\",\"Sat Jan 03 08:53:01 UTC 2026\",\"blue, red\"\n"
+                + "\n"
+                + "\"2\",\"Sample2\",\"\",\"false\",\"\",\"\"\n";
+
+        // Act
+        List<SampleCreateForm> forms = new ArrayList<>();
+        SampleFileReader.readCsv(stream(csv), forms::add);
+
+        // Assert
+        assertEquals(2, forms.size());
+        assertEquals("Sample1", forms.get(0).getName());
+        assertEquals("First, with a comma", forms.get(0).getDescription());
+        assertTrue(forms.get(0).isActive());
+        assertEquals(List.of("blue", "red"), List.copyOf(forms.get(0).getTagNames()));
+        assertEquals("Sample2", forms.get(1).getName());
+        assertNull(forms.get(1).getDescription());
+        assertFalse(forms.get(1).isActive());
+        assertTrue(forms.get(1).getTagNames().isEmpty());
+    }
+
+    @Test
+    void testReadCsv_ByteOrderMarkAndFieldHeaders() throws Exception {
+        // Act
+        List<SampleCreateForm> forms = new ArrayList<>();
+        SampleFileReader.readCsv(stream("\uFEFFname,active,colour\nSample1,TRUE,green\n"), forms::add);
+
+        // Assert
+        assertEquals(1, forms.size());
+        assertEquals("Sample1", forms.get(0).getName());
+        assertTrue(forms.get(0).isActive());
+    }
+
+    @Test
+    void testReadCsv_NoNameColumn_Throws() {
+        // Act & Assert
+        InvalidImportFileException e = assertThrows(InvalidImportFileException.class,
+            () -> SampleFileReader.readCsv(stream("ID,Description\n1,Text\n"), form -> { }));
+        assertTrue(e.getMessage().contains("Name"));
+    }
+
+    @Test
+    void testReadCsv_Empty_ReadsNothing() throws Exception {
+        // Act
+        List<SampleCreateForm> forms = new ArrayList<>();
+        SampleFileReader.readCsv(stream(""), forms::add);
+
+        // Assert
+        assertTrue(forms.isEmpty());
+    }
+
+    @Test
+    void testReadJson_ExportedDocument_RoundTrips() throws Exception {
+        // Arrange - a JSON export of two samples
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SampleDocumentWriter writer = SampleDocumentWriter.open("json", true, out);
+        writer.write(sample("Sample1", "First", true, "red", "blue"));
+        writer.write(sample("Sample2", null, false));
+        writer.finish();
+
+        // Act
+        List<SampleCreateForm> forms = new ArrayList<>();
+        SampleFileReader.readJson(new ByteArrayInputStream(out.toByteArray()), forms::add);
+
+        // Assert
+        assertEquals(2, forms.size());
+        assertEquals("Sample1", forms.get(0).getName());
+        assertEquals("First", forms.get(0).getDescription());
+        assertTrue(forms.get(0).isActive());
+        assertEquals(Set.of("red", "blue"), forms.get(0).getTagNames());
+        assertEquals("Sample2", forms.get(1).getName());
+        assertNull(forms.get(1).getDescription());
+        assertFalse(forms.get(1).isActive());
+    }
+
+    @Test
+    void testReadJson_ImportForm_ReadsSamplesField() throws Exception {
+        // Arrange
+        String json = "{\"comment\": {\"skipped\": [1, 2]}, \"samples\": ["
+                + "{\"name\": \"Sample1\", \"active\": true, \"tagNames\": [\"red\"]},"
+                + "{\"name\": \"Sample2\"}]}";
+
+        // Act
+        List<SampleCreateForm> forms = new ArrayList<>();
+        SampleFileReader.readJson(stream(json), forms::add);
+
+        // Assert
+        assertEquals(2, forms.size());
+        assertEquals(Set.of("red"), forms.get(0).getTagNames());
+        assertEquals("Sample2", forms.get(1).getName());
+    }
+
+    @Test
+    void testReadJson_NotAnArray_Throws() {
+        // Act & Assert
+        assertThrows(InvalidImportFileException.class,
+            () -> SampleFileReader.readJson(stream("\"samples\""), form -> { }));
+        assertThrows(InvalidImportFileException.class,
+            () -> SampleFileReader.readJson(stream("[{\"name\": \"Sample1\"}, 42]"), form -> { }));
+    }
+
+    @Test
+    void testReadJson_Malformed_ThrowsAfterReadSamples() {
+        // Arrange
+        List<SampleCreateForm> forms = new ArrayList<>();
+
+        // Act & Assert
+        InvalidImportFileException e = assertThrows(InvalidImportFileException.class,
+            () -> SampleFileReader.readJson(stream("[{\"name\": \"Sample1\"}, {\"name\": ]"), forms::add));
+        assertTrue(e.getMessage().contains("after sample 1"));
+        assertEquals(1, forms.size());
+    }
+
+    @Test
+    void testReadNdjson_ExportedDocument_RoundTrips() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SampleDocumentWriter writer = SampleDocumentWriter.open("ndjson", false, out);
+        writer.write(sample("Sample1", "First", true, "red"));
+        writer.write(sample("Sample2", "Second", true));
+        writer.finish();
+
+        // Act
+        List<SampleCreateForm> forms = new ArrayList<>();
+        SampleFileReader.readNdjson(new ByteArrayInputStream(out.toByteArray()), forms::add);
+
+        // Assert
+        assertEquals(List.of("Sample1", "Sample2"), forms.stream().map(SampleCreateForm::getName).toList());
+        assertEquals(Set.of("red"), forms.get(0).getTagNames());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Sample sample(String name, String description, boolean active, String... tagNames) {
+        Sample sample = new Sample();
+        sample.setId(1L);
+        sample.setName(name);
+        sample.setDescription(description);
+        sample.setActive(active);
+        sample.setCreatedAt(new Date());
+        sample.setCreatedBy("admin");
+        List<Tag> tags = new ArrayList<>();
+        for (String tagName : tagNames) {
+            tags.add(new Tag((long) tags.size() + 1, tagName));
+        }
+        sample.setTags(Set.copyOf(tags));
+        return sample;
+    }
+}
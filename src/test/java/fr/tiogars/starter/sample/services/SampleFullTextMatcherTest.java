@@ -0,0 +1,35 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SampleFullTextMatcherTest {
+
+    @Test
+    void testTerms_SplitsOnWhitespaceAndLowerCases() {
+        assertEquals(List.of("alpha", "beta"), SampleFullTextMatcher.terms("  Alpha\tBETA "));
+    }
+
+    @Test
+    void testTerms_DropsBooleanModeOperators() {
+        assertEquals(List.of("alpha", "beta", "gamma"), SampleFullTextMatcher.terms("+alpha -\"beta\" (gamma*)"));
+    }
+
+    @Test
+    void testTerms_FlattensCollections() {
+        assertEquals(List.of("alpha", "beta", "gamma"),
+                SampleFullTextMatcher.terms(Arrays.asList("alpha beta", null, "gamma")));
+    }
+
+    @Test
+    void testTerms_NoTerms_ReturnsNull() {
+        assertNull(SampleFullTextMatcher.terms("  + - "));
+        assertNull(SampleFullTextMatcher.terms(List.of()));
+        assertNull(SampleFullTextMatcher.terms(null));
+    }
+}
@@ -0,0 +1,104 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.forms.SampleGenerateForm;
+import fr.tiogars.starter.sample.models.SampleGenerateReport;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+
+/**
+ * Integration tests for generations written in blocks of 7 samples by concurrent workers.
+ */
+@SpringBootTest(properties = "sample.generate.batch-size=7")
+@ActiveProfiles("test")
+class SampleGenerateIntegrationTest {
+
+    @Autowired
+    private SampleGenerateService sampleGenerateService;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampleRepository.deleteAll();
+    }
+
+    @Test
+    void testGenerate_InsertsSamplesWithTags() {
+        // Arrange
+        SampleGenerateForm form = form(50, 11L);
+        List<SampleGenerateReport> progress = new ArrayList<>();
+
+        // Act
+        SampleGenerateReport report = sampleGenerateService.generate(form, progress::add);
+
+        // Assert
+        assertEquals(SampleGenerateService.COMPLETED, report.getStatus());
+        assertEquals(50, report.getGenerated());
+        assertEquals(50, sampleRepository.count());
+        SampleEntity last = sampleRepository.findByName("it-11-50").orElseThrow();
+        assertNotNull(last.getCreatedAt());
+        assertTrue(jdbcTemplate.queryForObject("select count(*) from sample_sample_tag", Long.class) > 0);
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from sample_sample_tag l "
+                + "join sample_tag t on t.id = l.tag_id where t.name not like 'it-tag-%'", Long.class));
+    }
+
+    @Test
+    void testGenerate_SameSeedTwice_Throws() {
+        // Arrange
+        sampleGenerateService.generate(form(10, 12L), progress -> { });
+
+        // Act & Assert
+        assertThrows(SampleGenerateService.SampleGenerateConflictException.class,
+                () -> sampleGenerateService.generate(form(10, 12L), progress -> { }));
+        assertEquals(10, sampleRepository.count());
+    }
+
+    @Test
+    void testStreamGenerate_WritesOutcomeLast() throws Exception {
+        // Arrange
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        sampleGenerateService.streamGenerate(form(20, 13L)).writeTo(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertTrue(lines[lines.length - 1].contains("\"status\":\"completed\""));
+        assertTrue(lines[lines.length - 1].contains("\"generated\":20"));
+        assertEquals(20, sampleRepository.count());
+    }
+
+    private static SampleGenerateForm form(long numberOfSamples, long seed) {
+        SampleGenerateForm form = new SampleGenerateForm();
+        form.setNumberOfSamples(numberOfSamples);
+        form.setSeed(seed);
+        form.setNamePrefix("it");
+        form.setTagCount(5);
+        form.setWorkers(3);
+        return form;
+    }
+}
@@ -0,0 +1,229 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
+import fr.tiogars.starter.sample.forms.SampleGenerateForm;
+import fr.tiogars.starter.sample.models.SampleGenerateReport;
+import fr.tiogars.starter.sample.repositories.SampleBatchRepository;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import fr.tiogars.starter.tag.services.TagService;
+
+class SampleGenerateServiceTest {
+
+    private SampleBatchRepository sampleBatchRepository;
+    private SampleRepository sampleRepository;
+    private TagService tagService;
+    private ApplicationEventPublisher eventPublisher;
+    private SampleGenerateService sampleGenerateService;
+    private List<SampleEntity> inserted;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        sampleBatchRepository = mock(SampleBatchRepository.class);
+        sampleRepository = mock(SampleRepository.class);
+        tagService = mock(TagService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        sampleGenerateService = new SampleGenerateService(sampleBatchRepository, sampleRepository, tagService,
+                eventPublisher, mock(PlatformTransactionManager.class), 10);
+
+        // Blocks are inserted concurrently by the workers
+        inserted = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            inserted.addAll(invocation.<List<SampleEntity>>getArgument(0));
+            return null;
+        }).when(sampleBatchRepository).insertAll(anyList());
+        when(tagService.findOrCreateTags(anyList())).thenAnswer(invocation -> {
+            List<TagEntity> tags = new ArrayList<>();
+            long id = 1;
+            for (String name : (List<String>) invocation.getArgument(0)) {
+                TagEntity tag = new TagEntity(name);
+                tag.setId(id++);
+                tags.add(tag);
+            }
+            return tags;
+        });
+    }
+
+    private static SampleGenerateForm form(long numberOfSamples, Long seed) {
+        SampleGenerateForm form = new SampleGenerateForm();
+        form.setNumberOfSamples(numberOfSamples);
+        form.setSeed(seed);
+        form.setWorkers(3);
+        return form;
+    }
+
+    private List<SampleEntity> generate(SampleGenerateForm form) {
+        inserted.clear();
+        sampleGenerateService.generate(form, progress -> { });
+        List<SampleEntity> samples = new ArrayList<>(inserted);
+        samples.sort(Comparator.comparing(SampleEntity::getName));
+        return samples;
+    }
+
+    /**
+     * @return The generated values that do not depend on the time of the generation
+     */
+    private static List<String> values(List<SampleEntity> samples) {
+        return samples.stream()
+                .map(sample -> sample.getName() + "|" + sample.getDescription() + "|" + sample.isActive() + "|"
+                        + sample.getCreatedBy() + "|" + sample.getUpdatedBy() + "|"
+                        + sample.getTags().stream().map(TagEntity::getName).sorted().toList())
+                .toList();
+    }
+
+    @Test
+    void testGenerate_InsertsEveryBlock() {
+        // Act
+        SampleGenerateReport report = sampleGenerateService.generate(form(25, 42L), progress -> { });
+
+        // Assert
+        assertEquals(SampleGenerateService.COMPLETED, report.getStatus());
+        assertEquals(42L, report.getSeed());
+        assertEquals(25, report.getRequested());
+        assertEquals(25, report.getGenerated());
+        assertEquals(50, report.getTags());
+        assertEquals(3, report.getWorkers());
+        assertTrue(report.getMessage().startsWith("Generated 25 samples"));
+        verify(sampleBatchRepository, times(3)).insertAll(anyList());
+        assertEquals(25, inserted.stream().map(SampleEntity::getName).distinct().count());
+        assertTrue(inserted.stream().anyMatch(sample -> "gen-42-1".equals(sample.getName())));
+        assertTrue(inserted.stream().anyMatch(sample -> "gen-42-25".equals(sample.getName())));
+        verify(eventPublisher, times(1)).publishEvent(any(SampleChangedEvent.class));
+    }
+
+    @Test
+    void testGenerate_SameSeed_GeneratesSameSamples() {
+        // Act
+        List<String> first = values(generate(form(95, 7L)));
+        List<String> second = values(generate(form(95, 7L)));
+        List<String> other = values(generate(form(95, 8L)));
+
+        // Assert: the workers taking the blocks in another order do not change them
+        assertEquals(first, second);
+        assertNotEquals(first.stream().map(value -> value.substring(value.indexOf('|'))).toList(),
+                other.stream().map(value -> value.substring(value.indexOf('|'))).toList());
+    }
+
+    @Test
+    void testGenerate_MissingSeed_ReportsRandomSeed() {
+        // Act
+        SampleGenerateReport report = sampleGenerateService.generate(form(5, null), progress -> { });
+
+        // Assert
+        assertTrue(inserted.stream().allMatch(
+                sample -> sample.getName().startsWith("gen-" + report.getSeed() + "-")));
+    }
+
+    @Test
+    void testGenerate_FollowsDistributions() {
+        // Arrange
+        SampleGenerateForm form = form(2000, 1L);
+        form.setActiveRatio(0.25);
+        form.setDays(30);
+        form.setTagCount(20);
+        form.setMaxTagsPerSample(2);
+        long start = System.currentTimeMillis();
+
+        // Act
+        List<SampleEntity> samples = generate(form);
+
+        // Assert
+        long active = samples.stream().filter(SampleEntity::isActive).count();
+        assertTrue(active > 400 && active < 600, "Active samples: " + active);
+        for (SampleEntity sample : samples) {
+            assertTrue(sample.getTags().size() <= 2);
+            assertTrue(sample.getCreatedAt().getTime() > start - TimeUnit.DAYS.toMillis(30) - 1000);
+            assertFalse(sample.getUpdatedAt().before(sample.getCreatedAt()));
+            assertTrue(sample.getCreatedBy().startsWith("user-"));
+        }
+        // The first tags and users are the most used
+        long firstTag = samples.stream().filter(sample -> sample.getTags().stream()
+                .anyMatch(tag -> "gen-tag-1".equals(tag.getName()))).count();
+        long lastTag = samples.stream().filter(sample -> sample.getTags().stream()
+                .anyMatch(tag -> "gen-tag-20".equals(tag.getName()))).count();
+        assertTrue(firstTag > lastTag);
+        long firstUser = samples.stream().filter(sample -> "user-1".equals(sample.getCreatedBy())).count();
+        long lastUser = samples.stream().filter(sample -> "user-20".equals(sample.getCreatedBy())).count();
+        assertTrue(firstUser > lastUser);
+    }
+
+    @Test
+    void testGenerate_NoTags_GeneratesUntaggedSamples() {
+        // Arrange
+        SampleGenerateForm form = form(20, 3L);
+        form.setTagCount(0);
+
+        // Act
+        List<SampleEntity> samples = generate(form);
+
+        // Assert
+        assertEquals(20, samples.size());
+        assertTrue(samples.stream().allMatch(sample -> sample.getTags().isEmpty()));
+    }
+
+    @Test
+    void testGenerate_SeedAlreadyGenerated_Throws() {
+        // Arrange
+        when(sampleRepository.findByName("gen-42-1")).thenReturn(Optional.of(new SampleEntity()));
+
+        // Act & Assert
+        assertThrows(SampleGenerateService.SampleGenerateConflictException.class,
+                () -> sampleGenerateService.generate(form(25, 42L), progress -> { }));
+        verify(sampleBatchRepository, never()).insertAll(anyList());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void testGenerate_BlockFails_StopsWorkersAndReportsFailure() {
+        // Arrange
+        doAnswer(invocation -> {
+            inserted.addAll(invocation.<List<SampleEntity>>getArgument(0));
+            return null;
+        }).doThrow(new RuntimeException("Lock wait timeout"))
+                .when(sampleBatchRepository).insertAll(anyList());
+        SampleGenerateForm form = form(1000, 5L);
+        form.setWorkers(1);
+
+        // Act
+        SampleGenerateReport report = sampleGenerateService.generate(form, progress -> { });
+
+        // Assert
+        assertEquals(SampleGenerateService.FAILED, report.getStatus());
+        assertEquals(10, report.getGenerated());
+        assertEquals("Generation failed after 10 samples: Lock wait timeout", report.getMessage());
+        verify(sampleBatchRepository, times(2)).insertAll(anyList());
+        // The block committed before the failure is kept
+        verify(eventPublisher, times(1)).publishEvent(any(SampleChangedEvent.class));
+    }
+
+    @Test
+    void testGenerate_NoBlockWritten_PublishesNothing() {
+        // Arrange
+        doThrow(new RuntimeException("Lock wait timeout")).when(sampleBatchRepository).insertAll(anyList());
+
+        // Act
+        SampleGenerateReport report = sampleGenerateService.generate(form(25, 42L), progress -> { });
+
+        // Assert
+        assertEquals(SampleGenerateService.FAILED, report.getStatus());
+        verifyNoInteractions(eventPublisher);
+    }
+}
@@ -0,0 +1,243 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.forms.SampleExportForm;
+import fr.tiogars.starter.sample.forms.SampleImportForm;
+import fr.tiogars.starter.sample.models.SampleImportReport;
+import fr.tiogars.starter.sample.models.SampleImportReportItem;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import fr.tiogars.starter.tag.repositories.TagRepository;
+
+/**
+ * Integration tests for imports written in chunks of 3 samples with batched statements.
+ * Not transactional: each chunk is committed in its own transaction.
+ */
+@SpringBootTest(properties = "sample.import.chunk-size=3")
+@ActiveProfiles("test")
+class SampleImportIntegrationTest {
+
+    @Autowired
+    private SampleImportService sampleImportService;
+
+    @Autowired
+    private SampleFileImportService sampleFileImportService;
+
+    @Autowired
+    private SampleExportService sampleExportService;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository.deleteAll();
+        Date now = new Date();
+        SampleEntity existing = new SampleEntity();
+        existing.setName("Existing");
+        existing.setCreatedAt(now);
+        existing.setCreatedBy("admin");
+        existing.setUpdatedAt(now);
+        existing.setUpdatedBy("admin");
+        sampleRepository.save(existing);
+        tagRepository.save(new TagEntity("imp-red"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampleRepository.deleteAll();
+        jdbcTemplate.update("delete from sample_tag where name like 'imp-%'");
+    }
+
+    @Test
+    void testImportSamples_AcrossChunks_ReportsEverySample() {
+        List<SampleCreateForm> samples = new ArrayList<>();
+        samples.add(form("Imp1", "imp-red"));
+        samples.add(form("Existing"));
+        samples.add(form("Imp2", "imp-red", "imp-blue"));
+        samples.add(form("Imp1"));
+        samples.add(form("Far too long name"));
+        samples.add(form("Imp3", "imp-blue"));
+        samples.add(form("Imp4"));
+
+        SampleImportReport report = sampleImportService.importSamples(importForm(samples));
+
+        assertEquals(7, report.getTotalProvided());
+        assertEquals(4, report.getTotalCreated());
+        assertEquals(2, report.getTotalDuplicates());
+        assertEquals(1, report.getTotalErrors());
+        assertEquals(0, report.getTotalSkipped());
+        assertEquals(List.of("Imp1", "Existing", "Imp2", "Imp1", "Far too long name", "Imp3", "Imp4"),
+                report.getItems().stream().map(SampleImportReportItem::getName).toList());
+        assertEquals(List.of("success", "info", "success", "info", "error", "success", "success"),
+                report.getItems().stream().map(SampleImportReportItem::getAlertLevel).toList());
+        assertTrue(report.getItems().get(4).getMessage().startsWith("Validation failed: "));
+
+        assertEquals(5, sampleRepository.count());
+        assertEquals("Description of Imp2", sampleRepository.findByName("Imp2").orElseThrow().getDescription());
+        assertEquals("system", sampleRepository.findByName("Imp4").orElseThrow().getCreatedBy());
+        assertEquals(Set.of("imp-red", "imp-blue"), Set.copyOf(tagNames("Imp2")));
+        assertEquals(List.of("imp-blue"), tagNames("Imp3"));
+        assertEquals(1, tagRepository.findByNameIn(List.of("imp-blue")).size());
+    }
+
+    @Test
+    void testImportSamples_SecondImport_AllDuplicates() {
+        List<SampleCreateForm> samples = List.of(form("Imp1"), form("Imp2"), form("Imp3"), form("Imp4"));
+        sampleImportService.importSamples(importForm(samples));
+
+        SampleImportReport report = sampleImportService.importSamples(importForm(samples));
+
+        assertEquals(0, report.getTotalCreated());
+        assertEquals(4, report.getTotalDuplicates());
+        assertEquals("No samples imported. All 4 samples already exist", report.getMessage());
+        assertEquals(5, sampleRepository.count());
+    }
+
+    @Test
+    void testImportSamples_UpdateMode_UpsertsAcrossChunks() {
+        sampleImportService.importSamples(importForm(List.of(form("Imp1", "imp-red"), form("Imp2"))));
+        SampleEntity imp1 = sampleRepository.findByName("Imp1").orElseThrow();
+        SampleCreateForm changed = form("Imp1", "imp-blue");
+        changed.setDescription("Changed");
+        changed.setActive(false);
+        SampleImportForm form = importForm(List.of(changed, form("Existing"), form("Imp3", "imp-red"), form("Imp2")));
+        form.setOnConflict("update");
+
+        SampleImportReport report = sampleImportService.importSamples(form);
+
+        assertEquals(1, report.getTotalCreated());
+        assertEquals(3, report.getTotalUpdated());
+        assertEquals("Successfully imported 4 of 4 samples. 3 updated", report.getMessage());
+        assertEquals(List.of(false, false, true, false),
+                report.getItems().stream().map(SampleImportReportItem::isCreated).toList());
+        assertEquals(4, sampleRepository.count());
+        SampleEntity updated = sampleRepository.findByName("Imp1").orElseThrow();
+        assertEquals(imp1.getId(), updated.getId());
+        assertEquals("Changed", updated.getDescription());
+        assertFalse(updated.isActive());
+        assertEquals(imp1.getCreatedAt(), updated.getCreatedAt());
+        assertEquals(List.of("imp-blue"), tagNames("Imp1"));
+        assertEquals(List.of("imp-red"), tagNames("Imp3"));
+        assertEquals("Description of Existing", sampleRepository.findByName("Existing").orElseThrow().getDescription());
+    }
+
+    @Test
+    void testImportSamples_FailMode_KeepsChunksBeforeUsedName() {
+        SampleImportForm form = importForm(List.of(form("Imp1"), form("Imp2"), form("Imp3"), form("Imp4"),
+                form("Existing")));
+        form.setOnConflict("fail");
+
+        assertThrows(SampleImportService.SampleImportConflictException.class,
+                () -> sampleImportService.importSamples(form));
+
+        assertEquals(4, sampleRepository.count());
+        assertTrue(sampleRepository.findByName("Imp4").isEmpty());
+    }
+
+    @Test
+    void testImportFile_FailModeSameNameFurtherApartThanChunk_ReportedAsDuplicate() {
+        // Arrange: chunks of 3, the second Imp1 is in the second chunk
+        String csv = "Name\nImp1\nImp2\nImp3\nImp4\nImp1\n";
+
+        // Act
+        SampleImportReport report = sampleFileImportService.importFile(new MockMultipartFile("file", "samples.csv",
+                null, csv.getBytes(StandardCharsets.UTF_8)), null, "fail", null);
+
+        // Assert
+        assertEquals(4, report.getTotalCreated());
+        assertEquals(1, report.getTotalDuplicates());
+        assertEquals("Sample with name 'Imp1' appears more than once in the import",
+                report.getItems().get(4).getMessage());
+        assertEquals(5, sampleRepository.count());
+    }
+
+    @Test
+    void testImportFile_ExportedFiles_RoundTrip() {
+        sampleImportService.importSamples(importForm(List.of(form("Imp1", "imp-red", "imp-blue"), form("Imp2"))));
+        for (String format : List.of("csv", "xlsx", "json", "ndjson")) {
+            SampleExportForm exportForm = new SampleExportForm();
+            exportForm.setFormat(format);
+            exportForm.setColumns(List.of("name", "description", "active", "tags"));
+            byte[] export = sampleExportService.exportSamples(exportForm).getBody();
+            sampleRepository.deleteAll();
+
+            SampleImportReport report = sampleFileImportService.importFile(
+                    new MockMultipartFile("file", "samples." + format, null, export), null, null, null);
+
+            assertEquals(3, report.getTotalCreated(), format);
+            assertEquals("Description of Imp1", sampleRepository.findByName("Imp1").orElseThrow().getDescription());
+            assertTrue(sampleRepository.findByName("Imp2").orElseThrow().isActive(), format);
+            assertEquals(Set.of("imp-red", "imp-blue"), Set.copyOf(tagNames("Imp1")), format);
+        }
+    }
+
+    @Test
+    void testStreamFile_ErrorsOnly_WritesInvalidSamplesThenReport() throws Exception {
+        // Arrange: 7 rows over 3 chunks, the fifth one without a name
+        StringBuilder csv = new StringBuilder("Name,Active\n");
+        for (int i = 1; i <= 7; i++) {
+            csv.append(i == 5 ? "" : "Imp" + i).append(",true\n");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        sampleFileImportService.streamFile(new MockMultipartFile("file", "samples.csv", null,
+                csv.toString().getBytes(StandardCharsets.UTF_8)), null, null, "errorsOnly").writeTo(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("Validation failed"));
+        assertTrue(lines[1].contains("\"totalCreated\":6"));
+        assertTrue(lines[1].contains("\"totalErrors\":1"));
+        assertTrue(lines[1].contains("\"items\":[]"));
+        assertEquals(7, sampleRepository.count());
+    }
+
+    private List<String> tagNames(String sampleName) {
+        return jdbcTemplate.queryForList("select t.name from sample_sample_tag st "
+                + "join sample s on s.id = st.sample_id join sample_tag t on t.id = st.tag_id where s.name = ?",
+                String.class, sampleName);
+    }
+
+    private static SampleCreateForm form(String name, String... tagNames) {
+        SampleCreateForm form = new SampleCreateForm();
+        form.setName(name);
+        form.setDescription("Description of " + name);
+        form.setActive(true);
+        form.setTagNames(Set.of(tagNames));
+        return form;
+    }
+
+    private static SampleImportForm importForm(List<SampleCreateForm> samples) {
+        SampleImportForm form = new SampleImportForm();
+        form.setSamples(samples);
+        return form;
+    }
+}
@@ -0,0 +1,202 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import fr.tiogars.starter.sample.entities.SampleImportJobEntity;
+import fr.tiogars.starter.sample.models.SampleImportJob;
+import fr.tiogars.starter.sample.repositories.SampleImportJobRepository;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.sample.services.SampleImportJobService.ImportJobStatusException;
+
+/**
+ * Integration tests for import jobs written in chunks of 3 samples, each chunk saving the job checkpoint.
+ */
+@SpringBootTest(properties = "sample.import.chunk-size=3")
+@ActiveProfiles("test")
+class SampleImportJobIntegrationTest {
+
+    @TempDir
+    static Path directory;
+
+    @DynamicPropertySource
+    static void jobProperties(DynamicPropertyRegistry registry) {
+        registry.add("sample.import.jobs.directory", () -> directory.toString());
+    }
+
+    @Autowired
+    private SampleImportJobService sampleImportJobService;
+
+    @Autowired
+    private SampleImportJobRepository jobRepository;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository.deleteAll();
+        jobRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampleRepository.deleteAll();
+        jobRepository.deleteAll();
+    }
+
+    @Test
+    void testSubmit_ImportsFileAndDeletesIt() throws Exception {
+        // Arrange
+        StringBuilder csv = new StringBuilder("Name,Active\n");
+        for (int i = 1; i <= 7; i++) {
+            csv.append("Job").append(i).append(",true\n");
+        }
+
+        // Act
+        SampleImportJob submitted = sampleImportJobService.submit(file("samples.csv", csv.toString()), null, null);
+        SampleImportJob job = awaitFinished(submitted.getId());
+
+        // Assert
+        assertEquals(SampleImportJobService.COMPLETED, job.getStatus());
+        assertEquals("csv", job.getFormat());
+        assertEquals("skip", job.getOnConflict());
+        assertEquals(7, job.getRowsCommitted());
+        assertEquals(7, job.getReport().getTotalCreated());
+        assertEquals("Successfully imported 7 of 7 samples", job.getReport().getMessage());
+        assertFalse(job.isResumable());
+        assertNull(job.getRowsPerSecond());
+        assertEquals(7, sampleRepository.count());
+        assertFalse(Files.exists(directory.resolve(submitted.getId() + ".import")));
+    }
+
+    @Test
+    void testSubmit_UpdateMode_UpdatesExistingSamples() throws Exception {
+        // Arrange
+        awaitFinished(sampleImportJobService.submit(file("first.csv", "Name,Description\nJob1,First\n"), null, null)
+                .getId());
+
+        // Act
+        SampleImportJob submitted = sampleImportJobService.submit(
+                file("second.csv", "Name,Description\nJob1,Second\nJob2,Other\n"), null, "update");
+        SampleImportJob job = awaitFinished(submitted.getId());
+
+        // Assert
+        assertEquals(SampleImportJobService.COMPLETED, job.getStatus());
+        assertEquals("update", job.getOnConflict());
+        assertEquals(1, job.getReport().getTotalCreated());
+        assertEquals(1, job.getReport().getTotalUpdated());
+        assertEquals("Second", sampleRepository.findByName("Job1").orElseThrow().getDescription());
+        assertEquals(2, sampleRepository.count());
+    }
+
+    @Test
+    void testResume_FailedJob_ImportsRowsAfterCheckpoint() throws Exception {
+        // Arrange: the file breaks after 7 samples, 2 chunks of 3 are committed
+        SampleImportJob submitted = sampleImportJobService.submit(file("samples.json", json(7) + ", {\"name\": ]"), null, null);
+        SampleImportJob failed = awaitFinished(submitted.getId());
+        assertEquals(SampleImportJobService.FAILED, failed.getStatus());
+        assertTrue(failed.getError().startsWith("Invalid JSON file"));
+        assertEquals(6, failed.getRowsCommitted());
+        assertEquals(6, failed.getReport().getTotalCreated());
+        assertTrue(failed.isResumable());
+
+        // Fix the stored file, which now holds 9 samples
+        Files.writeString(directory.resolve(submitted.getId() + ".import"), json(9) + "]", StandardCharsets.UTF_8);
+
+        // Act
+        SampleImportJob resumed = sampleImportJobService.resume(submitted.getId());
+        SampleImportJob job = awaitFinished(resumed.getId());
+
+        // Assert: the committed rows are skipped, not reported as duplicates
+        assertEquals(SampleImportJobService.COMPLETED, job.getStatus());
+        assertNull(job.getError());
+        assertEquals(9, job.getRowsCommitted());
+        assertEquals(9, job.getReport().getTotalCreated());
+        assertEquals(0, job.getReport().getTotalDuplicates());
+        assertEquals(9, sampleRepository.count());
+    }
+
+    @Test
+    void testResume_CompletedJob_Throws() throws Exception {
+        // Arrange
+        SampleImportJob submitted = sampleImportJobService.submit(file("samples.ndjson", "{\"name\": \"Job1\"}\n"), null, null);
+        awaitFinished(submitted.getId());
+
+        // Act & Assert
+        assertThrows(ImportJobStatusException.class, () -> sampleImportJobService.resume(submitted.getId()));
+        assertNull(sampleImportJobService.resume("unknown"));
+    }
+
+    @Test
+    void testInterruptLeftoverJobs_MarksRunningJobsInterrupted() {
+        // Arrange: a job left running by a stopped instance
+        SampleImportJobEntity entity = new SampleImportJobEntity();
+        entity.setId("leftover");
+        entity.setStatus(SampleImportJobService.RUNNING);
+        entity.setFormat("csv");
+        entity.setRowsCommitted(500);
+        entity.setTotalCreated(500);
+        entity.setSubmittedAt(new Date());
+        jobRepository.save(entity);
+
+        // Act
+        sampleImportJobService.interruptLeftoverJobs();
+
+        // Assert
+        SampleImportJob job = sampleImportJobService.getJob("leftover");
+        assertEquals(SampleImportJobService.INTERRUPTED, job.getStatus());
+        assertEquals(500, job.getRowsCommitted());
+        assertNotNull(job.getCompletedAt());
+        // Its file is gone
+        assertFalse(job.isResumable());
+    }
+
+    @Test
+    void testSubscribe_UnknownJob_ReturnsNull() {
+        assertNull(sampleImportJobService.subscribe("unknown"));
+        assertNull(sampleImportJobService.getJob("unknown"));
+    }
+
+    private SampleImportJob awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        SampleImportJob job = sampleImportJobService.getJob(id);
+        while (SampleImportJobService.QUEUED.equals(job.getStatus())
+                || SampleImportJobService.RUNNING.equals(job.getStatus())) {
+            assertTrue(System.currentTimeMillis() < deadline, "Import job did not finish");
+            Thread.sleep(20);
+            job = sampleImportJobService.getJob(id);
+        }
+        return job;
+    }
+
+    /**
+     * @return The start of a JSON array of samples, without its end
+     */
+    private static String json(int count) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 1; i <= count; i++) {
+            json.append(i > 1 ? ", " : "").append("{\"name\": \"Job").append(i).append("\"}");
+        }
+        return json.toString();
+    }
+
+    private static MockMultipartFile file(String filename, String content) {
+        return new MockMultipartFile("file", filename, null, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
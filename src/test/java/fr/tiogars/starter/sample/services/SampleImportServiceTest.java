@@ -3,23 +3,39 @@ package fr.tiogars.starter.sample.services;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
 import fr.tiogars.starter.sample.forms.SampleCreateForm;
 import fr.tiogars.starter.sample.forms.SampleImportForm;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.sample.models.SampleImportReport;
+import fr.tiogars.starter.sample.repositories.SampleBatchRepository;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.sample.repositories.SampleSearchCapabilities;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import fr.tiogars.starter.tag.models.Tag;
+import fr.tiogars.starter.tag.services.TagService;
 import jakarta.validation.ConstraintViolationException;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,16 +47,46 @@ class SampleImportServiceTest {
     @Mock
     private SampleCreateService sampleCreateService;
 
-    @InjectMocks
+    @Mock
+    private SampleBatchRepository sampleBatchRepository;
+
+    @Mock
+    private TagService tagService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SampleSearchCapabilities searchCapabilities;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     private SampleImportService sampleImportService;
 
     private SampleImportForm importForm;
     private SampleCreateForm sampleForm1;
     private SampleCreateForm sampleForm2;
-    private Sample createdSample;
 
     @BeforeEach
     void setUp() {
+        sampleImportService = newService(500);
+
+        // Convert forms as the create service does
+        lenient().when(sampleCreateService.toModel(any(SampleCreateForm.class))).thenAnswer(invocation -> {
+            SampleCreateForm form = invocation.getArgument(0);
+            Sample sample = new Sample();
+            sample.setName(form.getName());
+            sample.setDescription(form.getDescription());
+            sample.setActive(form.isActive());
+            if (form.getTagNames() != null && !form.getTagNames().isEmpty()) {
+                Set<Tag> tags = new HashSet<>();
+                form.getTagNames().forEach(name -> tags.add(new Tag(null, name)));
+                sample.setTags(tags);
+            }
+            return sample;
+        });
+
         // Setup sample forms
         sampleForm1 = new SampleCreateForm();
         sampleForm1.setName("Sample1");
@@ -55,32 +101,43 @@ class SampleImportServiceTest {
         // Setup import form
         importForm = new SampleImportForm();
         importForm.setSamples(Arrays.asList(sampleForm1, sampleForm2));
+    }
+
+    private SampleImportService newService(int chunkSize) {
+        return new SampleImportService(sampleRepository, sampleCreateService, sampleBatchRepository, tagService,
+                eventPublisher, searchCapabilities, transactionManager, chunkSize);
+    }
 
-        // Setup created sample
-        createdSample = new Sample();
-        createdSample.setId(1L);
-        createdSample.setName("Sample1");
-        createdSample.setDescription("Description 1");
-        createdSample.setActive(true);
+    private static SampleCreateForm form(String name) {
+        SampleCreateForm form = new SampleCreateForm();
+        form.setName(name);
+        form.setDescription("Description of " + name);
+        return form;
+    }
+
+    /**
+     * Make the given sample names fail validation
+     */
+    private void rejectNames(String... names) {
+        Set<String> rejected = Set.of(names);
+        doAnswer(invocation -> {
+            Sample sample = invocation.getArgument(0);
+            if (rejected.contains(sample.getName())) {
+                throw new ConstraintViolationException("Validation failed", null);
+            }
+            return null;
+        }).when(sampleCreateService).validate(any(Sample.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<SampleEntity> insertedSamples(int times) {
+        ArgumentCaptor<List<SampleEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(sampleBatchRepository, times(times)).insertAll(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
     }
 
     @Test
     void testImportSamples_AllNew_AllCreated() {
-        // Arrange
-        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.empty());
-        when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
-        
-        Sample sample1 = new Sample();
-        sample1.setId(1L);
-        sample1.setName("Sample1");
-        
-        Sample sample2 = new Sample();
-        sample2.setId(2L);
-        sample2.setName("Sample2");
-        
-        when(sampleCreateService.create(sampleForm1)).thenReturn(sample1);
-        when(sampleCreateService.create(sampleForm2)).thenReturn(sample2);
-
         // Act
         SampleImportReport report = sampleImportService.importSamples(importForm);
 
@@ -93,33 +150,26 @@ class SampleImportServiceTest {
         assertEquals("success", report.getAlertLevel());
         assertEquals("Successfully imported 2 of 2 samples", report.getMessage());
         assertEquals(2, report.getItems().size());
-        
+
         assertTrue(report.getItems().get(0).isCreated());
         assertEquals("success", report.getItems().get(0).getAlertLevel());
+        assertEquals("Sample created successfully", report.getItems().get(0).getMessage());
         assertTrue(report.getItems().get(1).isCreated());
         assertEquals("success", report.getItems().get(1).getAlertLevel());
-        
-        verify(sampleRepository, times(1)).findByName("Sample1");
-        verify(sampleRepository, times(1)).findByName("Sample2");
-        verify(sampleCreateService, times(1)).create(sampleForm1);
-        verify(sampleCreateService, times(1)).create(sampleForm2);
+
+        // One lookup and one batched insert for the whole chunk
+        verify(sampleRepository, times(1)).findNamesIn(List.of("Sample1", "Sample2"));
+        assertEquals(List.of("Sample1", "Sample2"),
+                insertedSamples(1).stream().map(SampleEntity::getName).toList());
+        verify(sampleRepository, never()).findByName(any());
+        verify(sampleCreateService, never()).create(any());
+        verify(eventPublisher, times(1)).publishEvent(any(SampleChangedEvent.class));
     }
 
     @Test
     void testImportSamples_OneDuplicate_OneCreatedOneSkipped() {
         // Arrange
-        SampleEntity existingEntity = new SampleEntity();
-        existingEntity.setId(1L);
-        existingEntity.setName("Sample1");
-        
-        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(existingEntity));
-        when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
-        
-        Sample sample2 = new Sample();
-        sample2.setId(2L);
-        sample2.setName("Sample2");
-        
-        when(sampleCreateService.create(sampleForm2)).thenReturn(sample2);
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1"));
 
         // Act
         SampleImportReport report = sampleImportService.importSamples(importForm);
@@ -134,33 +184,22 @@ class SampleImportServiceTest {
         assertTrue(report.getMessage().contains("Imported 1 of 2 samples"));
         assertTrue(report.getMessage().contains("1 duplicate"));
         assertEquals(2, report.getItems().size());
-        
+
         assertFalse(report.getItems().get(0).isCreated());
         assertEquals("info", report.getItems().get(0).getAlertLevel());
-        assertTrue(report.getItems().get(0).getMessage().contains("already exists"));
-        
+        assertEquals("Sample with name 'Sample1' already exists", report.getItems().get(0).getMessage());
+
         assertTrue(report.getItems().get(1).isCreated());
         assertEquals("success", report.getItems().get(1).getAlertLevel());
-        
-        verify(sampleRepository, times(1)).findByName("Sample1");
-        verify(sampleRepository, times(1)).findByName("Sample2");
-        verify(sampleCreateService, never()).create(sampleForm1);
-        verify(sampleCreateService, times(1)).create(sampleForm2);
+
+        assertEquals(List.of("Sample2"), insertedSamples(1).stream().map(SampleEntity::getName).toList());
+        verify(sampleCreateService, never()).toModel(sampleForm1);
     }
 
     @Test
     void testImportSamples_AllDuplicates_NoneCreated() {
         // Arrange
-        SampleEntity existingEntity1 = new SampleEntity();
-        existingEntity1.setId(1L);
-        existingEntity1.setName("Sample1");
-        
-        SampleEntity existingEntity2 = new SampleEntity();
-        existingEntity2.setId(2L);
-        existingEntity2.setName("Sample2");
-        
-        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(existingEntity1));
-        when(sampleRepository.findByName("Sample2")).thenReturn(Optional.of(existingEntity2));
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1", "Sample2"));
 
         // Act
         SampleImportReport report = sampleImportService.importSamples(importForm);
@@ -174,13 +213,13 @@ class SampleImportServiceTest {
         assertEquals("warning", report.getAlertLevel());
         assertEquals("No samples imported. All 2 samples already exist", report.getMessage());
         assertEquals(2, report.getItems().size());
-        
+
         assertFalse(report.getItems().get(0).isCreated());
         assertFalse(report.getItems().get(1).isCreated());
-        
-        verify(sampleRepository, times(1)).findByName("Sample1");
-        verify(sampleRepository, times(1)).findByName("Sample2");
-        verify(sampleCreateService, never()).create(any());
+
+        assertTrue(insertedSamples(1).isEmpty());
+        verify(sampleCreateService, never()).toModel(any(SampleCreateForm.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -200,8 +239,8 @@ class SampleImportServiceTest {
         assertEquals("warning", report.getAlertLevel());
         assertEquals("No samples provided for import", report.getMessage());
         assertEquals(0, report.getItems().size());
-        
-        verify(sampleRepository, never()).findByName(any());
+
+        verifyNoInteractions(sampleBatchRepository, transactionManager);
         verify(sampleCreateService, never()).create(any());
     }
 
@@ -222,17 +261,15 @@ class SampleImportServiceTest {
         assertEquals("warning", report.getAlertLevel());
         assertEquals("No samples provided for import", report.getMessage());
         assertEquals(0, report.getItems().size());
-        
-        verify(sampleRepository, never()).findByName(any());
+
+        verifyNoInteractions(sampleBatchRepository, transactionManager);
         verify(sampleCreateService, never()).create(any());
     }
 
     @Test
     void testImportSamples_ValidationFailure_ErrorReported() {
         // Arrange
-        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.empty());
-        when(sampleCreateService.create(sampleForm1))
-            .thenThrow(new ConstraintViolationException("Validation failed", null));
+        rejectNames("Sample1");
 
         SampleImportForm singleItemForm = new SampleImportForm();
         singleItemForm.setSamples(Collections.singletonList(sampleForm1));
@@ -248,18 +285,19 @@ class SampleImportServiceTest {
         assertEquals(1, report.getTotalErrors());
         assertEquals("error", report.getAlertLevel());
         assertEquals(1, report.getItems().size());
-        
+
         assertFalse(report.getItems().get(0).isCreated());
         assertEquals("error", report.getItems().get(0).getAlertLevel());
-        assertTrue(report.getItems().get(0).getMessage().contains("Validation failed"));
-        
-        verify(sampleRepository, times(1)).findByName("Sample1");
-        verify(sampleCreateService, times(1)).create(sampleForm1);
+        assertTrue(report.getItems().get(0).getMessage().startsWith("Validation failed: "));
+
+        assertTrue(insertedSamples(1).isEmpty());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
     void testImportSamples_GenericException_ErrorReported() {
-        // Arrange
+        // Arrange - the chunk cannot be written, then the sample fails on its own
+        doThrow(new RuntimeException("Database error")).when(sampleBatchRepository).insertAll(any());
         when(sampleRepository.findByName("Sample1")).thenReturn(Optional.empty());
         when(sampleCreateService.create(sampleForm1))
             .thenThrow(new RuntimeException("Database error"));
@@ -276,15 +314,34 @@ class SampleImportServiceTest {
         assertEquals(0, report.getTotalCreated());
         assertEquals(1, report.getTotalSkipped());
         assertEquals(1, report.getItems().size());
-        
+
         assertFalse(report.getItems().get(0).isCreated());
         assertEquals("error", report.getItems().get(0).getAlertLevel());
-        assertTrue(report.getItems().get(0).getMessage().contains("Failed to create sample"));
-        
+        assertEquals("Failed to import sample: Database error", report.getItems().get(0).getMessage());
+
         verify(sampleRepository, times(1)).findByName("Sample1");
         verify(sampleCreateService, times(1)).create(sampleForm1);
     }
 
+    @Test
+    void testImportSamples_ChunkFailureThenSampleFailure_SampleRolledBackInItsOwnTransaction() {
+        // Arrange
+        doThrow(new RuntimeException("Batch failed")).when(sampleBatchRepository).insertAll(any());
+        when(sampleRepository.findByName(any())).thenReturn(Optional.empty());
+        when(sampleCreateService.create(sampleForm1)).thenThrow(new RuntimeException("Lock timeout"));
+        when(sampleCreateService.create(sampleForm2)).thenReturn(new Sample());
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert - one transaction for the chunk, then one per sample, none nested
+        assertEquals(1, report.getTotalCreated());
+        assertEquals("Failed to import sample: Lock timeout", report.getItems().get(0).getMessage());
+        verify(transactionManager, times(3)).getTransaction(any());
+        verify(transactionManager, times(2)).rollback(any());
+        verify(transactionManager, times(1)).commit(any());
+    }
+
     @Test
     void testImportSamples_MixedResults_CorrectReport() {
         // Arrange - 3 samples: one duplicate, one success, one validation error
@@ -292,24 +349,11 @@ class SampleImportServiceTest {
         sampleForm3.setName("Sample3");
         sampleForm3.setDescription("Description 3");
         sampleForm3.setActive(true);
-        
+
         importForm.setSamples(Arrays.asList(sampleForm1, sampleForm2, sampleForm3));
-        
-        SampleEntity existingEntity = new SampleEntity();
-        existingEntity.setId(1L);
-        existingEntity.setName("Sample1");
-        
-        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(existingEntity));
-        when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
-        when(sampleRepository.findByName("Sample3")).thenReturn(Optional.empty());
-        
-        Sample sample2 = new Sample();
-        sample2.setId(2L);
-        sample2.setName("Sample2");
-        
-        when(sampleCreateService.create(sampleForm2)).thenReturn(sample2);
-        when(sampleCreateService.create(sampleForm3))
-            .thenThrow(new ConstraintViolationException("Invalid", null));
+
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1"));
+        rejectNames("Sample3");
 
         // Act
         SampleImportReport report = sampleImportService.importSamples(importForm);
@@ -325,15 +369,15 @@ class SampleImportServiceTest {
         assertTrue(report.getMessage().contains("1 duplicate"));
         assertTrue(report.getMessage().contains("1 error"));
         assertEquals(3, report.getItems().size());
-        
+
         // First item - duplicate
         assertFalse(report.getItems().get(0).isCreated());
         assertEquals("info", report.getItems().get(0).getAlertLevel());
-        
+
         // Second item - success
         assertTrue(report.getItems().get(1).isCreated());
         assertEquals("success", report.getItems().get(1).getAlertLevel());
-        
+
         // Third item - validation error
         assertFalse(report.getItems().get(2).isCreated());
         assertEquals("error", report.getItems().get(2).getAlertLevel());
@@ -344,24 +388,10 @@ class SampleImportServiceTest {
         // Arrange - multiple duplicates
         SampleCreateForm sampleForm3 = new SampleCreateForm();
         sampleForm3.setName("Sample3");
-        
+
         importForm.setSamples(Arrays.asList(sampleForm1, sampleForm2, sampleForm3));
-        
-        SampleEntity existingEntity1 = new SampleEntity();
-        existingEntity1.setId(1L);
-        existingEntity1.setName("Sample1");
-        
-        SampleEntity existingEntity2 = new SampleEntity();
-        existingEntity2.setId(2L);
-        existingEntity2.setName("Sample2");
-        
-        SampleEntity existingEntity3 = new SampleEntity();
-        existingEntity3.setId(3L);
-        existingEntity3.setName("Sample3");
-        
-        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(existingEntity1));
-        when(sampleRepository.findByName("Sample2")).thenReturn(Optional.of(existingEntity2));
-        when(sampleRepository.findByName("Sample3")).thenReturn(Optional.of(existingEntity3));
+
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1", "Sample2", "Sample3"));
 
         // Act
         SampleImportReport report = sampleImportService.importSamples(importForm);
@@ -378,13 +408,7 @@ class SampleImportServiceTest {
     @Test
     void testImportSamples_OnlyErrors_ErrorAlertLevel() {
         // Arrange - all fail with validation errors
-        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.empty());
-        when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
-        
-        when(sampleCreateService.create(sampleForm1))
-            .thenThrow(new ConstraintViolationException("Validation failed 1", null));
-        when(sampleCreateService.create(sampleForm2))
-            .thenThrow(new ConstraintViolationException("Validation failed 2", null));
+        rejectNames("Sample1", "Sample2");
 
         // Act
         SampleImportReport report = sampleImportService.importSamples(importForm);
@@ -403,9 +427,10 @@ class SampleImportServiceTest {
     @Test
     void testImportSamples_OnlySkipped_ErrorAlertLevel() {
         // Arrange - all fail with generic exceptions
+        doThrow(new RuntimeException("Database error")).when(sampleBatchRepository).insertAll(any());
         when(sampleRepository.findByName("Sample1")).thenReturn(Optional.empty());
         when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
-        
+
         when(sampleCreateService.create(sampleForm1))
             .thenThrow(new RuntimeException("Database error 1"));
         when(sampleCreateService.create(sampleForm2))
@@ -428,15 +453,8 @@ class SampleImportServiceTest {
     @Test
     void testImportSamples_DuplicatesAndErrors_CorrectMessage() {
         // Arrange - mix of duplicates and errors
-        SampleEntity existingEntity = new SampleEntity();
-        existingEntity.setId(1L);
-        existingEntity.setName("Sample1");
-        
-        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(existingEntity));
-        when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
-        
-        when(sampleCreateService.create(sampleForm2))
-            .thenThrow(new ConstraintViolationException("Validation failed", null));
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1"));
+        rejectNames("Sample2");
 
         // Act
         SampleImportReport report = sampleImportService.importSamples(importForm);
@@ -459,10 +477,12 @@ class SampleImportServiceTest {
         SampleEntity existingEntity = new SampleEntity();
         existingEntity.setId(1L);
         existingEntity.setName("Sample1");
-        
+
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1"));
+        doThrow(new RuntimeException("Database error")).when(sampleBatchRepository).insertAll(any());
         when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(existingEntity));
         when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
-        
+
         when(sampleCreateService.create(sampleForm2))
             .thenThrow(new RuntimeException("Database error"));
 
@@ -484,11 +504,11 @@ class SampleImportServiceTest {
     @Test
     void testImportSamples_ErrorsAndSkipped_CorrectMessage() {
         // Arrange - mix of errors and skipped
+        doThrow(new RuntimeException("Database error")).when(sampleBatchRepository).insertAll(any());
         when(sampleRepository.findByName("Sample1")).thenReturn(Optional.empty());
         when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
-        
-        when(sampleCreateService.create(sampleForm1))
-            .thenThrow(new ConstraintViolationException("Validation failed", null));
+
+        rejectNames("Sample1");
         when(sampleCreateService.create(sampleForm2))
             .thenThrow(new RuntimeException("Database error"));
 
@@ -512,19 +532,19 @@ class SampleImportServiceTest {
         // Arrange - duplicates, errors, and skipped
         SampleCreateForm sampleForm3 = new SampleCreateForm();
         sampleForm3.setName("Sample3");
-        
+
         importForm.setSamples(Arrays.asList(sampleForm1, sampleForm2, sampleForm3));
-        
+
         SampleEntity existingEntity = new SampleEntity();
         existingEntity.setId(1L);
         existingEntity.setName("Sample1");
-        
+
+        doThrow(new RuntimeException("Database error")).when(sampleBatchRepository).insertAll(any());
         when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(existingEntity));
         when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
         when(sampleRepository.findByName("Sample3")).thenReturn(Optional.empty());
-        
-        when(sampleCreateService.create(sampleForm2))
-            .thenThrow(new ConstraintViolationException("Validation failed", null));
+
+        rejectNames("Sample2");
         when(sampleCreateService.create(sampleForm3))
             .thenThrow(new RuntimeException("Database error"));
 
@@ -551,29 +571,29 @@ class SampleImportServiceTest {
         SampleCreateForm sampleForm3 = new SampleCreateForm();
         sampleForm3.setName("Sample3");
         sampleForm3.setDescription("Description 3");
-        
+
         SampleCreateForm sampleForm4 = new SampleCreateForm();
         sampleForm4.setName("Sample4");
         sampleForm4.setDescription("Description 4");
-        
+
         importForm.setSamples(Arrays.asList(sampleForm1, sampleForm2, sampleForm3, sampleForm4));
-        
+
         SampleEntity existingEntity = new SampleEntity();
         existingEntity.setId(1L);
         existingEntity.setName("Sample1");
-        
+
+        doThrow(new RuntimeException("Database error")).when(sampleBatchRepository).insertAll(any());
         when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(existingEntity));
         when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
         when(sampleRepository.findByName("Sample3")).thenReturn(Optional.empty());
         when(sampleRepository.findByName("Sample4")).thenReturn(Optional.empty());
-        
+
         Sample sample2 = new Sample();
         sample2.setId(2L);
         sample2.setName("Sample2");
-        
+
         when(sampleCreateService.create(sampleForm2)).thenReturn(sample2);
-        when(sampleCreateService.create(sampleForm3))
-            .thenThrow(new ConstraintViolationException("Validation failed", null));
+        rejectNames("Sample3");
         when(sampleCreateService.create(sampleForm4))
             .thenThrow(new RuntimeException("Database error"));
 
@@ -593,4 +613,518 @@ class SampleImportServiceTest {
         assertTrue(report.getMessage().contains("1 error"));
         assertTrue(report.getMessage().contains("1 skipped"));
     }
+
+    @Test
+    void testImportSamples_SplitsIntoChunks() {
+        // Arrange - 5 samples in chunks of 2
+        sampleImportService = newService(2);
+        importForm.setSamples(List.of(form("A"), form("B"), form("C"), form("D"), form("E")));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(5, report.getTotalCreated());
+        verify(sampleRepository).findNamesIn(List.of("A", "B"));
+        verify(sampleRepository).findNamesIn(List.of("C", "D"));
+        verify(sampleRepository).findNamesIn(List.of("E"));
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(List.of("A", "B", "C", "D", "E"),
+                insertedSamples(3).stream().map(SampleEntity::getName).toList());
+    }
+
+    @Test
+    void testImportSamples_SameNameTwiceInChunk_SecondIsDuplicateWithoutLookup() {
+        // Arrange
+        importForm.setSamples(List.of(form("Twin"), form("Other"), form("Twin"), form("Last")));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(3, report.getTotalCreated());
+        assertEquals(1, report.getTotalDuplicates());
+        assertEquals("Imported 3 of 4 samples. 1 duplicate", report.getMessage());
+        assertTrue(report.getItems().get(0).isCreated());
+        assertFalse(report.getItems().get(2).isCreated());
+        assertEquals("info", report.getItems().get(2).getAlertLevel());
+        assertEquals("Sample with name 'Twin' appears more than once in the import",
+                report.getItems().get(2).getMessage());
+        assertTrue(report.getItems().get(3).isCreated());
+
+        // The second twin never reaches the database
+        verify(sampleRepository).findNamesIn(List.of("Twin", "Other", "Last"));
+        assertEquals(List.of("Twin", "Other", "Last"),
+                insertedSamples(1).stream().map(SampleEntity::getName).toList());
+    }
+
+    @Test
+    void testImportSamples_SameNameFurtherApartThanChunkSize_DuplicateWithoutLookup() {
+        // Arrange - the twins land in different chunks of the form
+        sampleImportService = newService(2);
+        importForm.setSamples(List.of(form("Twin"), form("Other"), form("Last"), form("Twin")));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(3, report.getTotalCreated());
+        assertEquals(1, report.getTotalDuplicates());
+        assertEquals("Sample with name 'Twin' appears more than once in the import",
+                report.getItems().get(3).getMessage());
+        verify(sampleRepository).findNamesIn(List.of("Twin", "Other"));
+        verify(sampleRepository).findNamesIn(List.of("Last"));
+        assertEquals(List.of("Twin", "Other", "Last"),
+                insertedSamples(2).stream().map(SampleEntity::getName).toList());
+    }
+
+    @Test
+    void testImportSamples_FailModeSameNameInLaterChunk_DuplicateNotConflict() {
+        // Arrange - the name was not used before the import
+        sampleImportService = newService(2);
+        importForm.setOnConflict("fail");
+        importForm.setSamples(List.of(form("Twin"), form("Other"), form("Last"), form("Twin")));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(3, report.getTotalCreated());
+        assertEquals(1, report.getTotalDuplicates());
+    }
+
+    @Test
+    void testImportSamples_StreamedSameNameInLaterChunk_ConfirmedByNamesInUse() {
+        // Arrange - the first twin is committed with its chunk, and found with the names in use
+        sampleImportService = newService(2);
+        when(sampleRepository.findNamesIn(any())).thenAnswer(invocation ->
+                List.of("Last", "Twin").equals(invocation.getArgument(0)) ? List.of("Twin") : List.of());
+
+        // Act - fail mode: the repeated name must not stop the import
+        SampleImportReport report = sampleImportService.importSamples(
+                List.of(form("Twin"), form("Other"), form("Last"), form("Twin")).iterator(),
+                SampleImportService.FAIL, SampleImportService.FULL);
+
+        // Assert
+        assertEquals(3, report.getTotalCreated());
+        assertEquals(1, report.getTotalDuplicates());
+        assertEquals("Sample with name 'Twin' appears more than once in the import",
+                report.getItems().get(3).getMessage());
+        assertEquals(List.of("Twin", "Other", "Last"),
+                insertedSamples(2).stream().map(SampleEntity::getName).toList());
+    }
+
+    @Test
+    void testImportSamples_StreamedUpdateModeSameNameInLaterChunk_NotUpdatedAgain() {
+        // Arrange
+        sampleImportService = newService(2);
+        when(sampleRepository.findNamesIn(any())).thenAnswer(invocation ->
+                List.of("Last", "Twin").equals(invocation.getArgument(0)) ? List.of("Twin") : List.of());
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(
+                List.of(form("Twin"), form("Other"), form("Last"), form("Twin")).iterator(),
+                SampleImportService.UPDATE, SampleImportService.FULL);
+
+        // Assert - the first occurrence wins
+        assertEquals(3, report.getTotalCreated());
+        assertEquals(0, report.getTotalUpdated());
+        assertEquals(1, report.getTotalDuplicates());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SampleEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(sampleBatchRepository, times(2)).upsertAll(captor.capture());
+        assertEquals(List.of("Twin", "Other", "Last"),
+                captor.getAllValues().stream().flatMap(List::stream).map(SampleEntity::getName).toList());
+    }
+
+    @Test
+    void testImportSamples_NullNames_NotPayloadDuplicates() {
+        // Arrange
+        doThrow(new ConstraintViolationException("Validation failed", null))
+            .when(sampleCreateService).validate(any(Sample.class));
+        importForm.setSamples(List.of(form(null), form(null)));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(0, report.getTotalDuplicates());
+        assertEquals(2, report.getTotalErrors());
+        verify(sampleRepository, never()).findNamesIn(any());
+    }
+
+    @Test
+    void testImportSamples_NameMatchedByCollation_CheckedOneByOne() {
+        // Arrange - the database matches "sample1" to the stored "Sample1"
+        sampleForm1.setName("sample1");
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1"));
+        when(sampleRepository.findByName("sample1")).thenReturn(Optional.of(new SampleEntity()));
+        when(sampleRepository.findByName("Sample2")).thenReturn(Optional.empty());
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(1, report.getTotalDuplicates());
+        assertEquals("Sample with name 'sample1' already exists", report.getItems().get(0).getMessage());
+        assertTrue(report.getItems().get(1).isCreated());
+    }
+
+    @Test
+    void testImportSamples_CaseInsensitiveCollation_NamesDifferingByCaseAreDuplicates() {
+        // Arrange - on MySQL, the unique index sees "Twin" and "twin" as the same name
+        when(searchCapabilities.hasCaseInsensitiveCollation()).thenReturn(true);
+        importForm.setSamples(List.of(form("Twin"), form("twin"), form("Other")));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(2, report.getTotalCreated());
+        assertEquals(1, report.getTotalDuplicates());
+        assertEquals("Sample with name 'twin' appears more than once in the import",
+                report.getItems().get(1).getMessage());
+        verify(sampleRepository).findNamesIn(List.of("Twin", "Other"));
+        assertEquals(List.of("Twin", "Other"), insertedSamples(1).stream().map(SampleEntity::getName).toList());
+    }
+
+    @Test
+    void testImportSamples_CaseInsensitiveCollation_StoredNameMatchedWithoutLookup() {
+        // Arrange - the database matches "sample1" to the stored "Sample1"
+        when(searchCapabilities.hasCaseInsensitiveCollation()).thenReturn(true);
+        sampleForm1.setName("sample1");
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1"));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(1, report.getTotalDuplicates());
+        assertEquals("Sample with name 'sample1' already exists", report.getItems().get(0).getMessage());
+        assertTrue(report.getItems().get(1).isCreated());
+        verify(sampleRepository, never()).findByName(any());
+    }
+
+    @Test
+    void testImportSamples_ResolvesTagsOncePerChunk() {
+        // Arrange
+        sampleForm1.setTagNames(Set.of("red"));
+        sampleForm2.setTagNames(Set.of("red", "blue"));
+        TagEntity red = new TagEntity("red");
+        red.setId(1L);
+        TagEntity blue = new TagEntity("blue");
+        blue.setId(2L);
+        when(tagService.findOrCreateTags(any())).thenReturn(List.of(red, blue));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(2, report.getTotalCreated());
+        verify(tagService, times(1)).findOrCreateTags(argThat(names -> Set.copyOf(names).equals(Set.of("red", "blue"))
+                && names.size() == 2));
+        List<SampleEntity> inserted = insertedSamples(1);
+        assertEquals(Set.of(red), inserted.get(0).getTags());
+        assertEquals(Set.of(red, blue), inserted.get(1).getTags());
+    }
+
+    @Test
+    void testImportSamples_ChunkFailure_ImportsOneByOne() {
+        // Arrange
+        doThrow(new RuntimeException("Batch failed")).when(sampleBatchRepository).insertAll(any());
+        when(sampleRepository.findByName(any())).thenReturn(Optional.empty());
+        when(sampleCreateService.create(any())).thenReturn(new Sample());
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(2, report.getTotalCreated());
+        verify(transactionManager).rollback(any());
+        verify(sampleCreateService).create(sampleForm1);
+        verify(sampleCreateService).create(sampleForm2);
+        verify(eventPublisher).publishEvent(any(SampleChangedEvent.class));
+    }
+
+    @Test
+    void testImportSamples_ContinuedReport_CountsWithoutItemsAfterEachBlock() {
+        // Arrange - the totals of an earlier run, and 3 samples in chunks of 2
+        sampleImportService = newService(2);
+        SampleImportReport report = new SampleImportReport();
+        report.setTotalProvided(4);
+        report.setTotalCreated(3);
+        report.setTotalDuplicates(1);
+        List<Integer> provided = new ArrayList<>();
+
+        // Act
+        SampleImportReport result = sampleImportService.importSamples(
+                List.of(form("A"), form("B"), form("C")).iterator(), SampleImportService.SKIP, report,
+                progress -> provided.add(progress.getTotalProvided()));
+
+        // Assert
+        assertSame(report, result);
+        assertEquals(List.of(6, 7), provided);
+        assertEquals(7, report.getTotalProvided());
+        assertEquals(6, report.getTotalCreated());
+        assertEquals(1, report.getTotalDuplicates());
+        assertEquals("Imported 6 of 7 samples. 1 duplicate", report.getMessage());
+        assertTrue(report.getItems().isEmpty());
+        verify(eventPublisher, times(1)).publishEvent(any(SampleChangedEvent.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testImportSamples_Checkpoint_SavedBeforeEachChunkCommits() {
+        // Arrange - 3 samples in chunks of 2
+        sampleImportService = newService(2);
+        Consumer<SampleImportReport> checkpoint = mock(Consumer.class);
+
+        // Act
+        sampleImportService.importSamples(List.of(form("A"), form("B"), form("C")).iterator(),
+                SampleImportService.SKIP, new SampleImportReport(), checkpoint);
+
+        // Assert
+        InOrder inOrder = inOrder(sampleBatchRepository, checkpoint, transactionManager);
+        inOrder.verify(sampleBatchRepository).insertAll(any());
+        inOrder.verify(checkpoint).accept(argThat(totals -> totals.getTotalProvided() == 2));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(sampleBatchRepository).insertAll(any());
+        inOrder.verify(checkpoint).accept(argThat(totals -> totals.getTotalProvided() == 3));
+        inOrder.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void testImportSamples_ChunkFailure_SavesCheckpointWithEachSample() {
+        // Arrange
+        doThrow(new RuntimeException("Batch failed")).when(sampleBatchRepository).insertAll(any());
+        when(sampleRepository.findByName(any())).thenReturn(Optional.empty());
+        when(sampleCreateService.create(any())).thenReturn(new Sample());
+        List<Integer> provided = new ArrayList<>();
+
+        // Act
+        sampleImportService.importSamples(List.of(sampleForm1, sampleForm2).iterator(), SampleImportService.SKIP,
+                new SampleImportReport(), totals -> provided.add(totals.getTotalProvided()));
+
+        // Assert - the chunk rolled back, then each sample committed with its checkpoint
+        assertEquals(List.of(1, 2), provided);
+        verify(transactionManager, times(1)).rollback(any());
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void testImportSamples_UpdateMode_UpsertsChunk() {
+        // Arrange
+        importForm.setOnConflict("update");
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1"));
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(1, report.getTotalCreated());
+        assertEquals(1, report.getTotalUpdated());
+        assertEquals(0, report.getTotalDuplicates());
+        assertEquals("success", report.getAlertLevel());
+        assertEquals("Successfully imported 2 of 2 samples. 1 updated", report.getMessage());
+        assertFalse(report.getItems().get(0).isCreated());
+        assertEquals("success", report.getItems().get(0).getAlertLevel());
+        assertEquals("Sample updated successfully", report.getItems().get(0).getMessage());
+        assertTrue(report.getItems().get(1).isCreated());
+
+        // Both samples in one upsert, after one lookup
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SampleEntity>> captor = ArgumentCaptor.forClass(List.class);
+        verify(sampleBatchRepository).upsertAll(captor.capture());
+        assertEquals(List.of("Sample1", "Sample2"), captor.getValue().stream().map(SampleEntity::getName).toList());
+        verify(sampleBatchRepository, never()).insertAll(any());
+        verify(eventPublisher).publishEvent(any(SampleChangedEvent.class));
+    }
+
+    @Test
+    void testImportSamples_UpdateModeChunkFailure_UpsertsOneByOne() {
+        // Arrange
+        importForm.setOnConflict("update");
+        doThrow(new RuntimeException("Batch failed")).doNothing().doThrow(new RuntimeException("Lock timeout"))
+                .when(sampleBatchRepository).upsertAll(any());
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(1, report.getTotalCreated());
+        assertEquals(1, report.getTotalSkipped());
+        assertEquals("Failed to import sample: Lock timeout", report.getItems().get(1).getMessage());
+        verify(sampleBatchRepository, times(3)).upsertAll(any());
+        verify(sampleCreateService, never()).create(any());
+    }
+
+    @Test
+    void testImportSamples_FailMode_ThrowsAtFirstUsedName() {
+        // Arrange: the second chunk holds a used name
+        sampleImportService = newService(2);
+        importForm.setOnConflict(" FAIL ");
+        importForm.setSamples(List.of(form("A"), form("B"), form("C"), form("Used")));
+        when(sampleRepository.findNamesIn(List.of("C", "Used"))).thenReturn(List.of("Used"));
+
+        // Act & Assert
+        SampleImportService.SampleImportConflictException e = assertThrows(
+                SampleImportService.SampleImportConflictException.class,
+                () -> sampleImportService.importSamples(importForm));
+        assertEquals("Sample with name 'Used' already exists", e.getMessage());
+        assertEquals(List.of("A", "B"), insertedSamples(1).stream().map(SampleEntity::getName).toList());
+        verify(transactionManager).rollback(any());
+        // The first chunk is committed
+        verify(eventPublisher).publishEvent(any(SampleChangedEvent.class));
+    }
+
+    @Test
+    void testImportSamples_FailModeChunkFailure_ThrowsForNameUsedMeanwhile() {
+        // Arrange: a concurrent import inserted Sample1 after the lookup
+        importForm.setOnConflict("fail");
+        doThrow(new RuntimeException("Duplicate entry 'Sample1'")).when(sampleBatchRepository).insertAll(any());
+        when(sampleRepository.findByName("Sample1")).thenReturn(Optional.of(new SampleEntity()));
+
+        // Act & Assert
+        assertThrows(SampleImportService.SampleImportConflictException.class,
+                () -> sampleImportService.importSamples(importForm));
+        verify(sampleCreateService, never()).create(any());
+        verify(eventPublisher, never()).publishEvent(any(SampleChangedEvent.class));
+    }
+
+    @Test
+    void testImportSamples_UnsupportedOnConflict_Throws() {
+        // Arrange
+        importForm.setOnConflict("merge");
+
+        // Act & Assert
+        assertThrows(SampleImportService.UnsupportedOnConflictException.class,
+                () -> sampleImportService.importSamples(importForm));
+        verifyNoInteractions(sampleRepository, sampleBatchRepository);
+    }
+
+    @Test
+    void testResolveOnConflict() {
+        assertEquals("skip", SampleImportService.resolveOnConflict(null));
+        assertEquals("skip", SampleImportService.resolveOnConflict(" "));
+        assertEquals("update", SampleImportService.resolveOnConflict("Update"));
+        assertEquals("fail", SampleImportService.resolveOnConflict("fail"));
+        assertThrows(SampleImportService.UnsupportedOnConflictException.class,
+                () -> SampleImportService.resolveOnConflict("replace"));
+    }
+
+    @Test
+    void testImportSamples_ErrorsOnly_ReportsFailedSamplesWithTotals() {
+        // Arrange
+        importForm.setReportMode("errorsOnly");
+        importForm.setSamples(List.of(form("A"), form("Invalid"), form("Used"), form("A")));
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Used"));
+        rejectNames("Invalid");
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(4, report.getTotalProvided());
+        assertEquals(1, report.getTotalCreated());
+        assertEquals(2, report.getTotalDuplicates());
+        assertEquals(1, report.getTotalErrors());
+        assertEquals(1, report.getItems().size());
+        assertEquals("Invalid", report.getItems().get(0).getName());
+        assertEquals("error", report.getItems().get(0).getAlertLevel());
+        assertTrue(report.getItems().get(0).getMessage().startsWith("Validation failed: "));
+    }
+
+    @Test
+    void testImportSamples_Summary_ReportsTotalsOnly() {
+        // Arrange
+        importForm.setReportMode("SUMMARY");
+        rejectNames("Sample2");
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(importForm);
+
+        // Assert
+        assertEquals(2, report.getTotalProvided());
+        assertEquals(1, report.getTotalCreated());
+        assertEquals(1, report.getTotalErrors());
+        assertEquals("Imported 1 of 2 samples. 1 error", report.getMessage());
+        assertTrue(report.getItems().isEmpty());
+    }
+
+    @Test
+    void testImportSamples_ItemListener_ReceivesItemsInsteadOfReport() {
+        // Arrange
+        sampleImportService = newService(1);
+        List<String> names = new ArrayList<>();
+
+        // Act
+        SampleImportReport report = sampleImportService.importSamples(List.of(form("A"), form("B")).iterator(),
+                SampleImportService.SKIP, SampleImportService.FULL, new SampleImportReport(),
+                item -> names.add(item.getName()));
+
+        // Assert
+        assertEquals(List.of("A", "B"), names);
+        assertEquals(2, report.getTotalCreated());
+        assertTrue(report.getItems().isEmpty());
+    }
+
+    @Test
+    void testStreamSamples_WritesItemsThenReport() throws Exception {
+        // Arrange
+        when(sampleRepository.findNamesIn(any())).thenReturn(List.of("Sample1"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        sampleImportService.streamSamples(importForm).writeTo(out);
+
+        // Assert
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].contains("\"name\":\"Sample1\""));
+        assertTrue(lines[0].contains("already exists"));
+        assertTrue(lines[1].contains("\"name\":\"Sample2\""));
+        assertTrue(lines[2].contains("\"totalProvided\":2"));
+        assertTrue(lines[2].contains("\"items\":[]"));
+    }
+
+    @Test
+    void testStreamSamples_FailMode_EndsWithErrorReport() throws Exception {
+        // Arrange: the second chunk holds a used name
+        sampleImportService = newService(1);
+        importForm.setOnConflict("fail");
+        when(sampleRepository.findNamesIn(List.of("Sample1"))).thenReturn(List.of());
+        when(sampleRepository.findNamesIn(List.of("Sample2"))).thenReturn(List.of("Sample2"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        sampleImportService.streamSamples(importForm).writeTo(out);
+
+        // Assert: the committed sample, then the partial report
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("Sample created successfully"));
+        assertTrue(lines[1].contains("\"alertLevel\":\"error\""));
+        assertTrue(lines[1].contains("Import failed after 1 samples: Sample with name 'Sample2' already exists"));
+    }
+
+    @Test
+    void testStreamSamples_UnsupportedReportMode_ThrowsBeforeStreaming() {
+        // Arrange
+        importForm.setReportMode("verbose");
+
+        // Act & Assert
+        assertThrows(SampleImportService.UnsupportedReportModeException.class,
+                () -> sampleImportService.streamSamples(importForm));
+        verifyNoInteractions(sampleRepository, sampleBatchRepository);
+    }
+
+    @Test
+    void testResolveReportMode() {
+        assertEquals("full", SampleImportService.resolveReportMode(null));
+        assertEquals("full", SampleImportService.resolveReportMode(""));
+        assertEquals("errorsOnly", SampleImportService.resolveReportMode(" ERRORSONLY "));
+        assertEquals("summary", SampleImportService.resolveReportMode("Summary"));
+        assertThrows(SampleImportService.UnsupportedReportModeException.class,
+                () -> SampleImportService.resolveReportMode("errors"));
+    }
 }
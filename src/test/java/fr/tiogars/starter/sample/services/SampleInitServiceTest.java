@@ -4,7 +4,9 @@ import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -186,4 +188,35 @@ class SampleInitServiceTest {
         assertNotNull(result);
         assertEquals(3, result.size());
     }
+
+    @Test
+    void testInitSamples_SecondRun_UsesNewNames() {
+        // Arrange
+        sampleInitForm.setNumberOfSamples(100);
+        List<String> names = new ArrayList<>();
+        when(sampleCreateService.create(any(SampleCreateForm.class))).thenAnswer(invocation -> {
+            SampleCreateForm form = invocation.getArgument(0);
+            assertTrue(form.getName().length() <= 10, "Name should not exceed 10 characters");
+            names.add(form.getName().toLowerCase());
+            return mockSample;
+        });
+
+        // Act
+        sampleInitService.initSamples(sampleInitForm);
+        sampleInitService.initSamples(sampleInitForm);
+
+        // Assert: sample names are unique, case-insensitively on MySQL
+        assertEquals(200, names.size());
+        assertEquals(200, new HashSet<>(names).size());
+    }
+
+    @Test
+    void testNextRunToken_HasFixedWidth() {
+        String first = sampleInitService.nextRunToken();
+        String second = sampleInitService.nextRunToken();
+
+        assertEquals(5, first.length());
+        assertEquals(5, second.length());
+        assertNotEquals(first, second);
+    }
 }
@@ -0,0 +1,50 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class SampleNameHashSetTest {
+
+    @Test
+    void testAdd_SameNameTwice_AddedOnce() {
+        SampleNameHashSet hashes = new SampleNameHashSet();
+
+        assertTrue(hashes.add("Twin"));
+        assertFalse(hashes.add("Twin"));
+
+        assertEquals(1, hashes.size());
+        assertTrue(hashes.mightContain("Twin"));
+        assertFalse(hashes.mightContain("Other"));
+    }
+
+    @Test
+    void testAdd_ManyNames_KeepsAllThroughGrowth() {
+        SampleNameHashSet hashes = new SampleNameHashSet();
+
+        for (int i = 0; i < 100_000; i++) {
+            hashes.add("Sample" + i);
+        }
+
+        assertEquals(100_000, hashes.size());
+        for (int i = 0; i < 100_000; i++) {
+            assertTrue(hashes.mightContain("Sample" + i));
+        }
+        int falsePositives = 0;
+        for (int i = 100_000; i < 200_000; i++) {
+            if (hashes.mightContain("Sample" + i)) {
+                falsePositives++;
+            }
+        }
+        assertEquals(0, falsePositives);
+    }
+
+    @Test
+    void testHash_CaseSensitiveAndNeverEmpty() {
+        assertNotEquals(SampleNameHashSet.hash("Twin"), SampleNameHashSet.hash("twin"));
+        assertNotEquals(0L, SampleNameHashSet.hash(""));
+    }
+}
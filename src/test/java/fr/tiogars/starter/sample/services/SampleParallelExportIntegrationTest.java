@@ -0,0 +1,152 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.forms.SampleExportForm;
+import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
+import fr.tiogars.starter.sample.models.SampleSearchRequest;
+import fr.tiogars.starter.sample.models.SortItem;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+
+/**
+ * Integration tests for exports read in parallel id ranges, split into ranges of at least 5 ids.
+ * Not transactional: each partition reads the samples with its own connection.
+ */
+@SpringBootTest(properties = "sample.export.parallel.min-partition-ids=5")
+@ActiveProfiles("test")
+class SampleParallelExportIntegrationTest {
+
+    private static final int SAMPLE_COUNT = 40;
+
+    @Autowired
+    private SampleExportService sampleExportService;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository.deleteAll();
+        Date now = new Date();
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            SampleEntity entity = new SampleEntity();
+            entity.setName("Parallel" + i);
+            entity.setDescription("Parallel export sample " + i);
+            entity.setActive(i % 2 == 0);
+            entity.setCreatedAt(now);
+            entity.setCreatedBy("admin");
+            entity.setUpdatedAt(now);
+            entity.setUpdatedBy("admin");
+            sampleRepository.save(entity);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampleRepository.deleteAll();
+    }
+
+    @Test
+    void testCsv_Partitioned_MatchesSingleCursorExport() throws Exception {
+        String sequential = export(form("csv", null, null));
+        String parallel = export(form("csv", 4, null));
+
+        assertEquals(sequential, parallel);
+        assertEquals(SAMPLE_COUNT + 1, parallel.split("\n").length);
+    }
+
+    @Test
+    void testNdjson_PartitionedDescending_MatchesSingleCursorExport() throws Exception {
+        SampleSearchRequest searchRequest = new SampleSearchRequest();
+        searchRequest.setSortModel(Arrays.asList(sort("id", "desc")));
+
+        String sequential = export(form("ndjson", null, searchRequest));
+        String parallel = export(form("ndjson", 3, searchRequest));
+
+        assertEquals(sequential, parallel);
+        assertEquals(SAMPLE_COUNT, parallel.split("\n").length);
+    }
+
+    @Test
+    void testCsv_PartitionedWithFilter_MatchesSingleCursorExport() throws Exception {
+        FilterItem item = new FilterItem();
+        item.setField("active");
+        item.setOperator("is");
+        item.setValue("true");
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(new ArrayList<>(List.of(item)));
+        SampleSearchRequest searchRequest = new SampleSearchRequest();
+        searchRequest.setFilterModel(filterModel);
+        searchRequest.setSortModel(Arrays.asList(sort("id", "asc")));
+
+        String sequential = export(form("csv", null, searchRequest));
+        String parallel = export(form("csv", 4, searchRequest));
+
+        assertEquals(sequential, parallel);
+        assertEquals(SAMPLE_COUNT / 2 + 1, parallel.split("\n").length);
+    }
+
+    @Test
+    void testCsvZip_Partitioned_WritesOneEntryPerPartition() throws Exception {
+        SampleExportForm form = form("csv", 4, null);
+        form.setZip(true);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sampleExportService.streamSamples(form).getBody().writeTo(out);
+
+        int entries = 0;
+        int rows = 0;
+        try (ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                entries++;
+                assertTrue(entry.getName().endsWith(String.format("_samples_part-%03d.csv", entries)));
+                String[] lines = new String(zis.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+                assertTrue(lines[0].contains("\"ID\""));
+                rows += lines.length - 1;
+            }
+        }
+        assertEquals(4, entries);
+        assertEquals(SAMPLE_COUNT, rows);
+    }
+
+    private String export(SampleExportForm form) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        sampleExportService.streamSamples(form).getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private SampleExportForm form(String format, Integer partitions, SampleSearchRequest searchRequest) {
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat(format);
+        form.setPartitions(partitions);
+        form.setSearchRequest(searchRequest);
+        return form;
+    }
+
+    private SortItem sort(String field, String direction) {
+        SortItem item = new SortItem();
+        item.setField(field);
+        item.setSort(direction);
+        return item;
+    }
+}
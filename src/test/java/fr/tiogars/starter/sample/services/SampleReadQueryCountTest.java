@@ -0,0 +1,222 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import fr.tiogars.starter.common.services.dto.FindResponse;
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.forms.SampleExportForm;
+import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.sample.models.SampleSearchRequest;
+import fr.tiogars.starter.sample.models.SampleSearchResponse;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import fr.tiogars.starter.tag.repositories.TagRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Guards the number of SQL statements issued by sample read paths,
+ * so that tags are not loaded with one query per sample (N+1),
+ * and checks that searches read projections rather than managed entities.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SampleReadQueryCountTest {
+
+    private static final int SAMPLE_COUNT = 30;
+
+    @Autowired
+    private SampleSearchService sampleSearchService;
+
+    @Autowired
+    private SampleFindService sampleFindService;
+
+    @Autowired
+    private SampleExportService sampleExportService;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository.deleteAll();
+
+        TagEntity red = tagRepository.save(new TagEntity("count-red"));
+        TagEntity blue = tagRepository.save(new TagEntity("count-blue"));
+        Date now = new Date();
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            SampleEntity entity = new SampleEntity();
+            entity.setName("Count" + i);
+            entity.setDescription("Statement count sample " + i);
+            entity.setActive(i % 2 == 0);
+            entity.setCreatedAt(now);
+            entity.setCreatedBy("admin");
+            entity.setUpdatedAt(now);
+            entity.setUpdatedBy("admin");
+            entity.setTags(i % 3 == 0 ? Set.of(red) : Set.of(red, blue));
+            sampleRepository.save(entity);
+        }
+
+        // Start from an empty persistence context so that every read goes to the database
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void testSearch_LoadsTagsOfThePageInOneQuery() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setPageSize(SAMPLE_COUNT);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(SAMPLE_COUNT, response.getRows().size());
+        assertTrue(response.getRows().stream().allMatch(sample -> !sample.getTags().isEmpty()));
+        // Page query, count query and a single tag query
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Expected at most 3 statements but got " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testSearch_ReadsProjectionsWithoutLoadingEntities() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setPageSize(SAMPLE_COUNT);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        Sample count1 = response.getRows().stream().filter(sample -> sample.getName().equals("Count1"))
+                .findFirst().orElseThrow();
+        assertEquals(2, count1.getTags().size());
+        assertEquals("Statement count sample 1", count1.getDescription());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void testCursorSearch_LoadsTagsOfThePageInOneQuery() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setPaginationMode("cursor");
+        request.setPageSize(SAMPLE_COUNT);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(SAMPLE_COUNT, response.getRows().size());
+        assertTrue(statistics.getPrepareStatementCount() <= 3,
+                "Expected at most 3 statements but got " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindAll_LoadsTagsInOneQueryPerBatch() {
+        FindResponse<Sample> response = sampleFindService.findAll();
+
+        assertEquals(SAMPLE_COUNT, response.getCount());
+        List<Sample> samples = response.getData();
+        assertEquals(2, samples.stream().filter(sample -> sample.getName().equals("Count1")).findFirst()
+                .orElseThrow().getTags().size());
+        // Sample query and a single tag query
+        assertTrue(statistics.getPrepareStatementCount() <= 2,
+                "Expected at most 2 statements but got " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testStreamedExport_ReadsOneQueryWithoutLoadingEntities() throws Exception {
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        sampleExportService.streamSamples(form).getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        // Header and one line per sample
+        assertEquals(SAMPLE_COUNT + 1, lines.length);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void testStreamedExport_SelectedColumns_ReadsOneQueryWithoutTags() throws Exception {
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setColumns(List.of("id", "name"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        sampleExportService.streamSamples(form).getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(SAMPLE_COUNT + 1, lines.length);
+        assertEquals("\"ID\",\"Name\"", lines[0]);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void testStreamedExport_TagsColumn_LoadsTagsInOneQueryPerBatch() throws Exception {
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("csv");
+        form.setColumns(List.of("name", "tags"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        sampleExportService.streamSamples(form).getBody().writeTo(out);
+
+        String content = out.toString(StandardCharsets.UTF_8);
+        assertTrue(content.contains("\"Count1\",\"count-blue, count-red\""));
+        assertTrue(content.contains("\"Count0\",\"count-red\""));
+        // Sample query and a single tag query, the samples fitting in one fetch
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getCollectionLoadCount());
+    }
+
+    @Test
+    void testStreamedNdjsonExport_WithoutColumns_LoadsTagsInOneQueryPerBatch() throws Exception {
+        SampleExportForm form = new SampleExportForm();
+        form.setFormat("ndjson");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        sampleExportService.streamSamples(form).getBody().writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(SAMPLE_COUNT, lines.length);
+        String count1 = List.of(lines).stream().filter(line -> line.contains("\"name\":\"Count1\""))
+                .findFirst().orElseThrow();
+        assertTrue(count1.contains("\"count-red\"") && count1.contains("\"count-blue\""), count1);
+        // Sample query and a single tag query, the samples fitting in one fetch
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,138 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.sun.management.ThreadMXBean;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+import fr.tiogars.starter.tag.entities.TagEntity;
+import fr.tiogars.starter.tag.repositories.TagRepository;
+import jakarta.persistence.EntityManager;
+
+/**
+ * Compares the heap allocated while reading a search page as managed entities copied into models
+ * (the former search path) and as models selected directly with a projection (the current one).
+ * The bytes per row of both paths are logged, so the numbers can be reproduced with
+ * {@code mvn test -Dtest=SampleSearchAllocationTest}.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class SampleSearchAllocationTest {
+
+    private static final Logger logger = Logger.getLogger(SampleSearchAllocationTest.class.getName());
+
+    private static final int SAMPLE_COUNT = 500;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static final Specification<SampleEntity> ALL_SAMPLES =
+            (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @Autowired
+    private SampleFindService sampleFindService;
+
+    @Autowired
+    private TagRepository tagRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final Pageable page = PageRequest.of(0, SAMPLE_COUNT, Sort.by("id"));
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository.deleteAll();
+
+        TagEntity red = tagRepository.save(new TagEntity("alloc-red"));
+        TagEntity blue = tagRepository.save(new TagEntity("alloc-blue"));
+        Date now = new Date();
+        List<SampleEntity> entities = new ArrayList<>(SAMPLE_COUNT);
+        for (int i = 0; i < SAMPLE_COUNT; i++) {
+            SampleEntity entity = new SampleEntity();
+            entity.setName("Alloc" + i);
+            entity.setDescription("Allocation sample " + i);
+            entity.setActive(i % 2 == 0);
+            entity.setCreatedAt(now);
+            entity.setCreatedBy("admin");
+            entity.setUpdatedAt(now);
+            entity.setUpdatedBy("admin");
+            entity.setTags(i % 3 == 0 ? Set.of(red) : Set.of(red, blue));
+            entities.add(entity);
+        }
+        sampleRepository.saveAll(entities);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testSearchPage_ProjectionAllocatesLessThanEntities() {
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+                "Thread allocation accounting is not available on this JVM");
+
+        Supplier<List<Sample>> entities = () -> sampleRepository.findAll(ALL_SAMPLES, page).getContent()
+                .stream()
+                .map(sampleFindService::toModel)
+                .toList();
+        Supplier<List<Sample>> projections = () -> sampleRepository.findSamples(ALL_SAMPLES, page).getContent();
+
+        long entityBytes = measure(threads, entities);
+        long projectionBytes = measure(threads, projections);
+
+        logger.info(String.format("Search page of %d samples: entities %d bytes/row, projections %d bytes/row",
+                SAMPLE_COUNT, entityBytes / SAMPLE_COUNT, projectionBytes / SAMPLE_COUNT));
+        assertTrue(projectionBytes < entityBytes, "Expected the projection read (" + projectionBytes
+                + " bytes) to allocate less than the entity read (" + entityBytes + " bytes)");
+    }
+
+    /**
+     * Return the median number of bytes allocated by the current thread to read the page,
+     * starting each round from an empty persistence context.
+     */
+    private long measure(ThreadMXBean threads, Supplier<List<Sample>> read) {
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            assertEquals(SAMPLE_COUNT, read.get().size());
+            entityManager.clear();
+        }
+
+        long[] rounds = new long[MEASURED_ROUNDS];
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            List<Sample> samples = read.get();
+            rounds[i] = threads.getThreadAllocatedBytes(threadId) - before;
+            assertEquals(SAMPLE_COUNT, samples.size());
+            entityManager.clear();
+        }
+        Arrays.sort(rounds);
+        return rounds[MEASURED_ROUNDS / 2];
+    }
+}
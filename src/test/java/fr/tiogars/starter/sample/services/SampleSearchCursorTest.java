@@ -0,0 +1,51 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class SampleSearchCursorTest {
+
+    @Test
+    void testEncodeDecode_RoundTripsValuesAndDirection() {
+        SampleSearchCursor cursor = new SampleSearchCursor(true, "name:asc,id:asc",
+                Arrays.asList("Café ~ 50%", "42"));
+
+        SampleSearchCursor decoded = SampleSearchCursor.decode(cursor.encode());
+
+        assertTrue(decoded.isBackward());
+        assertEquals("name:asc,id:asc", decoded.getSortSignature());
+        assertEquals(Arrays.asList("Café ~ 50%", "42"), decoded.getValues());
+    }
+
+    @Test
+    void testEncodeDecode_KeepsNullValues() {
+        SampleSearchCursor cursor = new SampleSearchCursor(false, "description:desc,id:asc",
+                Arrays.asList(null, "7"));
+
+        SampleSearchCursor decoded = SampleSearchCursor.decode(cursor.encode());
+
+        assertFalse(decoded.isBackward());
+        assertEquals(Arrays.asList(null, "7"), decoded.getValues());
+    }
+
+    @Test
+    void testEncode_IsUrlSafe() {
+        String token = new SampleSearchCursor(false, "id:desc", Arrays.asList("123456789")).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+    }
+
+    @Test
+    void testDecode_MalformedToken_Throws() {
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class,
+                () -> SampleSearchCursor.decode("%%%"));
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class,
+                () -> SampleSearchCursor.decode("djE"));
+    }
+}
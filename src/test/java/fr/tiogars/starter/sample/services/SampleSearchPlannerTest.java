@@ -0,0 +1,162 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
+import fr.tiogars.starter.sample.models.SortItem;
+import fr.tiogars.starter.sample.repositories.SampleSearchCapabilities;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+
+class SampleSearchPlannerTest {
+
+    private SampleSearchPlanner planner;
+
+    @BeforeEach
+    void setUp() {
+        planner = new SampleSearchPlanner(2, mock(SampleSearchCapabilities.class));
+    }
+
+    @Test
+    void testPlan_SameShapeDifferentValues_ReusesPlan() {
+        SampleSearchPlan first = planner.plan(filter("name", "contains", "abc"), null);
+        SampleSearchPlan second = planner.plan(filter("name", "contains", "xyz"), null);
+
+        assertSame(first, second);
+        assertEquals(1, planner.cachedPlanCount());
+    }
+
+    @Test
+    void testPlan_DifferentOperatorOrValueType_CompilesNewPlan() {
+        SampleSearchPlan numberValue = planner.plan(filter("id", "=", 1), null);
+        SampleSearchPlan textValue = planner.plan(filter("id", "=", "1"), null);
+
+        assertNotSame(numberValue, textValue);
+    }
+
+    @Test
+    void testPlan_CacheIsBounded() {
+        planner.plan(filter("name", "contains", "a"), null);
+        planner.plan(filter("name", "startsWith", "a"), null);
+        planner.plan(filter("name", "endsWith", "a"), null);
+
+        assertEquals(2, planner.cachedPlanCount());
+    }
+
+    @Test
+    void testPlan_DefaultSortIsIdDescending() {
+        SampleSearchPlan plan = planner.plan(null, null);
+
+        assertEquals(Sort.by(Sort.Direction.DESC, "id"), plan.getSort());
+    }
+
+    @Test
+    void testPlan_CompilesSortModel() {
+        SampleSearchPlan plan = planner.plan(null, Arrays.asList(sort("name", "desc"), sort("createdAt", "asc")));
+
+        assertEquals(Sort.by(Sort.Order.desc("name"), Sort.Order.asc("createdAt")), plan.getSort());
+    }
+
+    @Test
+    void testPlan_UnknownSortField_Throws() {
+        List<SortItem> sortModel = Arrays.asList(sort("unknown", "asc"));
+
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class, () -> planner.plan(null, sortModel));
+    }
+
+    @Test
+    void testPlan_NullSortField_Throws() {
+        List<SortItem> sortModel = Arrays.asList(sort(null, "asc"));
+
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class, () -> planner.plan(null, sortModel));
+    }
+
+    @Test
+    void testPlan_RelevanceSort_IsKeptOutOfTheColumnSort() {
+        SampleSearchPlan plan = planner.plan(null, Arrays.asList(sort("relevance", "desc"), sort("name", "asc")));
+
+        assertTrue(plan.hasRelevanceSort());
+        assertEquals(Sort.by(Sort.Order.asc("name")), plan.getSort());
+    }
+
+    @Test
+    void testPlan_RelevanceOnly_FallsBackToIdDescending() {
+        SampleSearchPlan plan = planner.plan(null, Arrays.asList(sort("relevance", "desc")));
+
+        assertTrue(plan.hasRelevanceSort());
+        assertEquals(Sort.by(Sort.Direction.DESC, "id"), plan.getSort());
+    }
+
+    @Test
+    void testPlan_QuickFilterValues_ArePartOfTheShape() {
+        FilterModel withQuickFilter = filter("name", "contains", "a");
+        withQuickFilter.setQuickFilterValues(Arrays.asList("alpha"));
+
+        SampleSearchPlan plain = planner.plan(filter("name", "contains", "a"), null);
+        SampleSearchPlan quick = planner.plan(withQuickFilter, null);
+
+        assertNotSame(plain, quick);
+        assertFalse(quick.hasRelevanceSort());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testBind_UnconvertibleValue_SkipsFilter() {
+        FilterModel filterModel = filter("id", "=", "notanumber");
+        SampleSearchPlan plan = planner.plan(filterModel, null);
+        Root<SampleEntity> root = mock(Root.class);
+        CriteriaQuery<?> query = mock(CriteriaQuery.class);
+        CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+
+        plan.bind(filterModel).toPredicate(root, query, criteriaBuilder);
+
+        verify(criteriaBuilder).conjunction();
+    }
+
+    @Test
+    void testParseLong() {
+        assertEquals(42L, SampleSearchPlanner.parseLong("42"));
+        assertEquals(-7L, SampleSearchPlanner.parseLong("-7"));
+        assertEquals(Long.MAX_VALUE, SampleSearchPlanner.parseLong(String.valueOf(Long.MAX_VALUE)));
+        assertNull(SampleSearchPlanner.parseLong("notanumber"));
+        assertNull(SampleSearchPlanner.parseLong(""));
+        assertNull(SampleSearchPlanner.parseLong("-"));
+        assertNull(SampleSearchPlanner.parseLong("1.5"));
+        assertNull(SampleSearchPlanner.parseLong("99999999999999999999"));
+    }
+
+    private static FilterModel filter(String field, String operator, Object value) {
+        FilterItem item = new FilterItem();
+        item.setField(field);
+        item.setOperator(operator);
+        item.setValue(value);
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(Arrays.asList(item));
+        return filterModel;
+    }
+
+    private static SortItem sort(String field, String direction) {
+        SortItem item = new SortItem();
+        item.setField(field);
+        item.setSort(direction);
+        return item;
+    }
+}
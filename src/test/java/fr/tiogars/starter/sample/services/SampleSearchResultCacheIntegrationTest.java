@@ -0,0 +1,99 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
+import fr.tiogars.starter.sample.models.SampleSearchRequest;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Integration tests for the search result cache, enabled for this context.
+ * Not transactional: change events are only delivered to the cache once the write has committed.
+ */
+@SpringBootTest(properties = "sample.search.result-cache.max-entries=100")
+@ActiveProfiles("test")
+class SampleSearchResultCacheIntegrationTest {
+
+    @Autowired
+    private SampleSearchService sampleSearchService;
+
+    @Autowired
+    private SampleCreateService sampleCreateService;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @Autowired
+    private SampleSearchResultCache sampleSearchResultCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository.deleteAll();
+        sampleSearchResultCache.invalidate();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampleRepository.deleteAll();
+        sampleSearchResultCache.invalidate();
+    }
+
+    @Test
+    void testSearch_CreatedSample_InvalidatesCachedResponse() {
+        sampleCreateService.create(form("Cached1"));
+        assertEquals(1, sampleSearchService.search(request()).getRowCount());
+
+        sampleCreateService.create(form("Cached2"));
+
+        assertEquals(2, sampleSearchService.search(request()).getRowCount());
+    }
+
+    @Test
+    void testSearch_RepeatedRequest_IsServedFromCache() {
+        sampleCreateService.create(form("Cached1"));
+        sampleSearchService.search(request());
+
+        // Written without event: the cached response is still returned
+        sampleRepository.deleteAll();
+
+        assertEquals(1, sampleSearchService.search(request()).getRowCount());
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", SampleSearchResultCache.CACHE_NAME).meter());
+    }
+
+    private SampleCreateForm form(String name) {
+        SampleCreateForm form = new SampleCreateForm();
+        form.setName(name);
+        form.setDescription("Result cache sample");
+        form.setActive(true);
+        return form;
+    }
+
+    private SampleSearchRequest request() {
+        FilterItem item = new FilterItem();
+        item.setField("name");
+        item.setOperator("startsWith");
+        item.setValue("Cached");
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(new ArrayList<>(Arrays.asList(item)));
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setFilterModel(filterModel);
+        return request;
+    }
+}
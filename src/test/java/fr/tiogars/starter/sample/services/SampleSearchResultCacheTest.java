@@ -0,0 +1,169 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
+import fr.tiogars.starter.sample.models.FilterItem;
+import fr.tiogars.starter.sample.models.FilterModel;
+import fr.tiogars.starter.sample.models.SampleSearchRequest;
+import fr.tiogars.starter.sample.models.SampleSearchResponse;
+import fr.tiogars.starter.sample.models.SortItem;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SampleSearchResultCacheTest {
+
+    @Test
+    void testGet_SameRequest_SearchesOnce() {
+        SampleSearchResultCache cache = new SampleSearchResultCache(Duration.ofMinutes(1), 10, 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        SampleSearchResponse first = cache.get(request("name", "contains", "a"), () -> response(calls));
+        SampleSearchResponse second = cache.get(request("name", "contains", "a"), () -> response(calls));
+
+        assertSame(first, second);
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.cachedResponseCount());
+    }
+
+    @Test
+    void testGet_DifferentPage_SearchesAgain() {
+        SampleSearchResultCache cache = new SampleSearchResultCache(Duration.ofMinutes(1), 10, 100);
+        AtomicInteger calls = new AtomicInteger();
+        SampleSearchRequest secondPage = request("name", "contains", "a");
+        secondPage.setPage(1);
+
+        cache.get(request("name", "contains", "a"), () -> response(calls));
+        cache.get(secondPage, () -> response(calls));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testGet_PageSizeAboveLimit_BypassesCache() {
+        SampleSearchResultCache cache = new SampleSearchResultCache(Duration.ofMinutes(1), 10, 100);
+        AtomicInteger calls = new AtomicInteger();
+        SampleSearchRequest request = request("name", "contains", "a");
+        request.setPageSize(1000);
+
+        cache.get(request, () -> response(calls));
+        cache.get(request, () -> response(calls));
+
+        assertEquals(2, calls.get());
+        assertEquals(0, cache.cachedResponseCount());
+    }
+
+    @Test
+    void testGet_Disabled_AlwaysSearches() {
+        SampleSearchResultCache cache = new SampleSearchResultCache(Duration.ofMinutes(1), 0, 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get(request("name", "contains", "a"), () -> response(calls));
+        cache.get(request("name", "contains", "a"), () -> response(calls));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testOnSampleChanged_DropsCachedResponses() {
+        SampleSearchResultCache cache = new SampleSearchResultCache(Duration.ofMinutes(1), 10, 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get(request("name", "contains", "a"), () -> response(calls));
+        cache.onSampleChanged(new SampleChangedEvent("imported"));
+        cache.get(request("name", "contains", "a"), () -> response(calls));
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testGet_WriteDuringSearch_DoesNotStoreStaleResponse() {
+        SampleSearchResultCache cache = new SampleSearchResultCache(Duration.ofMinutes(1), 10, 100);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get(request("name", "contains", "a"), () -> {
+            cache.invalidate();
+            return response(calls);
+        });
+
+        assertEquals(0, cache.cachedResponseCount());
+    }
+
+    @Test
+    void testBuildKey_NormalizesEquivalentRequests() {
+        SampleSearchRequest first = request("name", "contains", "a");
+        first.getFilterModel().getItems().add(item("active", "is", true));
+        first.setTotalMode(null);
+        first.setSortModel(Arrays.asList(sort("name", "ASC")));
+        SampleSearchRequest second = request("active", "is", true);
+        second.getFilterModel().getItems().add(item("name", "contains", "a"));
+        second.setTotalMode("EXACT");
+        second.setSortModel(Arrays.asList(sort("name", "asc")));
+
+        assertEquals(SampleSearchResultCache.buildKey(first), SampleSearchResultCache.buildKey(second));
+    }
+
+    @Test
+    void testBuildKey_DistinguishesSortAndTotalMode() {
+        SampleSearchRequest sorted = request("name", "contains", "a");
+        sorted.setSortModel(Arrays.asList(sort("name", "desc")));
+        SampleSearchRequest cached = request("name", "contains", "a");
+        cached.setTotalMode("cached");
+
+        String key = SampleSearchResultCache.buildKey(request("name", "contains", "a"));
+        assertNotEquals(key, SampleSearchResultCache.buildKey(sorted));
+        assertNotEquals(key, SampleSearchResultCache.buildKey(cached));
+    }
+
+    @Test
+    void testBindTo_PublishesHitAndMissMetrics() {
+        SampleSearchResultCache cache = new SampleSearchResultCache(Duration.ofMinutes(1), 10, 100);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get(request("name", "contains", "a"), () -> response(calls));
+        cache.get(request("name", "contains", "a"), () -> response(calls));
+
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", SampleSearchResultCache.CACHE_NAME)
+                .tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", SampleSearchResultCache.CACHE_NAME)
+                .tag("result", "miss").functionCounter().count());
+    }
+
+    private SampleSearchResponse response(AtomicInteger calls) {
+        calls.incrementAndGet();
+        return new SampleSearchResponse(new ArrayList<>(), 0);
+    }
+
+    private SampleSearchRequest request(String field, String operator, Object value) {
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(new ArrayList<>(Arrays.asList(item(field, operator, value))));
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setFilterModel(filterModel);
+        return request;
+    }
+
+    private FilterItem item(String field, String operator, Object value) {
+        FilterItem item = new FilterItem();
+        item.setField(field);
+        item.setOperator(operator);
+        item.setValue(value);
+        return item;
+    }
+
+    private SortItem sort(String field, String direction) {
+        SortItem item = new SortItem();
+        item.setField(field);
+        item.setSort(direction);
+        return item;
+    }
+}
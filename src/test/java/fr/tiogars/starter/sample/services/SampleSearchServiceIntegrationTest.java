@@ -1,10 +1,16 @@
 package fr.tiogars.starter.sample.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,8 +22,10 @@ import org.springframework.transaction.annotation.Transactional;
 import fr.tiogars.starter.sample.entities.SampleEntity;
 import fr.tiogars.starter.sample.models.FilterItem;
 import fr.tiogars.starter.sample.models.FilterModel;
+import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.sample.models.SampleSearchRequest;
 import fr.tiogars.starter.sample.models.SampleSearchResponse;
+import fr.tiogars.starter.sample.models.SortItem;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
 
 /**
@@ -35,6 +43,9 @@ class SampleSearchServiceIntegrationTest {
     @Autowired
     private SampleRepository sampleRepository;
 
+    @Autowired
+    private SampleCountCache sampleCountCache;
+
     private SampleEntity entity1;
     private SampleEntity entity2;
     private SampleEntity entity3;
@@ -745,4 +756,269 @@ class SampleSearchServiceIntegrationTest {
         assertNotNull(response);
         assertEquals(2, response.getRowCount());
     }
+
+    // ========== CURSOR PAGINATION TESTS ==========
+
+    @Test
+    void testCursorPagination_DefaultSort_WalksForwardAndBackward() {
+        SampleSearchRequest request = cursorRequest(2, null);
+
+        SampleSearchResponse first = sampleSearchService.search(request);
+        assertEquals(List.of("Gamma", "Beta"), names(first));
+        assertEquals(3, first.getRowCount());
+        assertNotNull(first.getNextCursor());
+        assertNull(first.getPrevCursor());
+
+        request.setCursor(first.getNextCursor());
+        SampleSearchResponse second = sampleSearchService.search(request);
+        assertEquals(List.of("Alpha"), names(second));
+        assertNull(second.getNextCursor());
+        assertNotNull(second.getPrevCursor());
+
+        request.setCursor(second.getPrevCursor());
+        SampleSearchResponse back = sampleSearchService.search(request);
+        assertEquals(List.of("Gamma", "Beta"), names(back));
+        assertNull(back.getPrevCursor());
+        assertNotNull(back.getNextCursor());
+    }
+
+    @Test
+    void testCursorPagination_SortWithTies_UsesIdAsTiebreaker() {
+        SampleSearchRequest request = cursorRequest(1, sortItem("createdAt", "asc"));
+
+        assertEquals(List.of("Alpha", "Beta", "Gamma"), walkForward(request));
+    }
+
+    @Test
+    void testCursorPagination_NullableSortKey_KeepsNullRows() {
+        SampleEntity entity4 = new SampleEntity();
+        entity4.setName("Delta");
+        entity4.setDescription(null);
+        entity4.setActive(true);
+        entity4.setCreatedAt(testDate);
+        entity4.setCreatedBy("admin");
+        entity4.setUpdatedAt(testDate);
+        entity4.setUpdatedBy("admin");
+        sampleRepository.save(entity4);
+
+        SampleSearchRequest ascending = cursorRequest(1, sortItem("description", "asc"));
+        assertEquals(List.of("Delta", "Alpha", "Beta", "Gamma"), walkForward(ascending));
+
+        SampleSearchRequest descending = cursorRequest(1, sortItem("description", "desc"));
+        assertEquals(List.of("Gamma", "Beta", "Alpha", "Delta"), walkForward(descending));
+    }
+
+    @Test
+    void testCursorPagination_WithFilter_OnlyReturnsMatchingRows() {
+        SampleSearchRequest request = cursorRequest(1, null);
+        FilterItem filter = new FilterItem();
+        filter.setField("active");
+        filter.setOperator("is");
+        filter.setValue(true);
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(Arrays.asList(filter));
+        request.setFilterModel(filterModel);
+
+        assertEquals(List.of("Gamma", "Alpha"), walkForward(request));
+    }
+
+    @Test
+    void testCursorPagination_CursorFromOtherSort_Throws() {
+        SampleSearchResponse first = sampleSearchService.search(cursorRequest(1, sortItem("name", "asc")));
+
+        SampleSearchRequest request = cursorRequest(1, sortItem("name", "desc"));
+        request.setCursor(first.getNextCursor());
+
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class,
+                () -> sampleSearchService.search(request));
+    }
+
+    @Test
+    void testCursorPagination_MalformedCursor_Throws() {
+        SampleSearchRequest request = cursorRequest(1, null);
+        request.setCursor("not-a-cursor");
+
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class,
+                () -> sampleSearchService.search(request));
+    }
+
+    @Test
+    void testCursorPagination_UnknownSortField_Throws() {
+        SampleSearchRequest request = cursorRequest(1, sortItem("unknown", "asc"));
+
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class,
+                () -> sampleSearchService.search(request));
+    }
+
+    // ========== TOTAL MODE TESTS ==========
+
+    @Test
+    void testCachedTotalMode_ReturnsExactCountAndSlice() {
+        // Counts cached by other tests sharing the context do not match this data set
+        sampleCountCache.invalidate();
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("cached");
+        request.setPageSize(2);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals("cached", response.getTotalMode());
+        assertEquals(3, response.getRowCount());
+        assertEquals(List.of("Gamma", "Beta"), names(response));
+        assertTrue(response.isHasMore());
+    }
+
+    @Test
+    void testEstimatedTotalMode_WithoutStatistics_FallsBackToTableCount() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("estimated");
+        request.setPage(1);
+        request.setPageSize(2);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals("estimated", response.getTotalMode());
+        assertEquals(3, response.getRowCount());
+        assertEquals(List.of("Alpha"), names(response));
+        assertFalse(response.isHasMore());
+    }
+
+    @Test
+    void testEstimatedTotalMode_WithFilter_ReturnsUnknownCount() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("estimated");
+        request.setPageSize(1);
+        FilterItem filter = new FilterItem();
+        filter.setField("active");
+        filter.setOperator("is");
+        filter.setValue(true);
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(Arrays.asList(filter));
+        request.setFilterModel(filterModel);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(-1, response.getRowCount());
+        assertEquals(List.of("Gamma"), names(response));
+        assertTrue(response.isHasMore());
+    }
+
+    // ========== FULL-TEXT SEARCH TESTS ==========
+
+    @Test
+    void testFullTextOperator_MatchesNameOrDescription() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        FilterItem filter = new FilterItem();
+        filter.setField("name");
+        filter.setOperator("fullText");
+        filter.setValue("SECOND");
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(Arrays.asList(filter));
+        request.setFilterModel(filterModel);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(List.of("Beta"), names(response));
+    }
+
+    @Test
+    void testQuickFilterValues_RequireAllValuesByDefault() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        FilterModel filterModel = new FilterModel();
+        filterModel.setQuickFilterValues(Arrays.asList("sample", "alp"));
+        request.setFilterModel(filterModel);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(List.of("Alpha"), names(response));
+    }
+
+    @Test
+    void testQuickFilterValues_OrLogicOperator_MatchesAnyValue() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        FilterModel filterModel = new FilterModel();
+        filterModel.setQuickFilterValues(Arrays.asList("alpha", "gamma"));
+        filterModel.setQuickFilterLogicOperator("or");
+        request.setFilterModel(filterModel);
+        request.setSortModel(Arrays.asList(sortItem("name", "asc")));
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(List.of("Alpha", "Gamma"), names(response));
+    }
+
+    @Test
+    void testQuickFilterValues_NarrowFilterItems() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        FilterItem filter = new FilterItem();
+        filter.setField("active");
+        filter.setOperator("is");
+        filter.setValue(true);
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(Arrays.asList(filter));
+        filterModel.setQuickFilterValues(Arrays.asList("sample"));
+        request.setFilterModel(filterModel);
+        request.setSortModel(Arrays.asList(sortItem("name", "asc")));
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(List.of("Alpha", "Gamma"), names(response));
+    }
+
+    @Test
+    void testRelevanceSort_OrdersByRelevanceThenBySort() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        FilterModel filterModel = new FilterModel();
+        filterModel.setQuickFilterValues(Arrays.asList("alpha", "sample"));
+        filterModel.setQuickFilterLogicOperator("or");
+        request.setFilterModel(filterModel);
+        request.setSortModel(Arrays.asList(sortItem("relevance", "desc"), sortItem("name", "desc")));
+        request.setPageSize(2);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(List.of("Alpha", "Gamma"), names(response));
+        assertEquals(3, response.getRowCount());
+    }
+
+    @Test
+    void testRelevanceSort_WithCursorPagination_Throws() {
+        SampleSearchRequest request = cursorRequest(1, sortItem("relevance", "desc"));
+
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class,
+                () -> sampleSearchService.search(request));
+    }
+
+    private SampleSearchRequest cursorRequest(int pageSize, SortItem sortItem) {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setPaginationMode("cursor");
+        request.setPageSize(pageSize);
+        if (sortItem != null) {
+            request.setSortModel(Arrays.asList(sortItem));
+        }
+        return request;
+    }
+
+    private SortItem sortItem(String field, String sort) {
+        SortItem sortItem = new SortItem();
+        sortItem.setField(field);
+        sortItem.setSort(sort);
+        return sortItem;
+    }
+
+    private List<String> names(SampleSearchResponse response) {
+        return response.getRows().stream().map(Sample::getName).toList();
+    }
+
+    private List<String> walkForward(SampleSearchRequest request) {
+        List<String> names = new ArrayList<>();
+        SampleSearchResponse response = sampleSearchService.search(request);
+        names.addAll(names(response));
+        while (response.getNextCursor() != null) {
+            request.setCursor(response.getNextCursor());
+            response = sampleSearchService.search(request);
+            names.addAll(names(response));
+        }
+        return names;
+    }
 }
@@ -1,16 +1,23 @@
 package fr.tiogars.starter.sample.services;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.OptionalLong;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -19,18 +26,23 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
-import fr.tiogars.starter.sample.entities.SampleEntity;
 import fr.tiogars.starter.sample.models.FilterItem;
 import fr.tiogars.starter.sample.models.FilterModel;
+import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.sample.models.SampleSearchRequest;
 import fr.tiogars.starter.sample.models.SampleSearchResponse;
 import fr.tiogars.starter.sample.models.SortItem;
+import fr.tiogars.starter.sample.repositories.SampleSearchCapabilities;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,36 +51,49 @@ class SampleSearchServiceTest {
     @Mock
     private SampleRepository sampleRepository;
 
+    @Mock
+    private SampleCountCache sampleCountCache;
+
+    @Spy
+    private SampleSearchPlanner sampleSearchPlanner = new SampleSearchPlanner(16, mock(SampleSearchCapabilities.class));
+
+    // Disabled, so that every search reaches the repository
+    @Spy
+    private SampleSearchResultCache sampleSearchResultCache = new SampleSearchResultCache(Duration.ZERO, 0, 0);
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private SampleSearchService sampleSearchService;
 
-    private static SampleEntity sampleEntity1;
-    private static SampleEntity sampleEntity2;
+    private static Sample sample1;
+    private static Sample sample2;
     private Date testDate;
 
     @BeforeEach
     void setUp() {
         testDate = new Date();
         
-        sampleEntity1 = new SampleEntity();
-        sampleEntity1.setId(1L);
-        sampleEntity1.setName("Sample 1");
-        sampleEntity1.setDescription("Description 1");
-        sampleEntity1.setActive(true);
-        sampleEntity1.setCreatedAt(testDate);
-        sampleEntity1.setCreatedBy("user1");
-        sampleEntity1.setUpdatedAt(testDate);
-        sampleEntity1.setUpdatedBy("user1");
-
-        sampleEntity2 = new SampleEntity();
-        sampleEntity2.setId(2L);
-        sampleEntity2.setName("Sample 2");
-        sampleEntity2.setDescription("Description 2");
-        sampleEntity2.setActive(false);
-        sampleEntity2.setCreatedAt(testDate);
-        sampleEntity2.setCreatedBy("user2");
-        sampleEntity2.setUpdatedAt(testDate);
-        sampleEntity2.setUpdatedBy("user2");
+        sample1 = new Sample();
+        sample1.setId(1L);
+        sample1.setName("Sample 1");
+        sample1.setDescription("Description 1");
+        sample1.setActive(true);
+        sample1.setCreatedAt(testDate);
+        sample1.setCreatedBy("user1");
+        sample1.setUpdatedAt(testDate);
+        sample1.setUpdatedBy("user1");
+
+        sample2 = new Sample();
+        sample2.setId(2L);
+        sample2.setName("Sample 2");
+        sample2.setDescription("Description 2");
+        sample2.setActive(false);
+        sample2.setCreatedAt(testDate);
+        sample2.setCreatedBy("user2");
+        sample2.setUpdatedAt(testDate);
+        sample2.setUpdatedBy("user2");
     }
 
     @SuppressWarnings("unchecked")
@@ -79,10 +104,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -93,7 +118,7 @@ class SampleSearchServiceTest {
         assertEquals(2, response.getRows().size());
         assertEquals("Sample 1", response.getRows().get(0).getName());
         assertEquals("Sample 2", response.getRows().get(1).getName());
-        verify(sampleRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+        verify(sampleRepository, times(1)).findSamples(any(Specification.class), any(Pageable.class));
     }
 
     @SuppressWarnings("unchecked")
@@ -104,10 +129,10 @@ class SampleSearchServiceTest {
         request.setPage(1);
         request.setPageSize(1);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(1).withPage(1), 2);
+        List<Sample> samples = Arrays.asList(sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(1).withPage(1), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -129,10 +154,10 @@ class SampleSearchServiceTest {
         sortItem.setSort("asc");
         request.setSortModel(Arrays.asList(sortItem));
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -140,7 +165,7 @@ class SampleSearchServiceTest {
         // Assert
         assertNotNull(response);
         assertEquals(2, response.getRowCount());
-        verify(sampleRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+        verify(sampleRepository, times(1)).findSamples(any(Specification.class), any(Pageable.class));
     }
 
     @SuppressWarnings("unchecked")
@@ -158,10 +183,10 @@ class SampleSearchServiceTest {
         filterModel.setItems(Arrays.asList(filterItem));
         request.setFilterModel(filterModel);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -169,7 +194,7 @@ class SampleSearchServiceTest {
         // Assert
         assertNotNull(response);
         assertEquals(2, response.getRowCount());
-        verify(sampleRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+        verify(sampleRepository, times(1)).findSamples(any(Specification.class), any(Pageable.class));
     }
 
     @SuppressWarnings("unchecked")
@@ -187,10 +212,10 @@ class SampleSearchServiceTest {
         filterModel.setItems(Arrays.asList(filterItem));
         request.setFilterModel(filterModel);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 1);
+        List<Sample> samples = Arrays.asList(sample1);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 1);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -217,10 +242,10 @@ class SampleSearchServiceTest {
         filterModel.setItems(Arrays.asList(filterItem));
         request.setFilterModel(filterModel);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 1);
+        List<Sample> samples = Arrays.asList(sample1);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 1);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -253,10 +278,10 @@ class SampleSearchServiceTest {
         filterModel.setLogicOperator("and");
         request.setFilterModel(filterModel);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 1);
+        List<Sample> samples = Arrays.asList(sample1);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 1);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -265,7 +290,7 @@ class SampleSearchServiceTest {
         assertNotNull(response);
         assertEquals(1, response.getRowCount());
         assertEquals(1, response.getRows().size());
-        verify(sampleRepository, times(1)).findAll(any(Specification.class), any(Pageable.class));
+        verify(sampleRepository, times(1)).findSamples(any(Specification.class), any(Pageable.class));
     }
 
     @SuppressWarnings("unchecked")
@@ -274,9 +299,9 @@ class SampleSearchServiceTest {
         // Arrange
         SampleSearchRequest request = new SampleSearchRequest();
         
-        Page<SampleEntity> page = new PageImpl<>(Arrays.asList(), Pageable.ofSize(10), 0);
+        Page<Sample> page = new PageImpl<>(Arrays.asList(), Pageable.ofSize(10), 0);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -297,10 +322,10 @@ class SampleSearchServiceTest {
         sortItem.setSort("desc");
         request.setSortModel(Arrays.asList(sortItem));
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity2, sampleEntity1);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample2, sample1);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         // Act
         SampleSearchResponse response = sampleSearchService.search(request);
@@ -316,7 +341,7 @@ class SampleSearchServiceTest {
     @SuppressWarnings("unchecked")
     @ParameterizedTest
     @MethodSource("numericFilterProvider")
-    void testSearch_NumericFilterOperator_CoversBranches(String operator, Object value, List<SampleEntity> expectedEntities) {
+    void testSearch_NumericFilterOperator_CoversBranches(String operator, Object value, List<Sample> expectedSamples) {
         SampleSearchRequest request = new SampleSearchRequest();
 
         FilterItem filterItem = new FilterItem();
@@ -330,28 +355,28 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
 
-        Page<SampleEntity> page = new PageImpl<>(expectedEntities, Pageable.ofSize(10), expectedEntities.size());
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        Page<Sample> page = new PageImpl<>(expectedSamples, Pageable.ofSize(10), expectedSamples.size());
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
-        assertEquals(expectedEntities.size(), response.getRowCount());
+        assertEquals(expectedSamples.size(), response.getRowCount());
     }
 
     static List<org.junit.jupiter.params.provider.Arguments> numericFilterProvider() {
         return Arrays.asList(
-            org.junit.jupiter.params.provider.Arguments.of("!=", 2, Arrays.asList(sampleEntity1)),
-            org.junit.jupiter.params.provider.Arguments.of(">", 1, Arrays.asList(sampleEntity2)),
-            org.junit.jupiter.params.provider.Arguments.of(">=", 2, Arrays.asList(sampleEntity2)),
-            org.junit.jupiter.params.provider.Arguments.of("<", 2, Arrays.asList(sampleEntity1)),
-            org.junit.jupiter.params.provider.Arguments.of("<=", 1, Arrays.asList(sampleEntity1))
+            org.junit.jupiter.params.provider.Arguments.of("!=", 2, Arrays.asList(sample1)),
+            org.junit.jupiter.params.provider.Arguments.of(">", 1, Arrays.asList(sample2)),
+            org.junit.jupiter.params.provider.Arguments.of(">=", 2, Arrays.asList(sample2)),
+            org.junit.jupiter.params.provider.Arguments.of("<", 2, Arrays.asList(sample1)),
+            org.junit.jupiter.params.provider.Arguments.of("<=", 1, Arrays.asList(sample1))
         );
     }
 
     @SuppressWarnings("unchecked")
     @ParameterizedTest
     @MethodSource("stringFilterProvider")
-    void testSearch_StringFilterOperator_CoversBranches(String field, String operator, Object value, List<SampleEntity> expectedEntities) {
+    void testSearch_StringFilterOperator_CoversBranches(String field, String operator, Object value, List<Sample> expectedSamples) {
         SampleSearchRequest request = new SampleSearchRequest();
 
         FilterItem filterItem = new FilterItem();
@@ -365,21 +390,21 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
 
-        Page<SampleEntity> page = new PageImpl<>(expectedEntities, Pageable.ofSize(10), expectedEntities.size());
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        Page<Sample> page = new PageImpl<>(expectedSamples, Pageable.ofSize(10), expectedSamples.size());
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
-        assertEquals(expectedEntities.size(), response.getRowCount());
+        assertEquals(expectedSamples.size(), response.getRowCount());
     }
 
     static List<org.junit.jupiter.params.provider.Arguments> stringFilterProvider() {
         return Arrays.asList(
-            org.junit.jupiter.params.provider.Arguments.of("name", "equals", "Sample 1", Arrays.asList(sampleEntity1)),
-            org.junit.jupiter.params.provider.Arguments.of("name", "startsWith", "Sample", Arrays.asList(sampleEntity1, sampleEntity2)),
-            org.junit.jupiter.params.provider.Arguments.of("description", "endsWith", "2", Arrays.asList(sampleEntity2)),
+            org.junit.jupiter.params.provider.Arguments.of("name", "equals", "Sample 1", Arrays.asList(sample1)),
+            org.junit.jupiter.params.provider.Arguments.of("name", "startsWith", "Sample", Arrays.asList(sample1, sample2)),
+            org.junit.jupiter.params.provider.Arguments.of("description", "endsWith", "2", Arrays.asList(sample2)),
             org.junit.jupiter.params.provider.Arguments.of("name", "isEmpty", "", Arrays.asList()),
-            org.junit.jupiter.params.provider.Arguments.of("name", "isNotEmpty", "", Arrays.asList(sampleEntity1, sampleEntity2))
+            org.junit.jupiter.params.provider.Arguments.of("name", "isNotEmpty", "", Arrays.asList(sample1, sample2))
         );
     }
 
@@ -400,10 +425,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -428,10 +453,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -456,10 +481,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -489,10 +514,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -512,10 +537,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
 
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
 
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -563,10 +588,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -582,10 +607,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -601,10 +626,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity1, sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample1, sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -629,10 +654,10 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity2, sampleEntity1);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 2);
+        List<Sample> samples = Arrays.asList(sample2, sample1);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 2);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
@@ -656,13 +681,163 @@ class SampleSearchServiceTest {
         request.setPage(0);
         request.setPageSize(10);
         
-        List<SampleEntity> entities = Arrays.asList(sampleEntity2);
-        Page<SampleEntity> page = new PageImpl<>(entities, Pageable.ofSize(10), 1);
+        List<Sample> samples = Arrays.asList(sample2);
+        Page<Sample> page = new PageImpl<>(samples, Pageable.ofSize(10), 1);
         
-        when(sampleRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(page);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
 
         SampleSearchResponse response = sampleSearchService.search(request);
         assertNotNull(response);
         assertEquals(1, response.getRowCount());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearch_ExactTotalMode_ReportsModeAndHasMore() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setPageSize(1);
+
+        Page<Sample> page = new PageImpl<>(Arrays.asList(sample1), Pageable.ofSize(1), 2);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class))).thenReturn(page);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals("exact", response.getTotalMode());
+        assertEquals(2, response.getRowCount());
+        assertTrue(response.isHasMore());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearch_CachedTotalMode_UsesCountCacheAndSkipsPageCount() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("cached");
+
+        when(sampleRepository.findSampleSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(sample1, sample2), Pageable.ofSize(10), true));
+        when(sampleCountCache.getCount(any(), any())).thenReturn(42L);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals("cached", response.getTotalMode());
+        assertEquals(42, response.getRowCount());
+        assertEquals(2, response.getRows().size());
+        assertTrue(response.isHasMore());
+        verify(sampleRepository, never()).findSamples(any(Specification.class), any(Pageable.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearch_EstimatedTotalModeWithoutFilter_UsesTableStatistics() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("estimated");
+
+        when(sampleRepository.findSampleSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(sample1), Pageable.ofSize(10), false));
+        when(sampleRepository.estimateRowCount()).thenReturn(OptionalLong.of(1000L));
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals("estimated", response.getTotalMode());
+        assertEquals(1000, response.getRowCount());
+        assertFalse(response.isHasMore());
+        verify(sampleRepository, never()).count(any(Specification.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearch_EstimatedTotalModeWithoutStatistics_FallsBackToTableCount() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("estimated");
+
+        when(sampleRepository.findSampleSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(sample1), Pageable.ofSize(10), false));
+        when(sampleRepository.estimateRowCount()).thenReturn(OptionalLong.empty());
+        when(sampleRepository.count()).thenReturn(7L);
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(7, response.getRowCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearch_EstimatedTotalModeWithFilter_ReturnsUnknownCount() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("estimated");
+        FilterItem filterItem = new FilterItem();
+        filterItem.setField("name");
+        filterItem.setOperator("contains");
+        filterItem.setValue("Sample");
+        FilterModel filterModel = new FilterModel();
+        filterModel.setItems(Arrays.asList(filterItem));
+        request.setFilterModel(filterModel);
+
+        when(sampleRepository.findSampleSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(sample1), Pageable.ofSize(10), true));
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        assertEquals(-1, response.getRowCount());
+        assertTrue(response.isHasMore());
+        verify(sampleRepository, never()).count(any(Specification.class));
+        verify(sampleRepository, never()).estimateRowCount();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearch_EstimatedTotalModeWithQuickFilter_ReturnsUnknownCount() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("estimated");
+        FilterModel filterModel = new FilterModel();
+        filterModel.setQuickFilterValues(Arrays.asList("Sample"));
+        request.setFilterModel(filterModel);
+
+        when(sampleRepository.findSampleSlice(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new SliceImpl<>(Arrays.asList(sample1), Pageable.ofSize(10), true));
+
+        SampleSearchResponse response = sampleSearchService.search(request);
+
+        // Not the estimated row count of the whole table
+        assertEquals(-1, response.getRowCount());
+        verify(sampleRepository, never()).estimateRowCount();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testSearch_CacheHit_OpensNoTransaction() {
+        SampleSearchService service = new SampleSearchService(sampleRepository, sampleCountCache, sampleSearchPlanner,
+                new SampleSearchResultCache(Duration.ofMinutes(1), 10, 100), transactionManager);
+        when(sampleRepository.findSamples(any(Specification.class), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Arrays.asList(sample1), Pageable.ofSize(10), 1));
+
+        service.search(new SampleSearchRequest());
+        service.search(new SampleSearchRequest());
+
+        // Only the miss reads the database, in a read-only transaction
+        verify(transactionManager, times(1)).getTransaction(argThat(TransactionDefinition::isReadOnly));
+        verify(sampleRepository, times(1)).findSamples(any(Specification.class), any(Pageable.class));
+    }
+
+    @Test
+    void testSearch_UnknownSortField_Throws() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        SortItem sortItem = new SortItem();
+        sortItem.setField("password");
+        sortItem.setSort("asc");
+        request.setSortModel(Arrays.asList(sortItem));
+
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class,
+                () -> sampleSearchService.search(request));
+        verify(sampleRepository, never()).findSamples(any(), any());
+    }
+
+    @Test
+    void testSearch_UnknownTotalMode_Throws() {
+        SampleSearchRequest request = new SampleSearchRequest();
+        request.setTotalMode("approximate");
+
+        assertThrows(SampleSearchService.InvalidSearchRequestException.class,
+                () -> sampleSearchService.search(request));
+    }
 }
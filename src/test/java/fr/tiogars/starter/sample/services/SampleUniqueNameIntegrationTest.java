@@ -0,0 +1,88 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import fr.tiogars.starter.common.exception.GlobalExceptionHandler;
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.forms.SampleUpdateForm;
+import fr.tiogars.starter.sample.models.Sample;
+import fr.tiogars.starter.sample.repositories.SampleRepository;
+
+/**
+ * Checks that a duplicate name rejected by the uk_sample_name index on create and update
+ * is answered with a 409 Conflict rather than a server error.
+ * Not transactional: the update is only flushed when its own transaction commits.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SampleUniqueNameIntegrationTest {
+
+    @Autowired
+    private SampleCreateService sampleCreateService;
+
+    @Autowired
+    private SampleUpdateService sampleUpdateService;
+
+    @Autowired
+    private SampleRepository sampleRepository;
+
+    @Autowired
+    private GlobalExceptionHandler globalExceptionHandler;
+
+    @BeforeEach
+    void setUp() {
+        sampleRepository.deleteAll();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sampleRepository.deleteAll();
+    }
+
+    @Test
+    void testCreate_DuplicateName_MapsToConflict() {
+        sampleCreateService.create(form("Unique1"));
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> sampleCreateService.create(form("Unique1")));
+
+        assertEquals(HttpStatus.CONFLICT,
+                globalExceptionHandler.handleDataIntegrityViolationException(exception).getStatusCode());
+        assertEquals(1, sampleRepository.count());
+    }
+
+    @Test
+    void testUpdate_NameOfAnotherSample_MapsToConflict() {
+        sampleCreateService.create(form("Unique1"));
+        Sample other = sampleCreateService.create(form("Unique2"));
+        SampleUpdateForm update = new SampleUpdateForm();
+        update.setId(other.getId());
+        update.setName("Unique1");
+        update.setActive(true);
+
+        DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class,
+                () -> sampleUpdateService.update(update));
+
+        assertEquals(HttpStatus.CONFLICT,
+                globalExceptionHandler.handleDataIntegrityViolationException(exception).getStatusCode());
+        assertEquals("Unique2", sampleRepository.findById(other.getId()).orElseThrow().getName());
+    }
+
+    private SampleCreateForm form(String name) {
+        SampleCreateForm form = new SampleCreateForm();
+        form.setName(name);
+        form.setDescription("Unique name sample");
+        form.setActive(true);
+        return form;
+    }
+}
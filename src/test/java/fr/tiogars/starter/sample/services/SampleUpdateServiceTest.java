@@ -13,8 +13,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import fr.tiogars.starter.sample.entities.SampleEntity;
+import fr.tiogars.starter.sample.events.SampleChangedEvent;
 import fr.tiogars.starter.sample.forms.SampleUpdateForm;
 import fr.tiogars.starter.sample.models.Sample;
 import fr.tiogars.starter.sample.repositories.SampleRepository;
@@ -31,6 +33,9 @@ class SampleUpdateServiceTest {
     @Mock
     private Validator validator;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private SampleUpdateService sampleUpdateService;
 
@@ -92,6 +97,7 @@ class SampleUpdateServiceTest {
         verify(sampleRepository, times(1)).findById(1L);
         verify(validator, times(1)).validate(any(Sample.class));
         verify(sampleRepository, times(1)).save(any(SampleEntity.class));
+        verify(eventPublisher, times(1)).publishEvent(any(SampleChangedEvent.class));
     }
 
     @Test
@@ -0,0 +1,107 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.poi.xssf.usermodel.XSSFRow;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import fr.tiogars.starter.sample.forms.SampleCreateForm;
+import fr.tiogars.starter.sample.services.SampleFileImportService.InvalidImportFileException;
+
+class SampleXlsxReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRead_ExportOverSeveralSheets_ReadsEveryRow() throws Exception {
+        // Arrange: 2 data rows per sheet, with the tags column
+        List<SampleExportColumn> columns = List.of(SampleExportColumn.ID, SampleExportColumn.NAME,
+                SampleExportColumn.DESCRIPTION, SampleExportColumn.ACTIVE, SampleExportColumn.TAGS);
+        File file = tempDir.resolve("samples.xlsx").toFile();
+        try (SampleXlsxWriter writer = new SampleXlsxWriter(columns, 3);
+             OutputStream out = Files.newOutputStream(file.toPath())) {
+            writer.write(SampleFileReaderTest.sample("Sample1", "First", true, "red"));
+            writer.write(SampleFileReaderTest.sample("Sample2", null, false));
+            writer.write(SampleFileReaderTest.sample("Sample3", "Third", true, "red", "blue"));
+            writer.finish(out);
+        }
+
+        // Act
+        List<SampleCreateForm> forms = new ArrayList<>();
+        SampleXlsxReader.read(file, forms::add);
+
+        // Assert
+        assertEquals(List.of("Sample1", "Sample2", "Sample3"),
+                forms.stream().map(SampleCreateForm::getName).toList());
+        assertEquals("First", forms.get(0).getDescription());
+        assertTrue(forms.get(0).isActive());
+        assertEquals(Set.of("red"), forms.get(0).getTagNames());
+        assertNull(forms.get(1).getDescription());
+        assertFalse(forms.get(1).isActive());
+        assertTrue(forms.get(1).getTagNames().isEmpty());
+        assertEquals(Set.of("red", "blue"), forms.get(2).getTagNames());
+    }
+
+    @Test
+    void testRead_MissingCells_LeftEmpty() throws Exception {
+        // Arrange: a hand-written sheet with a gap before the name
+        File file = tempDir.resolve("gaps.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook();
+             OutputStream out = Files.newOutputStream(file.toPath())) {
+            XSSFSheet sheet = workbook.createSheet("Imported");
+            XSSFRow header = sheet.createRow(0);
+            header.createCell(0).setCellValue("Description");
+            header.createCell(2).setCellValue("Name");
+            XSSFRow row = sheet.createRow(2);
+            row.createCell(2).setCellValue("Sample1");
+            workbook.write(out);
+        }
+
+        // Act
+        List<SampleCreateForm> forms = new ArrayList<>();
+        SampleXlsxReader.read(file, forms::add);
+
+        // Assert
+        assertEquals(1, forms.size());
+        assertEquals("Sample1", forms.get(0).getName());
+        assertNull(forms.get(0).getDescription());
+    }
+
+    @Test
+    void testRead_NoNameColumn_ThrowsWithSheetName() throws Exception {
+        // Arrange
+        File file = tempDir.resolve("unnamed.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook();
+             OutputStream out = Files.newOutputStream(file.toPath())) {
+            workbook.createSheet("Imported").createRow(0).createCell(0).setCellValue("Description");
+            workbook.write(out);
+        }
+
+        // Act & Assert
+        InvalidImportFileException e = assertThrows(InvalidImportFileException.class,
+                () -> SampleXlsxReader.read(file, form -> { }));
+        assertTrue(e.getMessage().startsWith("Sheet 'Imported'"));
+    }
+
+    @Test
+    void testRead_NotAWorkbook_Throws() throws Exception {
+        // Arrange
+        File file = tempDir.resolve("text.xlsx").toFile();
+        Files.writeString(file.toPath(), "Name\nSample1\n");
+
+        // Act & Assert
+        assertThrows(InvalidImportFileException.class, () -> SampleXlsxReader.read(file, form -> { }));
+    }
+}
@@ -0,0 +1,126 @@
+package fr.tiogars.starter.sample.services;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import fr.tiogars.starter.sample.models.Sample;
+
+class SampleXlsxWriterTest {
+
+    @Test
+    void testWrite_FullSheet_ContinuesOnNewSheet() throws Exception {
+        // Arrange: 2 data rows per sheet
+        byte[] content;
+        try (SampleXlsxWriter writer = new SampleXlsxWriter(SampleExportColumn.DEFAULT_COLUMNS, 3);
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            for (long id = 1; id <= 5; id++) {
+                writer.write(sample(id, "Sample" + id));
+            }
+
+            // Act
+            writer.finish(out);
+            assertEquals(5, writer.getRowCount());
+            content = out.toByteArray();
+        }
+
+        // Assert
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(content))) {
+            assertEquals(3, workbook.getNumberOfSheets());
+            assertEquals("Samples", workbook.getSheetName(0));
+            assertEquals("Samples 2", workbook.getSheetName(1));
+            assertEquals("Samples 3", workbook.getSheetName(2));
+            for (int i = 0; i < 3; i++) {
+                assertEquals("ID", workbook.getSheetAt(i).getRow(0).getCell(0).getStringCellValue());
+            }
+            assertEquals("Sample4", workbook.getSheetAt(1).getRow(2).getCell(1).getStringCellValue());
+            assertEquals("Sample5", workbook.getSheetAt(2).getRow(1).getCell(1).getStringCellValue());
+            assertNull(workbook.getSheetAt(2).getRow(2));
+        }
+    }
+
+    @Test
+    void testFinish_SetsHeaderStyleAndEstimatedWidths() throws Exception {
+        // Arrange
+        String longName = "A sample with a rather long name";
+        byte[] content;
+        try (SampleXlsxWriter writer = new SampleXlsxWriter();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            writer.write(sample(1L, longName));
+
+            // Act
+            writer.finish(out);
+            content = out.toByteArray();
+        }
+
+        // Assert
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(content))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Cell header = sheet.getRow(0).getCell(0);
+            assertTrue(workbook.getFontAt(header.getCellStyle().getFontIndex()).getBold());
+            assertEquals((longName.length() + 2) * 256, sheet.getColumnWidth(1));
+            assertEquals(("Description".length() + 2) * 256, sheet.getColumnWidth(2));
+            assertEquals(1, sheet.getPaneInformation().getHorizontalSplitPosition());
+        }
+    }
+
+    @Test
+    void testFinish_NoSample_WritesHeaderOnly() throws Exception {
+        // Arrange
+        byte[] content;
+        try (SampleXlsxWriter writer = new SampleXlsxWriter();
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+
+            // Act
+            writer.finish(out);
+            content = out.toByteArray();
+        }
+
+        // Assert
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(content))) {
+            assertEquals(1, workbook.getNumberOfSheets());
+            assertEquals(SampleExportColumn.DEFAULT_COLUMNS.size(), workbook.getSheetAt(0).getRow(0).getLastCellNum());
+            assertNull(workbook.getSheetAt(0).getRow(1));
+        }
+    }
+
+    @Test
+    void testWrite_SelectedColumns_WritesOnlyThoseColumns() throws Exception {
+        // Arrange
+        byte[] content;
+        try (SampleXlsxWriter writer = new SampleXlsxWriter(
+                List.of(SampleExportColumn.NAME, SampleExportColumn.ID));
+             ByteArrayOutputStream out = new ByteArrayOutputStream()) {
+            writer.write(sample(7L, "Sample7"));
+
+            // Act
+            writer.finish(out);
+            content = out.toByteArray();
+        }
+
+        // Assert
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(content))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            assertEquals(2, sheet.getRow(0).getLastCellNum());
+            assertEquals("Name", sheet.getRow(0).getCell(0).getStringCellValue());
+            assertEquals("ID", sheet.getRow(0).getCell(1).getStringCellValue());
+            assertEquals("Sample7", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals(7, sheet.getRow(1).getCell(1).getNumericCellValue());
+        }
+    }
+
+    private Sample sample(Long id, String name) {
+        Sample sample = new Sample();
+        sample.setId(id);
+        sample.setName(name);
+        sample.setActive(true);
+        return sample;
+    }
+}